@@ -0,0 +1,83 @@
+package com.example.hubspotdemo.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 比较两个版本的 JMH 结果文件（-rf json 输出），逐项打印得分变化
+ * <p>
+ * 变差超过阈值且超出两次结果误差之和的项标记为回退，存在回退时以非零状态码退出。
+ * 吞吐量模式得分越高越好，其他模式得分越低越好。
+ * <p>
+ * 用法：BenchmarkComparison &lt;基线结果&gt; &lt;当前结果&gt; [阈值百分比，默认 10]
+ */
+public final class BenchmarkComparison {
+
+    private record Score(String mode, double score, double error, String unit) {
+    }
+
+    private BenchmarkComparison() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("用法: BenchmarkComparison <基线结果> <当前结果> [阈值百分比]");
+            System.exit(2);
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 10;
+        Map<String, Score> baseline = read(new File(args[0]));
+        Map<String, Score> current = read(new File(args[1]));
+
+        int regressions = 0;
+        System.out.printf("%-90s %14s %14s %9s%n", "基准测试", "基线", "当前", "变化");
+        for (Map.Entry<String, Score> entry : current.entrySet()) {
+            Score now = entry.getValue();
+            Score before = baseline.get(entry.getKey());
+            if (before == null || !before.unit().equals(now.unit())) {
+                System.out.printf("%-90s %14s %14.3f %9s  %s%n", entry.getKey(), "-", now.score(), "-", now.unit());
+                continue;
+            }
+            double change = (now.score() - before.score()) / before.score() * 100;
+            // 吞吐量下降或耗时上升为变差
+            double worse = now.mode().equals("thrpt") ? -change : change;
+            boolean regression = worse > threshold
+                    && Math.abs(now.score() - before.score()) > before.error() + now.error();
+            if (regression) {
+                regressions++;
+            }
+            System.out.printf("%-90s %14.3f %14.3f %+8.1f%%  %s%s%n", entry.getKey(), before.score(), now.score(),
+                    change, now.unit(), regression ? "  回退" : "");
+        }
+        System.out.printf("共 %d 项，回退 %d 项（阈值 %.1f%%）%n", current.size(), regressions, threshold);
+        if (regressions > 0) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * 读取结果文件，键为基准测试名称加参数
+     */
+    private static Map<String, Score> read(File file) throws IOException {
+        Map<String, Score> scores = new LinkedHashMap<>();
+        for (JsonNode result : new ObjectMapper().readTree(file)) {
+            StringBuilder key = new StringBuilder(result.path("benchmark").asText());
+            Iterator<Map.Entry<String, JsonNode>> params = result.path("params").fields();
+            while (params.hasNext()) {
+                Map.Entry<String, JsonNode> param = params.next();
+                key.append(key.indexOf(":") < 0 ? ":" : ",").append(param.getKey()).append('=')
+                        .append(param.getValue().asText());
+            }
+            JsonNode metric = result.path("primaryMetric");
+            double error = metric.path("scoreError").asDouble(0);
+            scores.put(key.toString(), new Score(result.path("mode").asText(), metric.path("score").asDouble(),
+                    Double.isNaN(error) ? 0 : error, metric.path("scoreUnit").asText()));
+        }
+        return scores;
+    }
+}
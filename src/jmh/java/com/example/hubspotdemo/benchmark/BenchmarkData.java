@@ -0,0 +1,181 @@
+package com.example.hubspotdemo.benchmark;
+
+import com.example.hubspotdemo.cache.HubSpotPropertiesCache;
+import com.example.hubspotdemo.cache.PropertiesSnapshotStore;
+import com.example.hubspotdemo.config.PropertiesCacheConfig;
+import com.example.hubspotdemo.model.HubSpotPropertiesResponse;
+import com.example.hubspotdemo.model.HubSpotProperty;
+import com.example.hubspotdemo.service.ContactService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.lang.reflect.Proxy;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * 基准测试数据，按固定种子生成，保证不同版本之间的结果可以比较
+ * <p>
+ * 属性名形如 custom_field_000，类型轮流为字符串、数字、日期时间、布尔和枚举，
+ * 属性值与 HubSpot 一致全部以字符串返回。
+ */
+public final class BenchmarkData {
+
+    /**
+     * 每页对象数量，与 HubSpot 列表接口的最大 limit 一致
+     */
+    public static final int PAGE_SIZE = 100;
+
+    private static final String[] TYPES = {"string", "number", "datetime", "bool", "enumeration"};
+    private static final long SEED = 20240501L;
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * 生成属性名列表
+     * @param count 属性数量
+     * @return 属性名列表
+     */
+    public static List<String> propertyNames(int count) {
+        List<String> names = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            names.add(String.format("custom_field_%03d", i));
+        }
+        return names;
+    }
+
+    /**
+     * 生成属性列表响应
+     * @param count 属性数量
+     * @return 属性列表响应
+     */
+    public static HubSpotPropertiesResponse properties(int count) {
+        List<HubSpotProperty> results = new ArrayList<>(count);
+        List<String> names = propertyNames(count);
+        for (int i = 0; i < count; i++) {
+            HubSpotProperty property = new HubSpotProperty();
+            property.setName(names.get(i));
+            property.setLabel("Custom field " + i);
+            property.setType(TYPES[i % TYPES.length]);
+            property.setFieldType(property.getType().equals("string") ? "text" : property.getType());
+            property.setGroupName("contactinformation");
+            results.add(property);
+        }
+        HubSpotPropertiesResponse response = new HubSpotPropertiesResponse();
+        response.setResults(results);
+        return response;
+    }
+
+    /**
+     * 生成一个对象的 JSON 结构
+     * @param id 对象ID
+     * @param width 属性数量
+     * @return 与 HubSpot 对象格式相同的映射
+     */
+    public static Map<String, Object> object(long id, int width) {
+        SplittableRandom random = new SplittableRandom(SEED + id);
+        Map<String, Object> properties = new LinkedHashMap<>();
+        properties.put("hs_object_id", String.valueOf(id));
+        properties.put("lastmodifieddate", "2024-05-01T10:15:30.123Z");
+        List<String> names = propertyNames(width);
+        for (int i = 0; i < width; i++) {
+            properties.put(names.get(i), value(TYPES[i % TYPES.length], random));
+        }
+        Map<String, Object> object = new LinkedHashMap<>();
+        object.put("id", String.valueOf(id));
+        object.put("properties", properties);
+        object.put("createdAt", "2023-11-20T08:00:00.000Z");
+        object.put("updatedAt", "2024-05-01T10:15:30.123Z");
+        object.put("archived", false);
+        return object;
+    }
+
+    private static String value(String type, SplittableRandom random) {
+        switch (type) {
+            case "number":
+                return String.valueOf(random.nextInt(1_000_000) / 100.0);
+            case "datetime":
+                return Instant.ofEpochMilli(1_700_000_000_000L + random.nextLong(50_000_000_000L)).toString();
+            case "bool":
+                return String.valueOf(random.nextBoolean());
+            case "enumeration":
+                return "option_" + random.nextInt(8);
+            default:
+                StringBuilder value = new StringBuilder("value ");
+                int length = 8 + random.nextInt(24);
+                for (int i = 0; i < length; i++) {
+                    value.append((char) ('a' + random.nextInt(26)));
+                }
+                return value.toString();
+        }
+    }
+
+    /**
+     * 生成列表接口的一页响应
+     * @param pageSize 对象数量
+     * @param width 每个对象的属性数量
+     * @param after 下一页游标，为 null 表示最后一页
+     * @return UTF-8 编码的 JSON
+     */
+    public static byte[] page(int pageSize, int width, String after) {
+        List<Map<String, Object>> results = new ArrayList<>(pageSize);
+        for (int i = 1; i <= pageSize; i++) {
+            results.add(object(i, width));
+        }
+        Map<String, Object> page = new LinkedHashMap<>();
+        page.put("results", results);
+        if (after != null) {
+            page.put("paging", Map.of("next", Map.of(
+                    "after", after,
+                    "link", "https://api.hubapi.com/crm/v3/objects/contacts?after=" + after)));
+        }
+        return json(page);
+    }
+
+    /**
+     * 序列化为 UTF-8 编码的 JSON
+     */
+    public static byte[] json(Object value) {
+        try {
+            return MAPPER.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 创建不依赖 Spring 容器的属性缓存，联系人的属性列表由桩服务返回，并已加载到缓存中
+     * @param contactProperties 联系人的属性列表
+     * @return 属性缓存
+     */
+    public static HubSpotPropertiesCache propertiesCache(HubSpotPropertiesResponse contactProperties) {
+        PropertiesCacheConfig cacheConfig = new PropertiesCacheConfig();
+        cacheConfig.setSnapshotEnabled(false);
+        cacheConfig.setRefreshEnabled(false);
+
+        HubSpotPropertiesCache propertiesCache = new HubSpotPropertiesCache();
+        propertiesCache.setCacheConfig(cacheConfig);
+        propertiesCache.setTaskExecutor(ForkJoinPool.commonPool());
+        propertiesCache.setMeterRegistry(new SimpleMeterRegistry());
+        propertiesCache.setSnapshotStore(new PropertiesSnapshotStore(cacheConfig));
+        propertiesCache.setContactService((ContactService) Proxy.newProxyInstance(
+                ContactService.class.getClassLoader(), new Class<?>[]{ContactService.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("getObjectProperties")) {
+                        return contactProperties;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                }));
+        propertiesCache.init();
+        propertiesCache.getPropertiesByType(HubSpotPropertiesCache.ObjectType.CONTACTS);
+        return propertiesCache;
+    }
+}
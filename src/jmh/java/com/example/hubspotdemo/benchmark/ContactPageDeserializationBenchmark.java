@@ -0,0 +1,67 @@
+package com.example.hubspotdemo.benchmark;
+
+import com.example.hubspotdemo.model.Contact;
+import com.example.hubspotdemo.model.HubSpotResponse;
+import com.example.hubspotdemo.pagination.HubSpotPageDecoder;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 联系人列表页的反序列化：每页 100 个联系人，属性数量分别为 10 和 200
+ * <p>
+ * ObjectMapper 与 RestTemplate 的 JSON 转换器使用相同的默认配置，输入为字节流，与读取 HTTP 响应体时一致。
+ * 分别测量整页反序列化为 HubSpotResponse 和 HubSpotPageDecoder 逐个解码 results 元素两种方式。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ContactPageDeserializationBenchmark {
+
+    @Param({"10", "200"})
+    private int width;
+
+    private byte[] page;
+    private ObjectReader reader;
+    private ObjectReader elementReader;
+
+    @Setup
+    public void setUp() {
+        page = BenchmarkData.page(BenchmarkData.PAGE_SIZE, width, "100");
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        JavaType pageType = objectMapper.getTypeFactory()
+                .constructParametricType(HubSpotResponse.class, Contact.class);
+        reader = objectMapper.readerFor(pageType);
+        elementReader = objectMapper.readerFor(Contact.class);
+    }
+
+    @Benchmark
+    public HubSpotResponse<Contact> deserializePage() throws IOException {
+        return reader.readValue(new ByteArrayInputStream(page));
+    }
+
+    @Benchmark
+    public HubSpotPageDecoder.PageSummary decodeStreaming(Blackhole blackhole) throws IOException {
+        return HubSpotPageDecoder.decode(elementReader, new ByteArrayInputStream(page), 0, blackhole::consume);
+    }
+}
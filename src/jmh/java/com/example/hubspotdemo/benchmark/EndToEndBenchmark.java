@@ -0,0 +1,173 @@
+package com.example.hubspotdemo.benchmark;
+
+import com.example.hubspotdemo.HubSpotDemoApplication;
+import com.example.hubspotdemo.model.Contact;
+import com.example.hubspotdemo.model.HubSpotResponse;
+import com.example.hubspotdemo.service.ContactService;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okio.Buffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import javax.net.ServerSocketFactory;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 端到端请求处理：启动完整的 Spring 容器，HubSpot API 地址指向本地的 MockWebServer
+ * <p>
+ * 测量范围包括限流、重试包装、OkHttp 拦截器（认证和指标）、RestTemplate 和 JSON 反序列化。
+ * 对象缓存和请求合并关闭，保证每次调用都真正发出 HTTP 请求；限流器保持启用但配额足够大，不会排队。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class EndToEndBenchmark {
+
+    private static final int WIDTH = 100;
+
+    private final List<String> properties = BenchmarkData.propertyNames(WIDTH);
+
+    private MockWebServer server;
+    private ConfigurableApplicationContext context;
+    private ContactService contactService;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        MockResponse properties = json(BenchmarkData.json(BenchmarkData.properties(WIDTH)));
+        MockResponse emptyProperties = json(BenchmarkData.json(BenchmarkData.properties(0)));
+        MockResponse page = json(BenchmarkData.page(BenchmarkData.PAGE_SIZE, WIDTH, "100"));
+        MockResponse contact = json(BenchmarkData.json(BenchmarkData.object(1, WIDTH)));
+        MockResponse notFound = json("{\"status\":\"error\",\"message\":\"Not found\"}".getBytes()).setResponseCode(404);
+
+        server = new MockWebServer();
+        server.setServerSocketFactory(new NoDelayServerSocketFactory());
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                String path = request.getRequestUrl().encodedPath();
+                if (path.equals("/crm/v3/properties/contacts")) {
+                    return properties;
+                }
+                if (path.startsWith("/crm/v3/properties/")) {
+                    return emptyProperties;
+                }
+                if (path.equals("/crm/v3/objects/contacts")) {
+                    return page;
+                }
+                if (path.startsWith("/crm/v3/objects/contacts/")) {
+                    return contact;
+                }
+                return notFound;
+            }
+        });
+        server.start();
+
+        String baseUrl = server.url("/").toString();
+        // 以命令行参数传入，优先级高于 application.yml
+        context = new SpringApplicationBuilder(HubSpotDemoApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(
+                        "--spring.main.banner-mode=off",
+                        "--logging.level.root=WARN",
+                        "--logging.level.com.example.hubspotdemo=WARN",
+                        "--hubspot.api.base-url=" + baseUrl.substring(0, baseUrl.length() - 1),
+                        "--hubspot.api.api-key=benchmark",
+                        "--hubspot.rate-limit.max-requests=100000000",
+                        "--hubspot.rate-limit.daily-limit=100000000000",
+                        "--hubspot.batch.coalesce-enabled=false",
+                        "--hubspot.object-cache.enabled=false",
+                        "--hubspot.properties-cache.snapshot-enabled=false",
+                        "--hubspot.properties-cache.refresh-enabled=false",
+                        "--hubspot.replica.store=memory",
+                        "--hubspot.sync.full-cron=-",
+                        "--hubspot.sync.incremental-cron=-");
+        contactService = context.getBean(ContactService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        context.close();
+        server.shutdown();
+    }
+
+    private static MockResponse json(byte[] body) {
+        // MockResponse 每次发送时复制响应体，同一个实例可以重复使用
+        return new MockResponse()
+                .setHeader("Content-Type", "application/json;charset=utf-8")
+                .setBody(new Buffer().write(body));
+    }
+
+    /**
+     * 读取一页 100 个联系人，每个联系人 100 个属性
+     */
+    @Benchmark
+    public HubSpotResponse<Contact> listPage() {
+        return contactService.getObjectsWithPagination(properties, BenchmarkData.PAGE_SIZE, null);
+    }
+
+    /**
+     * 按 ID 读取单个联系人，使用全部属性投影
+     */
+    @Benchmark
+    public Contact getById() {
+        return contactService.getObjectById("1");
+    }
+
+    /**
+     * 为接受的连接关闭 Nagle 算法。MockWebServer 分两次写出响应头和响应体，
+     * 不关闭时小响应会等待客户端的延迟确认，每次请求多出约 40 毫秒，掩盖客户端本身的开销
+     */
+    private static final class NoDelayServerSocketFactory extends ServerSocketFactory {
+
+        @Override
+        public ServerSocket createServerSocket() throws IOException {
+            return new ServerSocket() {
+                @Override
+                public Socket accept() throws IOException {
+                    Socket socket = super.accept();
+                    socket.setTcpNoDelay(true);
+                    return socket;
+                }
+            };
+        }
+
+        @Override
+        public ServerSocket createServerSocket(int port) throws IOException {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ServerSocket createServerSocket(int port, int backlog) throws IOException {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ServerSocket createServerSocket(int port, int backlog, InetAddress address) throws IOException {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.hubspotdemo.benchmark;
+
+import com.example.hubspotdemo.cache.HubSpotPropertiesCache.ObjectType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 对象类型解析：控制器、指标标签和关联关系图在每个请求上都会调用 ObjectType.fromValue
+ * <p>
+ * 分别测量第一个枚举值、最后一个枚举值，以及 API 路径中使用下划线的写法。
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ObjectTypeBenchmark {
+
+    @Param({"companies", "line-items", "line_items"})
+    private String value;
+
+    @Benchmark
+    public ObjectType fromValue() {
+        return ObjectType.fromValue(value);
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.hubspotdemo.benchmark;
+
+import com.example.hubspotdemo.cache.HubSpotPropertiesCache;
+import com.example.hubspotdemo.cache.HubSpotPropertiesCache.ObjectType;
+import com.example.hubspotdemo.model.HubSpotPropertiesResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 属性缓存命中路径在 8 个线程并发读取同一对象类型时的吞吐量
+ * <p>
+ * 每次列表、按 ID 读取和搜索请求都会经过这里，命中路径上的计数器和日志调用都在测量范围内。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class PropertiesCacheBenchmark {
+
+    private HubSpotPropertiesCache propertiesCache;
+
+    @Setup
+    public void setUp() {
+        propertiesCache = BenchmarkData.propertiesCache(BenchmarkData.properties(200));
+    }
+
+    @Benchmark
+    public HubSpotPropertiesResponse getByEnum() {
+        return propertiesCache.getPropertiesByType(ObjectType.CONTACTS);
+    }
+
+    @Benchmark
+    public HubSpotPropertiesResponse getByName() {
+        return propertiesCache.getPropertiesByType("contacts");
+    }
+}
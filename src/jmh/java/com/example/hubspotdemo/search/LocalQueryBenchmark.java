@@ -0,0 +1,100 @@
+package com.example.hubspotdemo.search;
+
+import com.example.hubspotdemo.benchmark.BenchmarkData;
+import com.example.hubspotdemo.model.Contact;
+import com.example.hubspotdemo.model.HubSpotObject;
+import com.example.hubspotdemo.model.PropertySchema;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 本地搜索在 10000 个联系人上按数字或日期时间属性过滤和排序
+ * <p>
+ * 分别测量属性保存在普通 Map 中（每次比较都解析字符串）和按属性结构紧凑存储（首次比较时解码并保存）两种情况，
+ * 对象在各次调用之间复用，与本地副本中的对象一样。放在搜索的包内，以便直接使用包内可见的 LocalQuery。
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LocalQueryBenchmark {
+
+    private static final int OBJECT_COUNT = 10_000;
+    private static final int WIDTH = 20;
+
+    /**
+     * custom_field_001 为数字属性，custom_field_002 为日期时间属性
+     */
+    @Param({"custom_field_001", "custom_field_002"})
+    private String property;
+
+    @Param({"map", "compact"})
+    private String storage;
+
+    private List<HubSpotObject> objects;
+    private LocalQuery sortQuery;
+    private LocalQuery rangeQuery;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper mapper = new ObjectMapper();
+        PropertySchema schema = PropertySchema.of(BenchmarkData.properties(WIDTH));
+        objects = new ArrayList<>(OBJECT_COUNT);
+        for (int i = 1; i <= OBJECT_COUNT; i++) {
+            Contact contact = mapper.convertValue(BenchmarkData.object(i, WIDTH), Contact.class);
+            if (storage.equals("compact")) {
+                contact.compactProperties(schema);
+            }
+            objects.add(contact);
+        }
+
+        SearchSort sort = new SearchSort();
+        sort.setPropertyName(property);
+        sort.setDirection("DESCENDING");
+        sortQuery = LocalQuery.compile(null, List.of(sort));
+
+        SearchFilter filter = new SearchFilter();
+        filter.setPropertyName(property);
+        filter.setOperator("BETWEEN");
+        boolean number = property.equals("custom_field_001");
+        filter.setValue(number ? "1000" : "2024-01-01T00:00:00Z");
+        filter.setHighValue(number ? "5000" : "2025-01-01T00:00:00Z");
+        SearchFilterGroup group = new SearchFilterGroup();
+        group.setFilters(List.of(filter));
+        rangeQuery = LocalQuery.compile(List.of(group), null);
+    }
+
+    @Benchmark
+    public List<HubSpotObject> sort() {
+        List<HubSpotObject> sorted = new ArrayList<>(objects);
+        sorted.sort(sortQuery.order());
+        return sorted;
+    }
+
+    @Benchmark
+    public int filterRange() {
+        int matches = 0;
+        for (HubSpotObject object : objects) {
+            if (rangeQuery.matches(object)) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.hubspotdemo.service.impl;
+
+import com.example.hubspotdemo.benchmark.BenchmarkData;
+import com.example.hubspotdemo.cache.HubSpotPropertiesCache;
+import com.example.hubspotdemo.cache.HubSpotPropertiesCache.ObjectType;
+import com.example.hubspotdemo.config.HubSpotConfig;
+import com.example.hubspotdemo.config.ProjectionConfig;
+import com.example.hubspotdemo.projection.PropertyProjectionRegistry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 列表接口 URL 的构建，包括 properties 查询参数
+ * <p>
+ * 分别测量使用全部属性投影（预先拼接）、命名投影，以及调用方传入属性列表（每次请求重新拼接）三种情况。
+ * 放在服务实现的包内，以便直接调用包内可见的 buildListEndpoint。
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PropertyQueryBenchmark {
+
+    @Param({"20", "120"})
+    private int propertyCount;
+
+    private ContactServiceImpl contactService;
+    private PropertyProjectionRegistry projectionRegistry;
+    private List<String> requestedProperties;
+
+    @Setup
+    public void setUp() {
+        HubSpotPropertiesCache propertiesCache =
+                BenchmarkData.propertiesCache(BenchmarkData.properties(propertyCount));
+        requestedProperties = BenchmarkData.propertyNames(propertyCount);
+
+        ProjectionConfig projectionConfig = new ProjectionConfig();
+        projectionConfig.setViews(Map.of("contacts", Map.of("list-view", requestedProperties)));
+        projectionRegistry = new PropertyProjectionRegistry(propertiesCache, projectionConfig);
+        projectionRegistry.init();
+
+        contactService = new ContactServiceImpl(null, new HubSpotConfig(), new ObjectMapper(), propertiesCache);
+        contactService.setProjectionRegistry(projectionRegistry);
+    }
+
+    @Benchmark
+    public String allPropertiesEndpoint() {
+        return contactService.buildListEndpoint(contactService.resolveProjection(null), 100, "12345");
+    }
+
+    @Benchmark
+    public String namedProjectionEndpoint() {
+        return contactService.buildListEndpoint(
+                projectionRegistry.getProjection(ObjectType.CONTACTS, "list-view"), 100, "12345");
+    }
+
+    @Benchmark
+    public String requestedPropertiesEndpoint() {
+        return contactService.buildListEndpoint(contactService.resolveProjection(requestedProperties), 100, "12345");
+    }
+}
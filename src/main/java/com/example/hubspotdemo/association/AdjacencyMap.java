@@ -0,0 +1,153 @@
+package com.example.hubspotdemo.association;
+
+import java.util.Arrays;
+import java.util.function.LongPredicate;
+
+/**
+ * 源对象ID到目标对象ID数组的开放寻址哈希表
+ * <p>
+ * 键和值都是基本类型数组，不为每个ID创建 Long 对象。HubSpot 对象ID都是正数，0 表示空槽位。
+ * 删除时将后续冲突的条目前移，不使用删除标记。非线程安全，由调用方加锁。
+ */
+final class AdjacencyMap {
+
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] keys;
+    private long[][] values;
+    private int size;
+    private long edgeCount;
+
+    AdjacencyMap() {
+        keys = new long[MIN_CAPACITY];
+        values = new long[MIN_CAPACITY][];
+    }
+
+    /**
+     * 获取源对象的目标对象ID
+     * @return 目标对象ID数组，源对象未加载时返回 null
+     */
+    long[] get(long key) {
+        int mask = keys.length - 1;
+        for (int slot = slot(key, mask); keys[slot] != 0; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return values[slot];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 保存源对象的目标对象ID，替换已有的值
+     */
+    void put(long key, long[] targets) {
+        if (key <= 0) {
+            throw new IllegalArgumentException("无效的对象ID: " + key);
+        }
+        if ((size + 1) * 2 > keys.length) {
+            resize(keys.length * 2);
+        }
+        int mask = keys.length - 1;
+        int slot = slot(key, mask);
+        while (keys[slot] != 0) {
+            if (keys[slot] == key) {
+                edgeCount += targets.length - values[slot].length;
+                values[slot] = targets;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = targets;
+        size++;
+        edgeCount += targets.length;
+    }
+
+    /**
+     * 删除源对象
+     * @return 源对象存在时返回 true
+     */
+    boolean remove(long key) {
+        int mask = keys.length - 1;
+        int slot = slot(key, mask);
+        while (keys[slot] != key) {
+            if (keys[slot] == 0) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        edgeCount -= values[slot].length;
+        size--;
+        // 后续同一探测链上的条目前移，保证查找不会因空槽位提前结束
+        int gap = slot;
+        for (int next = (gap + 1) & mask; keys[next] != 0; next = (next + 1) & mask) {
+            int home = slot(keys[next], mask);
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+        }
+        keys[gap] = 0;
+        values[gap] = null;
+        return true;
+    }
+
+    /**
+     * 删除所有不满足条件的源对象
+     * @return 删除的数量
+     */
+    int retainKeys(LongPredicate keep) {
+        long[] removed = new long[Math.min(size, MIN_CAPACITY)];
+        int count = 0;
+        for (long key : keys) {
+            if (key != 0 && !keep.test(key)) {
+                if (count == removed.length) {
+                    removed = Arrays.copyOf(removed, count * 2);
+                }
+                removed[count++] = key;
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            remove(removed[i]);
+        }
+        return count;
+    }
+
+    /**
+     * 源对象数量
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * 关联数量
+     */
+    long edgeCount() {
+        return edgeCount;
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        long[][] oldValues = values;
+        keys = new long[capacity];
+        values = new long[capacity][];
+        int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                int slot = slot(oldKeys[i], mask);
+                while (keys[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private static int slot(long key, int mask) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+}
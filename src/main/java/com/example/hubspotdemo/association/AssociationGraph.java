@@ -0,0 +1,390 @@
+package com.example.hubspotdemo.association;
+
+import com.example.hubspotdemo.cache.HubSpotPropertiesCache.ObjectType;
+import com.example.hubspotdemo.config.AssociationConfig;
+import com.example.hubspotdemo.model.HubSpotObject;
+import com.example.hubspotdemo.replica.ReplicaChangeListener;
+import com.example.hubspotdemo.replica.ReplicaStore;
+import com.example.hubspotdemo.service.AssociationService;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * 内存中的对象关联关系图
+ * <p>
+ * 每种关联（源对象类型 -> 目标对象类型）保存为源对象ID到目标对象ID数组的映射，ID 都是 long，不装箱。
+ * 关联通过 v4 批量关联接口加载，一次请求读取上千个源对象的关联。
+ * <p>
+ * 配置的关联在每次同步后刷新：全量同步后重新加载所有对象的关联，增量同步后只重新加载本次有变更的对象的关联。
+ * 本地副本尚未经过全量同步时只包含部分对象，每次同步后都按本地副本中的全部对象重新加载，直到本地副本完整。
+ * 未配置的关联在首次查询时按需加载，之后随源对象的变更一起刷新；同步从不完整地重新加载未配置的关联，
+ * 因此按需加载的关联记录每个源对象的加载时间，超过 on-demand-ttl-millis 后再次查询时重新读取。
+ * 只有关联变化而对象本身没有变化时，配置的关联要到下一次全量同步才能发现。
+ */
+@Component
+@Slf4j
+public class AssociationGraph implements ReplicaChangeListener {
+
+    /**
+     * 一次刷新中每次交给关联服务的批次数，限制刷新大量对象时的中间结果占用的内存
+     */
+    private static final int BATCHES_PER_SEGMENT = 8;
+
+    /**
+     * 一种关联的邻接表
+     */
+    private static final class Edges {
+        final ObjectType fromType;
+        final ObjectType toType;
+        final boolean configured;
+        final AdjacencyMap adjacency = new AdjacencyMap();
+        final ReadWriteLock lock = new ReentrantReadWriteLock();
+        // 已为本地副本中所有的源对象加载过关联
+        volatile boolean complete;
+        volatile long refreshedAt;
+        // 未配置的关联中各源对象的加载时间（毫秒时间戳），配置的关联由同步刷新，不记录
+        final Map<Long, Long> loadedAt = new ConcurrentHashMap<>();
+
+        Edges(ObjectType fromType, ObjectType toType, boolean configured) {
+            this.fromType = fromType;
+            this.toType = toType;
+            this.configured = configured;
+        }
+    }
+
+    /**
+     * 多跳遍历中的一跳
+     * @param fromType 源对象类型
+     * @param toType 目标对象类型
+     * @param associations 本跳各源对象关联的目标对象ID
+     */
+    public record Hop(String fromType, String toType, Map<Long, long[]> associations) {
+    }
+
+    private final AssociationService associationService;
+    private final AssociationConfig associationConfig;
+    private final ReplicaStore replicaStore;
+
+    private final Map<String, Edges> edges = new ConcurrentHashMap<>();
+
+    // 各对象类型自上次刷新以来有变更的对象ID
+    private final Map<ObjectType, Set<Long>> changed = new EnumMap<>(ObjectType.class);
+
+    @Autowired
+    public AssociationGraph(AssociationService associationService, AssociationConfig associationConfig,
+                            ReplicaStore replicaStore) {
+        this.associationService = associationService;
+        this.associationConfig = associationConfig;
+        this.replicaStore = replicaStore;
+        for (ObjectType type : ObjectType.values()) {
+            changed.put(type, ConcurrentHashMap.newKeySet());
+        }
+    }
+
+    /**
+     * 创建配置的关联并注册副本变更监听器，关联在第一次同步完成后加载
+     */
+    @PostConstruct
+    public void init() {
+        if (!associationConfig.isEnabled()) {
+            log.info("关联关系图未启用");
+            return;
+        }
+        associationConfig.getPairs().forEach((fromName, toNames) -> {
+            ObjectType fromType = ObjectType.fromValue(fromName);
+            for (String toName : toNames) {
+                ObjectType toType = ObjectType.fromValue(toName);
+                edges.put(key(fromType, toType), new Edges(fromType, toType, true));
+            }
+        });
+        replicaStore.addChangeListener(this);
+    }
+
+    /**
+     * 是否启用关联关系图
+     */
+    public boolean isEnabled() {
+        return associationConfig.isEnabled();
+    }
+
+    @Override
+    public void onUpsert(ObjectType objectType, HubSpotObject object) {
+        changed.get(objectType).add(parseId(object.getId()));
+    }
+
+    @Override
+    public void onArchive(ObjectType objectType, String objectId) {
+        long id = parseId(objectId);
+        changed.get(objectType).remove(id);
+        for (Edges pair : edges.values()) {
+            if (pair.fromType == objectType) {
+                pair.lock.writeLock().lock();
+                try {
+                    pair.adjacency.remove(id);
+                } finally {
+                    pair.lock.writeLock().unlock();
+                }
+                pair.loadedAt.remove(id);
+            }
+        }
+    }
+
+    /**
+     * 同步完成后刷新以该对象类型为源的关联
+     * 配置的关联在全量同步后、或者尚未按完整的本地副本加载过时重新加载所有对象，
+     * 其他情况只重新加载自上次刷新以来有变更、且已经加载过的对象
+     * @param objectType 源对象类型
+     * @param full 是否重新加载所有对象的关联
+     * @param replicaComplete 本地副本是否包含全部对象（全量同步成功完成过）
+     */
+    public void refresh(ObjectType objectType, boolean full, boolean replicaComplete) {
+        if (!isEnabled()) {
+            return;
+        }
+        Set<Long> changedIds = drainChanged(objectType);
+        try {
+            for (Edges pair : edges.values()) {
+                if (pair.fromType != objectType) {
+                    continue;
+                }
+                long startedAt = System.currentTimeMillis();
+                if (pair.configured && (full || !pair.complete)) {
+                    Set<Long> allIds = new HashSet<>();
+                    for (String id : replicaStore.ids(objectType)) {
+                        allIds.add(parseId(id));
+                    }
+                    load(pair, allIds);
+                    int removed = write(pair, adjacency -> adjacency.retainKeys(allIds::contains));
+                    pair.complete = replicaComplete;
+                    log.info("重新加载 {} -> {} 的关联完成，{} 个源对象，{} 个关联，移除 {} 个已不存在的源对象，耗时 {} 毫秒",
+                            objectType.getValue(), pair.toType.getValue(), allIds.size(), edgeCount(pair), removed,
+                            System.currentTimeMillis() - startedAt);
+                } else if (!changedIds.isEmpty()) {
+                    List<Long> ids = new ArrayList<>();
+                    read(pair, adjacency -> {
+                        for (Long id : changedIds) {
+                            if (pair.configured || adjacency.get(id) != null) {
+                                ids.add(id);
+                            }
+                        }
+                        return null;
+                    });
+                    load(pair, ids);
+                    log.debug("刷新 {} -> {} 中 {} 个有变更的源对象的关联，耗时 {} 毫秒", objectType.getValue(),
+                            pair.toType.getValue(), ids.size(), System.currentTimeMillis() - startedAt);
+                }
+                pair.refreshedAt = System.currentTimeMillis();
+            }
+        } catch (RuntimeException e) {
+            // 下一次刷新时重新加载这些对象
+            changed.get(objectType).addAll(changedIds);
+            throw e;
+        }
+    }
+
+    /**
+     * 关联是否在 hubspot.associations.pairs 中配置、并且已经由同步按本地副本中的全部对象加载过，
+     * 否则关联关系图中只有按需加载的关联，调用方可以改为直接请求 HubSpot
+     * @param fromType 源对象类型
+     * @param toType 目标对象类型
+     */
+    public boolean isRefreshedBySync(ObjectType fromType, ObjectType toType) {
+        if (!isEnabled()) {
+            return false;
+        }
+        Edges pair = edges.get(key(fromType, toType));
+        return pair != null && pair.configured && pair.refreshedAt > 0;
+    }
+
+    /**
+     * 获取单个源对象关联的目标对象ID，未加载时通过 HubSpot 批量关联接口加载
+     * @param fromType 源对象类型
+     * @param fromId 源对象ID
+     * @param toType 目标对象类型
+     * @return 目标对象ID（升序），没有关联时为空数组
+     * @throws IllegalArgumentException 对象ID不是数字
+     */
+    public long[] getAssociations(ObjectType fromType, String fromId, ObjectType toType) {
+        long id = parseId(fromId);
+        return getAssociations(fromType, List.of(id), toType).get(id);
+    }
+
+    /**
+     * 获取多个源对象关联的目标对象ID，未加载的源对象、以及未配置的关联中加载时间超过 TTL 的源对象合并为批量请求加载
+     * @param fromType 源对象类型
+     * @param fromIds 源对象ID
+     * @param toType 目标对象类型
+     * @return 源对象ID到目标对象ID（升序）的映射，按请求的顺序排列
+     */
+    public Map<Long, long[]> getAssociations(ObjectType fromType, Collection<Long> fromIds, ObjectType toType) {
+        Edges pair = edges.computeIfAbsent(key(fromType, toType), key -> new Edges(fromType, toType, false));
+        Map<Long, long[]> associations = new LinkedHashMap<>();
+        List<Long> missing = new ArrayList<>();
+        long ttl = associationConfig.getOnDemandTtlMillis();
+        long expiredBefore = System.currentTimeMillis() - ttl;
+        read(pair, adjacency -> {
+            for (Long id : fromIds) {
+                long[] targets = adjacency.get(id);
+                associations.put(id, targets);
+                if (targets == null || (!pair.configured && ttl > 0
+                        && pair.loadedAt.getOrDefault(id, Long.MIN_VALUE) < expiredBefore)) {
+                    missing.add(id);
+                }
+            }
+            return null;
+        });
+        if (!missing.isEmpty()) {
+            log.debug("{} -> {} 中 {} 个源对象的关联未加载或已过期，批量读取", fromType.getValue(), toType.getValue(),
+                    missing.size());
+            associations.putAll(load(pair, missing));
+        }
+        return associations;
+    }
+
+    /**
+     * 从一个对象出发，沿关联路径逐跳遍历，每一跳的所有对象合并为批量请求，已加载的关联不访问 HubSpot
+     * @param startType 起始对象类型
+     * @param startId 起始对象ID
+     * @param path 依次经过的对象类型，例如 contacts、deals、line-items
+     * @return 每一跳的关联
+     * @throws IllegalArgumentException 访问的对象数量超过上限
+     */
+    public List<Hop> traverse(ObjectType startType, String startId, List<ObjectType> path) {
+        List<Hop> hops = new ArrayList<>(path.size());
+        Set<Long> frontier = Set.of(parseId(startId));
+        int visited = 1;
+        ObjectType fromType = startType;
+        for (ObjectType toType : path) {
+            Map<Long, long[]> associations = getAssociations(fromType, frontier, toType);
+            hops.add(new Hop(fromType.getValue(), toType.getValue(), associations));
+            Set<Long> next = new HashSet<>();
+            for (long[] targets : associations.values()) {
+                for (long target : targets) {
+                    next.add(target);
+                }
+            }
+            visited += next.size();
+            if (visited > associationConfig.getMaxTraversalNodes()) {
+                throw new IllegalArgumentException("关联遍历访问的对象数量超过上限 "
+                        + associationConfig.getMaxTraversalNodes());
+            }
+            frontier = next;
+            fromType = toType;
+        }
+        return hops;
+    }
+
+    /**
+     * 获取各关联的统计
+     * @return 源对象类型:目标对象类型 到（源对象数量、关联数量、是否已完整加载、最近刷新时间）的映射
+     */
+    public Map<String, Map<String, Object>> getStats() {
+        Map<String, Map<String, Object>> stats = new LinkedHashMap<>();
+        edges.values().stream()
+                .sorted((left, right) -> key(left.fromType, left.toType).compareTo(key(right.fromType, right.toType)))
+                .forEach(pair -> {
+                    Map<String, Object> pairStats = new LinkedHashMap<>();
+                    pairStats.put("sources", read(pair, AdjacencyMap::size));
+                    pairStats.put("associations", edgeCount(pair));
+                    pairStats.put("configured", pair.configured);
+                    pairStats.put("complete", pair.complete);
+                    pairStats.put("refreshedAt", pair.refreshedAt);
+                    stats.put(pair.fromType.getValue() + ":" + pair.toType.getValue(), pairStats);
+                });
+        return stats;
+    }
+
+    /**
+     * 分段批量读取关联并写入邻接表
+     */
+    private Map<Long, long[]> load(Edges pair, Collection<Long> ids) {
+        Map<Long, long[]> loaded = new LinkedHashMap<>();
+        List<Long> all = new ArrayList<>(ids);
+        int segment = Math.max(1, associationConfig.getBatchSize()) * BATCHES_PER_SEGMENT;
+        for (int start = 0; start < all.size(); start += segment) {
+            long loadedAt = System.currentTimeMillis();
+            Map<Long, long[]> associations = associationService.batchReadAssociations(pair.fromType, pair.toType,
+                    all.subList(start, Math.min(start + segment, all.size())));
+            write(pair, adjacency -> {
+                associations.forEach(adjacency::put);
+                return null;
+            });
+            if (!pair.configured) {
+                associations.keySet().forEach(id -> pair.loadedAt.put(id, loadedAt));
+            }
+            if (ids.size() <= segment) {
+                return associations;
+            }
+            loaded.putAll(associations);
+        }
+        return loaded;
+    }
+
+    private Set<Long> drainChanged(ObjectType objectType) {
+        Set<Long> pending = changed.get(objectType);
+        Set<Long> drained = new HashSet<>();
+        for (Long id : pending) {
+            if (pending.remove(id)) {
+                drained.add(id);
+            }
+        }
+        return drained;
+    }
+
+    private long edgeCount(Edges pair) {
+        return read(pair, AdjacencyMap::edgeCount);
+    }
+
+    private static <R> R read(Edges pair, Function<AdjacencyMap, R> action) {
+        pair.lock.readLock().lock();
+        try {
+            return action.apply(pair.adjacency);
+        } finally {
+            pair.lock.readLock().unlock();
+        }
+    }
+
+    private static <R> R write(Edges pair, Function<AdjacencyMap, R> action) {
+        pair.lock.writeLock().lock();
+        try {
+            return action.apply(pair.adjacency);
+        } finally {
+            pair.lock.writeLock().unlock();
+        }
+    }
+
+    private static String key(ObjectType fromType, ObjectType toType) {
+        return fromType.getValue() + ":" + toType.getValue();
+    }
+
+    /**
+     * 解析 HubSpot 对象ID
+     * @throws IllegalArgumentException 对象ID不是正整数
+     */
+    private static long parseId(String objectId) {
+        try {
+            long id = Long.parseLong(objectId);
+            if (id > 0) {
+                return id;
+            }
+        } catch (NumberFormatException e) {
+            // 统一在下面抛出
+        }
+        throw new IllegalArgumentException("无效的对象ID: " + objectId);
+    }
+}
@@ -0,0 +1,207 @@
+package com.example.hubspotdemo.batch;
+
+import com.example.hubspotdemo.cache.ObjectInvalidationListener;
+import com.example.hubspotdemo.exception.HubSpotApiException;
+import com.example.hubspotdemo.model.HubSpotBatchResponse;
+import com.example.hubspotdemo.model.HubSpotObject;
+import com.example.hubspotdemo.ratelimit.RequestPriority;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * 按 ID 读取请求合并器，将短时间窗口内到达的同类型读取请求合并为一次批量读取
+ * <p>
+ * 相同 ID 的请求（包括已经发出、尚未返回的请求）共享同一个结果，不会重复读取。
+ * 对象缓存失效时丢弃这些对象已经发出的请求：它们可能在变更之前读取，之后的请求重新读取，不会复用旧的结果。
+ * 尚未发出的请求在失效之后才读取，仍然可以共享。
+ *
+ * @param <T> HubSpot 对象类型
+ */
+@Slf4j
+public class BatchReadCoalescer<T extends HubSpotObject> implements ObjectInvalidationListener {
+
+    private final Function<List<String>, HubSpotBatchResponse<T>> batchReader;
+    private final Executor executor;
+    private final Executor delayedExecutor;
+    private final int maxBatchSize;
+
+    private final Object lock = new Object();
+
+    // 等待发送的请求
+    private Map<String, CompletableFuture<T>> pending = new LinkedHashMap<>();
+    private boolean pendingInteractive;
+    private boolean flushScheduled;
+
+    // 已经发出、尚未返回的请求
+    private final Map<String, CompletableFuture<T>> inFlight = new HashMap<>();
+
+    /**
+     * 构造函数
+     *
+     * @param batchReader 批量读取函数
+     * @param executor 发送批量请求的执行器
+     * @param windowMillis 合并窗口（毫秒）
+     * @param maxBatchSize 单次批量读取的最大数量
+     */
+    public BatchReadCoalescer(Function<List<String>, HubSpotBatchResponse<T>> batchReader, Executor executor,
+                              long windowMillis, int maxBatchSize) {
+        this.batchReader = batchReader;
+        this.executor = executor;
+        this.delayedExecutor = CompletableFuture.delayedExecutor(windowMillis, TimeUnit.MILLISECONDS, executor);
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    /**
+     * 按 ID 读取对象
+     *
+     * @param objectId 对象ID
+     * @return 读取结果，对象不存在时以 404 的 HubSpotApiException 异常完成
+     */
+    public CompletableFuture<T> load(String objectId) {
+        Map<String, CompletableFuture<T>> batchToSend = null;
+        boolean interactive = false;
+        CompletableFuture<T> future;
+        synchronized (lock) {
+            future = inFlight.get(objectId);
+            if (future == null) {
+                future = pending.get(objectId);
+            }
+            if (future != null) {
+                return future;
+            }
+            future = new CompletableFuture<>();
+            pending.put(objectId, future);
+            pendingInteractive |= RequestPriority.current() == RequestPriority.INTERACTIVE;
+            if (pending.size() >= maxBatchSize) {
+                interactive = pendingInteractive;
+                batchToSend = takePending();
+            } else if (!flushScheduled) {
+                flushScheduled = true;
+                delayedExecutor.execute(this::flush);
+            }
+        }
+        if (batchToSend != null) {
+            Map<String, CompletableFuture<T>> batch = batchToSend;
+            boolean batchInteractive = interactive;
+            executor.execute(() -> dispatch(batch, batchInteractive));
+        }
+        return future;
+    }
+
+    /**
+     * 丢弃这些对象已经发出的请求，等待中的调用方仍会收到结果，之后的请求重新读取
+     */
+    @Override
+    public void onInvalidated(Collection<String> objectIds) {
+        synchronized (lock) {
+            if (!inFlight.isEmpty()) {
+                objectIds.forEach(inFlight::remove);
+            }
+        }
+    }
+
+    /**
+     * 丢弃所有已经发出的请求
+     */
+    @Override
+    public void onInvalidatedAll() {
+        synchronized (lock) {
+            inFlight.clear();
+        }
+    }
+
+    private void flush() {
+        Map<String, CompletableFuture<T>> batch;
+        boolean interactive;
+        synchronized (lock) {
+            flushScheduled = false;
+            if (pending.isEmpty()) {
+                return;
+            }
+            interactive = pendingInteractive;
+            batch = takePending();
+        }
+        dispatch(batch, interactive);
+    }
+
+    /**
+     * 取出等待发送的请求并标记为已发出，必须在持有锁时调用
+     */
+    private Map<String, CompletableFuture<T>> takePending() {
+        Map<String, CompletableFuture<T>> batch = pending;
+        pending = new LinkedHashMap<>();
+        pendingInteractive = false;
+        inFlight.putAll(batch);
+        return batch;
+    }
+
+    private void dispatch(Map<String, CompletableFuture<T>> batch, boolean interactive) {
+        List<String> ids = new ArrayList<>(batch.keySet());
+        log.debug("合并 {} 个按 ID 读取请求为一次批量读取", ids.size());
+        try {
+            // 只要有一个交互请求在等待，整批就按交互优先级发送
+            RequestPriority priority = interactive ? RequestPriority.INTERACTIVE : RequestPriority.BACKGROUND;
+            HubSpotBatchResponse<T> response = RequestPriority.callWith(priority, () -> batchReader.apply(ids));
+            complete(batch, response);
+        } catch (RuntimeException e) {
+            batch.values().forEach(future -> future.completeExceptionally(e));
+        } finally {
+            synchronized (lock) {
+                // 失效之后同一 ID 可能已经有新的请求，只移除本批的请求
+                batch.forEach(inFlight::remove);
+            }
+        }
+    }
+
+    private void complete(Map<String, CompletableFuture<T>> batch, HubSpotBatchResponse<T> response) {
+        if (response.getResults() != null) {
+            for (T object : response.getResults()) {
+                CompletableFuture<T> future = batch.get(object.getId());
+                if (future != null) {
+                    future.complete(object);
+                }
+            }
+        }
+        // 按错误上下文中的 ID 找到对应的请求
+        Map<String, HubSpotBatchResponse.BatchError> errorsById = new HashMap<>();
+        if (response.getErrors() != null) {
+            for (HubSpotBatchResponse.BatchError error : response.getErrors()) {
+                List<String> errorIds = error.getContext() != null ? error.getContext().get("ids") : null;
+                if (errorIds != null) {
+                    errorIds.forEach(id -> errorsById.put(id, error));
+                }
+            }
+        }
+        batch.forEach((id, future) -> {
+            if (!future.isDone()) {
+                HubSpotBatchResponse.BatchError error = errorsById.get(id);
+                String message = error != null ? error.getMessage() : "对象不存在: " + id;
+                future.completeExceptionally(new HubSpotApiException(message, statusCodeOf(error), message));
+            }
+        });
+    }
+
+    /**
+     * 整批失败时错误类别为 HTTP 状态码，其他情况按对象不存在处理
+     */
+    private static int statusCodeOf(HubSpotBatchResponse.BatchError error) {
+        if (error != null && error.getCategory() != null) {
+            try {
+                return Integer.parseInt(error.getCategory());
+            } catch (NumberFormatException e) {
+                // HubSpot 的错误类别（如 OBJECT_NOT_FOUND）
+            }
+        }
+        return 404;
+    }
+}
@@ -0,0 +1,239 @@
+package com.example.hubspotdemo.cache;
+
+import com.example.hubspotdemo.cache.HubSpotPropertiesCache.ObjectType;
+import com.example.hubspotdemo.config.ObjectCacheConfig;
+import com.example.hubspotdemo.model.CompactProperties;
+import com.example.hubspotdemo.model.HubSpotObject;
+import com.example.hubspotdemo.model.HubSpotPropertiesResponse;
+import com.example.hubspotdemo.model.PropertyType;
+import com.example.hubspotdemo.replica.ReplicaStore;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+
+/**
+ * HubSpot 对象缓存，缓存按 ID 读取的完整对象（包含所有属性）
+ * <p>
+ * 每个对象类型一个有容量上限的 Caffeine 缓存，按对象估算的字节数计算容量，淘汰策略为 W-TinyLFU：
+ * 少数热点对象常驻缓存，偶尔访问一次的对象不会把它们挤出去。同一ID的并发读取只请求一次 HubSpot。
+ * <p>
+ * 写入后短时间过期；通过本服务更新、删除对象，同步任务发现更新的版本，或属性结构变化时立即失效。
+ * 失效时先通知 {@link ObjectInvalidationListener}，缓存之外进行中的读取不会在失效之后被复用并重新写入缓存。
+ */
+@Component
+@Slf4j
+public class HubSpotObjectCache implements PropertySchemaListener {
+
+    // 估算对象大小时每个对象和每个属性的固定开销（对象头、引用、哈希表节点）
+    private static final int OBJECT_OVERHEAD_BYTES = 160;
+    private static final int PROPERTY_OVERHEAD_BYTES = 64;
+    // 紧凑存储的属性共享属性名称，每个属性只占值数组中的一个引用和属性值对象头
+    private static final int COMPACT_PROPERTY_OVERHEAD_BYTES = 24;
+    // 非字符串类型的属性首次按类型读取时，值数组中的原值会替换为保存解码结果的对象（对象头、原值引用和 long）
+    private static final int DECODED_VALUE_BYTES = 24;
+
+    private final ObjectCacheConfig cacheConfig;
+    private final HubSpotPropertiesCache propertiesCache;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<ObjectType, AsyncCache<String, HubSpotObject>> caches = new EnumMap<>(ObjectType.class);
+    private final Map<ObjectType, List<ObjectInvalidationListener>> invalidationListeners = new ConcurrentHashMap<>();
+
+    @Autowired
+    public HubSpotObjectCache(ObjectCacheConfig cacheConfig, HubSpotPropertiesCache propertiesCache,
+                              MeterRegistry meterRegistry) {
+        this.cacheConfig = cacheConfig;
+        this.propertiesCache = propertiesCache;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * 创建各对象类型的缓存并注册缓存指标
+     */
+    @PostConstruct
+    public void init() {
+        if (!cacheConfig.isEnabled()) {
+            log.info("HubSpot 对象缓存未启用");
+            return;
+        }
+        for (ObjectType type : ObjectType.values()) {
+            AsyncCache<String, HubSpotObject> cache = Caffeine.newBuilder()
+                    .maximumWeight(cacheConfig.getMaximumWeightBytes(type.getValue()))
+                    .weigher((String id, HubSpotObject object) -> estimateBytes(object))
+                    .expireAfterWrite(Duration.ofMillis(cacheConfig.getExpireAfterWriteMillis()))
+                    .recordStats()
+                    .buildAsync();
+            CaffeineCacheMetrics.monitor(meterRegistry, cache, "hubspot.objects", "type", type.getValue());
+            Gauge.builder("hubspot.objects.cache.hit.ratio", cache, c -> c.synchronous().stats().hitRate())
+                    .description("对象缓存命中率")
+                    .tag("type", type.getValue())
+                    .register(meterRegistry);
+            caches.put(type, cache);
+        }
+        propertiesCache.addSchemaListener(this);
+    }
+
+    /**
+     * 注册对象失效监听器，未启用缓存时同样回调
+     * @param objectType 对象类型
+     * @param listener 监听器
+     */
+    public void addInvalidationListener(ObjectType objectType, ObjectInvalidationListener listener) {
+        invalidationListeners.computeIfAbsent(objectType, type -> new CopyOnWriteArrayList<>()).add(listener);
+    }
+
+    /**
+     * 是否启用对象缓存
+     */
+    public boolean isEnabled() {
+        return !caches.isEmpty();
+    }
+
+    /**
+     * 从缓存获取对象，未命中时通过 loader 加载，同一ID的并发读取共享同一次加载，加载失败的结果不会被缓存
+     * @param objectType 对象类型
+     * @param objectId 对象ID
+     * @param loader 加载函数
+     * @param <T> 对象类型
+     * @return 对象
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends HubSpotObject> CompletableFuture<T> get(ObjectType objectType, String objectId,
+                                                              Function<String, CompletableFuture<T>> loader) {
+        AsyncCache<String, HubSpotObject> cache = caches.get(objectType);
+        if (cache == null) {
+            return loader.apply(objectId);
+        }
+        return (CompletableFuture<T>) cache.get(objectId,
+                (id, executor) -> loader.apply(id).thenApply(HubSpotObject.class::cast));
+    }
+
+    /**
+     * 获取已加载完成的缓存对象，不触发加载
+     * @param objectType 对象类型
+     * @param objectId 对象ID
+     * @return 对象，未缓存、加载中或加载失败时返回 null
+     */
+    public HubSpotObject getIfPresent(ObjectType objectType, String objectId) {
+        AsyncCache<String, HubSpotObject> cache = caches.get(objectType);
+        CompletableFuture<HubSpotObject> cached = cache != null ? cache.getIfPresent(objectId) : null;
+        return cached != null && cached.isDone() && !cached.isCompletedExceptionally() ? cached.join() : null;
+    }
+
+    /**
+     * 使指定对象的缓存失效
+     * @param objectType 对象类型
+     * @param objectId 对象ID
+     */
+    public void invalidate(ObjectType objectType, String objectId) {
+        notifyInvalidated(objectType, List.of(objectId));
+        AsyncCache<String, HubSpotObject> cache = caches.get(objectType);
+        if (cache != null) {
+            cache.synchronous().invalidate(objectId);
+        }
+    }
+
+    /**
+     * 使多个对象的缓存失效
+     * @param objectType 对象类型
+     * @param objectIds 对象ID列表
+     */
+    public void invalidateAll(ObjectType objectType, Collection<String> objectIds) {
+        notifyInvalidated(objectType, objectIds);
+        AsyncCache<String, HubSpotObject> cache = caches.get(objectType);
+        if (cache != null) {
+            cache.synchronous().invalidateAll(objectIds);
+        }
+    }
+
+    /**
+     * 同步任务获取到对象时调用，缓存中的版本比获取到的版本旧时失效
+     * 加载中的条目同样失效，因为它可能是在这次变更之前读取的
+     * @param objectType 对象类型
+     * @param objects 同步获取到的对象
+     */
+    public void onObserved(ObjectType objectType, Collection<? extends HubSpotObject> objects) {
+        // 进行中的读取同样可能是在这次变更之前发出的
+        notifyInvalidated(objectType, objects.stream().map(HubSpotObject::getId).toList());
+        AsyncCache<String, HubSpotObject> cache = caches.get(objectType);
+        if (cache == null) {
+            return;
+        }
+        for (HubSpotObject observed : objects) {
+            long observedVersion = ReplicaStore.versionOf(observed);
+            cache.asMap().computeIfPresent(observed.getId(), (id, cached) -> {
+                HubSpotObject current = cached.isDone() && !cached.isCompletedExceptionally() ? cached.join() : null;
+                return current != null && ReplicaStore.versionOf(current) >= observedVersion ? cached : null;
+            });
+        }
+    }
+
+    @Override
+    public void onSchemaChanged(ObjectType objectType, HubSpotPropertiesResponse properties, long schemaVersion) {
+        // 缓存的对象按旧的属性列表读取，属性结构变化后全部失效
+        for (ObjectInvalidationListener listener : invalidationListeners.getOrDefault(objectType, List.of())) {
+            listener.onInvalidatedAll();
+        }
+        AsyncCache<String, HubSpotObject> cache = caches.get(objectType);
+        if (cache != null) {
+            cache.synchronous().invalidateAll();
+            log.info("{} 的属性结构已变化，清空对象缓存", objectType.getValue());
+        }
+    }
+
+    private void notifyInvalidated(ObjectType objectType, Collection<String> objectIds) {
+        for (ObjectInvalidationListener listener : invalidationListeners.getOrDefault(objectType, List.of())) {
+            listener.onInvalidated(objectIds);
+        }
+    }
+
+    /**
+     * 估算对象占用的字节数，字符串按每个字符 2 字节计算，紧凑存储的属性名称不计入单个对象
+     * <p>
+     * Caffeine 只在写入时计算一次权重，之后按类型读取属性会让紧凑存储的对象变大，
+     * 因此非字符串类型的属性预先按已解码计算。容量上限是按估算值限制的近似值，不是精确的堆内存占用。
+     */
+    private static int estimateBytes(HubSpotObject object) {
+        long bytes = OBJECT_OVERHEAD_BYTES + 2L * length(object.getId());
+        Map<String, Object> properties = object.getProperties();
+        if (properties instanceof CompactProperties compact) {
+            for (Map.Entry<String, Object> entry : compact.entrySet()) {
+                bytes += COMPACT_PROPERTY_OVERHEAD_BYTES;
+                if (entry.getValue() != null) {
+                    bytes += 2L * length(entry.getValue().toString());
+                    if (compact.getType(entry.getKey()) != PropertyType.STRING) {
+                        bytes += DECODED_VALUE_BYTES;
+                    }
+                }
+            }
+        } else if (properties != null) {
+            for (Map.Entry<String, Object> entry : properties.entrySet()) {
+                bytes += PROPERTY_OVERHEAD_BYTES + 2L * length(entry.getKey());
+                if (entry.getValue() != null) {
+                    bytes += 2L * length(entry.getValue().toString());
+                }
+            }
+        }
+        return (int) Math.min(bytes, Integer.MAX_VALUE);
+    }
+
+    private static int length(String value) {
+        return value != null ? value.length() : 0;
+    }
+}
@@ -1,15 +1,38 @@
 package com.example.hubspotdemo.cache;
 
+import com.example.hubspotdemo.config.PropertiesCacheConfig;
+import com.example.hubspotdemo.model.Company;
+import com.example.hubspotdemo.model.Contact;
+import com.example.hubspotdemo.model.Deal;
+import com.example.hubspotdemo.model.HubSpotObject;
 import com.example.hubspotdemo.model.HubSpotPropertiesResponse;
+import com.example.hubspotdemo.model.HubSpotProperty;
+import com.example.hubspotdemo.model.LineItem;
+import com.example.hubspotdemo.model.Product;
+import com.example.hubspotdemo.model.PropertySchema;
+import com.example.hubspotdemo.ratelimit.RequestPriority;
 import com.example.hubspotdemo.service.*;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Component;
 
+import java.time.Instant;
 import java.util.EnumMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
 
 /**
  * HubSpot 属性缓存类，用于缓存各种 HubSpot 对象的属性集合
@@ -22,16 +45,18 @@ public class HubSpotPropertiesCache {
      * HubSpot 对象类型枚举
      */
     public enum ObjectType {
-        COMPANIES("companies"),
-        CONTACTS("contacts"),
-        DEALS("deals"),
-        PRODUCTS("products"),
-        LINE_ITEMS("line-items");
+        COMPANIES("companies", Company.class),
+        CONTACTS("contacts", Contact.class),
+        DEALS("deals", Deal.class),
+        PRODUCTS("products", Product.class),
+        LINE_ITEMS("line-items", LineItem.class);
 
         private final String value;
+        private final Class<? extends HubSpotObject> modelClass;
 
-        ObjectType(String value) {
+        ObjectType(String value, Class<? extends HubSpotObject> modelClass) {
             this.value = value;
+            this.modelClass = modelClass;
         }
 
         public String getValue() {
@@ -39,14 +64,29 @@ public class HubSpotPropertiesCache {
         }
 
         /**
-         * 根据字符串值获取枚举类型
+         * 获取 HubSpot API 路径中使用的对象类型名称（如 line_items）
+         */
+        public String getApiName() {
+            return value.replace('-', '_');
+        }
+
+        /**
+         * 获取对象类型对应的实体类
+         */
+        public Class<? extends HubSpotObject> getModelClass() {
+            return modelClass;
+        }
+
+        /**
+         * 根据字符串值获取枚举类型，同时兼容 API 路径中使用下划线的写法（如 line_items）
          * @param value 对象类型字符串
          * @return 对应的枚举类型
          * @throws IllegalArgumentException 如果找不到对应的枚举类型
          */
         public static ObjectType fromValue(String value) {
+            String normalized = value != null ? value.replace('_', '-') : null;
             for (ObjectType type : values()) {
-                if (type.value.equalsIgnoreCase(value)) {
+                if (type.value.equalsIgnoreCase(normalized)) {
                     return type;
                 }
             }
@@ -54,8 +94,35 @@ public class HubSpotPropertiesCache {
         }
     }
 
+    /**
+     * 缓存条目，记录属性列表、加载时间、属性结构指纹和按属性列表分配序号的属性结构
+     */
+    private record CacheEntry(HubSpotPropertiesResponse properties, long loadedAt, long fingerprint,
+                              PropertySchema schema) {
+    }
+
     // 缓存存储，使用 ConcurrentHashMap 保证线程安全
-    private final Map<ObjectType, HubSpotPropertiesResponse> propertiesCache = new ConcurrentHashMap<>();
+    private final Map<ObjectType, CacheEntry> propertiesCache = new ConcurrentHashMap<>();
+
+    // 正在进行中的加载任务，同一对象类型同一时刻只有一个请求访问 HubSpot，其他调用方等待同一个结果
+    private final Map<ObjectType, CompletableFuture<HubSpotPropertiesResponse>> inFlightLoads = new ConcurrentHashMap<>();
+
+    // 最近一次的属性结构指纹和版本号，清除缓存后仍然保留，用于判断重新加载后结构是否真的变化
+    private final Map<ObjectType, Long> schemaFingerprints = new ConcurrentHashMap<>();
+    private final Map<ObjectType, Long> schemaVersions = new ConcurrentHashMap<>();
+
+    // 属性结构变更监听器
+    private final List<PropertySchemaListener> schemaListeners = new CopyOnWriteArrayList<>();
+
+    private PropertiesCacheConfig cacheConfig;
+    private Executor taskExecutor;
+    private MeterRegistry meterRegistry;
+    private PropertiesSnapshotStore snapshotStore;
+
+    // 缓存命中、未命中、过期命中计数器
+    private final Map<ObjectType, Counter> hitCounters = new EnumMap<>(ObjectType.class);
+    private final Map<ObjectType, Counter> missCounters = new EnumMap<>(ObjectType.class);
+    private final Map<ObjectType, Counter> staleCounters = new EnumMap<>(ObjectType.class);
 
     // 各种服务的注入（使用非final字段，支持setter注入）
     private CompanyService companyService;
@@ -116,6 +183,119 @@ public class HubSpotPropertiesCache {
         this.lineItemService = lineItemService;
     }
 
+    /**
+     * 设置属性缓存配置
+     */
+    @Autowired
+    public void setCacheConfig(PropertiesCacheConfig cacheConfig) {
+        this.cacheConfig = cacheConfig;
+    }
+
+    /**
+     * 设置后台刷新使用的执行器
+     */
+    @Autowired
+    public void setTaskExecutor(@Qualifier("hubSpotTaskExecutor") Executor taskExecutor) {
+        this.taskExecutor = taskExecutor;
+    }
+
+    /**
+     * 设置指标注册表
+     */
+    @Autowired
+    public void setMeterRegistry(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * 设置属性列表快照存储
+     */
+    @Autowired
+    public void setSnapshotStore(PropertiesSnapshotStore snapshotStore) {
+        this.snapshotStore = snapshotStore;
+    }
+
+    /**
+     * 初始化各对象类型的缓存计数器，并从本地快照预热缓存
+     */
+    @PostConstruct
+    public void init() {
+        for (ObjectType type : ObjectType.values()) {
+            hitCounters.put(type, requestCounter(type, "hit"));
+            missCounters.put(type, requestCounter(type, "miss"));
+            staleCounters.put(type, requestCounter(type, "stale"));
+            Gauge.builder("hubspot.properties.cache.hit.ratio", type, this::hitRatio)
+                    .description("属性缓存命中率（未过期命中次数 / 读取次数）")
+                    .tag("type", type.getValue())
+                    .register(meterRegistry);
+        }
+        if (snapshotStore.isEnabled()) {
+            loadSnapshots();
+        }
+    }
+
+    /**
+     * 从本地快照加载属性列表
+     * 快照条目视为已过期：请求可以立即使用，同时由后台刷新重新校验，属性结构没有变化时不会触发派生数据重建
+     */
+    private void loadSnapshots() {
+        for (ObjectType type : ObjectType.values()) {
+            PropertiesSnapshotStore.Snapshot snapshot = snapshotStore.read(type);
+            if (snapshot == null || snapshot.getProperties() == null) {
+                continue;
+            }
+            propertiesCache.put(type, new CacheEntry(snapshot.getProperties(), 0, snapshot.getFingerprint(),
+                    PropertySchema.of(snapshot.getProperties())));
+            schemaFingerprints.put(type, snapshot.getFingerprint());
+            schemaVersions.put(type, 1L);
+            log.info("从本地快照加载 {} 的属性列表，包含 {} 个属性，快照保存于 {}",
+                    type.getValue(),
+                    snapshot.getProperties().getResults() != null ? snapshot.getProperties().getResults().size() : 0,
+                    Instant.ofEpochMilli(snapshot.getSavedAt()));
+        }
+    }
+
+    private double hitRatio(ObjectType type) {
+        double hits = hitCounters.get(type).count();
+        double total = hits + missCounters.get(type).count() + staleCounters.get(type).count();
+        return total > 0 ? hits / total : Double.NaN;
+    }
+
+    private Counter requestCounter(ObjectType type, String result) {
+        return Counter.builder("hubspot.properties.cache.requests")
+                .description("属性缓存读取次数")
+                .tag("type", type.getValue())
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * 注册属性结构变更监听器
+     * @param listener 监听器
+     */
+    public void addSchemaListener(PropertySchemaListener listener) {
+        schemaListeners.add(listener);
+    }
+
+    /**
+     * 获取指定对象类型当前的属性结构版本号，尚未加载时为 0
+     * @param objectType 对象类型枚举
+     * @return 结构版本号
+     */
+    public long getSchemaVersion(ObjectType objectType) {
+        return schemaVersions.getOrDefault(objectType, 0L);
+    }
+
+    /**
+     * 获取已缓存的属性列表对应的属性结构，不会触发加载，也不计入缓存命中统计
+     * @param objectType 对象类型枚举
+     * @return 属性结构，属性列表尚未加载时返回 null
+     */
+    public PropertySchema getSchema(ObjectType objectType) {
+        CacheEntry entry = propertiesCache.get(objectType);
+        return entry != null ? entry.schema() : null;
+    }
+
     /**
      * 根据对象类型获取属性列表，如果缓存中没有则从服务中获取
      * @param objectType 对象类型字符串
@@ -132,24 +312,169 @@ public class HubSpotPropertiesCache {
      * @return 属性列表响应
      */
     public HubSpotPropertiesResponse getPropertiesByType(ObjectType objectType) {
-        // 先从缓存中获取
-        HubSpotPropertiesResponse properties = propertiesCache.get(objectType);
-        
-        // 如果缓存中没有，则从服务中获取并缓存
-        if (properties == null) {
-            log.info("缓存中没有 {} 的属性列表，从服务中获取...", objectType.getValue());
-            properties = fetchPropertiesFromService(objectType);
-            if (properties != null) {
-                propertiesCache.put(objectType, properties);
-                log.info("成功缓存 {} 的属性列表，包含 {} 个属性", 
-                        objectType.getValue(), 
-                        properties.getResults() != null ? properties.getResults().size() : 0);
+        // 先从缓存中获取，已过期的条目照常返回，同时在后台重新获取
+        CacheEntry entry = propertiesCache.get(objectType);
+        if (entry != null) {
+            if (isExpired(objectType, entry)) {
+                staleCounters.get(objectType).increment();
+                scheduleRefresh(objectType);
+            } else {
+                hitCounters.get(objectType).increment();
             }
-        } else {
             log.debug("从缓存中获取 {} 的属性列表", objectType.getValue());
+            return entry.properties();
+        }
+
+        // 如果缓存中没有，则从服务中获取并缓存，并发的调用方共享同一次加载
+        missCounters.get(objectType).increment();
+        log.info("缓存中没有 {} 的属性列表，从服务中获取...", objectType.getValue());
+        return load(objectType, false);
+    }
+
+    /**
+     * 单飞加载：同一对象类型只有第一个调用方真正发起请求，其余调用方等待它的结果
+     * @param objectType 对象类型枚举
+     * @param forceRefresh 是否忽略已缓存的值强制重新获取
+     * @return 属性列表响应
+     */
+    private HubSpotPropertiesResponse load(ObjectType objectType, boolean forceRefresh) {
+        CompletableFuture<HubSpotPropertiesResponse> loading = new CompletableFuture<>();
+        CompletableFuture<HubSpotPropertiesResponse> existing = inFlightLoads.putIfAbsent(objectType, loading);
+        if (existing != null) {
+            log.debug("{} 的属性列表正在加载中，等待已有请求的结果", objectType.getValue());
+            return await(existing);
+        }
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        try {
+            // 抢到加载权之前，上一次加载可能刚刚完成，这里再检查一次缓存
+            CacheEntry cached = forceRefresh ? null : propertiesCache.get(objectType);
+            if (cached != null) {
+                outcome = "cached";
+                loading.complete(cached.properties());
+                return cached.properties();
+            }
+            HubSpotPropertiesResponse properties = fetchPropertiesFromService(objectType);
+            outcome = properties != null ? store(objectType, properties) : "empty";
+            loading.complete(properties);
+            return properties;
+        } catch (RuntimeException e) {
+            loading.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlightLoads.remove(objectType, loading);
+            sample.stop(Timer.builder("hubspot.properties.cache.load")
+                    .description("属性列表加载耗时")
+                    .tag("type", objectType.getValue())
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * 写入缓存并检测属性结构是否变化，变化时递增版本号并通知监听器
+     * @return 加载结果：changed 或 unchanged
+     */
+    private String store(ObjectType objectType, HubSpotPropertiesResponse properties) {
+        long fingerprint = fingerprint(properties);
+        // 结构没有变化时沿用原来的属性结构，已经紧凑存储的对象和新对象继续共享同一份属性名称
+        CacheEntry current = propertiesCache.get(objectType);
+        PropertySchema schema = current != null && current.fingerprint() == fingerprint
+                ? current.schema()
+                : PropertySchema.of(properties);
+        propertiesCache.put(objectType, new CacheEntry(properties, System.currentTimeMillis(), fingerprint, schema));
+        log.info("成功缓存 {} 的属性列表，包含 {} 个属性",
+                objectType.getValue(),
+                properties.getResults() != null ? properties.getResults().size() : 0);
+
+        Long previous = schemaFingerprints.put(objectType, fingerprint);
+        if (previous != null && previous == fingerprint) {
+            log.debug("{} 的属性结构没有变化", objectType.getValue());
+            return "unchanged";
+        }
+        if (snapshotStore.isEnabled()) {
+            // 属性结构变化时才重写快照，写入不阻塞加载线程
+            taskExecutor.execute(() -> snapshotStore.write(objectType, properties, fingerprint));
+        }
+        long version = schemaVersions.merge(objectType, 1L, Long::sum);
+        log.info("{} 的属性结构已变化，版本号更新为 {}", objectType.getValue(), version);
+        for (PropertySchemaListener listener : schemaListeners) {
+            try {
+                listener.onSchemaChanged(objectType, properties, version);
+            } catch (RuntimeException e) {
+                log.error("属性结构变更监听器执行失败: {}", e.getMessage(), e);
+            }
+        }
+        return "changed";
+    }
+
+    /**
+     * 计算属性结构指纹，只取属性名称和更新时间，与属性顺序无关
+     */
+    private static long fingerprint(HubSpotPropertiesResponse properties) {
+        if (properties.getResults() == null) {
+            return 0;
+        }
+        long fingerprint = properties.getResults().size();
+        for (HubSpotProperty property : properties.getResults()) {
+            long hash = ((long) Objects.hashCode(property.getName()) << 32)
+                    ^ (Objects.hashCode(property.getUpdatedAt()) & 0xFFFFFFFFL);
+            fingerprint += mix(hash);
+        }
+        return fingerprint;
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private boolean isExpired(ObjectType objectType, CacheEntry entry) {
+        return System.currentTimeMillis() - entry.loadedAt() >= cacheConfig.getTtlMillis(objectType.getValue());
+    }
+
+    /**
+     * 在后台刷新过期的缓存，请求线程不等待刷新结果
+     */
+    private void scheduleRefresh(ObjectType objectType) {
+        if (inFlightLoads.containsKey(objectType)) {
+            return;
+        }
+        taskExecutor.execute(() -> RequestPriority.runWith(RequestPriority.BACKGROUND, () -> {
+            try {
+                refreshIfExpired(objectType);
+            } catch (RuntimeException e) {
+                log.warn("后台刷新 {} 的属性列表失败，继续使用旧值: {}", objectType.getValue(), e.getMessage());
+            }
+        }));
+    }
+
+    /**
+     * 如果缓存不存在或已过期则重新获取，未过期时不发起请求
+     * @param objectType 对象类型枚举
+     */
+    public void refreshIfExpired(ObjectType objectType) {
+        CacheEntry entry = propertiesCache.get(objectType);
+        if (entry != null && !isExpired(objectType, entry)) {
+            return;
+        }
+        load(objectType, true);
+    }
+
+    /**
+     * 等待其他调用方发起的加载完成，加载失败时抛出原始异常
+     */
+    private static HubSpotPropertiesResponse await(CompletableFuture<HubSpotPropertiesResponse> loading) {
+        try {
+            return loading.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
         }
-        
-        return properties;
     }
 
     /**
@@ -193,11 +518,17 @@ public class HubSpotPropertiesCache {
 
     /**
      * 刷新指定对象类型的缓存
+     * 刷新期间不清除旧值，其他调用方继续读取旧的属性列表，直到新的属性列表加载完成
      * @param objectType 对象类型枚举
      * @return 更新后的属性列表响应
      */
     public HubSpotPropertiesResponse refreshCache(ObjectType objectType) {
-        clearCache(objectType);
-        return getPropertiesByType(objectType);
+        log.info("刷新 {} 的属性列表缓存", objectType.getValue());
+        HubSpotPropertiesResponse properties = load(objectType, true);
+        if (properties != null) {
+            return properties;
+        }
+        CacheEntry entry = propertiesCache.get(objectType);
+        return entry != null ? entry.properties() : null;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,22 @@
+package com.example.hubspotdemo.cache;
+
+import java.util.Collection;
+
+/**
+ * 对象缓存失效监听器
+ * 对象缓存失效时回调（先于缓存条目的移除），用于丢弃缓存之外、可能在变更之前发出的进行中读取，
+ * 避免失效之后的读取复用旧的结果并重新写入缓存
+ */
+public interface ObjectInvalidationListener {
+
+    /**
+     * 指定的对象失效时回调
+     * @param objectIds 对象ID
+     */
+    void onInvalidated(Collection<String> objectIds);
+
+    /**
+     * 对象类型的所有对象失效时回调
+     */
+    void onInvalidatedAll();
+}
@@ -0,0 +1,128 @@
+package com.example.hubspotdemo.cache;
+
+import com.example.hubspotdemo.cache.HubSpotPropertiesCache.ObjectType;
+import com.example.hubspotdemo.config.PropertiesCacheConfig;
+import com.example.hubspotdemo.model.HubSpotPropertiesResponse;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * 属性列表快照存储，将属性缓存以 Smile 二进制格式保存到本地磁盘
+ * <p>
+ * 每个对象类型一个文件，先写临时文件再原子替换，进程中途退出也不会留下损坏的快照。
+ */
+@Component
+@Slf4j
+public class PropertiesSnapshotStore {
+
+    private static final String FILE_SUFFIX = ".sml";
+
+    private final PropertiesCacheConfig cacheConfig;
+    private final ObjectMapper smileMapper = new ObjectMapper(new SmileFactory())
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    /**
+     * 快照内容
+     */
+    @Data
+    public static class Snapshot {
+
+        /**
+         * 保存时间
+         */
+        private long savedAt;
+
+        /**
+         * 属性结构指纹
+         */
+        private long fingerprint;
+
+        /**
+         * 属性列表
+         */
+        private HubSpotPropertiesResponse properties;
+    }
+
+    @Autowired
+    public PropertiesSnapshotStore(PropertiesCacheConfig cacheConfig) {
+        this.cacheConfig = cacheConfig;
+    }
+
+    public boolean isEnabled() {
+        return cacheConfig.isSnapshotEnabled();
+    }
+
+    /**
+     * 读取指定对象类型的快照
+     * @param objectType 对象类型枚举
+     * @return 快照，文件不存在或无法解析时返回 null
+     */
+    public Snapshot read(ObjectType objectType) {
+        Path file = snapshotFile(objectType);
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try (InputStream inputStream = Files.newInputStream(file)) {
+            return smileMapper.readValue(inputStream, Snapshot.class);
+        } catch (IOException e) {
+            log.warn("读取 {} 的属性列表快照失败，忽略该快照: {}", objectType.getValue(), e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 保存指定对象类型的快照
+     * @param objectType 对象类型枚举
+     * @param properties 属性列表
+     * @param fingerprint 属性结构指纹
+     */
+    public void write(ObjectType objectType, HubSpotPropertiesResponse properties, long fingerprint) {
+        Snapshot snapshot = new Snapshot();
+        snapshot.setSavedAt(System.currentTimeMillis());
+        snapshot.setFingerprint(fingerprint);
+        snapshot.setProperties(properties);
+
+        Path file = snapshotFile(objectType);
+        try {
+            Files.createDirectories(file.getParent());
+            Path tempFile = Files.createTempFile(file.getParent(), objectType.getValue(), ".tmp");
+            try {
+                try (OutputStream outputStream = Files.newOutputStream(tempFile)) {
+                    smileMapper.writeValue(outputStream, snapshot);
+                }
+                moveAtomically(tempFile, file);
+            } finally {
+                Files.deleteIfExists(tempFile);
+            }
+            log.debug("已保存 {} 的属性列表快照: {}", objectType.getValue(), file);
+        } catch (IOException e) {
+            log.warn("保存 {} 的属性列表快照失败: {}", objectType.getValue(), e.getMessage());
+        }
+    }
+
+    private static void moveAtomically(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private Path snapshotFile(ObjectType objectType) {
+        return Paths.get(cacheConfig.getSnapshotDir(), objectType.getValue() + FILE_SUFFIX);
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.hubspotdemo.cache;
+
+import com.example.hubspotdemo.model.HubSpotPropertiesResponse;
+
+/**
+ * 属性结构变更监听器
+ * 只有属性名称或更新时间发生变化时才会回调，用于重建依赖属性结构的派生数据
+ */
+@FunctionalInterface
+public interface PropertySchemaListener {
+
+    /**
+     * 属性结构发生变化（包括首次加载）时回调
+     * @param objectType 对象类型
+     * @param properties 新的属性列表
+     * @param schemaVersion 新的结构版本号，每次变化递增
+     */
+    void onSchemaChanged(HubSpotPropertiesCache.ObjectType objectType, HubSpotPropertiesResponse properties,
+                         long schemaVersion);
+}
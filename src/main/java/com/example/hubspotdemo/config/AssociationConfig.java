@@ -0,0 +1,45 @@
+package com.example.hubspotdemo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 关联关系图配置类，用于读取需要在内存中维护的对象关联
+ */
+@Configuration
+@ConfigurationProperties(prefix = "hubspot.associations")
+@Data
+public class AssociationConfig {
+
+    /**
+     * 是否启用内存中的关联关系图，未启用时关联查询直接请求 HubSpot
+     */
+    private boolean enabled = true;
+
+    /**
+     * 同步时维护的关联，键为源对象类型（如 companies），值为关联的目标对象类型列表（如 contacts、line-items）
+     * 未配置的关联在首次查询时按需加载
+     */
+    private Map<String, List<String>> pairs = new HashMap<>();
+
+    /**
+     * 未配置的关联按需加载后的有效时间（毫秒），超过后再次查询时重新读取，不大于 0 时不过期
+     * 同步只重新加载有变更的源对象的未配置关联，只有关联变化而对象本身没有变化时要靠过期发现
+     */
+    private long onDemandTtlMillis = 300000;
+
+    /**
+     * 每次批量读取关联的源对象数量上限（v4 批量关联接口每次最多 1000 个）
+     */
+    private int batchSize = 1000;
+
+    /**
+     * 一次多跳遍历最多访问的对象数量
+     */
+    private int maxTraversalNodes = 10000;
+}
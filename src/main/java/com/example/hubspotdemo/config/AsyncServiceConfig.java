@@ -0,0 +1,85 @@
+package com.example.hubspotdemo.config;
+
+import com.example.hubspotdemo.cache.HubSpotObjectCache;
+import com.example.hubspotdemo.model.Company;
+import com.example.hubspotdemo.model.Contact;
+import com.example.hubspotdemo.model.Deal;
+import com.example.hubspotdemo.model.HubSpotObject;
+import com.example.hubspotdemo.model.LineItem;
+import com.example.hubspotdemo.model.Product;
+import com.example.hubspotdemo.projection.PropertyProjectionRegistry;
+import com.example.hubspotdemo.ratelimit.HubSpotRateLimiter;
+import com.example.hubspotdemo.retry.RetryPolicy;
+import com.example.hubspotdemo.service.AsyncGenericHubSpotService;
+import com.example.hubspotdemo.service.impl.AsyncGenericHubSpotServiceImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import okhttp3.OkHttpClient;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * 异步服务配置类，为每种 HubSpot 对象创建基于 OkHttp 异步调用的服务
+ */
+@Configuration
+public class AsyncServiceConfig {
+
+    private final OkHttpClient okHttpClient;
+    private final HubSpotConfig hubSpotConfig;
+    private final ObjectMapper objectMapper;
+    private final HubSpotRateLimiter rateLimiter;
+    private final RetryPolicy retryPolicy;
+    private final PropertyProjectionRegistry projectionRegistry;
+    private final HubSpotObjectCache objectCache;
+    private final ExecutorService taskExecutor;
+
+    @Autowired
+    public AsyncServiceConfig(OkHttpClient okHttpClient, HubSpotConfig hubSpotConfig, ObjectMapper objectMapper,
+                              HubSpotRateLimiter rateLimiter, RetryPolicy retryPolicy,
+                              @Lazy PropertyProjectionRegistry projectionRegistry,
+                              @Lazy HubSpotObjectCache objectCache,
+                              @Qualifier("hubSpotTaskExecutor") ExecutorService taskExecutor) {
+        this.okHttpClient = okHttpClient;
+        this.hubSpotConfig = hubSpotConfig;
+        this.objectMapper = objectMapper;
+        this.rateLimiter = rateLimiter;
+        this.retryPolicy = retryPolicy;
+        this.projectionRegistry = projectionRegistry;
+        this.objectCache = objectCache;
+        this.taskExecutor = taskExecutor;
+    }
+
+    @Bean
+    public AsyncGenericHubSpotService<Company> asyncCompanyService() {
+        return create("companies", Company.class);
+    }
+
+    @Bean
+    public AsyncGenericHubSpotService<Contact> asyncContactService() {
+        return create("contacts", Contact.class);
+    }
+
+    @Bean
+    public AsyncGenericHubSpotService<Deal> asyncDealService() {
+        return create("deals", Deal.class);
+    }
+
+    @Bean
+    public AsyncGenericHubSpotService<Product> asyncProductService() {
+        return create("products", Product.class);
+    }
+
+    @Bean
+    public AsyncGenericHubSpotService<LineItem> asyncLineItemService() {
+        return create("line_items", LineItem.class);
+    }
+
+    private <T extends HubSpotObject> AsyncGenericHubSpotService<T> create(String objectTypeName, Class<T> objectType) {
+        return new AsyncGenericHubSpotServiceImpl<>(okHttpClient, hubSpotConfig, objectMapper, rateLimiter,
+                retryPolicy, projectionRegistry, objectCache, taskExecutor, objectTypeName, objectType);
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.hubspotdemo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * HubSpot 批量请求配置类，用于读取按 ID 读取请求合并的相关配置
+ */
+@Configuration
+@ConfigurationProperties(prefix = "hubspot.batch")
+@Data
+public class BatchConfig {
+
+    /**
+     * 是否将并发的按 ID 读取请求合并为批量读取请求
+     */
+    private boolean coalesceEnabled = true;
+
+    /**
+     * 合并窗口（毫秒），窗口内到达的同类型读取请求合并为一次批量读取
+     */
+    private long coalesceWindowMillis = 5;
+
+    /**
+     * 单次批量读取的最大数量，达到后立即发送
+     */
+    private int coalesceMaxBatchSize = 100;
+}
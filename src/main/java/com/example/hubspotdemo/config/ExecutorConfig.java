@@ -0,0 +1,67 @@
+package com.example.hubspotdemo.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 执行器配置类，提供访问 HubSpot API 时用于后台预取、并发请求的线程池
+ * <p>
+ * 开启 Spring Boot 的 spring.threads.virtual.enabled 后（需要 Java 21 及以上），Tomcat 请求处理和定时任务
+ * 由 Spring Boot 切换到虚拟线程，这里的 HubSpot I/O 执行器也随之改为每个任务一个虚拟线程
+ */
+@Configuration
+@Slf4j
+public class ExecutorConfig {
+
+    private final Environment environment;
+
+    @Autowired
+    public ExecutorConfig(Environment environment) {
+        this.environment = environment;
+    }
+
+    /**
+     * 创建 HubSpot I/O 执行器
+     * 任务大多阻塞在网络 I/O 上，实际并发度由 HubSpot 的调用频率决定，因此不限制线程数
+     */
+    @Bean(name = "hubSpotTaskExecutor", destroyMethod = "shutdown")
+    public ExecutorService hubSpotTaskExecutor() {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            log.info("HubSpot I/O 执行器使用虚拟线程");
+            return newVirtualThreadPerTaskExecutor();
+        }
+        
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "hubspot-io-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        return Executors.newCachedThreadPool(threadFactory);
+    }
+
+    /**
+     * 创建每个任务一个虚拟线程的执行器
+     * 项目以 Java 17 编译，Executors.newThreadPerTaskExecutor 只能通过反射调用
+     */
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        ThreadFactory threadFactory = new VirtualThreadTaskExecutor("hubspot-io-").getVirtualThreadFactory();
+        try {
+            return (ExecutorService) Executors.class
+                    .getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+                    .invoke(null, threadFactory);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("无法创建虚拟线程执行器", e);
+        }
+    }
+}
@@ -1,10 +1,15 @@
 package com.example.hubspotdemo.config;
 
+import com.example.hubspotdemo.metrics.HubSpotHttpMetrics;
+import com.example.hubspotdemo.ratelimit.HubSpotRateLimiter;
+import com.example.hubspotdemo.ratelimit.RequestPriority;
 import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
 import okhttp3.OkHttpClient;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.ClientHttpResponse;
 import org.springframework.http.client.OkHttp3ClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
@@ -28,8 +33,16 @@ public class HttpClientConfig {
      * 创建 OkHttpClient
      */
     @Bean
-    public OkHttpClient okHttpClient() {
+    public OkHttpClient okHttpClient(HubSpotHttpMetrics httpMetrics) {
+        // 异步请求由调度器控制并发，所有请求都发往同一个主机，因此单主机上限与总上限一致；
+        // 启用虚拟线程后同步请求不再受线程池大小限制，连接池按最大并发数保留空闲连接，避免频繁重建连接
+        int maxConcurrentRequests = hubSpotConfig.getMaxConcurrentRequests();
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(maxConcurrentRequests);
+        dispatcher.setMaxRequestsPerHost(maxConcurrentRequests);
+        
         return new OkHttpClient.Builder()
+                .dispatcher(dispatcher)
                 // 设置连接超时
                 .connectTimeout(hubSpotConfig.getConnectTimeout(), TimeUnit.MILLISECONDS)
                 // 设置读取超时
@@ -37,9 +50,11 @@ public class HttpClientConfig {
                 // 设置写入超时
                 .writeTimeout(hubSpotConfig.getTimeout(), TimeUnit.MILLISECONDS)
                 // 设置连接池
-                .connectionPool(new ConnectionPool(20, 60, TimeUnit.SECONDS))
+                .connectionPool(new ConnectionPool(Math.max(20, maxConcurrentRequests), 60, TimeUnit.SECONDS))
                 // 保持连接
                 .retryOnConnectionFailure(true)
+                // 记录每次请求的耗时、状态码、字节数和配额响应头，同步和异步客户端共用
+                .addInterceptor(httpMetrics)
                 .build();
     }
 
@@ -47,7 +62,7 @@ public class HttpClientConfig {
      * 创建 RestTemplate 用于访问 HubSpot API
      */
     @Bean
-    public RestTemplate hubSpotRestTemplate(OkHttpClient okHttpClient) {
+    public RestTemplate hubSpotRestTemplate(OkHttpClient okHttpClient, HubSpotRateLimiter rateLimiter) {
         OkHttp3ClientHttpRequestFactory requestFactory = new OkHttp3ClientHttpRequestFactory(okHttpClient);
         
         RestTemplate restTemplate = new RestTemplate(requestFactory);
@@ -62,7 +77,12 @@ public class HttpClientConfig {
             request.getHeaders().add("User-Agent", "HubSpot-Demo-App/1.0");
             // System.out.println("URI: " + request.getURI());
             // System.out.println("Headers: " + request.getHeaders());
-            return execution.execute(request, body);
+            // 客户端限流，令牌不足时按请求优先级排队等待
+            rateLimiter.acquire(RequestPriority.current(), request.getURI().getPath().endsWith("/search"));
+            ClientHttpResponse response = execution.execute(request, body);
+            // 根据响应头校准限流状态
+            rateLimiter.onResponse(response.getStatusCode().value(), response.getHeaders()::getFirst);
+            return response;
         }));
         
         return restTemplate;
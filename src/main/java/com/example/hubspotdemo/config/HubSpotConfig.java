@@ -32,4 +32,19 @@ public class HubSpotConfig {
      */
     private int connectTimeout;
 
+    /**
+     * 同时发往 HubSpot 的最大请求数（OkHttp 调度器并发上限）
+     */
+    private int maxConcurrentRequests = 64;
+
+    /**
+     * 列表接口是否流式解码响应：逐个解析 results 中的对象并立即交给调用方，不先反序列化整页响应
+     */
+    private boolean streamingDecode = true;
+
+    /**
+     * 是否按属性结构紧凑存储对象属性：同一对象类型的对象共享属性名称，每个对象只保存按属性序号排列的属性值
+     */
+    private boolean compactProperties = true;
+
 }
\ No newline at end of file
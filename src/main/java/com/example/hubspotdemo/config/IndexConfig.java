@@ -0,0 +1,24 @@
+package com.example.hubspotdemo.config;
+
+import com.example.hubspotdemo.index.IndexKind;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 二级索引配置类，用于读取本地副本上需要建立索引的属性
+ */
+@Configuration
+@ConfigurationProperties(prefix = "hubspot.index")
+@Data
+public class IndexConfig {
+
+    /**
+     * 各对象类型的索引定义，键为对象类型（如 contacts、line-items），值为属性名称到索引类型（hash、sorted、token）的映射
+     */
+    private Map<String, Map<String, List<IndexKind>>> types = new HashMap<>();
+}
@@ -0,0 +1,24 @@
+package com.example.hubspotdemo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 本地搜索配置类，用于读取在本地副本上执行搜索的条件
+ */
+@Configuration
+@ConfigurationProperties(prefix = "hubspot.local-search")
+@Data
+public class LocalSearchConfig {
+
+    /**
+     * 是否允许在本地副本上执行搜索
+     */
+    private boolean enabled = true;
+
+    /**
+     * 本地副本允许的最大过期时间（毫秒），距离最近一次同步成功超过该时间时改用 HubSpot 搜索接口
+     */
+    private long maxStalenessMillis = 300000;
+}
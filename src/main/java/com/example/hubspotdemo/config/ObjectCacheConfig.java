@@ -0,0 +1,46 @@
+package com.example.hubspotdemo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * HubSpot 对象缓存配置类，用于读取按 ID 读取对象时的缓存容量和过期时间
+ */
+@Configuration
+@ConfigurationProperties(prefix = "hubspot.object-cache")
+@Data
+public class ObjectCacheConfig {
+
+    /**
+     * 是否启用对象缓存
+     */
+    private boolean enabled = true;
+
+    /**
+     * 每个对象类型缓存的默认容量上限（估算的字节数），按字符串长度和固定开销估算，是近似的堆内存上限
+     */
+    private long maximumWeightBytes = 64L * 1024 * 1024;
+
+    /**
+     * 按对象类型覆盖的容量上限（估算的字节数），键为对象类型，如 contacts、line-items
+     */
+    private Map<String, Long> typeMaximumWeightBytes = new HashMap<>();
+
+    /**
+     * 写入后的过期时间（毫秒）
+     */
+    private long expireAfterWriteMillis = 30000;
+
+    /**
+     * 获取指定对象类型缓存的容量上限
+     * @param objectType 对象类型字符串
+     * @return 容量上限（估算的字节数）
+     */
+    public long getMaximumWeightBytes(String objectType) {
+        return typeMaximumWeightBytes.getOrDefault(objectType, maximumWeightBytes);
+    }
+}
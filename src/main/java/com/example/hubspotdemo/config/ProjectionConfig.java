@@ -0,0 +1,28 @@
+package com.example.hubspotdemo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 属性投影配置类，用于读取命名投影和 URL 长度限制的相关配置
+ */
+@Configuration
+@ConfigurationProperties(prefix = "hubspot.projection")
+@Data
+public class ProjectionConfig {
+
+    /**
+     * properties 查询参数的最大长度，超过后改用 /batch/read 或 /search 通过请求体传递属性列表
+     */
+    private int maxQueryLength = 3000;
+
+    /**
+     * 命名投影，第一层键为对象类型（如 contacts、line-items），第二层键为投影名称，值为属性列表
+     */
+    private Map<String, Map<String, List<String>>> views = new HashMap<>();
+}
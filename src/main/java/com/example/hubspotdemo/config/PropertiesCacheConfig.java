@@ -0,0 +1,56 @@
+package com.example.hubspotdemo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * HubSpot 属性缓存配置类，用于读取属性列表缓存的过期时间和后台刷新配置
+ */
+@Configuration
+@ConfigurationProperties(prefix = "hubspot.properties-cache")
+@Data
+public class PropertiesCacheConfig {
+
+    /**
+     * 默认过期时间（毫秒），过期后继续返回旧值，同时在后台重新获取
+     */
+    private long ttlMillis = 3600000;
+
+    /**
+     * 按对象类型覆盖的过期时间（毫秒），键为对象类型，如 contacts、line-items
+     */
+    private Map<String, Long> typeTtlMillis = new HashMap<>();
+
+    /**
+     * 是否启用后台定时刷新
+     */
+    private boolean refreshEnabled = true;
+
+    /**
+     * 后台检查过期缓存的间隔（毫秒）
+     */
+    private long refreshCheckIntervalMillis = 60000;
+
+    /**
+     * 是否将属性列表快照保存到本地磁盘，启动时先加载快照再在后台重新校验
+     */
+    private boolean snapshotEnabled = true;
+
+    /**
+     * 快照文件目录
+     */
+    private String snapshotDir = "data/properties-snapshot";
+
+    /**
+     * 获取指定对象类型的过期时间
+     * @param objectType 对象类型字符串
+     * @return 过期时间（毫秒）
+     */
+    public long getTtlMillis(String objectType) {
+        return typeTtlMillis.getOrDefault(objectType, ttlMillis);
+    }
+}
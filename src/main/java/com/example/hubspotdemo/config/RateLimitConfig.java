@@ -0,0 +1,54 @@
+package com.example.hubspotdemo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * HubSpot API 限流配置类，用于读取配置文件中的客户端限流配置
+ */
+@Configuration
+@ConfigurationProperties(prefix = "hubspot.rate-limit")
+@Data
+public class RateLimitConfig {
+
+    /**
+     * 是否启用客户端限流
+     */
+    private boolean enabled = true;
+
+    /**
+     * 每个时间窗口允许的请求数（收到响应头后会按实际值调整）
+     */
+    private int maxRequests = 100;
+
+    /**
+     * 时间窗口长度（毫秒）
+     */
+    private long intervalMillis = 10000;
+
+    /**
+     * 搜索接口每秒允许的请求数（HubSpot 对搜索接口单独限流）
+     */
+    private int searchRequestsPerSecond = 5;
+
+    /**
+     * 每日允许的请求数（收到响应头后会按实际值调整）
+     */
+    private long dailyLimit = 250000;
+
+    /**
+     * 为交互请求预留的令牌比例，后台任务不能使用这部分令牌
+     */
+    private double interactiveReserveRatio = 0.2;
+
+    /**
+     * 为交互请求预留的每日配额比例，剩余配额低于该比例时后台任务直接失败
+     */
+    private double dailyInteractiveReserveRatio = 0.05;
+
+    /**
+     * 单个请求等待令牌的最长时间（毫秒），超时后抛出 429 异常
+     */
+    private long maxWaitMillis = 120000;
+}
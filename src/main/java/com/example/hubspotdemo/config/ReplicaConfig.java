@@ -0,0 +1,45 @@
+package com.example.hubspotdemo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 本地副本存储配置类，用于读取同步数据本地存储的相关配置
+ */
+@Configuration
+@ConfigurationProperties(prefix = "hubspot.replica")
+@Data
+public class ReplicaConfig {
+
+    /**
+     * 存储类型：file 为本地追加日志文件，memory 为纯内存（重启后丢失）
+     */
+    private String store = "file";
+
+    /**
+     * 日志文件目录
+     */
+    private String dir = "data/replica";
+
+    /**
+     * 每次写入后是否强制刷盘
+     */
+    private boolean syncOnWrite = false;
+
+    /**
+     * 触发压缩的最小日志文件大小（字节）
+     */
+    private long compactionMinBytes = 16 * 1024 * 1024;
+
+    /**
+     * 触发压缩的无效数据占比，日志中被覆盖的旧版本超过该比例时重写日志
+     */
+    private double compactionGarbageRatio = 0.5;
+
+    /**
+     * 墓碑保留时间（毫秒），压缩时丢弃归档时间早于该时间的墓碑，应大于同步的重叠时间
+     * 保留期内的墓碑用于阻止重叠窗口中重新读到的旧数据恢复已归档的对象
+     */
+    private long tombstoneRetentionMillis = 24 * 60 * 60 * 1000L;
+}
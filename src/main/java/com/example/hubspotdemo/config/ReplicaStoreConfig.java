@@ -0,0 +1,31 @@
+package com.example.hubspotdemo.config;
+
+import com.example.hubspotdemo.replica.FileReplicaStore;
+import com.example.hubspotdemo.replica.MemoryReplicaStore;
+import com.example.hubspotdemo.replica.ReplicaStore;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+
+/**
+ * 本地副本存储配置类，根据配置创建文件或内存存储
+ */
+@Configuration
+@Slf4j
+public class ReplicaStoreConfig {
+
+    /**
+     * 创建本地副本存储
+     */
+    @Bean(destroyMethod = "close")
+    public ReplicaStore replicaStore(ReplicaConfig replicaConfig) throws IOException {
+        if ("memory".equalsIgnoreCase(replicaConfig.getStore())) {
+            log.info("本地副本使用内存存储");
+            return new MemoryReplicaStore();
+        }
+        log.info("本地副本使用文件存储，目录: {}", replicaConfig.getDir());
+        return new FileReplicaStore(replicaConfig);
+    }
+}
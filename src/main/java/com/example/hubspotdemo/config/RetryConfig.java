@@ -0,0 +1,51 @@
+package com.example.hubspotdemo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+/**
+ * HubSpot API 重试配置类，用于读取配置文件中的重试策略配置
+ */
+@Configuration
+@ConfigurationProperties(prefix = "hubspot.retry")
+@Data
+public class RetryConfig {
+
+    /**
+     * 是否启用重试
+     */
+    private boolean enabled = true;
+
+    /**
+     * 最大尝试次数（包含第一次请求）
+     */
+    private int maxAttempts = 5;
+
+    /**
+     * 初始退避时间（毫秒）
+     */
+    private long initialBackoffMillis = 500;
+
+    /**
+     * 最大退避时间（毫秒）
+     */
+    private long maxBackoffMillis = 30000;
+
+    /**
+     * 退避时间倍数
+     */
+    private double multiplier = 2.0;
+
+    /**
+     * 单个请求（包含所有重试）的总时间预算（毫秒）
+     */
+    private long totalBudgetMillis = 120000;
+
+    /**
+     * 可重试的 HTTP 状态码
+     */
+    private List<Integer> retryableStatusCodes = List.of(429, 502, 503, 504);
+}
@@ -0,0 +1,71 @@
+package com.example.hubspotdemo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 数据同步配置类，用于读取增量同步的水位线和搜索窗口相关配置
+ */
+@Configuration
+@ConfigurationProperties(prefix = "hubspot.sync")
+@Data
+public class SyncConfig {
+
+    /**
+     * 同步状态（水位线）文件路径
+     */
+    private String stateFile = "data/sync-state.json";
+
+    /**
+     * 没有水位线时增量同步的回溯时间（毫秒）
+     */
+    private long initialLookbackMillis = 48 * 60 * 60 * 1000L;
+
+    /**
+     * 每次增量同步在水位线之前额外回看的时间（毫秒），用于覆盖 HubSpot 搜索索引的延迟，重复的数据由本地副本按版本去重
+     */
+    private long overlapMillis = 60000;
+
+    /**
+     * 搜索接口单页数量（HubSpot 上限为 200）
+     */
+    private int searchPageSize = 200;
+
+    /**
+     * 全量同步的定时表达式
+     */
+    private String fullCron = "0 0 0 * * ?";
+
+    /**
+     * 增量同步的定时表达式
+     */
+    private String incrementalCron = "0 */1 * * * *";
+
+    /**
+     * 同时同步的对象类型数量上限，默认所有对象类型同时同步，共享同一个客户端限流器
+     */
+    private int maxParallelTypes = 5;
+
+    /**
+     * 全量同步默认的分区数，按创建时间将对象划分为多个区间并行获取；为 1 时使用列表接口顺序获取
+     */
+    private int fullSyncPartitions = 4;
+
+    /**
+     * 按对象类型覆盖的全量同步分区数，键为对象类型，如 contacts、line-items
+     */
+    private Map<String, Integer> typePartitions = new HashMap<>();
+
+    /**
+     * 获取指定对象类型的全量同步分区数
+     * @param objectType 对象类型字符串
+     * @return 分区数
+     */
+    public int getPartitions(String objectType) {
+        return Math.max(1, typePartitions.getOrDefault(objectType, fullSyncPartitions));
+    }
+}
@@ -1,25 +1,38 @@
 package com.example.hubspotdemo.controller;
 
+import com.example.hubspotdemo.association.AssociationGraph;
+import com.example.hubspotdemo.hydration.ObjectGraphHydrator;
+import com.example.hubspotdemo.index.SecondaryIndexManager;
 import com.example.hubspotdemo.model.Contact;
 import com.example.hubspotdemo.model.Company;
 import com.example.hubspotdemo.model.Deal;
+import com.example.hubspotdemo.model.HubSpotBatchResponse;
 import com.example.hubspotdemo.model.HubSpotObject;
 import com.example.hubspotdemo.model.HubSpotPropertiesResponse;
 import com.example.hubspotdemo.model.HubSpotResponse;
+import com.example.hubspotdemo.model.HydratedObject;
 import com.example.hubspotdemo.model.LineItem;
 import com.example.hubspotdemo.cache.HubSpotPropertiesCache;
 import com.example.hubspotdemo.model.Product;
+import com.example.hubspotdemo.replica.ReplicaStore;
+import com.example.hubspotdemo.search.LocalSearchEngine;
 import com.example.hubspotdemo.service.ContactService;
 import com.example.hubspotdemo.service.CompanyService;
 import com.example.hubspotdemo.service.DealService;
+import com.example.hubspotdemo.service.GenericHubSpotService;
+import com.example.hubspotdemo.projection.PropertyProjectionRegistry;
+import com.example.hubspotdemo.service.HubSpotServiceRegistry;
 import com.example.hubspotdemo.service.LineItemService;
 import com.example.hubspotdemo.service.ProductService;
+import com.example.hubspotdemo.sync.SyncOrchestrator;
+import com.example.hubspotdemo.sync.SyncRunStats;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -37,6 +50,14 @@ public class HubSpotController {
     private final ProductService productService;
     private final LineItemService lineItemService;
     private final HubSpotPropertiesCache propertiesCache;
+    private final HubSpotServiceRegistry serviceRegistry;
+    private final PropertyProjectionRegistry projectionRegistry;
+    private final ReplicaStore replicaStore;
+    private final SyncOrchestrator syncOrchestrator;
+    private final LocalSearchEngine localSearchEngine;
+    private final SecondaryIndexManager indexManager;
+    private final AssociationGraph associationGraph;
+    private final ObjectGraphHydrator graphHydrator;
 
     @Autowired
     public HubSpotController(
@@ -45,13 +66,29 @@ public class HubSpotController {
             CompanyService companyService,
             ProductService productService,
             LineItemService lineItemService,
-            HubSpotPropertiesCache propertiesCache) {
+            HubSpotPropertiesCache propertiesCache,
+            HubSpotServiceRegistry serviceRegistry,
+            PropertyProjectionRegistry projectionRegistry,
+            ReplicaStore replicaStore,
+            SyncOrchestrator syncOrchestrator,
+            LocalSearchEngine localSearchEngine,
+            SecondaryIndexManager indexManager,
+            AssociationGraph associationGraph,
+            ObjectGraphHydrator graphHydrator) {
         this.contactService = contactService;
         this.dealService = dealService;
         this.companyService = companyService;
         this.productService = productService;
         this.lineItemService = lineItemService;
         this.propertiesCache = propertiesCache;
+        this.serviceRegistry = serviceRegistry;
+        this.projectionRegistry = projectionRegistry;
+        this.replicaStore = replicaStore;
+        this.syncOrchestrator = syncOrchestrator;
+        this.localSearchEngine = localSearchEngine;
+        this.indexManager = indexManager;
+        this.associationGraph = associationGraph;
+        this.graphHydrator = graphHydrator;
     }
 
     // 联系人相关接口
@@ -103,9 +140,10 @@ public class HubSpotController {
     public ResponseEntity<HubSpotResponse<Contact>> searchContacts(
             @RequestBody Map<String, Object> searchRequest,
             @RequestParam(required = false) List<String> properties,
-            @RequestParam(defaultValue = "10") int limit) {
-        Object filterGroups = searchRequest.get("filterGroups");
-        HubSpotResponse<Contact> response = contactService.searchObjects(filterGroups, properties, limit);
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(defaultValue = "false") boolean local) {
+        HubSpotResponse<Contact> response = search(HubSpotPropertiesCache.ObjectType.CONTACTS, contactService,
+                searchRequest, properties, limit, local);
         return ResponseEntity.ok(response);
     }
 
@@ -165,9 +203,10 @@ public class HubSpotController {
     public ResponseEntity<HubSpotResponse<Deal>> searchDeals(
             @RequestBody Map<String, Object> searchRequest,
             @RequestParam(required = false) List<String> properties,
-            @RequestParam(defaultValue = "10") int limit) {
-        Object filterGroups = searchRequest.get("filterGroups");
-        HubSpotResponse<Deal> response = dealService.searchObjects(filterGroups, properties, limit);
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(defaultValue = "false") boolean local) {
+        HubSpotResponse<Deal> response = search(HubSpotPropertiesCache.ObjectType.DEALS, dealService,
+                searchRequest, properties, limit, local);
         return ResponseEntity.ok(response);
     }
 
@@ -220,9 +259,10 @@ public class HubSpotController {
     public ResponseEntity<HubSpotResponse<Company>> searchCompanies(
             @RequestBody Map<String, Object> searchRequest,
             @RequestParam(required = false) List<String> properties,
-            @RequestParam(defaultValue = "10") int limit) {
-        Object filterGroups = searchRequest.get("filterGroups");
-        HubSpotResponse<Company> response = companyService.searchObjects(filterGroups, properties, limit);
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(defaultValue = "false") boolean local) {
+        HubSpotResponse<Company> response = search(HubSpotPropertiesCache.ObjectType.COMPANIES, companyService,
+                searchRequest, properties, limit, local);
         return ResponseEntity.ok(response);
     }
 
@@ -282,9 +322,10 @@ public class HubSpotController {
     public ResponseEntity<HubSpotResponse<Product>> searchProducts(
             @RequestBody Map<String, Object> searchRequest,
             @RequestParam(required = false) List<String> properties,
-            @RequestParam(defaultValue = "10") int limit) {
-        Object filterGroups = searchRequest.get("filterGroups");
-        HubSpotResponse<Product> response = productService.searchObjects(filterGroups, properties, limit);
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(defaultValue = "false") boolean local) {
+        HubSpotResponse<Product> response = search(HubSpotPropertiesCache.ObjectType.PRODUCTS, productService,
+                searchRequest, properties, limit, local);
         return ResponseEntity.ok(response);
     }
 
@@ -337,9 +378,10 @@ public class HubSpotController {
     public ResponseEntity<HubSpotResponse<LineItem>> searchLineItems(
             @RequestBody Map<String, Object> searchRequest,
             @RequestParam(required = false) List<String> properties,
-            @RequestParam(defaultValue = "10") int limit) {
-        Object filterGroups = searchRequest.get("filterGroups");
-        HubSpotResponse<LineItem> response = lineItemService.searchObjects(filterGroups, properties, limit);
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(defaultValue = "false") boolean local) {
+        HubSpotResponse<LineItem> response = search(HubSpotPropertiesCache.ObjectType.LINE_ITEMS, lineItemService,
+                searchRequest, properties, limit, local);
         return ResponseEntity.ok(response);
     }
 
@@ -384,4 +426,297 @@ public class HubSpotController {
         propertiesCache.clearAllCache();
         return ResponseEntity.ok().build();
     }
+
+    // 属性投影接口
+
+    /**
+     * 获取指定对象类型的所有命名投影
+     * @param objectType 对象类型
+     * @return 投影名称到属性列表的映射
+     */
+    @GetMapping("/projections/{objectType}")
+    public ResponseEntity<Map<String, List<String>>> getProjections(@PathVariable String objectType) {
+        HubSpotPropertiesCache.ObjectType type = HubSpotPropertiesCache.ObjectType.fromValue(objectType);
+        return ResponseEntity.ok(projectionRegistry.getNamedProjections(type));
+    }
+
+    /**
+     * 注册或覆盖命名投影
+     * @param objectType 对象类型
+     * @param name 投影名称，如 list-view、export
+     * @param properties 投影包含的属性列表
+     * @return 注册后的属性列表
+     */
+    @PutMapping("/projections/{objectType}/{name}")
+    public ResponseEntity<List<String>> registerProjection(
+            @PathVariable String objectType,
+            @PathVariable String name,
+            @RequestBody List<String> properties) {
+        HubSpotPropertiesCache.ObjectType type = HubSpotPropertiesCache.ObjectType.fromValue(objectType);
+        return ResponseEntity.ok(projectionRegistry.register(type, name, properties).getProperties());
+    }
+
+    /**
+     * 按命名投影分页获取对象
+     * @param objectType 对象类型
+     * @param projection 投影名称，all 表示所有属性
+     * @param limit 每页数量
+     * @param after 分页游标
+     * @return 对象列表响应
+     */
+    @GetMapping("/{objectType}/views/{projection}")
+    public ResponseEntity<HubSpotResponse<? extends HubSpotObject>> getObjectsWithProjection(
+            @PathVariable String objectType,
+            @PathVariable String projection,
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(required = false) String after) {
+        HubSpotResponse<? extends HubSpotObject> response = serviceRegistry.getService(objectType)
+                .getObjectsWithProjection(projection, limit, after);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * 按命名投影根据ID获取对象
+     * @param objectType 对象类型
+     * @param projection 投影名称，all 表示所有属性
+     * @param id 对象ID
+     * @return 对象
+     */
+    @GetMapping("/{objectType}/views/{projection}/{id}")
+    public ResponseEntity<HubSpotObject> getObjectByIdWithProjection(
+            @PathVariable String objectType,
+            @PathVariable String projection,
+            @PathVariable String id) {
+        HubSpotObject object = serviceRegistry.getService(objectType).getObjectByIdWithProjection(id, projection);
+        return ResponseEntity.ok(object);
+    }
+
+    // 本地副本接口
+
+    /**
+     * 从本地副本读取对象，不访问 HubSpot
+     * @param objectType 对象类型
+     * @param id 对象ID
+     * @return 对象，本地副本中不存在时返回 404
+     */
+    @GetMapping("/replica/{objectType}/{id}")
+    public ResponseEntity<HubSpotObject> getReplicaObject(
+            @PathVariable String objectType,
+            @PathVariable String id) {
+        HubSpotObject object = replicaStore.get(HubSpotPropertiesCache.ObjectType.fromValue(objectType), id);
+        return object != null ? ResponseEntity.ok(object) : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * 获取本地副本中各对象类型的对象数量
+     * @return 对象类型到数量的映射
+     */
+    @GetMapping("/replica/stats")
+    public ResponseEntity<Map<String, Long>> getReplicaStats() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        for (HubSpotPropertiesCache.ObjectType type : HubSpotPropertiesCache.ObjectType.values()) {
+            stats.put(type.getValue(), replicaStore.count(type));
+        }
+        return ResponseEntity.ok(stats);
+    }
+
+    /**
+     * 获取本地副本上各二级索引的键数量
+     * @return 对象类型到（属性:索引类型 -> 键数量）的映射
+     */
+    @GetMapping("/replica/indexes")
+    public ResponseEntity<Map<String, Map<String, Integer>>> getReplicaIndexes() {
+        return ResponseEntity.ok(indexManager.getStats());
+    }
+
+    /**
+     * 获取关联关系图中各关联的源对象数量、关联数量和刷新时间
+     * @return 源对象类型:目标对象类型 到统计的映射
+     */
+    @GetMapping("/replica/associations")
+    public ResponseEntity<Map<String, Map<String, Object>>> getReplicaAssociations() {
+        return ResponseEntity.ok(associationGraph.getStats());
+    }
+
+    // 关联接口
+
+    /**
+     * 获取对象关联的目标对象ID，优先使用内存中的关联关系图，未加载时批量读取
+     * @param objectType 源对象类型
+     * @param id 源对象ID
+     * @param toObjectType 目标对象类型
+     * @return 目标对象ID（升序）
+     */
+    @GetMapping("/associations/{objectType}/{id}/{toObjectType}")
+    public ResponseEntity<long[]> getAssociations(
+            @PathVariable String objectType,
+            @PathVariable String id,
+            @PathVariable String toObjectType) {
+        return ResponseEntity.ok(associationGraph.getAssociations(HubSpotPropertiesCache.ObjectType.fromValue(objectType),
+                id, HubSpotPropertiesCache.ObjectType.fromValue(toObjectType)));
+    }
+
+    /**
+     * 从一个对象出发沿关联路径多跳遍历，例如 /associations/companies/123?path=contacts,deals,line-items
+     * @param objectType 起始对象类型
+     * @param id 起始对象ID
+     * @param path 依次经过的对象类型，逗号分隔
+     * @return 每一跳中各源对象关联的目标对象ID
+     */
+    @GetMapping("/associations/{objectType}/{id}")
+    public ResponseEntity<List<AssociationGraph.Hop>> traverseAssociations(
+            @PathVariable String objectType,
+            @PathVariable String id,
+            @RequestParam List<String> path) {
+        List<HubSpotPropertiesCache.ObjectType> types = path.stream()
+                .map(HubSpotPropertiesCache.ObjectType::fromValue)
+                .toList();
+        return ResponseEntity.ok(associationGraph.traverse(HubSpotPropertiesCache.ObjectType.fromValue(objectType),
+                id, types));
+    }
+
+    /**
+     * 一次获取对象及其逐层关联的对象，例如 /hydrate/deals/123?expand=line-items.products,contacts.companies
+     * @param objectType 根对象类型
+     * @param id 根对象ID
+     * @param expand 展开规则，逗号分隔多条路径，路径中用点号依次列出对象类型
+     * @return 带有关联对象的根对象
+     */
+    @GetMapping("/hydrate/{objectType}/{id}")
+    public ResponseEntity<HydratedObject> hydrate(
+            @PathVariable String objectType,
+            @PathVariable String id,
+            @RequestParam(required = false) String expand) {
+        return ResponseEntity.ok(graphHydrator.hydrate(HubSpotPropertiesCache.ObjectType.fromValue(objectType), id,
+                expand));
+    }
+
+    // 同步接口
+
+    /**
+     * 获取各对象类型最近一次同步的运行统计
+     * @return 运行统计列表，包括记录数、页数、重试次数、每秒记录数等
+     */
+    @GetMapping("/sync/runs")
+    public ResponseEntity<List<SyncRunStats>> getSyncRuns() {
+        return ResponseEntity.ok(syncOrchestrator.getLastRuns());
+    }
+
+    /**
+     * 在后台开始同步所有对象类型
+     * @param mode 同步方式：full 或 incremental
+     * @return 202，进度通过 /sync/runs 查看
+     */
+    @PostMapping("/sync/{mode}")
+    public ResponseEntity<Void> startSync(@PathVariable String mode) {
+        syncOrchestrator.startAsync(SyncRunStats.Mode.valueOf(mode.toUpperCase()));
+        return ResponseEntity.accepted().build();
+    }
+
+    // 批量操作接口
+
+    /**
+     * 批量读取对象
+     * @param objectType 对象类型，可以是：contacts, deals, companies, products, line-items
+     * @param batchRequest 请求体，格式为 {"inputs": [{"id": "..."}], "properties": [...]}
+     * @return 每条记录的结果和错误
+     */
+    @PostMapping("/{objectType}/batch/read")
+    public ResponseEntity<HubSpotBatchResponse<? extends HubSpotObject>> batchRead(
+            @PathVariable String objectType,
+            @RequestBody Map<String, Object> batchRequest) {
+        @SuppressWarnings("unchecked")
+        List<String> properties = (List<String>) batchRequest.get("properties");
+        HubSpotBatchResponse<? extends HubSpotObject> response = serviceRegistry.getService(objectType)
+                .batchRead(extractIds(batchRequest), properties);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * 批量创建对象
+     * @param objectType 对象类型
+     * @param batchRequest 请求体，格式为 {"inputs": [{"properties": {...}}]}
+     * @return 每条记录的结果和错误
+     */
+    @PostMapping("/{objectType}/batch/create")
+    public ResponseEntity<HubSpotBatchResponse<? extends HubSpotObject>> batchCreate(
+            @PathVariable String objectType,
+            @RequestBody Map<String, Object> batchRequest) {
+        List<Map<String, Object>> propertiesList = extractInputs(batchRequest).stream()
+                .map(this::extractProperties)
+                .toList();
+        HubSpotBatchResponse<? extends HubSpotObject> response = serviceRegistry.getService(objectType)
+                .batchCreate(propertiesList);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * 批量更新对象
+     * @param objectType 对象类型
+     * @param batchRequest 请求体，格式为 {"inputs": [{"id": "...", "properties": {...}}]}
+     * @return 每条记录的结果和错误
+     */
+    @PostMapping("/{objectType}/batch/update")
+    public ResponseEntity<HubSpotBatchResponse<? extends HubSpotObject>> batchUpdate(
+            @PathVariable String objectType,
+            @RequestBody Map<String, Object> batchRequest) {
+        Map<String, Map<String, Object>> updates = new LinkedHashMap<>();
+        for (Map<String, Object> input : extractInputs(batchRequest)) {
+            updates.put(String.valueOf(input.get("id")), extractProperties(input));
+        }
+        HubSpotBatchResponse<? extends HubSpotObject> response = serviceRegistry.getService(objectType)
+                .batchUpdate(updates);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * 批量归档（删除）对象
+     * @param objectType 对象类型
+     * @param batchRequest 请求体，格式为 {"inputs": [{"id": "..."}]}
+     * @return 失败记录的错误
+     */
+    @PostMapping("/{objectType}/batch/archive")
+    public ResponseEntity<HubSpotBatchResponse<? extends HubSpotObject>> batchArchive(
+            @PathVariable String objectType,
+            @RequestBody Map<String, Object> batchRequest) {
+        HubSpotBatchResponse<? extends HubSpotObject> response = serviceRegistry.getService(objectType)
+                .batchArchive(extractIds(batchRequest));
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * 执行搜索，请求体格式与 HubSpot 搜索接口相同（filterGroups、sorts、after）
+     * local 为 true 且本地副本足够新时在本地副本上搜索，否则调用 HubSpot 搜索接口
+     */
+    @SuppressWarnings("unchecked")
+    private <T extends HubSpotObject> HubSpotResponse<T> search(HubSpotPropertiesCache.ObjectType objectType,
+                                                                GenericHubSpotService<T> service,
+                                                                Map<String, Object> searchRequest,
+                                                                List<String> properties, int limit, boolean local) {
+        Object filterGroups = searchRequest.get("filterGroups");
+        List<Map<String, Object>> sorts = (List<Map<String, Object>>) searchRequest.get("sorts");
+        String after = searchRequest.get("after") != null ? String.valueOf(searchRequest.get("after")) : null;
+        if (local && localSearchEngine.isAvailable(objectType)) {
+            return localSearchEngine.search(objectType, filterGroups, sorts, properties, limit, after);
+        }
+        return service.searchObjects(filterGroups, sorts, properties, limit, after);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Map<String, Object>> extractInputs(Map<String, Object> batchRequest) {
+        Object inputs = batchRequest.get("inputs");
+        return inputs != null ? (List<Map<String, Object>>) inputs : List.of();
+    }
+
+    private List<String> extractIds(Map<String, Object> batchRequest) {
+        return extractInputs(batchRequest).stream()
+                .map(input -> String.valueOf(input.get("id")))
+                .toList();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> extractProperties(Map<String, Object> input) {
+        Object properties = input.get("properties");
+        return properties != null ? (Map<String, Object>) properties : Map.of();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,55 @@
+package com.example.hubspotdemo.hydration;
+
+import com.example.hubspotdemo.cache.HubSpotPropertiesCache.ObjectType;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 对象关系图的展开规则，形如 line-items.products,contacts.companies
+ * <p>
+ * 逗号分隔多条路径，每条路径用点号依次列出要展开的对象类型，相同前缀的路径合并为一棵树。
+ */
+final class ExpansionSpec {
+
+    private final ObjectType type;
+    private final Map<ObjectType, ExpansionSpec> children = new LinkedHashMap<>();
+
+    private ExpansionSpec(ObjectType type) {
+        this.type = type;
+    }
+
+    /**
+     * 解析展开规则
+     * @param rootType 根对象类型
+     * @param expand 展开规则，为空时只返回根对象
+     * @return 以根对象类型为根的展开树
+     * @throws IllegalArgumentException 规则中包含不支持的对象类型或空的路径段
+     */
+    static ExpansionSpec parse(ObjectType rootType, String expand) {
+        ExpansionSpec root = new ExpansionSpec(rootType);
+        if (expand == null || expand.isBlank()) {
+            return root;
+        }
+        for (String path : expand.split(",")) {
+            ExpansionSpec node = root;
+            for (String segment : path.trim().split("\\.")) {
+                if (segment.isBlank()) {
+                    throw new IllegalArgumentException("无效的展开规则: " + expand);
+                }
+                ObjectType childType = ObjectType.fromValue(segment.trim());
+                node = node.children.computeIfAbsent(childType, ExpansionSpec::new);
+            }
+        }
+        return root;
+    }
+
+    ObjectType type() {
+        return type;
+    }
+
+    Collection<ExpansionSpec> children() {
+        return children.values();
+    }
+}
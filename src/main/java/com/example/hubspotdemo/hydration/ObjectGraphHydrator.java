@@ -0,0 +1,247 @@
+package com.example.hubspotdemo.hydration;
+
+import com.example.hubspotdemo.association.AssociationGraph;
+import com.example.hubspotdemo.cache.HubSpotObjectCache;
+import com.example.hubspotdemo.cache.HubSpotPropertiesCache.ObjectType;
+import com.example.hubspotdemo.config.AssociationConfig;
+import com.example.hubspotdemo.model.HubSpotBatchResponse;
+import com.example.hubspotdemo.model.HubSpotObject;
+import com.example.hubspotdemo.model.HydratedObject;
+import com.example.hubspotdemo.ratelimit.RequestPriority;
+import com.example.hubspotdemo.search.PropertyValues;
+import com.example.hubspotdemo.service.HubSpotServiceRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Supplier;
+
+/**
+ * 对象关系图解析器，按展开规则一次返回根对象及其逐层关联的对象
+ * <p>
+ * 逐层解析：同一层的所有关联一起从关联关系图读取，再按对象类型合并为批量读取并发获取，
+ * 已缓存的对象直接使用。每一层只需要几次并发的批量请求，与层内对象的数量无关。
+ * <p>
+ * 行项目到产品不是 HubSpot 关联，通过行项目的 hs_product_id 属性解析。
+ */
+@Component
+@Slf4j
+public class ObjectGraphHydrator {
+
+    // 通过属性而不是关联引用的对象，键为 源对象类型:目标对象类型
+    private static final Map<String, String> REFERENCE_PROPERTIES = Map.of(
+            key(ObjectType.LINE_ITEMS, ObjectType.PRODUCTS), "hs_product_id");
+
+    /**
+     * 一层中待展开的一条边：展开规则节点和它的所有源对象
+     */
+    private record Expansion(ExpansionSpec spec, List<HydratedObject> parents) {
+    }
+
+    private final HubSpotServiceRegistry serviceRegistry;
+    private final AssociationGraph associationGraph;
+    private final HubSpotObjectCache objectCache;
+    private final AssociationConfig associationConfig;
+    private final ExecutorService taskExecutor;
+
+    @Autowired
+    public ObjectGraphHydrator(HubSpotServiceRegistry serviceRegistry, AssociationGraph associationGraph,
+                               HubSpotObjectCache objectCache, AssociationConfig associationConfig,
+                               @Qualifier("hubSpotTaskExecutor") ExecutorService taskExecutor) {
+        this.serviceRegistry = serviceRegistry;
+        this.associationGraph = associationGraph;
+        this.objectCache = objectCache;
+        this.associationConfig = associationConfig;
+        this.taskExecutor = taskExecutor;
+    }
+
+    /**
+     * 获取根对象并按展开规则解析关联的对象
+     * @param rootType 根对象类型
+     * @param rootId 根对象ID
+     * @param expand 展开规则，如 line-items.products,contacts.companies，为空时只返回根对象
+     * @return 带有关联对象的根对象，已不存在的关联对象不会出现在结果中
+     * @throws IllegalArgumentException 展开规则无效或对象数量超过上限
+     */
+    public HydratedObject hydrate(ObjectType rootType, String rootId, String expand) {
+        long startedAt = System.currentTimeMillis();
+        ExpansionSpec root = ExpansionSpec.parse(rootType, expand);
+        HydratedObject rootNode = node(rootType, serviceRegistry.getService(rootType).getObjectById(rootId));
+
+        List<Expansion> level = expansionsOf(root, List.of(rootNode));
+        int visited = 1;
+        int depth = 0;
+        int requests = 1;
+        while (!level.isEmpty()) {
+            depth++;
+            // 1. 并发解析这一层所有边的目标对象ID
+            List<CompletableFuture<Map<String, List<String>>>> edgeFutures = new ArrayList<>(level.size());
+            for (Expansion expansion : level) {
+                edgeFutures.add(async(() -> resolveTargets(expansion)));
+            }
+            List<Map<String, List<String>>> targets = joinAll(edgeFutures);
+
+            // 2. 按对象类型合并目标对象ID，每种类型并发批量读取
+            Map<ObjectType, Set<String>> idsByType = new EnumMap<>(ObjectType.class);
+            for (int i = 0; i < level.size(); i++) {
+                Set<String> ids = idsByType.computeIfAbsent(level.get(i).spec().type(), type -> new LinkedHashSet<>());
+                targets.get(i).values().forEach(ids::addAll);
+            }
+            for (Set<String> ids : idsByType.values()) {
+                visited += ids.size();
+            }
+            if (visited > associationConfig.getMaxTraversalNodes()) {
+                throw new IllegalArgumentException("展开的对象数量超过上限 " + associationConfig.getMaxTraversalNodes());
+            }
+            Map<ObjectType, CompletableFuture<Map<String, HubSpotObject>>> objectFutures = new EnumMap<>(ObjectType.class);
+            idsByType.forEach((type, ids) -> objectFutures.put(type, async(() -> loadObjects(type, ids))));
+            requests += level.size() + objectFutures.size();
+
+            // 3. 挂到源对象下，并生成下一层
+            List<Expansion> next = new ArrayList<>();
+            for (int i = 0; i < level.size(); i++) {
+                Expansion expansion = level.get(i);
+                ObjectType type = expansion.spec().type();
+                Map<String, HubSpotObject> objects = join(objectFutures.get(type));
+                // 同一个对象在多个源对象下共用一个节点，下一层只展开一次
+                Map<String, HydratedObject> nodes = new LinkedHashMap<>();
+                for (HydratedObject parent : expansion.parents()) {
+                    List<HydratedObject> children = new ArrayList<>();
+                    for (String id : targets.get(i).getOrDefault(parent.getId(), List.of())) {
+                        HubSpotObject object = objects.get(id);
+                        if (object != null) {
+                            children.add(nodes.computeIfAbsent(id, key -> node(type, object)));
+                        }
+                    }
+                    parent.getAssociations().put(type.getValue(), children);
+                }
+                next.addAll(expansionsOf(expansion.spec(), new ArrayList<>(nodes.values())));
+            }
+            level = next;
+        }
+        log.info("解析 {} ID: {} 的对象关系图完成，{} 层，{} 个对象，约 {} 次并发请求，耗时 {} 毫秒",
+                rootType.getValue(), rootId, depth, visited, requests, System.currentTimeMillis() - startedAt);
+        return rootNode;
+    }
+
+    private static List<Expansion> expansionsOf(ExpansionSpec spec, List<HydratedObject> parents) {
+        List<Expansion> expansions = new ArrayList<>();
+        if (!parents.isEmpty()) {
+            for (ExpansionSpec child : spec.children()) {
+                expansions.add(new Expansion(child, parents));
+            }
+        }
+        return expansions;
+    }
+
+    /**
+     * 解析一条边上每个源对象的目标对象ID
+     * @return 源对象ID到目标对象ID的映射
+     */
+    private Map<String, List<String>> resolveTargets(Expansion expansion) {
+        ObjectType toType = expansion.spec().type();
+        List<HydratedObject> parents = expansion.parents();
+        ObjectType fromType = ObjectType.fromValue(parents.get(0).getType());
+        Map<String, List<String>> targets = new HashMap<>();
+
+        String referenceProperty = REFERENCE_PROPERTIES.get(key(fromType, toType));
+        if (referenceProperty != null) {
+            for (HydratedObject parent : parents) {
+                String targetId = PropertyValues.value(parent.getObject(), referenceProperty);
+                targets.put(parent.getId(), targetId != null ? List.of(targetId) : List.of());
+            }
+            return targets;
+        }
+
+        List<Long> parentIds = new ArrayList<>(parents.size());
+        for (HydratedObject parent : parents) {
+            parentIds.add(Long.parseLong(parent.getId()));
+        }
+        associationGraph.getAssociations(fromType, parentIds, toType).forEach((parentId, targetIds) -> {
+            List<String> ids = new ArrayList<>(targetIds.length);
+            for (long targetId : targetIds) {
+                ids.add(String.valueOf(targetId));
+            }
+            targets.put(String.valueOf(parentId), ids);
+        });
+        return targets;
+    }
+
+    /**
+     * 获取对象，已缓存的直接使用，其余的合并为批量读取
+     * @return 对象ID到对象的映射，不存在的对象不在结果中
+     */
+    private Map<String, HubSpotObject> loadObjects(ObjectType objectType, Set<String> ids) {
+        Map<String, HubSpotObject> objects = new HashMap<>(ids.size() * 4 / 3 + 1);
+        List<String> missing = new ArrayList<>();
+        for (String id : ids) {
+            HubSpotObject cached = objectCache.getIfPresent(objectType, id);
+            if (cached != null) {
+                objects.put(id, cached);
+            } else {
+                missing.add(id);
+            }
+        }
+        if (!missing.isEmpty()) {
+            HubSpotBatchResponse<? extends HubSpotObject> response =
+                    serviceRegistry.getService(objectType).batchRead(missing, null);
+            for (HubSpotObject object : response.getResults()) {
+                objects.put(object.getId(), object);
+            }
+            if (!response.getErrors().isEmpty()) {
+                log.warn("批量读取 {} 时有 {} 个错误: {}", objectType.getValue(), response.getErrors().size(),
+                        response.getErrors().get(0).getMessage());
+            }
+        }
+        log.debug("获取 {} 个 {}，缓存命中 {} 个", ids.size(), objectType.getValue(), ids.size() - missing.size());
+        return objects;
+    }
+
+    private static HydratedObject node(ObjectType type, HubSpotObject object) {
+        HydratedObject node = new HydratedObject();
+        node.setType(type.getValue());
+        node.setId(object.getId());
+        node.setObject(object);
+        return node;
+    }
+
+    /**
+     * 在后台线程执行，沿用调用方的请求优先级
+     */
+    private <R> CompletableFuture<R> async(Supplier<R> task) {
+        RequestPriority priority = RequestPriority.current();
+        return CompletableFuture.supplyAsync(() -> RequestPriority.callWith(priority, task), taskExecutor);
+    }
+
+    private static <R> List<R> joinAll(List<CompletableFuture<R>> futures) {
+        List<R> results = new ArrayList<>(futures.size());
+        for (CompletableFuture<R> future : futures) {
+            results.add(join(future));
+        }
+        return results;
+    }
+
+    private static <R> R join(CompletableFuture<R> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    private static String key(ObjectType fromType, ObjectType toType) {
+        return fromType.getValue() + ":" + toType.getValue();
+    }
+}
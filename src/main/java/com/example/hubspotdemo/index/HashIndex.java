@@ -0,0 +1,88 @@
+package com.example.hubspotdemo.index;
+
+import com.example.hubspotdemo.search.PropertyValues;
+import com.example.hubspotdemo.search.SearchFilter;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 哈希索引，键为 {@link PropertyValues#equalityKey(String)}，与本地搜索的等值比较规则一致
+ */
+final class HashIndex implements PropertyIndex {
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, String> keys = new HashMap<>();
+    private final Map<String, Object> postings = new HashMap<>();
+
+    @Override
+    public IndexKind kind() {
+        return IndexKind.HASH;
+    }
+
+    @Override
+    public void put(String objectId, String value, double orderKey) {
+        String key = value != null ? PropertyValues.equalityKey(value, orderKey) : null;
+        lock.writeLock().lock();
+        try {
+            String previous = key != null ? keys.put(objectId, key) : keys.remove(objectId);
+            if (Objects.equals(previous, key)) {
+                return;
+            }
+            if (previous != null) {
+                Postings.remove(postings, previous, objectId);
+            }
+            if (key != null) {
+                Postings.add(postings, key, objectId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(String objectId) {
+        put(objectId, null, Double.NaN);
+    }
+
+    @Override
+    public Set<String> candidates(SearchFilter filter) {
+        String operator = filter.getOperator() != null ? filter.getOperator().toUpperCase(Locale.ROOT) : "EQ";
+        if ("EQ".equals(operator) && filter.getValue() != null) {
+            return lookup(Set.of(filter.getValue()));
+        }
+        if ("IN".equals(operator) && filter.getValues() != null) {
+            return lookup(filter.getValues());
+        }
+        return null;
+    }
+
+    private Set<String> lookup(Iterable<String> values) {
+        Set<String> ids = new HashSet<>();
+        lock.readLock().lock();
+        try {
+            for (String value : values) {
+                Postings.addTo(postings.get(PropertyValues.equalityKey(value)), ids);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return ids;
+    }
+
+    @Override
+    public int keyCount() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
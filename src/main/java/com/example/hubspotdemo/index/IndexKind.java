@@ -0,0 +1,22 @@
+package com.example.hubspotdemo.index;
+
+/**
+ * 二级索引类型
+ */
+public enum IndexKind {
+
+    /**
+     * 哈希索引，用于 EQ、IN
+     */
+    HASH,
+
+    /**
+     * 有序索引，用于数字和时间的 EQ、GT、GTE、LT、LTE、BETWEEN
+     */
+    SORTED,
+
+    /**
+     * 词索引，用于 CONTAINS_TOKEN（按词匹配或以 * 结尾的前缀匹配）
+     */
+    TOKEN
+}
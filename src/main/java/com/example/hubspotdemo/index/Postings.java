@@ -0,0 +1,66 @@
+package com.example.hubspotdemo.index;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 索引键到对象ID的倒排列表
+ * 大多数键只对应一个对象（如邮箱、域名），只有一个对象时直接保存ID字符串，避免为每个键创建集合
+ */
+final class Postings {
+
+    private Postings() {
+    }
+
+    @SuppressWarnings("unchecked")
+    static <K> void add(Map<K, Object> postings, K key, String objectId) {
+        postings.merge(key, objectId, (current, id) -> {
+            if (current instanceof Set<?> set) {
+                ((Set<String>) set).add(objectId);
+                return set;
+            }
+            if (current.equals(objectId)) {
+                return current;
+            }
+            Set<String> ids = new HashSet<>(4);
+            ids.add((String) current);
+            ids.add(objectId);
+            return ids;
+        });
+    }
+
+    static <K> void remove(Map<K, Object> postings, K key, String objectId) {
+        postings.computeIfPresent(key, (k, current) -> {
+            if (current instanceof Set<?> set) {
+                set.remove(objectId);
+                return set.size() == 1 ? set.iterator().next() : set;
+            }
+            return current.equals(objectId) ? null : current;
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    static void addTo(Object posting, Collection<String> target) {
+        if (posting instanceof Set<?> set) {
+            target.addAll((Set<String>) set);
+        } else if (posting != null) {
+            target.add((String) posting);
+        }
+    }
+
+    static boolean contains(Object posting, String objectId) {
+        if (posting instanceof Set<?> set) {
+            return set.contains(objectId);
+        }
+        return objectId.equals(posting);
+    }
+
+    static int size(Object posting) {
+        if (posting instanceof Set<?> set) {
+            return set.size();
+        }
+        return posting != null ? 1 : 0;
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.hubspotdemo.index;
+
+import com.example.hubspotdemo.search.SearchFilter;
+
+import java.util.Set;
+
+/**
+ * 单个属性上的二级索引
+ */
+interface PropertyIndex {
+
+    /**
+     * 索引类型
+     */
+    IndexKind kind();
+
+    /**
+     * 写入或更新对象的属性值
+     * @param objectId 对象ID
+     * @param value 属性值，为 null 时从索引中移除
+     * @param orderKey 属性值的范围比较键（见 {@link com.example.hubspotdemo.search.PropertyValues#orderKey(String)}），
+     *                 由调用方计算一次，同一属性上的多个索引共用；属性值为 null 时为 NaN
+     */
+    void put(String objectId, String value, double orderKey);
+
+    /**
+     * 从索引中移除对象
+     * @param objectId 对象ID
+     */
+    void remove(String objectId);
+
+    /**
+     * 查找可能满足过滤条件的对象ID，结果是满足条件的对象的超集，调用方仍需逐个校验
+     * @param filter 过滤条件
+     * @return 对象ID集合（副本），索引不能用于该条件时返回 null
+     */
+    Set<String> candidates(SearchFilter filter);
+
+    /**
+     * 索引中不同键的数量
+     */
+    int keyCount();
+}
@@ -0,0 +1,171 @@
+package com.example.hubspotdemo.index;
+
+import com.example.hubspotdemo.cache.HubSpotPropertiesCache.ObjectType;
+import com.example.hubspotdemo.config.IndexConfig;
+import com.example.hubspotdemo.model.HubSpotObject;
+import com.example.hubspotdemo.replica.ReplicaChangeListener;
+import com.example.hubspotdemo.replica.ReplicaStore;
+import com.example.hubspotdemo.search.PropertyValues;
+import com.example.hubspotdemo.search.SearchFilter;
+import com.example.hubspotdemo.search.SearchFilterGroup;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 本地副本的二级索引管理器
+ * <p>
+ * 按配置为各对象类型的属性建立哈希、有序和词索引。启动时从本地副本构建，之后通过副本变更通知增量维护，
+ * 同步任务写入数据后索引立即可用。本地搜索通过索引缩小候选对象范围，再逐个校验完整的过滤条件。
+ */
+@Component
+@Slf4j
+public class SecondaryIndexManager implements ReplicaChangeListener {
+
+    /**
+     * 单个属性上的索引
+     */
+    private record IndexedProperty(String property, PropertyIndex index) {
+    }
+
+    private final IndexConfig indexConfig;
+    private final ReplicaStore replicaStore;
+
+    private final Map<ObjectType, List<IndexedProperty>> indexes = new EnumMap<>(ObjectType.class);
+
+    @Autowired
+    public SecondaryIndexManager(IndexConfig indexConfig, ReplicaStore replicaStore) {
+        this.indexConfig = indexConfig;
+        this.replicaStore = replicaStore;
+    }
+
+    /**
+     * 创建配置的索引并从本地副本构建
+     * 先注册变更监听器再扫描：扫描期间副本存储持有读锁，写入会在扫描完成后生效并通过监听器更新索引
+     */
+    @PostConstruct
+    public void init() {
+        indexConfig.getTypes().forEach((typeName, properties) -> {
+            ObjectType type = ObjectType.fromValue(typeName);
+            List<IndexedProperty> typeIndexes = new ArrayList<>();
+            properties.forEach((property, kinds) -> {
+                for (IndexKind kind : kinds) {
+                    typeIndexes.add(new IndexedProperty(property, create(kind)));
+                }
+            });
+            if (!typeIndexes.isEmpty()) {
+                indexes.put(type, typeIndexes);
+            }
+        });
+        if (indexes.isEmpty()) {
+            return;
+        }
+
+        replicaStore.addChangeListener(this);
+        for (Map.Entry<ObjectType, List<IndexedProperty>> entry : indexes.entrySet()) {
+            long startedAt = System.currentTimeMillis();
+            long[] count = new long[1];
+            replicaStore.forEach(entry.getKey(), object -> {
+                onUpsert(entry.getKey(), object);
+                count[0]++;
+            });
+            log.info("构建 {} 的 {} 个二级索引完成，共 {} 个对象，耗时 {} 毫秒", entry.getKey().getValue(),
+                    entry.getValue().size(), count[0], System.currentTimeMillis() - startedAt);
+        }
+    }
+
+    private static PropertyIndex create(IndexKind kind) {
+        return switch (kind) {
+            case HASH -> new HashIndex();
+            case SORTED -> new SortedIndex();
+            case TOKEN -> new TokenIndex();
+        };
+    }
+
+    @Override
+    public void onUpsert(ObjectType objectType, HubSpotObject object) {
+        List<IndexedProperty> typeIndexes = indexes.get(objectType);
+        if (typeIndexes == null) {
+            return;
+        }
+        for (IndexedProperty indexed : typeIndexes) {
+            // 紧凑存储的对象使用保存的解码值，同一属性上的多个索引只解析一次
+            String value = PropertyValues.value(object, indexed.property());
+            double orderKey = value != null ? PropertyValues.orderKey(object, indexed.property(), value) : Double.NaN;
+            indexed.index().put(object.getId(), value, orderKey);
+        }
+    }
+
+    @Override
+    public void onArchive(ObjectType objectType, String objectId) {
+        List<IndexedProperty> typeIndexes = indexes.get(objectType);
+        if (typeIndexes == null) {
+            return;
+        }
+        for (IndexedProperty indexed : typeIndexes) {
+            indexed.index().remove(objectId);
+        }
+    }
+
+    /**
+     * 根据过滤条件组查找候选对象
+     * 每个条件组选择候选最少的可用索引，各组的候选取并集；任意一个条件组没有可用的索引时需要全量扫描
+     * @param objectType 对象类型
+     * @param filterGroups 过滤条件组
+     * @return 候选对象ID集合，需要全量扫描时返回 null
+     */
+    public Set<String> candidates(ObjectType objectType, List<SearchFilterGroup> filterGroups) {
+        List<IndexedProperty> typeIndexes = indexes.get(objectType);
+        if (typeIndexes == null || filterGroups == null || filterGroups.isEmpty()) {
+            return null;
+        }
+        Set<String> candidates = new HashSet<>();
+        for (SearchFilterGroup group : filterGroups) {
+            Set<String> best = null;
+            if (group.getFilters() != null) {
+                for (SearchFilter filter : group.getFilters()) {
+                    for (IndexedProperty indexed : typeIndexes) {
+                        if (!indexed.property().equals(filter.getPropertyName())) {
+                            continue;
+                        }
+                        Set<String> ids = indexed.index().candidates(filter);
+                        if (ids != null && (best == null || ids.size() < best.size())) {
+                            best = ids;
+                        }
+                    }
+                }
+            }
+            if (best == null) {
+                return null;
+            }
+            candidates.addAll(best);
+        }
+        return candidates;
+    }
+
+    /**
+     * 获取各对象类型的索引统计
+     * @return 对象类型到（属性:索引类型 -> 键数量）的映射
+     */
+    public Map<String, Map<String, Integer>> getStats() {
+        Map<String, Map<String, Integer>> stats = new LinkedHashMap<>();
+        indexes.forEach((type, typeIndexes) -> {
+            Map<String, Integer> typeStats = new LinkedHashMap<>();
+            for (IndexedProperty indexed : typeIndexes) {
+                typeStats.put(indexed.property() + ":" + indexed.index().kind().name().toLowerCase(),
+                        indexed.index().keyCount());
+            }
+            stats.put(type.getValue(), typeStats);
+        });
+        return stats;
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.hubspotdemo.index;
+
+import com.example.hubspotdemo.search.PropertyValues;
+import com.example.hubspotdemo.search.SearchFilter;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 有序索引，键为 {@link PropertyValues#orderKey(String)}（数值或毫秒时间戳）
+ * <p>
+ * 无法转换为数值的属性值按字符串比较，可能满足任意范围条件，因此单独保存并总是作为候选返回。
+ */
+final class SortedIndex implements PropertyIndex {
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Double> keys = new HashMap<>();
+    private final NavigableMap<Double, Object> postings = new TreeMap<>();
+    private final Set<String> unordered = new HashSet<>();
+
+    @Override
+    public IndexKind kind() {
+        return IndexKind.SORTED;
+    }
+
+    @Override
+    public void put(String objectId, String value, double orderKey) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(objectId);
+            if (value == null) {
+                return;
+            }
+            if (Double.isNaN(orderKey)) {
+                unordered.add(objectId);
+            } else {
+                keys.put(objectId, orderKey);
+                Postings.add(postings, orderKey, objectId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(String objectId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(objectId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeLocked(String objectId) {
+        Double previous = keys.remove(objectId);
+        if (previous != null) {
+            Postings.remove(postings, previous, objectId);
+        }
+        unordered.remove(objectId);
+    }
+
+    @Override
+    public Set<String> candidates(SearchFilter filter) {
+        String operator = filter.getOperator() != null ? filter.getOperator().toUpperCase(Locale.ROOT) : "EQ";
+        double value = filter.getValue() != null ? PropertyValues.orderKey(filter.getValue()) : Double.NaN;
+        if (Double.isNaN(value)) {
+            return null;
+        }
+        return switch (operator) {
+            case "EQ" -> range(value, true, value, true);
+            case "GT" -> range(value, false, Double.POSITIVE_INFINITY, true);
+            case "GTE" -> range(value, true, Double.POSITIVE_INFINITY, true);
+            case "LT" -> range(Double.NEGATIVE_INFINITY, true, value, false);
+            case "LTE" -> range(Double.NEGATIVE_INFINITY, true, value, true);
+            case "BETWEEN" -> {
+                double high = filter.getHighValue() != null ? PropertyValues.orderKey(filter.getHighValue()) : Double.NaN;
+                yield Double.isNaN(high) ? null : range(value, true, high, true);
+            }
+            default -> null;
+        };
+    }
+
+    private Set<String> range(double from, boolean fromInclusive, double to, boolean toInclusive) {
+        Set<String> ids = new HashSet<>();
+        lock.readLock().lock();
+        try {
+            if (from <= to) {
+                for (Object posting : postings.subMap(from, fromInclusive, to, toInclusive).values()) {
+                    Postings.addTo(posting, ids);
+                }
+            }
+            ids.addAll(unordered);
+        } finally {
+            lock.readLock().unlock();
+        }
+        return ids;
+    }
+
+    @Override
+    public int keyCount() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
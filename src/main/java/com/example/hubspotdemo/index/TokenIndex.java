@@ -0,0 +1,133 @@
+package com.example.hubspotdemo.index;
+
+import com.example.hubspotdemo.search.PropertyValues;
+import com.example.hubspotdemo.search.SearchFilter;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 词索引，同时维护词到对象的倒排列表和按完整值排序的前缀索引
+ * <p>
+ * CONTAINS_TOKEN 不带通配符时取各个词的倒排列表的交集；只在末尾带一个 * 时按完整值的前缀查找。
+ */
+final class TokenIndex implements PropertyIndex {
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, String> values = new HashMap<>();
+    private final Map<String, Object> tokenPostings = new HashMap<>();
+    private final NavigableMap<String, Object> valuePostings = new TreeMap<>();
+
+    @Override
+    public IndexKind kind() {
+        return IndexKind.TOKEN;
+    }
+
+    @Override
+    public void put(String objectId, String value, double orderKey) {
+        String normalized = value != null ? value.toLowerCase(Locale.ROOT) : null;
+        lock.writeLock().lock();
+        try {
+            String previous = normalized != null ? values.put(objectId, normalized) : values.remove(objectId);
+            if (previous != null && previous.equals(normalized)) {
+                return;
+            }
+            if (previous != null) {
+                Postings.remove(valuePostings, previous, objectId);
+                for (String token : PropertyValues.tokens(previous)) {
+                    Postings.remove(tokenPostings, token, objectId);
+                }
+            }
+            if (normalized != null) {
+                Postings.add(valuePostings, normalized, objectId);
+                for (String token : PropertyValues.tokens(normalized)) {
+                    Postings.add(tokenPostings, token, objectId);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(String objectId) {
+        put(objectId, null, Double.NaN);
+    }
+
+    @Override
+    public Set<String> candidates(SearchFilter filter) {
+        String operator = filter.getOperator() != null ? filter.getOperator().toUpperCase(Locale.ROOT) : "EQ";
+        if (!"CONTAINS_TOKEN".equals(operator) || filter.getValue() == null) {
+            return null;
+        }
+        String expected = filter.getValue().toLowerCase(Locale.ROOT);
+        int wildcard = expected.indexOf('*');
+        if (wildcard < 0) {
+            List<String> tokens = PropertyValues.tokens(expected);
+            return tokens.isEmpty() ? null : intersect(tokens);
+        }
+        if (wildcard == expected.length() - 1 && wildcard > 0) {
+            return prefix(expected.substring(0, wildcard));
+        }
+        return null;
+    }
+
+    private Set<String> intersect(List<String> tokens) {
+        lock.readLock().lock();
+        try {
+            // 从最短的倒排列表开始求交集
+            Object smallest = null;
+            for (String token : tokens) {
+                Object posting = tokenPostings.get(token);
+                if (posting == null) {
+                    return new HashSet<>();
+                }
+                if (smallest == null || Postings.size(posting) < Postings.size(smallest)) {
+                    smallest = posting;
+                }
+            }
+            Set<String> ids = new HashSet<>();
+            Postings.addTo(smallest, ids);
+            for (String token : tokens) {
+                Object posting = tokenPostings.get(token);
+                if (posting != smallest) {
+                    ids.removeIf(id -> !Postings.contains(posting, id));
+                }
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Set<String> prefix(String prefix) {
+        Set<String> ids = new HashSet<>();
+        lock.readLock().lock();
+        try {
+            for (Object posting : valuePostings.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values()) {
+                Postings.addTo(posting, ids);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return ids;
+    }
+
+    @Override
+    public int keyCount() {
+        lock.readLock().lock();
+        try {
+            return tokenPostings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
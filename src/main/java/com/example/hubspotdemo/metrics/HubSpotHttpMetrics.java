@@ -0,0 +1,241 @@
+package com.example.hubspotdemo.metrics;
+
+import com.example.hubspotdemo.cache.HubSpotPropertiesCache.ObjectType;
+import com.example.hubspotdemo.ratelimit.HubSpotRateLimiter;
+import com.example.hubspotdemo.retry.RetryPolicy;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.BufferedSource;
+import okio.ForwardingSource;
+import okio.Okio;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * HubSpot HTTP 调用指标，作为 OkHttp 拦截器记录同步和异步客户端的每一次请求（包括重试）
+ * <p>
+ * 请求耗时按对象类型、操作（get、post、put、delete、search、properties）和状态码统计，并发布直方图；
+ * 同时记录请求和响应的字节数、429 次数、重试次数，以及响应头中的剩余调用配额。
+ * 耗时只包含网络往返（到收到响应头为止），客户端限流的排队时间单独记录在 hubspot.ratelimit.wait 中，
+ * 两者对比可以区分 HubSpot 变慢和本服务排队。
+ */
+@Component
+public class HubSpotHttpMetrics implements Interceptor {
+
+    private static final String OTHER = "other";
+    private static final String IO_ERROR = "IO_ERROR";
+
+    private final MeterRegistry meterRegistry;
+
+    // 最近一次响应头中的配额，尚未收到时为 -1
+    private final AtomicLong intervalMax = new AtomicLong(-1);
+    private final AtomicLong intervalRemaining = new AtomicLong(-1);
+    private final AtomicLong dailyMax = new AtomicLong(-1);
+    private final AtomicLong dailyRemaining = new AtomicLong(-1);
+
+    @Autowired
+    public HubSpotHttpMetrics(MeterRegistry meterRegistry, HubSpotRateLimiter rateLimiter, RetryPolicy retryPolicy) {
+        this.meterRegistry = meterRegistry;
+
+        headerGauge("hubspot.ratelimit.max", "interval", intervalMax, "响应头中每个时间窗口的调用上限");
+        headerGauge("hubspot.ratelimit.remaining", "interval", intervalRemaining, "响应头中当前时间窗口的剩余调用次数");
+        headerGauge("hubspot.ratelimit.max", "daily", dailyMax, "响应头中每日调用上限");
+        headerGauge("hubspot.ratelimit.remaining", "daily", dailyRemaining, "响应头中当日剩余调用次数");
+        Gauge.builder("hubspot.ratelimit.tokens", rateLimiter, HubSpotRateLimiter::getAvailableTokens)
+                .description("客户端限流器当前可用的令牌数")
+                .register(meterRegistry);
+        Gauge.builder("hubspot.ratelimit.queued", rateLimiter, HubSpotRateLimiter::getQueuedRequests)
+                .description("等待调用令牌的请求数")
+                .register(meterRegistry);
+        FunctionCounter.builder("hubspot.http.retries", retryPolicy, RetryPolicy::getRetryCount)
+                .description("安排的重试次数")
+                .register(meterRegistry);
+    }
+
+    private void headerGauge(String name, String window, AtomicLong value, String description) {
+        Gauge.builder(name, value, v -> v.get() >= 0 ? v.get() : Double.NaN)
+                .description(description)
+                .tag("window", window)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        List<String> segments = request.url().pathSegments();
+        String type = objectType(segments);
+        String operation = operation(request.method(), segments);
+
+        RequestBody requestBody = request.body();
+        long requestBytes = requestBody != null ? requestBody.contentLength() : 0;
+        if (requestBytes >= 0) {
+            DistributionSummary.builder("hubspot.http.request.size")
+                    .description("请求体字节数")
+                    .baseUnit("bytes")
+                    .tag("type", type)
+                    .tag("operation", operation)
+                    .register(meterRegistry)
+                    .record(requestBytes);
+        }
+
+        long startedAt = System.nanoTime();
+        Response response;
+        try {
+            response = chain.proceed(request);
+        } catch (IOException e) {
+            recordLatency(type, operation, IO_ERROR, System.nanoTime() - startedAt);
+            throw e;
+        }
+        int status = response.code();
+        recordLatency(type, operation, String.valueOf(status), System.nanoTime() - startedAt);
+        if (status == 429) {
+            Counter.builder("hubspot.http.throttled")
+                    .description("HubSpot 返回 429 的次数")
+                    .tag("type", type)
+                    .register(meterRegistry)
+                    .increment();
+        }
+        updateHeader(intervalMax, response.header(HubSpotRateLimiter.HEADER_MAX));
+        updateHeader(intervalRemaining, response.header(HubSpotRateLimiter.HEADER_REMAINING));
+        updateHeader(dailyMax, response.header(HubSpotRateLimiter.HEADER_DAILY));
+        updateHeader(dailyRemaining, response.header(HubSpotRateLimiter.HEADER_DAILY_REMAINING));
+
+        ResponseBody body = response.body();
+        if (body == null) {
+            return response;
+        }
+        DistributionSummary responseSize = DistributionSummary.builder("hubspot.http.response.size")
+                .description("响应体字节数（解压后）")
+                .baseUnit("bytes")
+                .tag("type", type)
+                .tag("operation", operation)
+                .register(meterRegistry);
+        return response.newBuilder().body(new CountingResponseBody(body, responseSize)).build();
+    }
+
+    private void recordLatency(String type, String operation, String status, long nanos) {
+        Timer.builder("hubspot.http.requests")
+                .description("HubSpot API 请求耗时（到收到响应头为止）")
+                .tag("type", type)
+                .tag("operation", operation)
+                .tag("status", status)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(5))
+                .maximumExpectedValue(Duration.ofSeconds(60))
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    private static void updateHeader(AtomicLong target, String value) {
+        if (value == null) {
+            return;
+        }
+        try {
+            target.set(Long.parseLong(value.trim()));
+        } catch (NumberFormatException e) {
+            // 忽略无法解析的响应头
+        }
+    }
+
+    /**
+     * 从 API 路径中解析对象类型，如 /crm/v3/objects/contacts/123、/crm/v3/properties/deals、
+     * /crm/v4/associations/deals/line_items/batch/read，无法识别时为 other，避免标签取值无限增长
+     */
+    static String objectType(List<String> segments) {
+        int index = -1;
+        for (int i = 0; i + 1 < segments.size(); i++) {
+            String segment = segments.get(i);
+            if (segment.equals("objects") || segment.equals("properties") || segment.equals("associations")) {
+                index = i + 1;
+                break;
+            }
+        }
+        if (index < 0) {
+            return OTHER;
+        }
+        try {
+            return ObjectType.fromValue(segments.get(index)).getValue();
+        } catch (IllegalArgumentException e) {
+            return OTHER;
+        }
+    }
+
+    /**
+     * 请求的操作类型：搜索和属性接口单独统计，其他按 HTTP 方法
+     */
+    static String operation(String method, List<String> segments) {
+        if (!segments.isEmpty() && segments.get(segments.size() - 1).equals("search")) {
+            return "search";
+        }
+        if (segments.contains("properties")) {
+            return "properties";
+        }
+        return method.toLowerCase();
+    }
+
+    /**
+     * 统计读取的字节数，响应体关闭时记录
+     */
+    private static final class CountingResponseBody extends ResponseBody {
+
+        private final ResponseBody delegate;
+        private final BufferedSource source;
+        private long bytesRead;
+        private boolean recorded;
+
+        CountingResponseBody(ResponseBody delegate, DistributionSummary summary) {
+            this.delegate = delegate;
+            this.source = Okio.buffer(new ForwardingSource(delegate.source()) {
+                @Override
+                public long read(Buffer sink, long byteCount) throws IOException {
+                    long read = super.read(sink, byteCount);
+                    if (read > 0) {
+                        bytesRead += read;
+                    }
+                    return read;
+                }
+
+                @Override
+                public void close() throws IOException {
+                    if (!recorded) {
+                        recorded = true;
+                        summary.record(bytesRead);
+                    }
+                    super.close();
+                }
+            });
+        }
+
+        @Override
+        public MediaType contentType() {
+            return delegate.contentType();
+        }
+
+        @Override
+        public long contentLength() {
+            return delegate.contentLength();
+        }
+
+        @Override
+        public BufferedSource source() {
+            return source;
+        }
+    }
+}
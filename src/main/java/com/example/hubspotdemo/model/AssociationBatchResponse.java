@@ -0,0 +1,82 @@
+package com.example.hubspotdemo.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * HubSpot 批量读取关联响应实体类
+ * 对应 API: /crm/v4/associations/{fromObjectType}/{toObjectType}/batch/read
+ */
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class AssociationBatchResponse {
+
+    /**
+     * 批量操作状态
+     */
+    private String status;
+
+    /**
+     * 每个源对象的关联，没有关联的源对象不会出现在结果中
+     */
+    private List<Result> results = new ArrayList<>();
+
+    /**
+     * 处理失败的记录（包括没有任何关联的源对象）
+     */
+    private List<HubSpotBatchResponse.BatchError> errors = new ArrayList<>();
+
+    /**
+     * 单个源对象的关联
+     */
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Result {
+
+        /**
+         * 源对象
+         */
+        private ObjectRef from;
+
+        /**
+         * 关联的目标对象，每个源对象最多返回 500 个，其余的通过 paging 继续获取
+         */
+        private List<Target> to = new ArrayList<>();
+
+        /**
+         * 分页信息
+         */
+        @JsonProperty("paging")
+        private HubSpotResponse.PagingInfo pagingInfo;
+    }
+
+    /**
+     * 对象引用
+     */
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class ObjectRef {
+
+        /**
+         * 对象ID
+         */
+        private String id;
+    }
+
+    /**
+     * 关联的目标对象
+     */
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Target {
+
+        /**
+         * 目标对象ID
+         */
+        private long toObjectId;
+    }
+}
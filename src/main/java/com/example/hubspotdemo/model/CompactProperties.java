@@ -0,0 +1,348 @@
+package com.example.hubspotdemo.model;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * 按属性结构紧凑存储的对象属性，对外表现为普通的 Map，Jackson 序列化结果与 HashMap 相同
+ * <p>
+ * 属性名称保存在共享的 {@link PropertySchema} 中，每个对象只保存属性值数组，不再为每个属性分配哈希表节点和键。
+ * 对象包含结构中的大部分属性时按序号直接存放（稠密存储）；只包含少量属性时（例如按投影获取）
+ * 保存升序的属性序号和对应的值，按二分查找读取（稀疏存储）。不属于该结构的属性放在单独的 Map 中。
+ * <p>
+ * 数字、日期、日期时间、布尔和枚举属性可以通过类型化的读取方法获取解码后的基本类型值，首次读取时按属性值类型解码，
+ * 解码结果和原值一起替换数组中的原值，之后的读取不再解析。解码结果保存在不可变对象中，多个线程并发读取同一对象时
+ * 可能重复解码，但不会读到不一致的值。
+ * <p>
+ * 修改属性时与 HashMap 一样不是线程安全的，遍历顺序为结构中的属性顺序，之后是不属于该结构的属性。
+ */
+public final class CompactProperties extends AbstractMap<String, Object> {
+
+    // 属性存在但值为 null 时在数组中的占位，数组元素为 null 表示属性不存在
+    private static final Object NULL = new Object();
+
+    // 对象包含的属性数量不少于结构属性数量的 1/4 时使用稠密存储
+    private static final int DENSE_RATIO = 4;
+
+    /**
+     * 已解码的属性值，保留原值供 Map 视图读取
+     */
+    private record Decoded(Object value, long bits) {
+    }
+
+    private final PropertySchema schema;
+    // 稀疏存储时按升序排列的属性序号，稠密存储时为 null
+    private final int[] ordinals;
+    private final Object[] values;
+    private Map<String, Object> overflow;
+    private int size;
+
+    private CompactProperties(PropertySchema schema, int[] ordinals, Object[] values) {
+        this.schema = schema;
+        this.ordinals = ordinals;
+        this.values = values;
+    }
+
+    /**
+     * 按属性结构复制属性
+     * @param schema 属性结构
+     * @param properties 原属性
+     * @return 紧凑存储的属性
+     */
+    public static CompactProperties copyOf(PropertySchema schema, Map<String, ?> properties) {
+        int known = 0;
+        for (String name : properties.keySet()) {
+            if (schema.ordinal(name) >= 0) {
+                known++;
+            }
+        }
+
+        CompactProperties compact;
+        if ((long) known * DENSE_RATIO >= schema.size()) {
+            compact = new CompactProperties(schema, null, new Object[schema.size()]);
+        } else {
+            int[] ordinals = new int[known];
+            int i = 0;
+            for (String name : properties.keySet()) {
+                int ordinal = schema.ordinal(name);
+                if (ordinal >= 0) {
+                    ordinals[i++] = ordinal;
+                }
+            }
+            Arrays.sort(ordinals);
+            compact = new CompactProperties(schema, ordinals, new Object[known]);
+        }
+        for (Map.Entry<String, ?> entry : properties.entrySet()) {
+            compact.put(entry.getKey(), entry.getValue());
+        }
+        return compact;
+    }
+
+    /**
+     * 获取属性结构
+     */
+    public PropertySchema getSchema() {
+        return schema;
+    }
+
+    /**
+     * 查找属性在值数组中的位置
+     * @return 位置，属性不属于该结构或稀疏存储中没有该属性的位置时返回 -1
+     */
+    private int slot(Object name) {
+        int ordinal = schema.ordinal(name);
+        if (ordinal < 0 || ordinals == null) {
+            return ordinal;
+        }
+        int slot = Arrays.binarySearch(ordinals, ordinal);
+        return slot >= 0 ? slot : -1;
+    }
+
+    private String nameAt(int slot) {
+        return schema.name(ordinals != null ? ordinals[slot] : slot);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        int slot = slot(key);
+        if (slot >= 0) {
+            return values[slot] != null;
+        }
+        return overflow != null && overflow.containsKey(key);
+    }
+
+    @Override
+    public Object get(Object key) {
+        int slot = slot(key);
+        if (slot >= 0) {
+            return unmask(values[slot]);
+        }
+        return overflow != null ? overflow.get(key) : null;
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+        int slot = slot(key);
+        if (slot >= 0) {
+            Object previous = values[slot];
+            values[slot] = value != null ? value : NULL;
+            if (previous == null) {
+                size++;
+            }
+            return unmask(previous);
+        }
+        if (overflow == null) {
+            overflow = new LinkedHashMap<>();
+        }
+        boolean existed = overflow.containsKey(key);
+        Object previous = overflow.put(key, value);
+        if (!existed) {
+            size++;
+        }
+        return previous;
+    }
+
+    @Override
+    public Object remove(Object key) {
+        int slot = slot(key);
+        if (slot >= 0) {
+            Object previous = values[slot];
+            if (previous != null) {
+                values[slot] = null;
+                size--;
+            }
+            return unmask(previous);
+        }
+        if (overflow == null || !overflow.containsKey(key)) {
+            return null;
+        }
+        size--;
+        return overflow.remove(key);
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(values, null);
+        overflow = null;
+        size = 0;
+    }
+
+    @Override
+    public Set<Map.Entry<String, Object>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Map.Entry<String, Object>> iterator() {
+                return new EntryIterator();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    /**
+     * 获取属性值类型
+     * @param name 属性名称
+     * @return 属性值类型，不属于该结构的属性按字符串处理
+     */
+    public PropertyType getType(String name) {
+        int ordinal = schema.ordinal(name);
+        return ordinal >= 0 ? schema.type(ordinal) : PropertyType.STRING;
+    }
+
+    /**
+     * 读取按属性值类型解码的结果，编码方式见 {@link PropertyType}
+     * @param name 属性名称
+     * @return 解码结果，属性不存在、值为 null、无法解码或为字符串类型时返回属性值类型的 {@link PropertyType#absent()}
+     */
+    public long getDecoded(String name) {
+        int ordinal = schema.ordinal(name);
+        return ordinal >= 0 ? decoded(ordinal) : PropertyType.STRING.absent();
+    }
+
+    /**
+     * 读取数字属性的值
+     * @param name 属性名称
+     * @return 属性值，不是数字属性、属性不存在或无法解析时返回 NaN
+     */
+    public double getDouble(String name) {
+        int ordinal = schema.ordinal(name);
+        return ordinal >= 0 && schema.type(ordinal) == PropertyType.NUMBER
+                ? Double.longBitsToDouble(decoded(ordinal))
+                : Double.NaN;
+    }
+
+    /**
+     * 读取日期或日期时间属性的毫秒时间戳
+     * @param name 属性名称
+     * @return 毫秒时间戳，不是日期或日期时间属性、属性不存在或无法解析时返回 Long.MIN_VALUE
+     */
+    public long getEpochMillis(String name) {
+        int ordinal = schema.ordinal(name);
+        if (ordinal < 0) {
+            return Long.MIN_VALUE;
+        }
+        PropertyType type = schema.type(ordinal);
+        return type == PropertyType.DATETIME || type == PropertyType.DATE ? decoded(ordinal) : Long.MIN_VALUE;
+    }
+
+    /**
+     * 读取布尔属性的值
+     * @param name 属性名称
+     * @return 属性值为 true（忽略大小写）时返回 true，不是布尔属性或属性不存在时返回 false
+     */
+    public boolean getBoolean(String name) {
+        int ordinal = schema.ordinal(name);
+        return ordinal >= 0 && schema.type(ordinal) == PropertyType.BOOL && decoded(ordinal) == 1;
+    }
+
+    /**
+     * 读取枚举属性的选项序号
+     * @param name 属性名称
+     * @return 属性值在选项列表中的序号，不是枚举属性、属性不存在或不是已知选项时返回 -1
+     */
+    public int getEnumOrdinal(String name) {
+        int ordinal = schema.ordinal(name);
+        return ordinal >= 0 && schema.type(ordinal) == PropertyType.ENUMERATION ? (int) decoded(ordinal) : -1;
+    }
+
+    /**
+     * 读取属性的解码结果，首次读取时解码并保存到值数组中
+     */
+    private long decoded(int ordinal) {
+        PropertyType type = schema.type(ordinal);
+        int slot = ordinals != null ? Arrays.binarySearch(ordinals, ordinal) : ordinal;
+        if (type == PropertyType.STRING || slot < 0) {
+            return type.absent();
+        }
+        Object value = values[slot];
+        if (value instanceof Decoded decoded) {
+            return decoded.bits();
+        }
+        if (value == null || value == NULL) {
+            return type.absent();
+        }
+        long bits = schema.decode(ordinal, value.toString());
+        values[slot] = new Decoded(value, bits);
+        return bits;
+    }
+
+    private static Object unmask(Object value) {
+        if (value instanceof Decoded decoded) {
+            return decoded.value();
+        }
+        return value == NULL ? null : value;
+    }
+
+    /**
+     * 先按序号遍历值数组中存在的属性，再遍历不属于该结构的属性
+     */
+    private final class EntryIterator implements Iterator<Map.Entry<String, Object>> {
+
+        private int next = advance(0);
+        private int last = -1;
+        private Iterator<Map.Entry<String, Object>> overflowIterator;
+
+        private int advance(int from) {
+            while (from < values.length && values[from] == null) {
+                from++;
+            }
+            return from;
+        }
+
+        private Iterator<Map.Entry<String, Object>> overflowIterator() {
+            if (overflowIterator == null) {
+                overflowIterator = overflow != null ? overflow.entrySet().iterator() : null;
+            }
+            return overflowIterator;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next < values.length || (overflowIterator() != null && overflowIterator.hasNext());
+        }
+
+        @Override
+        public Map.Entry<String, Object> next() {
+            if (next < values.length) {
+                last = next;
+                next = advance(next + 1);
+                return new SimpleImmutableEntry<>(nameAt(last), unmask(values[last]));
+            }
+            if (overflowIterator() == null) {
+                throw new NoSuchElementException();
+            }
+            last = -1;
+            return overflowIterator.next();
+        }
+
+        @Override
+        public void remove() {
+            if (last >= 0) {
+                if (values[last] == null) {
+                    throw new IllegalStateException();
+                }
+                values[last] = null;
+                size--;
+            } else if (overflowIterator != null) {
+                overflowIterator.remove();
+                size--;
+            } else {
+                throw new IllegalStateException();
+            }
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.hubspotdemo.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * HubSpot 批量操作响应实体类
+ * 对应 API: /crm/v3/objects/{objectType}/batch/{read|create|update|archive}
+ */
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class HubSpotBatchResponse<T> {
+
+    /**
+     * 批量操作状态
+     */
+    private String status;
+
+    /**
+     * 成功处理的记录
+     */
+    private List<T> results = new ArrayList<>();
+
+    /**
+     * 处理失败的记录
+     */
+    private List<BatchError> errors = new ArrayList<>();
+
+    /**
+     * 失败数量
+     */
+    private int numErrors;
+
+    /**
+     * 开始时间
+     */
+    private String startedAt;
+
+    /**
+     * 完成时间
+     */
+    private String completedAt;
+
+    /**
+     * 批量操作错误类
+     */
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class BatchError {
+
+        /**
+         * 错误状态
+         */
+        private String status;
+
+        /**
+         * 错误类别
+         */
+        private String category;
+
+        /**
+         * 错误信息
+         */
+        private String message;
+
+        /**
+         * 错误上下文（如失败记录的 ID 列表）
+         */
+        private Map<String, List<String>> context;
+    }
+}
@@ -18,7 +18,7 @@ public class HubSpotObject {
     private String id;
 
     /**
-     * 对象属性
+     * 对象属性，按属性结构紧凑存储时为 {@link CompactProperties}
      */
     private Map<String, Object> properties;
 
@@ -48,4 +48,16 @@ public class HubSpotObject {
     public String getObjectTypeName(){
         return null;
     };
+
+    /**
+     * 按属性结构紧凑存储属性，已经按同一结构存储时不做任何处理
+     *
+     * @param schema 对象类型的属性结构
+     */
+    public void compactProperties(PropertySchema schema) {
+        if (properties != null
+                && !(properties instanceof CompactProperties compact && compact.getSchema() == schema)) {
+            properties = CompactProperties.copyOf(schema, properties);
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,36 @@
+package com.example.hubspotdemo.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 带有关联对象的 HubSpot 对象，用于一次返回按展开规则解析的对象关系图
+ */
+@Data
+public class HydratedObject {
+
+    /**
+     * 对象类型（如 deals、line-items）
+     */
+    private String type;
+
+    /**
+     * 对象ID
+     */
+    private String id;
+
+    /**
+     * 对象本身，包含所有属性
+     */
+    private HubSpotObject object;
+
+    /**
+     * 展开的关联对象，键为关联的对象类型
+     */
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    private Map<String, List<HydratedObject>> associations = new LinkedHashMap<>();
+}
@@ -0,0 +1,118 @@
+package com.example.hubspotdemo.model;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 对象类型的属性结构描述，为每个属性分配从 0 开始的序号，并记录属性值类型
+ * <p>
+ * 同一对象类型的所有 {@link CompactProperties} 共享同一个实例，属性名称只保存一份（已驻留），
+ * 每个对象只保存按序号排列的属性值。实例不可变，属性结构变化时创建新的实例，按旧结构存储的对象继续引用旧实例。
+ */
+public final class PropertySchema {
+
+    private final String[] names;
+    private final PropertyType[] types;
+    // 枚举属性的选项值到选项序号的映射，其他类型的属性为 null
+    private final Map<String, Integer>[] options;
+    private final Map<String, Integer> ordinals;
+
+    @SuppressWarnings("unchecked")
+    private PropertySchema(List<HubSpotProperty> properties) {
+        int size = properties.size();
+        this.names = new String[size];
+        this.types = new PropertyType[size];
+        this.options = new Map[size];
+        this.ordinals = new HashMap<>(size * 4 / 3 + 1);
+        for (int i = 0; i < size; i++) {
+            HubSpotProperty property = properties.get(i);
+            names[i] = property.getName().intern();
+            types[i] = PropertyType.of(property);
+            if (types[i] == PropertyType.ENUMERATION) {
+                options[i] = optionOrdinals(property.getOptions());
+            }
+            ordinals.put(names[i], i);
+        }
+    }
+
+    private static Map<String, Integer> optionOrdinals(List<Map<String, Object>> options) {
+        Map<String, Integer> ordinals = new HashMap<>();
+        if (options != null) {
+            for (Map<String, Object> option : options) {
+                Object value = option.get("value");
+                if (value != null) {
+                    ordinals.putIfAbsent(value.toString(), ordinals.size());
+                }
+            }
+        }
+        return ordinals;
+    }
+
+    /**
+     * 根据属性列表创建属性结构，重复的属性名称只保留第一个
+     * @param properties 属性列表响应
+     * @return 属性结构
+     */
+    public static PropertySchema of(HubSpotPropertiesResponse properties) {
+        Map<String, HubSpotProperty> byName = new LinkedHashMap<>();
+        if (properties != null && properties.getResults() != null) {
+            for (HubSpotProperty property : properties.getResults()) {
+                if (property.getName() != null) {
+                    byName.putIfAbsent(property.getName(), property);
+                }
+            }
+        }
+        return new PropertySchema(List.copyOf(byName.values()));
+    }
+
+    /**
+     * 属性数量
+     */
+    public int size() {
+        return names.length;
+    }
+
+    /**
+     * 获取属性序号
+     * @param name 属性名称
+     * @return 属性序号，不属于该结构时返回 -1
+     */
+    public int ordinal(Object name) {
+        Integer ordinal = ordinals.get(name);
+        return ordinal != null ? ordinal : -1;
+    }
+
+    /**
+     * 获取序号对应的属性名称
+     * @param ordinal 属性序号
+     * @return 属性名称
+     */
+    public String name(int ordinal) {
+        return names[ordinal];
+    }
+
+    /**
+     * 获取序号对应的属性值类型
+     * @param ordinal 属性序号
+     * @return 属性值类型
+     */
+    public PropertyType type(int ordinal) {
+        return types[ordinal];
+    }
+
+    /**
+     * 按属性值类型解码属性值，枚举值解码为选项序号
+     * @param ordinal 属性序号
+     * @param text 属性值
+     * @return 解码结果，无法解码时为属性值类型的 {@link PropertyType#absent()}
+     */
+    long decode(int ordinal, String text) {
+        if (types[ordinal] == PropertyType.ENUMERATION) {
+            Integer option = options[ordinal].get(text);
+            return option != null ? option : PropertyType.ENUMERATION.absent();
+        }
+        return types[ordinal].decode(text);
+    }
+}
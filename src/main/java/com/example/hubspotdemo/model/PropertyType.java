@@ -0,0 +1,117 @@
+package com.example.hubspotdemo.model;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+
+/**
+ * 属性值类型，由 {@link HubSpotProperty} 的 type 和 fieldType 决定属性值解码为哪种基本类型
+ * <p>
+ * 解码结果统一用 long 表示：数字为 double 的位表示，日期和日期时间为毫秒时间戳，布尔为 1 或 0，枚举为选项序号。
+ * 属性值无法按类型解码时为 {@link #absent()}。字符串类型不解码。
+ */
+public enum PropertyType {
+    STRING,
+    NUMBER,
+    DATETIME,
+    DATE,
+    BOOL,
+    ENUMERATION;
+
+    private static final long NAN_BITS = Double.doubleToRawLongBits(Double.NaN);
+
+    /**
+     * 根据属性定义确定属性值类型，单选框（booleancheckbox）总是按布尔处理
+     * @param property 属性定义
+     * @return 属性值类型，无法识别的类型按字符串处理
+     */
+    public static PropertyType of(HubSpotProperty property) {
+        if ("booleancheckbox".equalsIgnoreCase(property.getFieldType())) {
+            return BOOL;
+        }
+        String type = property.getType() != null ? property.getType().toLowerCase(Locale.ROOT) : "";
+        return switch (type) {
+            case "number" -> NUMBER;
+            case "datetime" -> DATETIME;
+            case "date" -> DATE;
+            case "bool" -> BOOL;
+            case "enumeration" -> ENUMERATION;
+            default -> STRING;
+        };
+    }
+
+    /**
+     * 属性值不存在或无法解码时的解码结果：数字为 NaN 的位表示，日期和日期时间为 Long.MIN_VALUE，其他类型为 -1
+     */
+    public long absent() {
+        return switch (this) {
+            case NUMBER -> NAN_BITS;
+            case DATETIME, DATE -> Long.MIN_VALUE;
+            default -> -1;
+        };
+    }
+
+    /**
+     * 按类型解码属性值，枚举的选项序号需要选项列表，由 {@link PropertySchema} 解码，这里总是返回 {@link #absent()}
+     * @param text 属性值
+     * @return 解码结果
+     */
+    public long decode(String text) {
+        return switch (this) {
+            case NUMBER -> isNumber(text) ? Double.doubleToRawLongBits(Double.parseDouble(text)) : NAN_BITS;
+            case DATETIME, DATE -> parseEpochMillis(text);
+            case BOOL -> "true".equalsIgnoreCase(text) ? 1 : "false".equalsIgnoreCase(text) ? 0 : -1;
+            default -> absent();
+        };
+    }
+
+    /**
+     * 判断字符串是否为十进制数字（可带符号和小数点，不支持指数）
+     */
+    public static boolean isNumber(String value) {
+        int length = value.length();
+        if (length == 0) {
+            return false;
+        }
+        int start = value.charAt(0) == '-' || value.charAt(0) == '+' ? 1 : 0;
+        boolean digits = false;
+        boolean dot = false;
+        for (int i = start; i < length; i++) {
+            char c = value.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits = true;
+            } else if (c == '.' && !dot) {
+                dot = true;
+            } else {
+                return false;
+            }
+        }
+        return digits;
+    }
+
+    /**
+     * 解析毫秒时间戳、ISO 日期（按 UTC 零点）或 ISO 时间，无法解析时返回 Long.MIN_VALUE
+     */
+    public static long parseEpochMillis(String value) {
+        if (isNumber(value)) {
+            return value.indexOf('.') < 0 && value.length() < 19 ? Long.parseLong(value) : Long.MIN_VALUE;
+        }
+        if (value.length() < 10 || value.charAt(4) != '-') {
+            return Long.MIN_VALUE;
+        }
+        try {
+            if (value.length() == 10) {
+                return LocalDate.parse(value).atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli();
+            }
+            if (value.endsWith("Z")) {
+                return Instant.parse(value).toEpochMilli();
+            }
+            return OffsetDateTime.parse(value).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            return Long.MIN_VALUE;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.hubspotdemo.pagination;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.Consumer;
+
+/**
+ * HubSpot 列表和搜索响应的流式解码器，基于 Jackson JsonParser 直接读取响应体
+ * <p>
+ * results 数组中的元素每解析完一个就交给调用方，不先构建整页的 HubSpotResponse；
+ * total 和 paging.next 直接从解析器读取，其他字段跳过，不生成中间的 JSON 树。
+ * 元素按实体类绑定，结果与 RestTemplate 整页反序列化相同。
+ * <p>
+ * 错误响应同样只做一次流式解析，读到 message 字段即停止。
+ */
+public final class HubSpotPageDecoder {
+
+    /**
+     * 解码结果摘要
+     *
+     * @param count results 中的元素数量（包括跳过的元素）
+     * @param total 响应中的 total 字段，列表接口没有该字段时为 null
+     * @param after 下一页游标，没有下一页时为 null
+     * @param link 下一页链接，没有下一页时为 null
+     */
+    public record PageSummary(int count, Integer total, String after, String link) {
+    }
+
+    private HubSpotPageDecoder() {
+    }
+
+    /**
+     * 解码一页响应
+     *
+     * @param elementReader 元素类型的 ObjectReader
+     * @param body 响应体，解码完成后关闭
+     * @param skip 跳过前 skip 个元素（重试时已经交出的元素），跳过的元素仍计入 count
+     * @param consumer 接收元素的函数
+     * @param <T> 元素类型
+     * @return 解码结果摘要
+     * @throws IOException 读取响应体失败或响应不是合法的 JSON 对象
+     */
+    public static <T> PageSummary decode(ObjectReader elementReader, InputStream body, int skip,
+                                         Consumer<? super T> consumer) throws IOException {
+        try (JsonParser parser = elementReader.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser, "HubSpot 响应不是 JSON 对象");
+            }
+            int count = 0;
+            Integer total = null;
+            String[] next = new String[2];
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if (field.equals("results") && value == JsonToken.START_ARRAY) {
+                    while (parser.nextToken() != JsonToken.END_ARRAY) {
+                        T element = elementReader.readValue(parser);
+                        if (count++ >= skip && element != null) {
+                            consumer.accept(element);
+                        }
+                    }
+                } else if (field.equals("total") && value == JsonToken.VALUE_NUMBER_INT) {
+                    total = parser.getIntValue();
+                } else if (field.equals("paging") && value == JsonToken.START_OBJECT) {
+                    readNextPage(parser, next);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            return new PageSummary(count, total, next[0], next[1]);
+        }
+    }
+
+    /**
+     * 读取 paging 对象中的 next.after 和 next.link，解析器位于 paging 的 START_OBJECT，返回时位于对应的 END_OBJECT
+     */
+    private static void readNextPage(JsonParser parser, String[] next) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if (field.equals("next") && value == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String nextField = parser.currentName();
+                    parser.nextToken();
+                    if (nextField.equals("after")) {
+                        next[0] = parser.getValueAsString();
+                    } else if (nextField.equals("link")) {
+                        next[1] = parser.getValueAsString();
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    /**
+     * 从错误响应中读取顶层的 message 字段，读到后立即停止解析，不绑定整个错误响应
+     *
+     * @param jsonFactory JSON 解析器工厂
+     * @param errorBody 错误响应体
+     * @return message 字段的值，没有该字段时返回 null
+     * @throws IOException 错误响应不是合法的 JSON 对象
+     */
+    public static String readErrorMessage(JsonFactory jsonFactory, String errorBody) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(errorBody)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser, "HubSpot 错误响应不是 JSON 对象");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if (field.equals("message") && value == JsonToken.VALUE_STRING) {
+                    return parser.getText();
+                }
+                parser.skipChildren();
+            }
+            return null;
+        }
+    }
+}
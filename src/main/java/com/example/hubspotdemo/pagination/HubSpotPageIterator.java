@@ -0,0 +1,159 @@
+package com.example.hubspotdemo.pagination;
+
+import com.example.hubspotdemo.exception.HubSpotApiException;
+import com.example.hubspotdemo.model.HubSpotResponse;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * 游标分页迭代器，沿着 paging.next.after 逐页获取 HubSpot 数据
+ * <p>
+ * 当前页交给调用方时，下一页已经在后台预取，因此调用方处理当前页与网络请求是重叠进行的。
+ * 任意时刻最多只持有两页数据（当前页 + 预取页），内存占用与总记录数无关。
+ * <p>
+ * 已经开始的预取无法取消，关闭迭代器时请求仍会发出并占用限流额度。调用方只需要有限数量的数据时，
+ * 应通过预取条件说明是否还需要下一页，不满足条件时不预取，只在调用方继续迭代时才获取下一页。
+ *
+ * @param <T> 数据项类型
+ */
+public class HubSpotPageIterator<T> implements Iterator<HubSpotResponse<T>>, AutoCloseable {
+
+    private final Function<String, HubSpotResponse<T>> pageFetcher;
+    private final Executor executor;
+    private final Predicate<HubSpotResponse<T>> prefetchWhile;
+
+    /**
+     * 已就绪、尚未交给调用方的页
+     */
+    private HubSpotResponse<T> ready;
+
+    /**
+     * 正在预取的页
+     */
+    private CompletableFuture<HubSpotResponse<T>> pending;
+
+    /**
+     * 未预取的下一页游标，调用方继续迭代时才获取
+     */
+    private String deferred;
+
+    private int pageCount;
+    private boolean started;
+    private boolean closed;
+
+    /**
+     * 构造函数
+     *
+     * @param pageFetcher 根据游标获取一页数据的函数，游标为 null 表示第一页
+     * @param executor 用于预取下一页的执行器
+     */
+    public HubSpotPageIterator(Function<String, HubSpotResponse<T>> pageFetcher, Executor executor) {
+        this(pageFetcher, executor, page -> true);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param pageFetcher 根据游标获取一页数据的函数，游标为 null 表示第一页
+     * @param executor 用于预取下一页的执行器
+     * @param prefetchWhile 预取条件，参数为刚获取、尚未交给调用方的页，返回 false 时不预取下一页
+     */
+    public HubSpotPageIterator(Function<String, HubSpotResponse<T>> pageFetcher, Executor executor,
+                               Predicate<HubSpotResponse<T>> prefetchWhile) {
+        this.pageFetcher = pageFetcher;
+        this.executor = executor;
+        this.prefetchWhile = prefetchWhile;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (!started && !closed) {
+            // 第一页在首次访问时才开始获取
+            started = true;
+            pending = CompletableFuture.supplyAsync(() -> pageFetcher.apply(null), executor);
+        }
+        if (ready == null && pending == null && deferred != null && !closed) {
+            // 调用方在不需要预取的页之后继续迭代，此时才获取下一页
+            String after = deferred;
+            deferred = null;
+            pending = CompletableFuture.supplyAsync(() -> pageFetcher.apply(after), executor);
+        }
+        if (ready == null && pending != null && !closed) {
+            ready = await(pending);
+            pending = null;
+            pageCount++;
+            String after = nextCursor(ready);
+            if (after != null && prefetchWhile.test(ready)) {
+                // 当前页交给调用方之前就开始预取下一页
+                pending = CompletableFuture.supplyAsync(() -> pageFetcher.apply(after), executor);
+            } else {
+                deferred = after;
+            }
+        }
+        return ready != null;
+    }
+
+    @Override
+    public HubSpotResponse<T> next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException("没有更多分页数据");
+        }
+        HubSpotResponse<T> page = ready;
+        ready = null;
+        return page;
+    }
+
+    /**
+     * 获取已经获取的页数
+     */
+    public int getPageCount() {
+        return pageCount;
+    }
+
+    /**
+     * 停止迭代并取消尚未开始的预取，已经在执行的请求无法中断
+     */
+    @Override
+    public void close() {
+        closed = true;
+        ready = null;
+        deferred = null;
+        if (pending != null) {
+            pending.cancel(true);
+            pending = null;
+        }
+    }
+
+    /**
+     * 从响应中读取下一页游标
+     *
+     * @param response 分页响应
+     * @return 下一页游标，没有下一页时返回 null
+     */
+    public static String nextCursor(HubSpotResponse<?> response) {
+        if (response == null || response.getPagingInfo() == null || response.getPagingInfo().getNext() == null) {
+            return null;
+        }
+        return response.getPagingInfo().getNext().getAfter();
+    }
+
+    private HubSpotResponse<T> await(CompletableFuture<HubSpotResponse<T>> future) {
+        try {
+            HubSpotResponse<T> page = future.join();
+            return page != null ? page : new HubSpotResponse<>();
+        } catch (CompletionException e) {
+            close();
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new HubSpotApiException("获取分页数据失败", cause);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.hubspotdemo.pagination;
+
+import com.example.hubspotdemo.model.HubSpotResponse;
+
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * 基于分页迭代器的惰性 Spliterator，按需获取分页数据并逐条交给调用方
+ * <p>
+ * 每条数据交出后立即从当前页中移除引用，当前页处理完后整页释放，
+ * 因此遍历整个门户时内存中只保留当前页剩余数据和一页预取数据。
+ *
+ * @param <T> 数据项类型
+ */
+public class HubSpotPageSpliterator<T> extends Spliterators.AbstractSpliterator<T> {
+
+    private final HubSpotPageIterator<T> pages;
+
+    private List<T> currentPage;
+    private int index;
+
+    /**
+     * 构造函数
+     *
+     * @param pages 分页迭代器
+     */
+    public HubSpotPageSpliterator(HubSpotPageIterator<T> pages) {
+        super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+        this.pages = pages;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+        while (true) {
+            if (currentPage == null || index >= currentPage.size()) {
+                // 当前页已消费完，释放后再获取下一页
+                currentPage = null;
+                if (!pages.hasNext()) {
+                    return false;
+                }
+                HubSpotResponse<T> page = pages.next();
+                currentPage = page.getResults();
+                index = 0;
+                continue;
+            }
+            T item = currentPage.get(index);
+            releaseItem(index);
+            index++;
+            if (item != null) {
+                action.accept(item);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 将分页迭代器包装为惰性流，流关闭时取消尚未完成的预取
+     *
+     * @param pages 分页迭代器
+     * @param <T> 数据项类型
+     * @return 惰性流
+     */
+    public static <T> Stream<T> stream(HubSpotPageIterator<T> pages) {
+        return StreamSupport.stream(new HubSpotPageSpliterator<>(pages), false)
+                .onClose(pages::close);
+    }
+
+    private void releaseItem(int position) {
+        try {
+            currentPage.set(position, null);
+        } catch (UnsupportedOperationException e) {
+            // 不可修改的列表只能在整页消费完后释放
+        }
+    }
+}
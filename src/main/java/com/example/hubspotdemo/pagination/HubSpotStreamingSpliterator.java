@@ -0,0 +1,188 @@
+package com.example.hubspotdemo.pagination;
+
+import com.example.hubspotdemo.exception.HubSpotApiException;
+
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * 逐条流式获取的 Spliterator，后台线程边读取响应边解码，每解码一个对象就放入有界队列，调用方从队列中逐条取出
+ * <p>
+ * 与按页预取的 {@link HubSpotPageSpliterator} 相比，调用方不必等待整页解码完成就能处理第一条数据，
+ * 网络读取、解码和调用方的处理三者重叠进行。队列满时后台线程暂停读取响应，内存中最多保留队列容量条数据。
+ * <p>
+ * 后台线程在读取期间一直占用连接，调用方必须关闭流（try-with-resources），尤其是 limit、findFirst 等提前结束的流；
+ * 未关闭的流要等到调用方超过 10 分钟不取数据后，后台线程才放弃读取并释放连接，此后调用方取完队列中的数据时会收到异常。
+ *
+ * @param <T> 数据项类型
+ */
+public class HubSpotStreamingSpliterator<T> extends Spliterators.AbstractSpliterator<T> implements AutoCloseable {
+
+    // 调用方长时间不取数据（流未关闭就被丢弃）时，后台线程放弃读取，避免永远占用线程和连接
+    private static final long ABANDON_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(10);
+    private static final long POLL_MILLIS = 100;
+
+    private static final Object END = new Object();
+
+    /**
+     * 后台读取失败
+     */
+    private record Failure(Throwable cause) {
+    }
+
+    private final Consumer<Consumer<T>> source;
+    private final ExecutorService executor;
+    private final BlockingQueue<Object> queue;
+    private Future<?> producer;
+    private volatile boolean closed;
+
+    /**
+     * 后台线程因调用方长时间不取数据而放弃读取，此时队列已满，无法再放入 END 或 Failure
+     */
+    private volatile CancellationException abandoned;
+    private boolean finished;
+
+    /**
+     * 构造函数
+     *
+     * @param source 数据源，把每条数据依次交给传入的函数，全部交出后返回
+     * @param executor 执行数据源的执行器
+     * @param capacity 队列容量
+     */
+    public HubSpotStreamingSpliterator(Consumer<Consumer<T>> source, ExecutorService executor, int capacity) {
+        super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+        this.source = source;
+        this.executor = executor;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, capacity));
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+        if (finished || closed) {
+            return false;
+        }
+        if (producer == null) {
+            // 首次访问时才开始读取
+            producer = executor.submit(this::produce);
+        }
+        Object item = next();
+        if (item == END) {
+            finished = true;
+            return false;
+        }
+        if (item instanceof Failure failure) {
+            finished = true;
+            if (failure.cause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new HubSpotApiException("获取分页数据失败", failure.cause());
+        }
+        @SuppressWarnings("unchecked")
+        T element = (T) item;
+        action.accept(element);
+        return true;
+    }
+
+    /**
+     * 取出下一条数据，队列为空且后台线程已经结束（放弃读取或没有放入结束标记就退出）时作为失败处理
+     */
+    private Object next() {
+        try {
+            while (true) {
+                Object item = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (item != null) {
+                    return item;
+                }
+                if (abandoned != null || producer.isDone()) {
+                    // 后台线程结束前放入的数据对这里可见，取完之后才报告失败
+                    item = queue.poll();
+                    if (item != null) {
+                        return item;
+                    }
+                    Throwable cause = abandoned != null ? abandoned : new CancellationException("后台读取已结束");
+                    return new Failure(new HubSpotApiException("后台读取已停止，流中的数据不完整", cause));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            close();
+            throw new HubSpotApiException("等待分页数据时被中断", e);
+        }
+    }
+
+    /**
+     * 停止读取，后台线程在下一次放入数据时退出
+     */
+    @Override
+    public void close() {
+        closed = true;
+        // 不中断后台线程：中断会使正在进行的读取变成 I/O 异常并触发重试，后台线程在下一次放入数据时自行退出
+        if (producer != null) {
+            producer.cancel(false);
+        }
+        queue.clear();
+    }
+
+    private void produce() {
+        try {
+            try {
+                source.accept(this::put);
+                put(END);
+            } catch (CancellationException e) {
+                throw e;
+            } catch (Throwable e) {
+                if (!closed) {
+                    put(new Failure(e));
+                }
+            }
+        } catch (CancellationException e) {
+            // 调用方已关闭流，或者长时间不取数据，后者需要让调用方知道数据不完整
+            if (!closed) {
+                abandoned = e;
+            }
+        }
+    }
+
+    /**
+     * 放入一条数据，队列满时等待调用方取走
+     */
+    private void put(Object item) {
+        long deadline = System.currentTimeMillis() + ABANDON_TIMEOUT_MILLIS;
+        try {
+            do {
+                if (closed) {
+                    throw new CancellationException("流已关闭");
+                }
+                if (System.currentTimeMillis() > deadline) {
+                    throw new CancellationException("调用方超过 " + ABANDON_TIMEOUT_MILLIS + " 毫秒未取数据，放弃读取");
+                }
+            } while (!queue.offer(item, POLL_MILLIS, TimeUnit.MILLISECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("流已关闭");
+        }
+    }
+
+    /**
+     * 创建逐条流式获取的惰性流，流关闭时停止后台读取，调用方必须关闭流
+     *
+     * @param source 数据源
+     * @param executor 执行数据源的执行器
+     * @param capacity 队列容量
+     * @param <T> 数据项类型
+     * @return 惰性流
+     */
+    public static <T> Stream<T> stream(Consumer<Consumer<T>> source, ExecutorService executor, int capacity) {
+        HubSpotStreamingSpliterator<T> spliterator = new HubSpotStreamingSpliterator<>(source, executor, capacity);
+        return StreamSupport.stream(spliterator, false).onClose(spliterator::close);
+    }
+}
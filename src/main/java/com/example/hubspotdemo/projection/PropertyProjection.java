@@ -0,0 +1,85 @@
+package com.example.hubspotdemo.projection;
+
+import java.util.List;
+
+/**
+ * 属性投影，表示一次请求需要返回的属性集合
+ * <p>
+ * 创建时预先拼接好 properties 查询参数，同一投影在多次请求、多个分页之间复用，
+ * 不再每次请求都遍历属性列表拼接字符串。
+ */
+public final class PropertyProjection {
+
+    /**
+     * 包含对象类型全部属性的投影名称
+     */
+    public static final String ALL = "all";
+
+    /**
+     * 空投影，不指定属性，HubSpot 返回默认属性
+     */
+    public static final PropertyProjection DEFAULT = new PropertyProjection("default", List.of(), 0);
+
+    private final String name;
+    private final List<String> properties;
+    private final String queryValue;
+    private final long schemaVersion;
+
+    private PropertyProjection(String name, List<String> properties, long schemaVersion) {
+        this.name = name;
+        this.properties = properties;
+        this.queryValue = String.join(",", properties);
+        this.schemaVersion = schemaVersion;
+    }
+
+    /**
+     * 创建属性投影
+     * @param name 投影名称
+     * @param properties 属性列表
+     * @param schemaVersion 构建投影时的属性结构版本号，与属性结构无关的投影为 0
+     * @return 属性投影
+     */
+    public static PropertyProjection of(String name, List<String> properties, long schemaVersion) {
+        if (properties == null || properties.isEmpty()) {
+            return DEFAULT;
+        }
+        return new PropertyProjection(name, List.copyOf(properties), schemaVersion);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public List<String> getProperties() {
+        return properties;
+    }
+
+    /**
+     * 获取逗号分隔的属性列表，可直接作为 properties 查询参数的值
+     */
+    public String getQueryValue() {
+        return queryValue;
+    }
+
+    public long getSchemaVersion() {
+        return schemaVersion;
+    }
+
+    public boolean isEmpty() {
+        return properties.isEmpty();
+    }
+
+    /**
+     * 判断属性列表能否放入 URL 查询参数
+     * @param maxQueryLength properties 查询参数的最大长度
+     * @return 能放入时返回 true，否则需要改用请求体携带属性列表的接口
+     */
+    public boolean fitsInQuery(int maxQueryLength) {
+        return queryValue.length() <= maxQueryLength;
+    }
+
+    @Override
+    public String toString() {
+        return name + properties;
+    }
+}
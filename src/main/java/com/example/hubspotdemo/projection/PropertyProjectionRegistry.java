@@ -0,0 +1,153 @@
+package com.example.hubspotdemo.projection;
+
+import com.example.hubspotdemo.cache.HubSpotPropertiesCache;
+import com.example.hubspotdemo.cache.HubSpotPropertiesCache.ObjectType;
+import com.example.hubspotdemo.cache.PropertySchemaListener;
+import com.example.hubspotdemo.config.ProjectionConfig;
+import com.example.hubspotdemo.model.HubSpotPropertiesResponse;
+import com.example.hubspotdemo.model.HubSpotProperty;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 属性投影注册表
+ * <p>
+ * 为每个对象类型维护包含全部属性的投影，属性结构变化时才重新构建；
+ * 同时管理命名投影（如列表视图、导出），调用方可以按名称只获取需要的属性。
+ */
+@Component
+@Slf4j
+public class PropertyProjectionRegistry implements PropertySchemaListener {
+
+    private final HubSpotPropertiesCache propertiesCache;
+    private final ProjectionConfig projectionConfig;
+
+    // 各对象类型的全部属性投影
+    private final Map<ObjectType, PropertyProjection> allProjections = new ConcurrentHashMap<>();
+
+    // 各对象类型的命名投影
+    private final Map<ObjectType, Map<String, PropertyProjection>> namedProjections = new EnumMap<>(ObjectType.class);
+
+    @Autowired
+    public PropertyProjectionRegistry(HubSpotPropertiesCache propertiesCache, ProjectionConfig projectionConfig) {
+        this.propertiesCache = propertiesCache;
+        this.projectionConfig = projectionConfig;
+        for (ObjectType type : ObjectType.values()) {
+            namedProjections.put(type, new ConcurrentHashMap<>());
+        }
+    }
+
+    /**
+     * 注册属性结构监听器，并加载配置文件中的命名投影
+     */
+    @PostConstruct
+    public void init() {
+        propertiesCache.addSchemaListener(this);
+        projectionConfig.getViews().forEach((objectType, views) ->
+                views.forEach((name, properties) -> register(ObjectType.fromValue(objectType), name, properties)));
+    }
+
+    @Override
+    public void onSchemaChanged(ObjectType objectType, HubSpotPropertiesResponse properties, long schemaVersion) {
+        List<String> names = properties.getResults() != null
+                ? properties.getResults().stream().map(HubSpotProperty::getName).toList()
+                : List.of();
+        PropertyProjection projection = PropertyProjection.of(PropertyProjection.ALL, names, schemaVersion);
+        allProjections.put(objectType, projection);
+        log.info("重建 {} 的全部属性投影，版本号: {}，属性数量: {}，查询参数长度: {}",
+                objectType.getValue(), schemaVersion, names.size(), projection.getQueryValue().length());
+    }
+
+    /**
+     * 获取包含全部属性的投影
+     * @param objectType 对象类型枚举
+     * @return 全部属性投影，属性列表无法获取时返回空投影
+     */
+    public PropertyProjection getAllProperties(ObjectType objectType) {
+        // 经过属性缓存读取，使缓存的过期刷新和命中统计照常生效；属性结构变化时投影已由监听器重建
+        HubSpotPropertiesResponse properties = propertiesCache.getPropertiesByType(objectType);
+        PropertyProjection projection = allProjections.get(objectType);
+        if (projection == null && properties != null) {
+            // 监听器注册前已加载的属性结构，在这里补建一次投影
+            onSchemaChanged(objectType, properties, propertiesCache.getSchemaVersion(objectType));
+            projection = allProjections.get(objectType);
+        }
+        return projection != null ? projection : PropertyProjection.DEFAULT;
+    }
+
+    /**
+     * 解析调用方指定的属性列表，为空时返回全部属性投影
+     * @param objectType 对象类型枚举
+     * @param properties 调用方指定的属性列表
+     * @return 属性投影
+     */
+    public PropertyProjection resolve(ObjectType objectType, List<String> properties) {
+        if (properties == null || properties.isEmpty()) {
+            return getAllProperties(objectType);
+        }
+        return PropertyProjection.of("custom", properties, 0);
+    }
+
+    /**
+     * 注册命名投影，已存在同名投影时覆盖
+     * @param objectType 对象类型枚举
+     * @param name 投影名称
+     * @param properties 属性列表
+     * @return 注册的投影
+     */
+    public PropertyProjection register(ObjectType objectType, String name, List<String> properties) {
+        if (PropertyProjection.ALL.equals(name)) {
+            throw new IllegalArgumentException("投影名称 " + PropertyProjection.ALL + " 为保留名称");
+        }
+        PropertyProjection projection = PropertyProjection.of(name, properties, 0);
+        namedProjections.get(objectType).put(name, projection);
+        log.info("注册 {} 的命名投影 {}，属性数量: {}", objectType.getValue(), name, projection.getProperties().size());
+        return projection;
+    }
+
+    /**
+     * 根据名称获取投影，名称为 all 时返回全部属性投影
+     * @param objectType 对象类型枚举
+     * @param name 投影名称
+     * @return 属性投影
+     * @throws IllegalArgumentException 如果投影不存在
+     */
+    public PropertyProjection getProjection(ObjectType objectType, String name) {
+        if (PropertyProjection.ALL.equals(name)) {
+            return getAllProperties(objectType);
+        }
+        PropertyProjection projection = namedProjections.get(objectType).get(name);
+        if (projection == null) {
+            throw new IllegalArgumentException("不存在的属性投影: " + objectType.getValue() + "/" + name);
+        }
+        return projection;
+    }
+
+    /**
+     * 获取对象类型的所有命名投影
+     * @param objectType 对象类型枚举
+     * @return 投影名称到属性列表的映射
+     */
+    public Map<String, List<String>> getNamedProjections(ObjectType objectType) {
+        Map<String, List<String>> result = new TreeMap<>();
+        namedProjections.get(objectType).forEach((name, projection) -> result.put(name, projection.getProperties()));
+        return result;
+    }
+
+    /**
+     * 判断投影能否通过 URL 查询参数传递
+     * @param projection 属性投影
+     * @return 能放入查询参数时返回 true
+     */
+    public boolean fitsInQuery(PropertyProjection projection) {
+        return projection.fitsInQuery(projectionConfig.getMaxQueryLength());
+    }
+}
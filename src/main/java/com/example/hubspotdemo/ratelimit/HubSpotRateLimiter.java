@@ -0,0 +1,418 @@
+package com.example.hubspotdemo.ratelimit;
+
+import com.example.hubspotdemo.config.RateLimitConfig;
+import com.example.hubspotdemo.exception.HubSpotApiException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * HubSpot API 客户端限流器，所有发往 HubSpot 的请求共享同一个令牌桶
+ * <p>
+ * 调用方按优先级分别排队，同一优先级内先到先得；交互请求始终优先于后台请求，
+ * 且后台请求不能使用为交互请求预留的令牌，避免同步任务耗尽配额。
+ * 每次收到响应后根据 X-HubSpot-RateLimit-* 响应头校准本地状态，收到 429 时暂停所有请求。
+ */
+@Component
+@Slf4j
+public class HubSpotRateLimiter {
+
+    public static final String HEADER_MAX = "X-HubSpot-RateLimit-Max";
+    public static final String HEADER_REMAINING = "X-HubSpot-RateLimit-Remaining";
+    public static final String HEADER_INTERVAL = "X-HubSpot-RateLimit-Interval-Milliseconds";
+    public static final String HEADER_DAILY = "X-HubSpot-RateLimit-Daily";
+    public static final String HEADER_DAILY_REMAINING = "X-HubSpot-RateLimit-Daily-Remaining";
+    public static final String HEADER_RETRY_AFTER = "Retry-After";
+
+    private final RateLimitConfig config;
+
+    // 公平锁，保证等待的线程按到达顺序被唤醒
+    private final ReentrantLock lock = new ReentrantLock(true);
+    private final Condition stateChanged = lock.newCondition();
+
+    private final Deque<Object> interactiveQueue = new ArrayDeque<>();
+    private final Deque<Object> backgroundQueue = new ArrayDeque<>();
+
+    private final TokenBucket bucket;
+    private final TokenBucket searchBucket;
+
+    // 收到 429 后暂停请求直到该时间点
+    private long pausedUntilNanos;
+
+    private LocalDate currentDay = LocalDate.now(ZoneOffset.UTC);
+    private long dailyLimit;
+    private long dailyUsed;
+    private long dailyRemainingFromHeader = -1;
+
+    // 各优先级获取令牌的等待时间，未注入指标注册表时为空
+    private final Map<RequestPriority, Timer> waitTimers = new EnumMap<>(RequestPriority.class);
+
+    @Autowired
+    public HubSpotRateLimiter(RateLimitConfig config) {
+        this.config = config;
+        this.bucket = new TokenBucket(config.getMaxRequests(), config.getIntervalMillis());
+        this.searchBucket = new TokenBucket(config.getSearchRequestsPerSecond(), 1000);
+        this.dailyLimit = config.getDailyLimit();
+    }
+
+    /**
+     * 设置指标注册表，记录获取令牌的等待时间
+     */
+    @Autowired
+    public void setMeterRegistry(MeterRegistry meterRegistry) {
+        for (RequestPriority priority : RequestPriority.values()) {
+            waitTimers.put(priority, Timer.builder("hubspot.ratelimit.wait")
+                    .description("获取 HubSpot 调用令牌的等待时间")
+                    .tag("priority", priority.name().toLowerCase())
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * 获取一个调用令牌，令牌不足时按优先级排队等待
+     *
+     * @param priority 请求优先级
+     * @param search 是否为搜索接口请求
+     * @throws HubSpotApiException 等待超时或每日配额耗尽时抛出，状态码为 429
+     */
+    public void acquire(RequestPriority priority, boolean search) {
+        if (!config.isEnabled()) {
+            return;
+        }
+        Object ticket = new Object();
+        Deque<Object> queue = priority == RequestPriority.INTERACTIVE ? interactiveQueue : backgroundQueue;
+        long startedAt = System.nanoTime();
+        long deadline = startedAt + TimeUnit.MILLISECONDS.toNanos(config.getMaxWaitMillis());
+
+        lock.lock();
+        try {
+            checkDailyQuota(priority);
+            queue.addLast(ticket);
+            try {
+                while (true) {
+                    long now = System.nanoTime();
+                    long waitNanos = nanosUntilAvailable(ticket, queue, priority, search, now);
+                    if (waitNanos <= 0) {
+                        take(search);
+                        recordWait(priority, now - startedAt);
+                        return;
+                    }
+                    long remaining = deadline - now;
+                    if (remaining <= 0) {
+                        throw new HubSpotApiException("等待 HubSpot 调用配额超时", 429,
+                                "等待超过 " + config.getMaxWaitMillis() + " 毫秒");
+                    }
+                    stateChanged.awaitNanos(Math.min(waitNanos, remaining));
+                }
+            } finally {
+                queue.remove(ticket);
+                stateChanged.signalAll();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new HubSpotApiException("等待 HubSpot 调用配额时被中断", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 异步获取一个调用令牌，令牌不足时不占用线程，而是在预计可用的时间点重新尝试
+     * <p>
+     * 异步请求不进入排队队列，但会让位于同一优先级下已经排队的同步请求。
+     *
+     * @param priority 请求优先级
+     * @param search 是否为搜索接口请求
+     * @param executor 重新尝试时使用的执行器
+     * @return 获取到令牌时完成；等待超时或每日配额耗尽时以 429 的 HubSpotApiException 异常完成
+     */
+    public CompletableFuture<Void> acquireAsync(RequestPriority priority, boolean search, Executor executor) {
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        if (!config.isEnabled()) {
+            result.complete(null);
+            return result;
+        }
+        long startedAt = System.nanoTime();
+        long deadline = startedAt + TimeUnit.MILLISECONDS.toNanos(config.getMaxWaitMillis());
+        tryAcquireAsync(priority, search, executor, deadline, result);
+        return result.whenComplete((ignored, error) -> {
+            if (error == null) {
+                recordWait(priority, System.nanoTime() - startedAt);
+            }
+        });
+    }
+
+    private void tryAcquireAsync(RequestPriority priority, boolean search, Executor executor, long deadline,
+                                 CompletableFuture<Void> result) {
+        Deque<Object> queue = priority == RequestPriority.INTERACTIVE ? interactiveQueue : backgroundQueue;
+        long waitNanos;
+        long now;
+        lock.lock();
+        try {
+            checkDailyQuota(priority);
+            now = System.nanoTime();
+            waitNanos = nanosUntilAvailable(null, queue, priority, search, now);
+            if (waitNanos <= 0) {
+                take(search);
+            }
+        } catch (HubSpotApiException e) {
+            result.completeExceptionally(e);
+            return;
+        } finally {
+            lock.unlock();
+        }
+
+        if (waitNanos <= 0) {
+            result.complete(null);
+        } else if (now + waitNanos > deadline) {
+            result.completeExceptionally(new HubSpotApiException("等待 HubSpot 调用配额超时", 429,
+                    "等待超过 " + config.getMaxWaitMillis() + " 毫秒"));
+        } else {
+            CompletableFuture.delayedExecutor(waitNanos, TimeUnit.NANOSECONDS, executor)
+                    .execute(() -> tryAcquireAsync(priority, search, executor, deadline, result));
+        }
+    }
+
+    private void recordWait(RequestPriority priority, long nanos) {
+        Timer timer = waitTimers.get(priority);
+        if (timer != null) {
+            timer.record(nanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * 根据响应状态码和响应头校准限流状态
+     *
+     * @param statusCode HTTP 状态码
+     * @param headerLookup 响应头读取函数
+     */
+    public void onResponse(int statusCode, Function<String, String> headerLookup) {
+        if (!config.isEnabled()) {
+            return;
+        }
+        Long max = parseLong(headerLookup.apply(HEADER_MAX));
+        Long remaining = parseLong(headerLookup.apply(HEADER_REMAINING));
+        Long interval = parseLong(headerLookup.apply(HEADER_INTERVAL));
+        Long daily = parseLong(headerLookup.apply(HEADER_DAILY));
+        Long dailyRemaining = parseLong(headerLookup.apply(HEADER_DAILY_REMAINING));
+
+        lock.lock();
+        try {
+            if (max != null && interval != null) {
+                bucket.reconfigure(max, interval);
+            }
+            if (remaining != null) {
+                bucket.limitTo(remaining);
+            }
+            if (daily != null) {
+                dailyLimit = daily;
+            }
+            if (dailyRemaining != null) {
+                rollDay();
+                dailyRemainingFromHeader = dailyRemaining;
+                dailyUsed = 0;
+            }
+            if (statusCode == 429) {
+                long pauseMillis = retryAfterMillis(headerLookup.apply(HEADER_RETRY_AFTER));
+                pausedUntilNanos = Math.max(pausedUntilNanos,
+                        System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(pauseMillis));
+                bucket.limitTo(0);
+                log.warn("HubSpot 返回 429，暂停所有请求 {} 毫秒", pauseMillis);
+            }
+            stateChanged.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 获取当前可用令牌数
+     */
+    public double getAvailableTokens() {
+        lock.lock();
+        try {
+            bucket.refill(System.nanoTime());
+            return bucket.tokens;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 获取当日剩余配额
+     */
+    public long getDailyRemaining() {
+        lock.lock();
+        try {
+            rollDay();
+            return dailyRemaining();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 获取排队等待的请求数
+     */
+    public int getQueuedRequests() {
+        lock.lock();
+        try {
+            return interactiveQueue.size() + backgroundQueue.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void take(boolean search) {
+        bucket.take();
+        if (search) {
+            searchBucket.take();
+        }
+        dailyUsed++;
+    }
+
+    /**
+     * 计算距离可以获取令牌的等待时间
+     *
+     * @param ticket 排队凭证，异步请求不排队时为 null
+     */
+    private long nanosUntilAvailable(Object ticket, Deque<Object> queue, RequestPriority priority,
+                                     boolean search, long now) {
+        if (now < pausedUntilNanos) {
+            return pausedUntilNanos - now;
+        }
+        // 同一优先级内按到达顺序获取令牌，后台请求需等待所有交互请求完成；
+        // 排队的同步请求靠信号唤醒，不排队的异步请求按补充一个令牌的时间间隔重新尝试
+        long parkNanos = ticket != null ? bucket.intervalNanos : bucket.nanosPerToken();
+        boolean ahead = ticket != null ? queue.peekFirst() == ticket : queue.isEmpty();
+        if (!ahead) {
+            return parkNanos;
+        }
+        if (priority == RequestPriority.BACKGROUND && !interactiveQueue.isEmpty()) {
+            return parkNanos;
+        }
+        bucket.refill(now);
+        double required = priority == RequestPriority.BACKGROUND
+                ? Math.min(bucket.capacity, 1 + bucket.capacity * config.getInteractiveReserveRatio())
+                : 1;
+        long bucketWait = bucket.nanosUntil(required);
+        if (bucketWait > 0) {
+            return bucketWait;
+        }
+        if (search) {
+            searchBucket.refill(now);
+            return searchBucket.nanosUntil(1);
+        }
+        return 0;
+    }
+
+    private void checkDailyQuota(RequestPriority priority) {
+        rollDay();
+        long remaining = dailyRemaining();
+        if (remaining <= 0) {
+            throw new HubSpotApiException("HubSpot 每日调用配额已用完", 429, "每日配额: " + dailyLimit);
+        }
+        if (priority == RequestPriority.BACKGROUND
+                && remaining <= dailyLimit * config.getDailyInteractiveReserveRatio()) {
+            throw new HubSpotApiException("HubSpot 每日剩余配额已预留给交互请求", 429, "剩余配额: " + remaining);
+        }
+    }
+
+    private long dailyRemaining() {
+        long base = dailyRemainingFromHeader >= 0 ? dailyRemainingFromHeader : dailyLimit;
+        return base - dailyUsed;
+    }
+
+    private void rollDay() {
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        if (!today.equals(currentDay)) {
+            currentDay = today;
+            dailyUsed = 0;
+            dailyRemainingFromHeader = -1;
+        }
+    }
+
+    private long retryAfterMillis(String retryAfter) {
+        Long seconds = parseLong(retryAfter);
+        if (seconds != null && seconds > 0) {
+            return TimeUnit.SECONDS.toMillis(seconds);
+        }
+        return TimeUnit.NANOSECONDS.toMillis(bucket.intervalNanos);
+    }
+
+    private static Long parseLong(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 令牌桶，按固定速率补充令牌
+     */
+    private static class TokenBucket {
+
+        private double capacity;
+        private long intervalNanos;
+        private double tokens;
+        private long lastRefillNanos = System.nanoTime();
+
+        TokenBucket(long capacity, long intervalMillis) {
+            reconfigure(capacity, intervalMillis);
+            this.tokens = this.capacity;
+        }
+
+        void reconfigure(long capacity, long intervalMillis) {
+            this.capacity = Math.max(1, capacity);
+            this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, intervalMillis));
+            this.tokens = Math.min(tokens, this.capacity);
+        }
+
+        void refill(long now) {
+            long elapsed = now - lastRefillNanos;
+            if (elapsed > 0) {
+                tokens = Math.min(capacity, tokens + elapsed * capacity / intervalNanos);
+                lastRefillNanos = now;
+            }
+        }
+
+        long nanosUntil(double required) {
+            if (tokens >= required) {
+                return 0;
+            }
+            return (long) Math.ceil((required - tokens) * intervalNanos / capacity);
+        }
+
+        void take() {
+            tokens -= 1;
+        }
+
+        long nanosPerToken() {
+            return (long) Math.ceil(intervalNanos / capacity);
+        }
+
+        void limitTo(double remaining) {
+            tokens = Math.min(tokens, remaining);
+        }
+    }
+}
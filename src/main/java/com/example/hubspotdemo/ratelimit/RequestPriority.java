@@ -0,0 +1,68 @@
+package com.example.hubspotdemo.ratelimit;
+
+import java.util.function.Supplier;
+
+/**
+ * HubSpot 请求优先级，用于区分交互请求和后台同步任务
+ * <p>
+ * 优先级绑定在当前线程上，未设置时默认为交互请求。
+ */
+public enum RequestPriority {
+
+    /**
+     * 交互请求（REST 控制器流量）
+     */
+    INTERACTIVE,
+
+    /**
+     * 后台请求（同步任务等）
+     */
+    BACKGROUND;
+
+    private static final ThreadLocal<RequestPriority> CURRENT = new ThreadLocal<>();
+
+    /**
+     * 获取当前线程的请求优先级
+     *
+     * @return 当前优先级，未设置时返回 INTERACTIVE
+     */
+    public static RequestPriority current() {
+        RequestPriority priority = CURRENT.get();
+        return priority != null ? priority : INTERACTIVE;
+    }
+
+    /**
+     * 以指定优先级执行任务
+     *
+     * @param priority 请求优先级
+     * @param task 任务
+     * @param <R> 返回值类型
+     * @return 任务返回值
+     */
+    public static <R> R callWith(RequestPriority priority, Supplier<R> task) {
+        RequestPriority previous = CURRENT.get();
+        CURRENT.set(priority);
+        try {
+            return task.get();
+        } finally {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+
+    /**
+     * 以指定优先级执行任务
+     *
+     * @param priority 请求优先级
+     * @param task 任务
+     */
+    public static void runWith(RequestPriority priority, Runnable task) {
+        callWith(priority, () -> {
+            task.run();
+            return null;
+        });
+    }
+}
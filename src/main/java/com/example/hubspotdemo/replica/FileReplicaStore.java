@@ -0,0 +1,495 @@
+package com.example.hubspotdemo.replica;
+
+import com.example.hubspotdemo.cache.HubSpotPropertiesCache.ObjectType;
+import com.example.hubspotdemo.config.ReplicaConfig;
+import com.example.hubspotdemo.model.HubSpotObject;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * 基于追加日志的本地副本存储
+ * <p>
+ * 每个对象类型一个日志文件，内存中维护 ID 到记录位置的索引。写入只追加新记录，读取按索引定位后直接读取记录；
+ * 被覆盖的旧版本超过一定比例后重写日志（压缩），压缩时丢弃超过保留时间的墓碑。
+ * 启动时顺序扫描日志重建索引，末尾不完整或校验失败的记录会被截断。
+ * <p>
+ * 记录格式：[int 长度][int CRC32][long 版本][byte 标志][short ID长度][ID][Smile 编码的对象]
+ */
+@Slf4j
+public class FileReplicaStore implements ReplicaStore {
+
+    private static final int HEADER_BYTES = 8;
+    private static final int FIXED_BODY_BYTES = 11;
+    private static final byte FLAG_TOMBSTONE = 1;
+
+    private final ReplicaConfig replicaConfig;
+    private final ObjectMapper smileMapper = new ObjectMapper(new SmileFactory())
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    private final Map<ObjectType, TypeLog> logs = new EnumMap<>(ObjectType.class);
+    private final ReplicaChangeListeners listeners = new ReplicaChangeListeners();
+
+    /**
+     * 索引条目，记录最新版本在日志中的位置
+     */
+    private record IndexEntry(long offset, int length, long version, boolean tombstone) {
+    }
+
+    public FileReplicaStore(ReplicaConfig replicaConfig) throws IOException {
+        this.replicaConfig = replicaConfig;
+        Path dir = Paths.get(replicaConfig.getDir());
+        Files.createDirectories(dir);
+        for (ObjectType type : ObjectType.values()) {
+            logs.put(type, new TypeLog(type, dir.resolve(type.getValue() + ".log")));
+        }
+    }
+
+    @Override
+    public boolean upsert(ObjectType objectType, HubSpotObject object) {
+        return upsertAll(objectType, List.of(object)) > 0;
+    }
+
+    @Override
+    public int upsertAll(ObjectType objectType, Collection<? extends HubSpotObject> objects) {
+        List<Mutation> mutations = new ArrayList<>(objects.size());
+        for (HubSpotObject object : objects) {
+            mutations.add(new Mutation(object.getId(), ReplicaStore.versionOf(object), object));
+        }
+        return logs.get(objectType).apply(mutations);
+    }
+
+    @Override
+    public boolean archive(ObjectType objectType, String objectId, long archivedAt) {
+        return logs.get(objectType).apply(List.of(new Mutation(objectId, archivedAt, null))) > 0;
+    }
+
+    @Override
+    public HubSpotObject get(ObjectType objectType, String objectId) {
+        return logs.get(objectType).read(objectId);
+    }
+
+    @Override
+    public List<HubSpotObject> getAll(ObjectType objectType, Collection<String> objectIds) {
+        TypeLog typeLog = logs.get(objectType);
+        List<HubSpotObject> result = new ArrayList<>(objectIds.size());
+        for (String objectId : objectIds) {
+            HubSpotObject object = typeLog.read(objectId);
+            if (object != null) {
+                result.add(object);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void forEach(ObjectType objectType, Consumer<HubSpotObject> consumer) {
+        logs.get(objectType).forEach(consumer);
+    }
+
+    @Override
+    public Set<String> ids(ObjectType objectType) {
+        return logs.get(objectType).ids();
+    }
+
+    @Override
+    public long getVersion(ObjectType objectType, String objectId) {
+        return logs.get(objectType).version(objectId);
+    }
+
+    @Override
+    public long count(ObjectType objectType) {
+        return logs.get(objectType).liveCount;
+    }
+
+    @Override
+    public void addChangeListener(ReplicaChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * 立即压缩指定对象类型的日志
+     * @param objectType 对象类型
+     */
+    public void compact(ObjectType objectType) {
+        logs.get(objectType).compactNow();
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (TypeLog typeLog : logs.values()) {
+            typeLog.close();
+        }
+    }
+
+    /**
+     * 一次写入操作，object 为 null 表示归档
+     */
+    private record Mutation(String id, long version, HubSpotObject object) {
+    }
+
+    /**
+     * 单个对象类型的日志文件和索引
+     */
+    private final class TypeLog {
+
+        private final ObjectType objectType;
+        private final Path file;
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+        private final Map<String, IndexEntry> index = new HashMap<>();
+
+        private FileChannel channel;
+        private long size;
+        private long liveBytes;
+        private volatile long liveCount;
+
+        TypeLog(ObjectType objectType, Path file) throws IOException {
+            this.objectType = objectType;
+            this.file = file;
+            this.channel = open(file);
+            recover();
+        }
+
+        /**
+         * 顺序扫描日志重建索引，遇到不完整或校验失败的记录时截断日志
+         */
+        private void recover() throws IOException {
+            long fileSize = channel.size();
+            long position = 0;
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            while (position + HEADER_BYTES <= fileSize) {
+                header.clear();
+                readFully(channel, header, position);
+                int length = header.getInt(0);
+                int crc = header.getInt(4);
+                if (length < FIXED_BODY_BYTES || position + HEADER_BYTES + length > fileSize) {
+                    break;
+                }
+                ByteBuffer body = ByteBuffer.allocate(length);
+                readFully(channel, body, position + HEADER_BYTES);
+                if (crc32(body.array(), 0, length) != crc) {
+                    break;
+                }
+                int idLength = body.getShort(9);
+                String id = new String(body.array(), FIXED_BODY_BYTES, idLength, StandardCharsets.UTF_8);
+                index(id, new IndexEntry(position, HEADER_BYTES + length, body.getLong(0),
+                        body.get(8) == FLAG_TOMBSTONE));
+                position += HEADER_BYTES + length;
+            }
+            if (position < fileSize) {
+                log.warn("{} 的副本日志末尾存在 {} 字节不完整的记录，已截断", objectType.getValue(), fileSize - position);
+                channel.truncate(position);
+            }
+            size = position;
+            log.info("加载 {} 的副本日志，共 {} 个对象，日志大小 {} 字节", objectType.getValue(), liveCount, size);
+        }
+
+        /**
+         * 写入一批变更，只追加版本比索引中更新的记录
+         */
+        int apply(List<Mutation> mutations) {
+            lock.writeLock().lock();
+            try {
+                List<ByteBuffer> records = new ArrayList<>();
+                Map<String, IndexEntry> updates = new HashMap<>();
+                Map<String, Mutation> applied = new LinkedHashMap<>();
+                long position = size;
+                for (Mutation mutation : mutations) {
+                    IndexEntry current = updates.containsKey(mutation.id())
+                            ? updates.get(mutation.id())
+                            : index.get(mutation.id());
+                    if (!isNewer(mutation, current)) {
+                        continue;
+                    }
+                    ByteBuffer record = encode(mutation);
+                    updates.put(mutation.id(), new IndexEntry(position, record.remaining(), mutation.version(),
+                            mutation.object() == null));
+                    applied.put(mutation.id(), mutation);
+                    records.add(record);
+                    position += record.remaining();
+                }
+                if (records.isEmpty()) {
+                    return 0;
+                }
+
+                long writePosition = size;
+                for (ByteBuffer record : records) {
+                    while (record.hasRemaining()) {
+                        writePosition += channel.write(record, writePosition);
+                    }
+                }
+                if (replicaConfig.isSyncOnWrite()) {
+                    channel.force(false);
+                }
+                size = writePosition;
+                updates.forEach(this::index);
+                // 持有写锁时通知，保证同一对象类型的通知顺序与生效顺序一致
+                applied.forEach((id, mutation) -> listeners.notify(objectType, id, mutation.object()));
+
+                maybeCompact();
+                return updates.size();
+            } catch (IOException e) {
+                throw new UncheckedIOException("写入 " + objectType.getValue() + " 的副本日志失败", e);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        /**
+         * 版本比已保存的更新时才写入，归档在版本相同时也会覆盖数据
+         */
+        private boolean isNewer(Mutation mutation, IndexEntry current) {
+            if (current == null || mutation.version() > current.version()) {
+                return true;
+            }
+            return mutation.object() == null && !current.tombstone() && mutation.version() == current.version();
+        }
+
+        private ByteBuffer encode(Mutation mutation) throws IOException {
+            byte[] id = mutation.id().getBytes(StandardCharsets.UTF_8);
+            byte[] payload = mutation.object() != null ? smileMapper.writeValueAsBytes(mutation.object()) : new byte[0];
+            int length = FIXED_BODY_BYTES + id.length + payload.length;
+            ByteBuffer record = ByteBuffer.allocate(HEADER_BYTES + length);
+            record.putInt(length);
+            record.putInt(0);
+            record.putLong(mutation.version());
+            record.put(mutation.object() == null ? FLAG_TOMBSTONE : 0);
+            record.putShort((short) id.length);
+            record.put(id);
+            record.put(payload);
+            record.putInt(4, crc32(record.array(), HEADER_BYTES, length));
+            record.flip();
+            return record;
+        }
+
+        private void index(String id, IndexEntry entry) {
+            IndexEntry previous = index.put(id, entry);
+            long count = liveCount;
+            if (previous != null) {
+                liveBytes -= previous.length();
+                if (!previous.tombstone()) {
+                    count--;
+                }
+            }
+            liveBytes += entry.length();
+            if (!entry.tombstone()) {
+                count++;
+            }
+            liveCount = count;
+        }
+
+        HubSpotObject read(String id) {
+            lock.readLock().lock();
+            try {
+                IndexEntry entry = index.get(id);
+                return entry != null && !entry.tombstone() ? decode(readRecord(entry)) : null;
+            } catch (IOException e) {
+                throw new UncheckedIOException("读取 " + objectType.getValue() + " 的副本日志失败", e);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        void forEach(Consumer<HubSpotObject> consumer) {
+            lock.readLock().lock();
+            try {
+                // 按日志位置顺序读取，尽量顺序访问磁盘
+                List<IndexEntry> entries = new ArrayList<>(index.values());
+                entries.sort(Comparator.comparingLong(IndexEntry::offset));
+                for (IndexEntry entry : entries) {
+                    if (!entry.tombstone()) {
+                        consumer.accept(decode(readRecord(entry)));
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("读取 " + objectType.getValue() + " 的副本日志失败", e);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        long version(String id) {
+            lock.readLock().lock();
+            try {
+                IndexEntry entry = index.get(id);
+                return entry != null ? entry.version() : -1;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        Set<String> ids() {
+            lock.readLock().lock();
+            try {
+                Set<String> ids = new HashSet<>();
+                index.forEach((id, entry) -> {
+                    if (!entry.tombstone()) {
+                        ids.add(id);
+                    }
+                });
+                return ids;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        private ByteBuffer readRecord(IndexEntry entry) throws IOException {
+            ByteBuffer record = ByteBuffer.allocate(entry.length());
+            readFully(channel, record, entry.offset());
+            return record;
+        }
+
+        private HubSpotObject decode(ByteBuffer record) throws IOException {
+            int idLength = record.getShort(HEADER_BYTES + 9);
+            int payloadOffset = HEADER_BYTES + FIXED_BODY_BYTES + idLength;
+            return smileMapper.readValue(record.array(), payloadOffset, record.capacity() - payloadOffset,
+                    objectType.getModelClass());
+        }
+
+        /**
+         * 无效数据超过比例时压缩日志，压缩失败不影响已经写入的数据，只记录日志
+         */
+        private void maybeCompact() {
+            if (size >= replicaConfig.getCompactionMinBytes()
+                    && size - liveBytes > size * replicaConfig.getCompactionGarbageRatio()) {
+                try {
+                    compact();
+                } catch (IOException e) {
+                    log.warn("压缩 {} 的副本日志失败，继续使用原日志: {}", objectType.getValue(), e.getMessage());
+                }
+            }
+        }
+
+        void compactNow() {
+            lock.writeLock().lock();
+            try {
+                compact();
+            } catch (IOException e) {
+                throw new UncheckedIOException("压缩 " + objectType.getValue() + " 的副本日志失败", e);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        /**
+         * 只保留每个对象的最新记录重写日志，归档时间早于保留时间的墓碑不再保留，调用方需持有写锁
+         * <p>
+         * 替换日志文件失败时删除临时文件并重新打开原日志，索引保持不变
+         */
+        private void compact() throws IOException {
+            long before = size;
+            long tombstoneCutoff = System.currentTimeMillis() - replicaConfig.getTombstoneRetentionMillis();
+            Path compacted = file.resolveSibling(file.getFileName() + ".compact");
+            List<Map.Entry<String, IndexEntry>> entries = new ArrayList<>(index.entrySet());
+            entries.sort(Comparator.comparingLong(entry -> entry.getValue().offset()));
+
+            Map<String, IndexEntry> newIndex = new HashMap<>();
+            long position = 0;
+            int droppedTombstones = 0;
+            try (FileChannel out = open(compacted)) {
+                out.truncate(0);
+                for (Map.Entry<String, IndexEntry> entry : entries) {
+                    IndexEntry indexEntry = entry.getValue();
+                    if (indexEntry.tombstone() && indexEntry.version() < tombstoneCutoff) {
+                        droppedTombstones++;
+                        continue;
+                    }
+                    ByteBuffer record = readRecord(indexEntry);
+                    record.flip();
+                    while (record.hasRemaining()) {
+                        position += out.write(record, position);
+                    }
+                    newIndex.put(entry.getKey(), new IndexEntry(position - indexEntry.length(), indexEntry.length(),
+                            indexEntry.version(), indexEntry.tombstone()));
+                }
+                out.force(true);
+            } catch (IOException e) {
+                Files.deleteIfExists(compacted);
+                throw e;
+            }
+
+            channel.close();
+            try {
+                replace(compacted, file);
+            } catch (IOException e) {
+                // 原日志没有被替换，重新打开后继续按原索引读写
+                channel = open(file);
+                Files.deleteIfExists(compacted);
+                throw e;
+            }
+            channel = open(file);
+            index.clear();
+            index.putAll(newIndex);
+            size = position;
+            liveBytes = position;
+            log.info("压缩 {} 的副本日志完成，{} 字节 -> {} 字节，丢弃 {} 个过期墓碑",
+                    objectType.getValue(), before, size, droppedTombstones);
+        }
+
+        void close() throws IOException {
+            lock.writeLock().lock();
+            try {
+                channel.close();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * 用压缩后的日志替换原日志，不支持原子移动时退回普通移动
+     */
+    void replace(Path compacted, Path file) throws IOException {
+        try {
+            Files.move(compacted, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(compacted, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static FileChannel open(Path file) throws IOException {
+        return FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                throw new EOFException("副本日志意外结束");
+            }
+        }
+    }
+
+    private static int crc32(byte[] bytes, int offset, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes, offset, length);
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.hubspotdemo.replica;
+
+import com.example.hubspotdemo.cache.HubSpotPropertiesCache.ObjectType;
+import com.example.hubspotdemo.model.HubSpotObject;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * 纯内存的副本存储，重启后数据丢失，适用于开发环境或只需要进程内副本的场景
+ */
+public class MemoryReplicaStore implements ReplicaStore {
+
+    /**
+     * 存储条目，object 为 null 表示墓碑
+     */
+    private record Entry(long version, HubSpotObject object) {
+    }
+
+    private final Map<ObjectType, Map<String, Entry>> entries = new EnumMap<>(ObjectType.class);
+    private final ReplicaChangeListeners listeners = new ReplicaChangeListeners();
+
+    public MemoryReplicaStore() {
+        for (ObjectType type : ObjectType.values()) {
+            entries.put(type, new ConcurrentHashMap<>());
+        }
+    }
+
+    @Override
+    public boolean upsert(ObjectType objectType, HubSpotObject object) {
+        Entry incoming = new Entry(ReplicaStore.versionOf(object), object);
+        return apply(objectType, object.getId(), incoming);
+    }
+
+    @Override
+    public int upsertAll(ObjectType objectType, Collection<? extends HubSpotObject> objects) {
+        int applied = 0;
+        for (HubSpotObject object : objects) {
+            if (upsert(objectType, object)) {
+                applied++;
+            }
+        }
+        return applied;
+    }
+
+    @Override
+    public boolean archive(ObjectType objectType, String objectId, long archivedAt) {
+        return apply(objectType, objectId, new Entry(archivedAt, null));
+    }
+
+    /**
+     * 版本比已保存的更新时才替换，墓碑在版本相同时也会覆盖数据
+     */
+    private boolean apply(ObjectType objectType, String objectId, Entry incoming) {
+        boolean[] applied = new boolean[1];
+        entries.get(objectType).compute(objectId, (id, current) -> {
+            if (current == null || incoming.version() > current.version()
+                    || (incoming.object() == null && current.object() != null && incoming.version() == current.version())) {
+                applied[0] = true;
+                // 在 compute 内通知，保证同一对象的通知顺序与生效顺序一致
+                listeners.notify(objectType, objectId, incoming.object());
+                return incoming;
+            }
+            return current;
+        });
+        return applied[0];
+    }
+
+    @Override
+    public HubSpotObject get(ObjectType objectType, String objectId) {
+        Entry entry = entries.get(objectType).get(objectId);
+        return entry != null ? entry.object() : null;
+    }
+
+    @Override
+    public List<HubSpotObject> getAll(ObjectType objectType, Collection<String> objectIds) {
+        List<HubSpotObject> result = new ArrayList<>(objectIds.size());
+        for (String objectId : objectIds) {
+            HubSpotObject object = get(objectType, objectId);
+            if (object != null) {
+                result.add(object);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void forEach(ObjectType objectType, Consumer<HubSpotObject> consumer) {
+        for (Entry entry : entries.get(objectType).values()) {
+            if (entry.object() != null) {
+                consumer.accept(entry.object());
+            }
+        }
+    }
+
+    @Override
+    public Set<String> ids(ObjectType objectType) {
+        Set<String> ids = new HashSet<>();
+        entries.get(objectType).forEach((id, entry) -> {
+            if (entry.object() != null) {
+                ids.add(id);
+            }
+        });
+        return ids;
+    }
+
+    @Override
+    public long getVersion(ObjectType objectType, String objectId) {
+        Entry entry = entries.get(objectType).get(objectId);
+        return entry != null ? entry.version() : -1;
+    }
+
+    @Override
+    public long count(ObjectType objectType) {
+        return entries.get(objectType).values().stream().filter(entry -> entry.object() != null).count();
+    }
+
+    @Override
+    public void addChangeListener(ReplicaChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void close() {
+        // 内存存储无需释放资源
+    }
+}
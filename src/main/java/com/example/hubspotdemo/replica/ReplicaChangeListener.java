@@ -0,0 +1,26 @@
+package com.example.hubspotdemo.replica;
+
+import com.example.hubspotdemo.cache.HubSpotPropertiesCache.ObjectType;
+import com.example.hubspotdemo.model.HubSpotObject;
+
+/**
+ * 本地副本变更监听器，写入或归档实际生效后调用
+ * <p>
+ * 同一对象类型的通知在存储的写入锁内按生效顺序依次调用，实现应当快速返回，不能再写入副本存储。
+ */
+public interface ReplicaChangeListener {
+
+    /**
+     * 对象被写入或更新
+     * @param objectType 对象类型
+     * @param object 新的对象
+     */
+    void onUpsert(ObjectType objectType, HubSpotObject object);
+
+    /**
+     * 对象被归档
+     * @param objectType 对象类型
+     * @param objectId 对象ID
+     */
+    void onArchive(ObjectType objectType, String objectId);
+}
@@ -0,0 +1,38 @@
+package com.example.hubspotdemo.replica;
+
+import com.example.hubspotdemo.cache.HubSpotPropertiesCache.ObjectType;
+import com.example.hubspotdemo.model.HubSpotObject;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 副本存储实现共用的监听器列表，单个监听器抛出的异常只记录日志，不影响写入和其他监听器
+ */
+@Slf4j
+class ReplicaChangeListeners {
+
+    private final List<ReplicaChangeListener> listeners = new CopyOnWriteArrayList<>();
+
+    void add(ReplicaChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * 通知变更，object 为 null 表示归档
+     */
+    void notify(ObjectType objectType, String objectId, HubSpotObject object) {
+        for (ReplicaChangeListener listener : listeners) {
+            try {
+                if (object != null) {
+                    listener.onUpsert(objectType, object);
+                } else {
+                    listener.onArchive(objectType, objectId);
+                }
+            } catch (RuntimeException e) {
+                log.error("副本变更监听器处理 {} {} 失败", objectType.getValue(), objectId, e);
+            }
+        }
+    }
+}
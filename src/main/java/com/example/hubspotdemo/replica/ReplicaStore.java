@@ -0,0 +1,114 @@
+package com.example.hubspotdemo.replica;
+
+import com.example.hubspotdemo.cache.HubSpotPropertiesCache.ObjectType;
+import com.example.hubspotdemo.model.HubSpotObject;
+
+import java.io.Closeable;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * 本地副本存储，按对象类型和ID保存同步下来的 HubSpot 对象
+ * <p>
+ * 写入以对象的 updatedAt 为版本：只有比已保存版本更新的数据才会生效，
+ * 同一批数据重复写入、乱序写入都不会改变结果。归档以墓碑记录保存，比墓碑更旧的数据不会恢复已归档的对象。
+ */
+public interface ReplicaStore extends Closeable {
+
+    /**
+     * 写入或更新对象
+     * @param objectType 对象类型
+     * @param object 对象
+     * @return 数据比已保存的版本更新并已写入时返回 true
+     */
+    boolean upsert(ObjectType objectType, HubSpotObject object);
+
+    /**
+     * 批量写入或更新对象
+     * @param objectType 对象类型
+     * @param objects 对象列表
+     * @return 实际写入的数量
+     */
+    int upsertAll(ObjectType objectType, Collection<? extends HubSpotObject> objects);
+
+    /**
+     * 归档对象
+     * @param objectType 对象类型
+     * @param objectId 对象ID
+     * @param archivedAt 归档时间（毫秒时间戳），早于已保存版本时忽略
+     * @return 归档生效时返回 true
+     */
+    boolean archive(ObjectType objectType, String objectId, long archivedAt);
+
+    /**
+     * 根据ID读取对象
+     * @param objectType 对象类型
+     * @param objectId 对象ID
+     * @return 对象，不存在或已归档时返回 null
+     */
+    HubSpotObject get(ObjectType objectType, String objectId);
+
+    /**
+     * 根据ID批量读取对象，不存在或已归档的ID会被跳过
+     * @param objectType 对象类型
+     * @param objectIds 对象ID列表
+     * @return 对象列表
+     */
+    List<HubSpotObject> getAll(ObjectType objectType, Collection<String> objectIds);
+
+    /**
+     * 遍历所有未归档的对象
+     * @param objectType 对象类型
+     * @param consumer 处理函数
+     */
+    void forEach(ObjectType objectType, Consumer<HubSpotObject> consumer);
+
+    /**
+     * 获取所有未归档对象的ID
+     * @param objectType 对象类型
+     * @return ID 集合
+     */
+    Set<String> ids(ObjectType objectType);
+
+    /**
+     * 获取已保存对象的版本（updatedAt 毫秒时间戳）
+     * @param objectType 对象类型
+     * @param objectId 对象ID
+     * @return 版本，不存在时返回 -1
+     */
+    long getVersion(ObjectType objectType, String objectId);
+
+    /**
+     * 获取未归档对象的数量
+     * @param objectType 对象类型
+     * @return 对象数量
+     */
+    long count(ObjectType objectType);
+
+    /**
+     * 注册变更监听器，只会收到注册之后生效的变更
+     * @param listener 监听器
+     */
+    void addChangeListener(ReplicaChangeListener listener);
+
+    /**
+     * 将对象的 updatedAt 转换为毫秒时间戳，无法解析时返回 0
+     * @param object 对象
+     * @return 毫秒时间戳
+     */
+    static long versionOf(HubSpotObject object) {
+        String updatedAt = object.getUpdatedAt();
+        if (updatedAt == null || updatedAt.isEmpty()) {
+            return 0;
+        }
+        try {
+            return Instant.parse(updatedAt).toEpochMilli();
+        } catch (DateTimeParseException e) {
+            return 0;
+        }
+    }
+}
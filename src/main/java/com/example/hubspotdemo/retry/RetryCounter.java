@@ -0,0 +1,73 @@
+package com.example.hubspotdemo.retry;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 绑定在当前线程上的重试计数器，用于统计一次任务（如一个对象类型的一次同步）安排的重试次数
+ * <p>
+ * 重试策略每安排一次重试就为当前线程的计数器加一，未绑定时只计入进程级的总数。
+ * 任务在后台线程执行时需要像请求优先级一样把计数器传递过去。
+ */
+public final class RetryCounter {
+
+    private static final ThreadLocal<LongAdder> CURRENT = new ThreadLocal<>();
+
+    private RetryCounter() {
+    }
+
+    /**
+     * 获取当前线程的重试计数器
+     *
+     * @return 重试计数器，未绑定时返回 null
+     */
+    public static LongAdder current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * 使用指定的重试计数器执行任务
+     *
+     * @param counter 重试计数器，为 null 时任务中的重试不单独计数
+     * @param task 任务
+     * @param <R> 返回值类型
+     * @return 任务返回值
+     */
+    public static <R> R callWith(LongAdder counter, Supplier<R> task) {
+        LongAdder previous = CURRENT.get();
+        if (counter != null) {
+            CURRENT.set(counter);
+        } else {
+            CURRENT.remove();
+        }
+        try {
+            return task.get();
+        } finally {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+
+    /**
+     * 使用指定的重试计数器执行任务
+     *
+     * @param counter 重试计数器，为 null 时任务中的重试不单独计数
+     * @param task 任务
+     */
+    public static void runWith(LongAdder counter, Runnable task) {
+        callWith(counter, () -> {
+            task.run();
+            return null;
+        });
+    }
+
+    static void increment() {
+        LongAdder counter = CURRENT.get();
+        if (counter != null) {
+            counter.increment();
+        }
+    }
+}
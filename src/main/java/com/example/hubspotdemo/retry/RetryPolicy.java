@@ -0,0 +1,115 @@
+package com.example.hubspotdemo.retry;
+
+import com.example.hubspotdemo.config.RetryConfig;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * HubSpot API 重试策略，使用带随机抖动的有界指数退避，并遵循 Retry-After 响应头
+ * <p>
+ * 429 表示请求未被处理，任何方法都可以重试；其他可重试状态码和 I/O 异常只对幂等请求重试。
+ */
+@Component
+public class RetryPolicy {
+
+    /**
+     * 表示不再重试
+     */
+    public static final long NO_RETRY = -1;
+
+    private final RetryConfig config;
+
+    // 进程启动以来安排的重试次数
+    private final LongAdder retryCount = new LongAdder();
+
+    @Autowired
+    public RetryPolicy(RetryConfig config) {
+        this.config = config;
+    }
+
+    /**
+     * 计算请求开始时对应的截止时间
+     *
+     * @return 截止时间（System.nanoTime 时间基准）
+     */
+    public long deadline() {
+        return System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(config.getTotalBudgetMillis());
+    }
+
+    /**
+     * 计算 HTTP 错误响应后的重试等待时间
+     *
+     * @param attempt 已经完成的尝试次数（从 1 开始）
+     * @param statusCode HTTP 状态码
+     * @param idempotent 请求是否幂等
+     * @param retryAfter Retry-After 响应头，可以为 null
+     * @param deadline 截止时间
+     * @return 等待时间（毫秒），不再重试时返回 {@link #NO_RETRY}
+     */
+    public long delayForStatus(int attempt, int statusCode, boolean idempotent, String retryAfter, long deadline) {
+        boolean retryable = statusCode == 429
+                || (idempotent && config.getRetryableStatusCodes().contains(statusCode));
+        if (!retryable) {
+            return NO_RETRY;
+        }
+        return delay(attempt, parseRetryAfterMillis(retryAfter), deadline);
+    }
+
+    /**
+     * 计算 I/O 异常（超时、连接重置等）后的重试等待时间
+     *
+     * @param attempt 已经完成的尝试次数（从 1 开始）
+     * @param idempotent 请求是否幂等
+     * @param deadline 截止时间
+     * @return 等待时间（毫秒），不再重试时返回 {@link #NO_RETRY}
+     */
+    public long delayForIoError(int attempt, boolean idempotent, long deadline) {
+        if (!idempotent) {
+            return NO_RETRY;
+        }
+        return delay(attempt, 0, deadline);
+    }
+
+    private long delay(int attempt, long retryAfterMillis, long deadline) {
+        if (!config.isEnabled() || attempt >= config.getMaxAttempts()) {
+            return NO_RETRY;
+        }
+        // 全抖动：在 [0, 指数退避上限] 之间随机取值，避免多个客户端同时重试
+        double exponential = config.getInitialBackoffMillis() * Math.pow(config.getMultiplier(), attempt - 1);
+        long cap = (long) Math.min(config.getMaxBackoffMillis(), exponential);
+        long delay = Math.max(retryAfterMillis, ThreadLocalRandom.current().nextLong(cap + 1));
+
+        long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+        if (delay >= remainingMillis) {
+            return NO_RETRY;
+        }
+        retryCount.increment();
+        RetryCounter.increment();
+        return delay;
+    }
+
+    /**
+     * 获取进程启动以来安排的重试总次数，单次任务的重试次数见 {@link RetryCounter}
+     *
+     * @return 重试次数
+     */
+    public long getRetryCount() {
+        return retryCount.sum();
+    }
+
+    private static long parseRetryAfterMillis(String retryAfter) {
+        if (retryAfter == null || retryAfter.isBlank()) {
+            return 0;
+        }
+        try {
+            return TimeUnit.SECONDS.toMillis(Long.parseLong(retryAfter.trim()));
+        } catch (NumberFormatException e) {
+            // 不支持 HTTP 日期格式，按无 Retry-After 处理
+            return 0;
+        }
+    }
+}
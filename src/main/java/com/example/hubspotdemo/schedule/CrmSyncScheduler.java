@@ -0,0 +1,49 @@
+package com.example.hubspotdemo.schedule;
+
+import com.example.hubspotdemo.sync.SyncOrchestrator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * CRM 数据同步定时任务类
+ * 负责所有对象类型（公司、联系人、交易、产品、行项目）的全量同步和增量更新同步
+ */
+@Component
+public class CrmSyncScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(CrmSyncScheduler.class);
+
+    @Autowired
+    private SyncOrchestrator syncOrchestrator;
+
+    /**
+     * 每天凌晨0点执行全量同步
+     * 各对象类型并发同步，全量数据按创建时间分区并行获取
+     */
+    @Scheduled(cron = "${hubspot.sync.full-cron:0 0 0 * * ?}")
+    public void performFullSync() {
+        logger.info("开始执行全量同步");
+        try {
+            syncOrchestrator.runFullSync();
+        } catch (Exception e) {
+            logger.error("全量同步执行失败: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 定期执行增量同步
+     * 从持久化的水位线开始获取各对象类型的变更
+     */
+    @Scheduled(cron = "${hubspot.sync.incremental-cron:0 */1 * * * *}")
+    public void performIncrementalSync() {
+        logger.debug("开始执行增量同步");
+        try {
+            syncOrchestrator.runIncrementalSync();
+        } catch (Exception e) {
+            logger.error("增量同步执行失败: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.hubspotdemo.schedule;
+
+import com.example.hubspotdemo.cache.HubSpotPropertiesCache;
+import com.example.hubspotdemo.ratelimit.RequestPriority;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 属性缓存后台刷新定时任务类
+ * 启动后立即预热所有对象类型的属性列表，之后定期刷新已过期的缓存，使请求线程不再等待属性列表加载
+ */
+@Component
+@ConditionalOnProperty(prefix = "hubspot.properties-cache", name = "refresh-enabled", matchIfMissing = true)
+public class PropertiesCacheRefreshScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(PropertiesCacheRefreshScheduler.class);
+
+    @Autowired
+    private HubSpotPropertiesCache propertiesCache;
+
+    /**
+     * 定期检查并刷新过期的属性缓存
+     */
+    @Scheduled(initialDelay = 0, fixedDelayString = "${hubspot.properties-cache.refresh-check-interval-millis:60000}")
+    public void refreshExpiredProperties() {
+        RequestPriority.runWith(RequestPriority.BACKGROUND, () -> {
+            for (HubSpotPropertiesCache.ObjectType type : HubSpotPropertiesCache.ObjectType.values()) {
+                try {
+                    propertiesCache.refreshIfExpired(type);
+                } catch (Exception e) {
+                    logger.warn("刷新 {} 的属性列表缓存失败: {}", type.getValue(), e.getMessage());
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,237 @@
+package com.example.hubspotdemo.search;
+
+import com.example.hubspotdemo.model.HubSpotObject;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+import static com.example.hubspotdemo.search.PropertyValues.compare;
+import static com.example.hubspotdemo.search.PropertyValues.operand;
+import static com.example.hubspotdemo.search.PropertyValues.tokens;
+import static com.example.hubspotdemo.search.PropertyValues.value;
+
+/**
+ * 编译后的本地搜索条件，语义与 HubSpot 搜索接口保持一致
+ * <p>
+ * 组内条件之间为“且”，组与组之间为“或”，没有条件组时匹配所有对象。属性值的比较规则见 {@link PropertyValues}，
+ * 排序按 {@link PropertyValues#compareForSort(String, String)} 的全序比较，排序值相同时按对象ID升序。
+ * 条件值在编译时解码，紧凑存储的对象的属性值在首次比较时解码，过滤和排序时不再重复解析。
+ */
+final class LocalQuery {
+
+    /**
+     * 对属性值的条件，同时传入对象以便使用对象中保存的解码值
+     */
+    @FunctionalInterface
+    private interface Condition {
+
+        boolean test(HubSpotObject object, String actual);
+
+        default Condition negate() {
+            return (object, actual) -> !test(object, actual);
+        }
+    }
+
+    private final List<List<Predicate<HubSpotObject>>> groups;
+    private final Comparator<HubSpotObject> order;
+
+    private LocalQuery(List<List<Predicate<HubSpotObject>>> groups, Comparator<HubSpotObject> order) {
+        this.groups = groups;
+        this.order = order;
+    }
+
+    /**
+     * 编译搜索条件
+     * @param filterGroups 过滤条件组
+     * @param sorts 排序条件，为空时按对象ID升序
+     * @return 编译后的搜索条件
+     * @throws IllegalArgumentException 条件中包含不支持的操作符或缺少必需的值
+     */
+    static LocalQuery compile(List<SearchFilterGroup> filterGroups, List<SearchSort> sorts) {
+        List<List<Predicate<HubSpotObject>>> groups = new ArrayList<>();
+        if (filterGroups != null) {
+            for (SearchFilterGroup group : filterGroups) {
+                List<Predicate<HubSpotObject>> conditions = new ArrayList<>();
+                if (group.getFilters() != null) {
+                    for (SearchFilter filter : group.getFilters()) {
+                        conditions.add(compile(filter));
+                    }
+                }
+                groups.add(conditions);
+            }
+        }
+        return new LocalQuery(groups, comparator(sorts));
+    }
+
+    /**
+     * 判断对象是否满足条件
+     */
+    boolean matches(HubSpotObject object) {
+        if (groups.isEmpty()) {
+            return true;
+        }
+        for (List<Predicate<HubSpotObject>> conditions : groups) {
+            if (matchesAll(conditions, object)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 结果排序规则，排序值相同时按对象ID升序，保证分页结果稳定
+     */
+    Comparator<HubSpotObject> order() {
+        return order;
+    }
+
+    private static boolean matchesAll(List<Predicate<HubSpotObject>> conditions, HubSpotObject object) {
+        for (Predicate<HubSpotObject> condition : conditions) {
+            if (!condition.test(object)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Predicate<HubSpotObject> compile(SearchFilter filter) {
+        String property = filter.getPropertyName();
+        if (property == null || property.isEmpty()) {
+            throw new IllegalArgumentException("过滤条件缺少 propertyName");
+        }
+        String operator = filter.getOperator() != null ? filter.getOperator().toUpperCase(Locale.ROOT) : "EQ";
+        switch (operator) {
+            case "HAS_PROPERTY":
+                return object -> value(object, property) != null;
+            case "NOT_HAS_PROPERTY":
+                return object -> value(object, property) == null;
+            case "IN":
+            case "NOT_IN": {
+                if (filter.getValues() == null) {
+                    throw new IllegalArgumentException(operator + " 条件缺少 values: " + property);
+                }
+                List<PropertyValues.Operand> values = filter.getValues().stream().map(PropertyValues::operand).toList();
+                Condition in = (object, actual) -> {
+                    for (PropertyValues.Operand expected : values) {
+                        if (compare(object, property, actual, expected) == 0) {
+                            return true;
+                        }
+                    }
+                    return false;
+                };
+                return "IN".equals(operator) ? present(property, in) : absentOr(property, in.negate());
+            }
+            case "CONTAINS_TOKEN":
+                return present(property, tokenMatcher(property, filter.getValue()));
+            case "NOT_CONTAINS_TOKEN":
+                return absentOr(property, tokenMatcher(property, filter.getValue()).negate());
+            case "BETWEEN": {
+                PropertyValues.Operand low = operand(required(filter.getValue(), operator, property));
+                PropertyValues.Operand high = operand(required(filter.getHighValue(), operator, property));
+                return present(property, (object, actual) -> compare(object, property, actual, low) >= 0
+                        && compare(object, property, actual, high) <= 0);
+            }
+            default:
+                break;
+        }
+
+        PropertyValues.Operand expected = operand(required(filter.getValue(), operator, property));
+        return switch (operator) {
+            case "EQ" -> present(property, (object, actual) -> compare(object, property, actual, expected) == 0);
+            case "NEQ" -> absentOr(property, (object, actual) -> compare(object, property, actual, expected) != 0);
+            case "LT" -> present(property, (object, actual) -> compare(object, property, actual, expected) < 0);
+            case "LTE" -> present(property, (object, actual) -> compare(object, property, actual, expected) <= 0);
+            case "GT" -> present(property, (object, actual) -> compare(object, property, actual, expected) > 0);
+            case "GTE" -> present(property, (object, actual) -> compare(object, property, actual, expected) >= 0);
+            default -> throw new IllegalArgumentException("本地搜索不支持的操作符: " + operator);
+        };
+    }
+
+    /**
+     * 属性存在且满足条件
+     */
+    private static Predicate<HubSpotObject> present(String property, Condition condition) {
+        return object -> {
+            String actual = value(object, property);
+            return actual != null && condition.test(object, actual);
+        };
+    }
+
+    /**
+     * 属性不存在，或者存在且满足条件（用于否定类操作符）
+     */
+    private static Predicate<HubSpotObject> absentOr(String property, Condition condition) {
+        return object -> {
+            String actual = value(object, property);
+            return actual == null || condition.test(object, actual);
+        };
+    }
+
+    /**
+     * 词匹配：值中包含 * 时作为通配符匹配整个属性值，否则要求值中的每个词都出现在属性值中
+     */
+    private static Condition tokenMatcher(String property, String value) {
+        String expected = required(value, "CONTAINS_TOKEN", property).toLowerCase(Locale.ROOT);
+        if (expected.indexOf('*') >= 0) {
+            StringBuilder regex = new StringBuilder();
+            for (String part : expected.split("\\*", -1)) {
+                if (!regex.isEmpty()) {
+                    regex.append(".*");
+                }
+                regex.append(Pattern.quote(part));
+            }
+            Pattern pattern = Pattern.compile(regex.toString(), Pattern.DOTALL);
+            return (object, actual) -> pattern.matcher(actual.toLowerCase(Locale.ROOT)).matches();
+        }
+        List<String> expectedTokens = tokens(expected);
+        return (object, actual) -> new HashSet<>(tokens(actual)).containsAll(expectedTokens);
+    }
+
+    private static String required(String value, String operator, String property) {
+        if (value == null) {
+            throw new IllegalArgumentException(operator + " 条件缺少 value: " + property);
+        }
+        return value;
+    }
+
+    private static Comparator<HubSpotObject> comparator(List<SearchSort> sorts) {
+        Comparator<HubSpotObject> order = null;
+        if (sorts != null) {
+            for (SearchSort sort : sorts) {
+                String property = sort.getPropertyName();
+                if (property == null || property.isEmpty()) {
+                    throw new IllegalArgumentException("排序条件缺少 propertyName");
+                }
+                boolean descending = "DESCENDING".equalsIgnoreCase(sort.getDirection());
+                // 没有该属性的对象总是排在最后
+                Comparator<HubSpotObject> byProperty = (left, right) -> {
+                    String leftValue = value(left, property);
+                    String rightValue = value(right, property);
+                    if (leftValue == null || rightValue == null) {
+                        return leftValue == null ? (rightValue == null ? 0 : 1) : -1;
+                    }
+                    int result = compare(left, leftValue, right, rightValue, property);
+                    return descending ? -result : result;
+                };
+                order = order == null ? byProperty : order.thenComparing(byProperty);
+            }
+        }
+        Comparator<HubSpotObject> byId = (left, right) -> compareIds(left.getId(), right.getId());
+        return order == null ? byId : order.thenComparing(byId);
+    }
+
+    /**
+     * 对象ID是数字字符串，先比较长度再比较字符，避免解析
+     */
+    private static int compareIds(String left, String right) {
+        if (left == null || right == null) {
+            return left == null ? (right == null ? 0 : 1) : -1;
+        }
+        return left.length() != right.length() ? Integer.compare(left.length(), right.length()) : left.compareTo(right);
+    }
+}
@@ -0,0 +1,197 @@
+package com.example.hubspotdemo.search;
+
+import com.example.hubspotdemo.cache.HubSpotPropertiesCache.ObjectType;
+import com.example.hubspotdemo.config.LocalSearchConfig;
+import com.example.hubspotdemo.index.SecondaryIndexManager;
+import com.example.hubspotdemo.model.HubSpotObject;
+import com.example.hubspotdemo.model.HubSpotResponse;
+import com.example.hubspotdemo.replica.ReplicaStore;
+import com.example.hubspotdemo.sync.SyncStateStore;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 本地搜索引擎，在本地副本上执行与 HubSpot 搜索接口格式相同的查询
+ * <p>
+ * 不受 HubSpot 搜索接口的调用频率和 10000 条结果上限限制。分页游标为结果偏移量，与 HubSpot 搜索接口一致。
+ * 条件能使用二级索引时只校验索引返回的候选对象，否则扫描该类型的所有对象。
+ * 本地副本的数据可能比 HubSpot 晚一个同步周期，副本过期时调用方应改用 HubSpot 搜索接口。
+ */
+@Component
+@Slf4j
+public class LocalSearchEngine {
+
+    private static final TypeReference<List<SearchFilterGroup>> FILTER_GROUPS_TYPE = new TypeReference<>() {
+    };
+    private static final TypeReference<List<SearchSort>> SORTS_TYPE = new TypeReference<>() {
+    };
+
+    private final ReplicaStore replicaStore;
+    private final SyncStateStore stateStore;
+    private final SecondaryIndexManager indexManager;
+    private final LocalSearchConfig searchConfig;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public LocalSearchEngine(ReplicaStore replicaStore, SyncStateStore stateStore, SecondaryIndexManager indexManager,
+                             LocalSearchConfig searchConfig, ObjectMapper objectMapper) {
+        this.replicaStore = replicaStore;
+        this.stateStore = stateStore;
+        this.indexManager = indexManager;
+        this.searchConfig = searchConfig;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * 判断指定对象类型能否在本地搜索：已启用本地搜索，本地副本经过全量同步包含全部对象，
+     * 且最近一次同步成功的时间在允许的过期时间内
+     * @param objectType 对象类型
+     * @return 可以在本地搜索时返回 true
+     */
+    public boolean isAvailable(ObjectType objectType) {
+        if (!searchConfig.isEnabled()) {
+            return false;
+        }
+        if (!stateStore.isReplicaComplete(objectType)) {
+            // 只经过增量同步的本地副本只有回溯时间内变更的对象，搜索结果不完整
+            log.info("{} 的本地副本尚未完成全量同步，改用 HubSpot 搜索接口", objectType.getValue());
+            return false;
+        }
+        long lastSuccessAt = stateStore.getLastSuccessAt(objectType);
+        boolean fresh = lastSuccessAt > 0
+                && System.currentTimeMillis() - lastSuccessAt <= searchConfig.getMaxStalenessMillis();
+        if (!fresh) {
+            log.info("{} 的本地副本已过期，最近一次同步成功: {}，改用 HubSpot 搜索接口", objectType.getValue(),
+                    lastSuccessAt > 0 ? Instant.ofEpochMilli(lastSuccessAt) : "无");
+        }
+        return fresh;
+    }
+
+    /**
+     * 在本地副本上搜索
+     * @param objectType 对象类型
+     * @param filterGroups 过滤条件组，格式与 HubSpot 搜索接口相同
+     * @param sorts 排序条件，为空时按对象ID升序
+     * @param properties 需要返回的属性，为空时返回所有属性
+     * @param limit 每页数量
+     * @param after 分页游标，为 null 表示第一页
+     * @param <T> 对象类型
+     * @return 搜索结果，total 为满足条件的总数
+     * @throws IllegalArgumentException 条件格式错误、包含不支持的操作符或游标无效
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends HubSpotObject> HubSpotResponse<T> search(ObjectType objectType, Object filterGroups,
+                                                               List<Map<String, Object>> sorts,
+                                                               List<String> properties, int limit, String after) {
+        long startedAt = System.nanoTime();
+        List<SearchFilterGroup> groups = convert(filterGroups, FILTER_GROUPS_TYPE);
+        LocalQuery query = LocalQuery.compile(groups, convert(sorts, SORTS_TYPE));
+        int offset = parseOffset(after);
+
+        List<HubSpotObject> matches = new ArrayList<>();
+        Set<String> candidates = indexManager.candidates(objectType, groups);
+        if (candidates != null) {
+            for (HubSpotObject object : replicaStore.getAll(objectType, candidates)) {
+                if (query.matches(object)) {
+                    matches.add(object);
+                }
+            }
+        } else {
+            replicaStore.forEach(objectType, object -> {
+                if (query.matches(object)) {
+                    matches.add(object);
+                }
+            });
+        }
+        matches.sort(query.order());
+
+        int from = Math.min(offset, matches.size());
+        int to = Math.min(from + Math.max(limit, 0), matches.size());
+        List<T> results = new ArrayList<>(to - from);
+        for (HubSpotObject object : matches.subList(from, to)) {
+            results.add((T) project(object, properties));
+        }
+
+        HubSpotResponse<T> response = new HubSpotResponse<>();
+        response.setTotal(matches.size());
+        response.setResults(results);
+        if (to < matches.size()) {
+            HubSpotResponse.PagingInfo.NextPage next = new HubSpotResponse.PagingInfo.NextPage();
+            next.setAfter(String.valueOf(to));
+            HubSpotResponse.PagingInfo paging = new HubSpotResponse.PagingInfo();
+            paging.setNext(next);
+            response.setPagingInfo(paging);
+        }
+        Map<String, Object> metaData = new LinkedHashMap<>();
+        metaData.put("source", "local");
+        metaData.put("indexed", candidates != null);
+        metaData.put("syncedAt", stateStore.getLastSuccessAt(objectType));
+        metaData.put("fullSyncAt", stateStore.getLastFullSyncAt(objectType));
+        response.setMetaData(metaData);
+
+        log.debug("本地搜索 {} 完成，{}，匹配 {} 条，返回 {} 条，耗时 {} 毫秒", objectType.getValue(),
+                candidates != null ? "索引候选 " + candidates.size() + " 条" : "全量扫描", matches.size(),
+                results.size(), (System.nanoTime() - startedAt) / 1_000_000);
+        return response;
+    }
+
+    private <R> R convert(Object value, TypeReference<R> type) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return objectMapper.convertValue(value, type);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("搜索条件格式错误: " + e.getMessage(), e);
+        }
+    }
+
+    private static int parseOffset(String after) {
+        if (after == null || after.isEmpty()) {
+            return 0;
+        }
+        try {
+            int offset = Integer.parseInt(after);
+            if (offset < 0) {
+                throw new IllegalArgumentException("无效的分页游标: " + after);
+            }
+            return offset;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("无效的分页游标: " + after, e);
+        }
+    }
+
+    /**
+     * 只保留请求的属性，返回新的对象，不修改本地副本中的数据
+     */
+    private static HubSpotObject project(HubSpotObject object, List<String> properties) {
+        if (properties == null || properties.isEmpty() || object.getProperties() == null) {
+            return object;
+        }
+        HubSpotObject projected = BeanUtils.instantiateClass(object.getClass());
+        projected.setId(object.getId());
+        projected.setCreatedAt(object.getCreatedAt());
+        projected.setUpdatedAt(object.getUpdatedAt());
+        projected.setArchived(object.isArchived());
+        Map<String, Object> values = new LinkedHashMap<>();
+        for (String property : properties) {
+            Object value = object.getProperties().get(property);
+            if (value != null) {
+                values.put(property, value);
+            }
+        }
+        projected.setProperties(values);
+        return projected;
+    }
+}
@@ -0,0 +1,260 @@
+package com.example.hubspotdemo.search;
+
+import com.example.hubspotdemo.model.CompactProperties;
+import com.example.hubspotdemo.model.HubSpotObject;
+import com.example.hubspotdemo.model.PropertyType;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * 本地搜索和二级索引共用的属性值比较规则
+ * <p>
+ * HubSpot 返回的属性值都是字符串：两边都是数字时按数值比较，都能解析为时间（毫秒时间戳、ISO 日期或时间）时按时间比较，
+ * 否则按忽略大小写的字符串比较。空字符串视为属性不存在。
+ * <p>
+ * 这一规则用于过滤条件，但混合了数字和非数字的值时不满足传递性（"2" < "10"，"10" < "1a"，"1a" < "2"），不能用于排序。
+ * 排序使用 {@link #compareForSort(String, String)}：先按数字、时间、字符串分类，再在同类中比较。
+ * <p>
+ * 对象按属性结构紧凑存储时，数字、日期、日期时间和布尔属性使用保存在对象中的解码值比较，每个属性值只解析一次；
+ * 任意一边无法按属性类型解码时按上述规则比较原始字符串，两种方式的比较结果相同。
+ */
+public final class PropertyValues {
+
+    private static final String OBJECT_ID_PROPERTY = "hs_object_id";
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    // 解码值无法决定比较结果，需要按原始字符串比较
+    private static final int UNDECIDED = Integer.MIN_VALUE;
+
+    /**
+     * 过滤条件中的值，编译条件时按各种属性值类型预先解码，比较时不再解析
+     *
+     * @param text 原始值
+     * @param number 按数字解码的结果
+     * @param millis 按日期时间解码的结果
+     * @param bool 按布尔解码的结果
+     */
+    public record Operand(String text, long number, long millis, long bool) {
+
+        long decoded(PropertyType type) {
+            return switch (type) {
+                case NUMBER -> number;
+                case DATETIME, DATE -> millis;
+                case BOOL -> bool;
+                default -> type.absent();
+            };
+        }
+    }
+
+    private PropertyValues() {
+    }
+
+    /**
+     * 读取属性值，hs_object_id 没有出现在属性中时使用对象ID
+     * @param object 对象
+     * @param property 属性名称
+     * @return 属性值，不存在或为空字符串时返回 null
+     */
+    public static String value(HubSpotObject object, String property) {
+        Object value = object.getProperties() != null ? object.getProperties().get(property) : null;
+        if (value == null && OBJECT_ID_PROPERTY.equals(property)) {
+            value = object.getId();
+        }
+        if (value == null) {
+            return null;
+        }
+        String text = value.toString();
+        return text.isEmpty() ? null : text;
+    }
+
+    /**
+     * 预先解码过滤条件中的值
+     * @param text 条件值
+     * @return 条件值
+     */
+    public static Operand operand(String text) {
+        return new Operand(text, PropertyType.NUMBER.decode(text), PropertyType.DATETIME.decode(text),
+                PropertyType.BOOL.decode(text));
+    }
+
+    /**
+     * 比较对象的属性值和条件值，结果与 {@link #compare(String, String)} 相同
+     * @param object 对象
+     * @param property 属性名称
+     * @param actual 属性值，即 {@link #value(HubSpotObject, String)} 的结果
+     * @param expected 条件值
+     */
+    public static int compare(HubSpotObject object, String property, String actual, Operand expected) {
+        if (object.getProperties() instanceof CompactProperties compact) {
+            PropertyType type = compact.getType(property);
+            if (isDecodable(type)) {
+                int result = compareDecoded(type, actual, compact.getDecoded(property),
+                        expected.text(), expected.decoded(type), false);
+                if (result != UNDECIDED) {
+                    return result;
+                }
+            }
+        }
+        return compare(actual, expected.text());
+    }
+
+    /**
+     * 按排序规则比较两个对象的同一属性，结果与 {@link #compareForSort(String, String)} 相同
+     * @param left 左边的对象
+     * @param leftValue 左边对象的属性值
+     * @param right 右边的对象
+     * @param rightValue 右边对象的属性值
+     * @param property 属性名称
+     */
+    public static int compare(HubSpotObject left, String leftValue, HubSpotObject right, String rightValue,
+                              String property) {
+        if (left.getProperties() instanceof CompactProperties leftCompact
+                && right.getProperties() instanceof CompactProperties rightCompact) {
+            PropertyType type = leftCompact.getType(property);
+            if (isDecodable(type) && type == rightCompact.getType(property)) {
+                int result = compareDecoded(type, leftValue, leftCompact.getDecoded(property),
+                        rightValue, rightCompact.getDecoded(property), true);
+                if (result != UNDECIDED) {
+                    return result;
+                }
+            }
+        }
+        return compareForSort(leftValue, rightValue);
+    }
+
+    private static boolean isDecodable(PropertyType type) {
+        return type == PropertyType.NUMBER || type == PropertyType.DATETIME || type == PropertyType.DATE
+                || type == PropertyType.BOOL;
+    }
+
+    /**
+     * 比较两个解码值，任意一边无法解码时返回 UNDECIDED
+     * @param forSort 是否按排序规则比较，结果分别与 {@link #compareForSort(String, String)} 或 {@link #compare(String, String)} 相同
+     */
+    private static int compareDecoded(PropertyType type, String left, long leftBits, String right, long rightBits,
+                                      boolean forSort) {
+        long absent = type.absent();
+        if (leftBits == absent || rightBits == absent) {
+            return UNDECIDED;
+        }
+        return switch (type) {
+            case NUMBER -> Double.compare(Double.longBitsToDouble(leftBits), Double.longBitsToDouble(rightBits));
+            // 两边都是数字时与字符串比较规则一样按数值比较，整数转换为 double 的结果与直接解析字符串相同；
+            // 一边是毫秒时间戳、另一边是 ISO 时间时，过滤按时间比较，排序时数字排在前面
+            case DATETIME, DATE -> {
+                boolean leftNumber = PropertyType.isNumber(left);
+                boolean rightNumber = PropertyType.isNumber(right);
+                if (leftNumber && rightNumber) {
+                    yield Double.compare(leftBits, rightBits);
+                }
+                yield forSort && leftNumber != rightNumber ? (leftNumber ? -1 : 1) : Long.compare(leftBits, rightBits);
+            }
+            // "false" 小于 "true"，与忽略大小写的字符串比较一致
+            case BOOL -> Long.compare(leftBits, rightBits);
+            default -> UNDECIDED;
+        };
+    }
+
+    /**
+     * 比较属性值和条件值
+     */
+    public static int compare(String actual, String expected) {
+        if (PropertyType.isNumber(actual) && PropertyType.isNumber(expected)) {
+            return Double.compare(Double.parseDouble(actual), Double.parseDouble(expected));
+        }
+        long actualMillis = PropertyType.parseEpochMillis(actual);
+        long expectedMillis = PropertyType.parseEpochMillis(expected);
+        if (actualMillis != Long.MIN_VALUE && expectedMillis != Long.MIN_VALUE) {
+            return Long.compare(actualMillis, expectedMillis);
+        }
+        return actual.compareToIgnoreCase(expected);
+    }
+
+    /**
+     * 排序使用的比较，满足传递性：数字排在最前并按数值比较，其次是不是数字的时间（ISO 日期或时间）并按时间比较，
+     * 最后是其他值并按忽略大小写的字符串比较
+     */
+    public static int compareForSort(String left, String right) {
+        boolean leftNumber = PropertyType.isNumber(left);
+        boolean rightNumber = PropertyType.isNumber(right);
+        if (leftNumber || rightNumber) {
+            return leftNumber && rightNumber
+                    ? Double.compare(Double.parseDouble(left), Double.parseDouble(right))
+                    : leftNumber ? -1 : 1;
+        }
+        long leftMillis = PropertyType.parseEpochMillis(left);
+        long rightMillis = PropertyType.parseEpochMillis(right);
+        if (leftMillis != Long.MIN_VALUE || rightMillis != Long.MIN_VALUE) {
+            return leftMillis != Long.MIN_VALUE && rightMillis != Long.MIN_VALUE
+                    ? Long.compare(leftMillis, rightMillis)
+                    : leftMillis != Long.MIN_VALUE ? -1 : 1;
+        }
+        return left.compareToIgnoreCase(right);
+    }
+
+    /**
+     * 等值比较使用的键：compare 结果为 0 的两个值得到相同的键
+     * 数字和时间都转换为数值（时间为毫秒时间戳），字符串按 compareToIgnoreCase 的规则逐字符折叠大小写
+     */
+    public static String equalityKey(String value) {
+        return equalityKey(value, orderKey(value));
+    }
+
+    /**
+     * 使用已经算出的范围比较键计算等值比较使用的键
+     * @param value 属性值
+     * @param orderKey 属性值的范围比较键
+     */
+    public static String equalityKey(String value, double orderKey) {
+        if (!Double.isNaN(orderKey)) {
+            return Double.toString(orderKey);
+        }
+        StringBuilder key = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            key.append(Character.toLowerCase(Character.toUpperCase(value.charAt(i))));
+        }
+        return key.toString();
+    }
+
+    /**
+     * 范围比较使用的键：数字为数值，时间为毫秒时间戳，其他值返回 NaN
+     */
+    public static double orderKey(String value) {
+        if (PropertyType.isNumber(value)) {
+            return Double.parseDouble(value);
+        }
+        long millis = PropertyType.parseEpochMillis(value);
+        return millis != Long.MIN_VALUE ? millis : Double.NaN;
+    }
+
+    /**
+     * 对象属性的范围比较键，结果与 {@link #orderKey(String)} 相同，数字、日期和日期时间属性使用对象中保存的解码值
+     * @param object 对象
+     * @param property 属性名称
+     * @param value 属性值，即 {@link #value(HubSpotObject, String)} 的结果
+     */
+    public static double orderKey(HubSpotObject object, String property, String value) {
+        if (object.getProperties() instanceof CompactProperties compact) {
+            PropertyType type = compact.getType(property);
+            if (type == PropertyType.NUMBER || type == PropertyType.DATETIME || type == PropertyType.DATE) {
+                long bits = compact.getDecoded(property);
+                if (bits != type.absent()) {
+                    return type == PropertyType.NUMBER ? Double.longBitsToDouble(bits) : bits;
+                }
+            }
+        }
+        return orderKey(value);
+    }
+
+    /**
+     * 将值拆分为小写的词，字母和数字以外的字符都作为分隔符
+     */
+    public static List<String> tokens(String value) {
+        return Arrays.stream(TOKEN_SEPARATOR.split(value.toLowerCase(Locale.ROOT)))
+                .filter(token -> !token.isEmpty())
+                .toList();
+    }
+}
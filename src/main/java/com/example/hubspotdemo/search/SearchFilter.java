@@ -0,0 +1,39 @@
+package com.example.hubspotdemo.search;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 搜索过滤条件，格式与 HubSpot 搜索接口 filterGroups[].filters[] 相同
+ */
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class SearchFilter {
+
+    /**
+     * 属性名称
+     */
+    private String propertyName;
+
+    /**
+     * 操作符，如 EQ、NEQ、GT、BETWEEN、IN、HAS_PROPERTY、CONTAINS_TOKEN
+     */
+    private String operator;
+
+    /**
+     * 比较值
+     */
+    private String value;
+
+    /**
+     * BETWEEN 的上限值
+     */
+    private String highValue;
+
+    /**
+     * IN、NOT_IN 的候选值列表
+     */
+    private List<String> values;
+}
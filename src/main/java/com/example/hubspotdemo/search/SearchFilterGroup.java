@@ -0,0 +1,20 @@
+package com.example.hubspotdemo.search;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 搜索过滤条件组，组内条件之间为“且”，组与组之间为“或”
+ */
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class SearchFilterGroup {
+
+    /**
+     * 过滤条件列表
+     */
+    private List<SearchFilter> filters = new ArrayList<>();
+}
@@ -0,0 +1,22 @@
+package com.example.hubspotdemo.search;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.Data;
+
+/**
+ * 搜索排序条件，格式与 HubSpot 搜索接口 sorts[] 相同
+ */
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class SearchSort {
+
+    /**
+     * 排序属性名称
+     */
+    private String propertyName;
+
+    /**
+     * 排序方向：ASCENDING 或 DESCENDING
+     */
+    private String direction = "ASCENDING";
+}
@@ -0,0 +1,22 @@
+package com.example.hubspotdemo.service;
+
+import com.example.hubspotdemo.cache.HubSpotPropertiesCache.ObjectType;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * 关联服务接口，通过 HubSpot v4 关联接口批量读取对象之间的关联
+ */
+public interface AssociationService {
+
+    /**
+     * 批量读取源对象关联的目标对象ID
+     * 超过单批上限时拆分为多批并发请求，单个源对象的关联超过一页时继续获取剩余的分页
+     * @param fromType 源对象类型
+     * @param toType 目标对象类型
+     * @param fromIds 源对象ID
+     * @return 源对象ID到目标对象ID（升序、去重）的映射，包含所有请求的源对象，没有关联时为空数组
+     */
+    Map<Long, long[]> batchReadAssociations(ObjectType fromType, ObjectType toType, Collection<Long> fromIds);
+}
@@ -0,0 +1,82 @@
+package com.example.hubspotdemo.service;
+
+import com.example.hubspotdemo.model.HubSpotBatchResponse;
+import com.example.hubspotdemo.model.HubSpotObject;
+import com.example.hubspotdemo.model.HubSpotResponse;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 通用 HubSpot 异步服务接口，所有方法立即返回，不占用调用线程等待 HubSpot 响应
+ * <p>
+ * 失败时返回的 CompletableFuture 以 HubSpotApiException 异常完成，错误映射与同步服务一致。
+ *
+ * @param <T> HubSpot 对象类型
+ */
+public interface AsyncGenericHubSpotService<T extends HubSpotObject> {
+
+    /**
+     * 分页获取对象
+     * 
+     * @param properties 需要返回的属性列表
+     * @param limit 返回数量限制
+     * @param after 分页游标
+     * @return 对象列表响应
+     */
+    CompletableFuture<HubSpotResponse<T>> getObjectsWithPagination(List<String> properties, int limit, String after);
+
+    /**
+     * 根据ID获取对象
+     * 
+     * @param objectId 对象ID
+     * @param properties 需要返回的属性列表，为空时返回所有属性
+     * @return 对象实例
+     */
+    CompletableFuture<T> getObjectById(String objectId, List<String> properties);
+
+    /**
+     * 创建对象
+     * 
+     * @param properties 对象属性
+     * @return 创建的对象实例
+     */
+    CompletableFuture<T> createObject(Map<String, Object> properties);
+
+    /**
+     * 更新对象
+     * 
+     * @param objectId 对象ID
+     * @param properties 要更新的属性
+     * @return 更新后的对象实例
+     */
+    CompletableFuture<T> updateObject(String objectId, Map<String, Object> properties);
+
+    /**
+     * 删除对象
+     * 
+     * @param objectId 对象ID
+     * @return 是否删除成功
+     */
+    CompletableFuture<Boolean> deleteObject(String objectId);
+
+    /**
+     * 搜索对象
+     * 
+     * @param filterGroups 过滤条件组
+     * @param properties 需要返回的属性列表
+     * @param limit 返回数量限制
+     * @return 搜索结果响应
+     */
+    CompletableFuture<HubSpotResponse<T>> searchObjects(Object filterGroups, List<String> properties, int limit);
+
+    /**
+     * 批量读取对象（单批，最多 100 个ID）
+     * 
+     * @param objectIds 对象ID列表
+     * @param properties 需要返回的属性列表，为空时返回所有属性
+     * @return 批量操作响应
+     */
+    CompletableFuture<HubSpotBatchResponse<T>> batchRead(List<String> objectIds, List<String> properties);
+}
@@ -1,11 +1,14 @@
 package com.example.hubspotdemo.service;
 
+import com.example.hubspotdemo.model.HubSpotBatchResponse;
 import com.example.hubspotdemo.model.HubSpotObject;
 import com.example.hubspotdemo.model.HubSpotPropertiesResponse;
 import com.example.hubspotdemo.model.HubSpotResponse;
 
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * 通用 HubSpot 服务接口，定义所有 HubSpot 对象共享的操作方法
@@ -15,11 +18,11 @@ import java.util.Map;
 public interface GenericHubSpotService<T extends HubSpotObject> {
 
     /**
-     * 获取所有对象
+     * 获取所有对象，自动沿着分页游标获取，直到达到数量限制或没有更多数据
      * 
      * @param properties 需要返回的属性列表
      * @param limit 返回数量限制
-     * @return 对象列表响应
+     * @return 对象列表响应，如果因数量限制提前结束，分页信息中保留下一页游标
      */
     HubSpotResponse<T> getAllObjects(List<String> properties, int limit);
 
@@ -33,6 +36,37 @@ public interface GenericHubSpotService<T extends HubSpotObject> {
      */
     HubSpotResponse<T> getObjectsWithPagination(List<String> properties, int limit, String after);
 
+    /**
+     * 按命名投影分页获取对象，只返回投影中的属性
+     * 
+     * @param projectionName 投影名称，all 表示所有属性
+     * @param limit 返回数量限制
+     * @param after 分页游标，为 null 表示第一页
+     * @return 对象列表响应
+     */
+    HubSpotResponse<T> getObjectsWithProjection(String projectionName, int limit, String after);
+
+    /**
+     * 逐页遍历所有对象，下一页在处理当前页时预取，内存中最多只保留两页数据
+     * 
+     * @param properties 需要返回的属性列表，为空时返回所有属性
+     * @param pageSize 每页数量
+     * @param pageConsumer 每页数据的处理函数
+     * @return 处理的对象总数
+     */
+    long forEachPage(List<String> properties, int pageSize, Consumer<List<T>> pageConsumer);
+
+    /**
+     * 以惰性流的形式遍历所有对象，按需获取分页数据，已消费的数据会立即释放
+     * 支持 limit、takeWhile 等提前结束操作。调用方必须使用 try-with-resources 关闭流：流式解码时后台线程在流关闭前一直占用连接，
+     * 未关闭的流要等调用方超过 10 分钟不取数据才释放，此后继续读取会抛出异常
+     * 
+     * @param properties 需要返回的属性列表，为空时返回所有属性
+     * @param pageSize 每页数量
+     * @return 对象流
+     */
+    Stream<T> streamAllObjects(List<String> properties, int pageSize);
+
     /**
      * 根据ID获取对象
      * 
@@ -41,6 +75,15 @@ public interface GenericHubSpotService<T extends HubSpotObject> {
      */
     T getObjectById(String objectId);
 
+    /**
+     * 按命名投影根据ID获取对象
+     * 
+     * @param objectId 对象ID
+     * @param projectionName 投影名称，all 表示所有属性
+     * @return 对象
+     */
+    T getObjectByIdWithProjection(String objectId, String projectionName);
+
     /**
      * 创建对象
      * 
@@ -75,7 +118,54 @@ public interface GenericHubSpotService<T extends HubSpotObject> {
      * @return 搜索结果响应
      */
     HubSpotResponse<T> searchObjects(Object filterGroups, List<String> properties, int limit);
+
+    /**
+     * 分页搜索对象，支持排序，沿着返回的分页游标可以获取后续结果
+     * HubSpot 的搜索接口单个查询最多只能翻到前 10000 条结果
+     * 
+     * @param filterGroups 过滤条件组
+     * @param sorts 排序条件，如 [{"propertyName": "hs_lastmodifieddate", "direction": "ASCENDING"}]，为 null 时不排序
+     * @param properties 需要返回的属性列表
+     * @param limit 每页数量
+     * @param after 分页游标，为 null 表示第一页
+     * @return 搜索结果响应，包含结果总数和下一页游标
+     */
+    HubSpotResponse<T> searchObjects(Object filterGroups, List<Map<String, Object>> sorts, List<String> properties,
+                                     int limit, String after);
     
+    /**
+     * 批量读取对象，输入按 HubSpot 的单批上限拆分后并发请求
+     * 
+     * @param objectIds 对象ID列表
+     * @param properties 需要返回的属性列表，为空时返回所有属性
+     * @return 批量操作响应，包含每条记录的结果和错误
+     */
+    HubSpotBatchResponse<T> batchRead(List<String> objectIds, List<String> properties);
+
+    /**
+     * 批量创建对象
+     * 
+     * @param propertiesList 每个待创建对象的属性
+     * @return 批量操作响应，包含每条记录的结果和错误
+     */
+    HubSpotBatchResponse<T> batchCreate(List<Map<String, Object>> propertiesList);
+
+    /**
+     * 批量更新对象
+     * 
+     * @param updates 对象ID到待更新属性的映射
+     * @return 批量操作响应，包含每条记录的结果和错误
+     */
+    HubSpotBatchResponse<T> batchUpdate(Map<String, Map<String, Object>> updates);
+
+    /**
+     * 批量归档（删除）对象
+     * 
+     * @param objectIds 对象ID列表
+     * @return 批量操作响应，只包含失败记录的错误
+     */
+    HubSpotBatchResponse<T> batchArchive(List<String> objectIds);
+
     /**
      * 获取对象的自定义属性列表
      * 
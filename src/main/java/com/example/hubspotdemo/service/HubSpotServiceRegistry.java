@@ -0,0 +1,51 @@
+package com.example.hubspotdemo.service;
+
+import com.example.hubspotdemo.cache.HubSpotPropertiesCache.ObjectType;
+import com.example.hubspotdemo.model.HubSpotObject;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * HubSpot 服务注册表，根据对象类型查找对应的通用服务
+ */
+@Component
+public class HubSpotServiceRegistry {
+
+    private final Map<ObjectType, GenericHubSpotService<? extends HubSpotObject>> services = new EnumMap<>(ObjectType.class);
+
+    @Autowired
+    public HubSpotServiceRegistry(
+            CompanyService companyService,
+            ContactService contactService,
+            DealService dealService,
+            ProductService productService,
+            LineItemService lineItemService) {
+        services.put(ObjectType.COMPANIES, companyService);
+        services.put(ObjectType.CONTACTS, contactService);
+        services.put(ObjectType.DEALS, dealService);
+        services.put(ObjectType.PRODUCTS, productService);
+        services.put(ObjectType.LINE_ITEMS, lineItemService);
+    }
+
+    /**
+     * 根据对象类型获取服务
+     * @param objectType 对象类型枚举
+     * @return 对应的通用服务
+     */
+    public GenericHubSpotService<? extends HubSpotObject> getService(ObjectType objectType) {
+        return services.get(objectType);
+    }
+
+    /**
+     * 根据对象类型字符串获取服务
+     * @param objectType 对象类型字符串，如 contacts、line-items
+     * @return 对应的通用服务
+     * @throws IllegalArgumentException 如果对象类型不受支持
+     */
+    public GenericHubSpotService<? extends HubSpotObject> getService(String objectType) {
+        return getService(ObjectType.fromValue(objectType));
+    }
+}
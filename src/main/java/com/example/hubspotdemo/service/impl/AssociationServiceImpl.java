@@ -0,0 +1,178 @@
+package com.example.hubspotdemo.service.impl;
+
+import com.example.hubspotdemo.cache.HubSpotPropertiesCache.ObjectType;
+import com.example.hubspotdemo.config.AssociationConfig;
+import com.example.hubspotdemo.config.HubSpotConfig;
+import com.example.hubspotdemo.model.AssociationBatchResponse;
+import com.example.hubspotdemo.model.HubSpotResponse;
+import com.example.hubspotdemo.ratelimit.RequestPriority;
+import com.example.hubspotdemo.retry.RetryCounter;
+import com.example.hubspotdemo.service.AssociationService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 关联服务实现类
+ */
+@Service
+public class AssociationServiceImpl extends HubSpotBaseService implements AssociationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AssociationServiceImpl.class);
+
+    private static final long[] NO_ASSOCIATIONS = new long[0];
+
+    /**
+     * 单个源对象关联分页接口的最大每页数量
+     */
+    private static final int MAX_PAGE_SIZE = 500;
+
+    private static final ParameterizedTypeReference<HubSpotResponse<AssociationBatchResponse.Target>> PAGE_TYPE =
+            new ParameterizedTypeReference<>() {
+            };
+
+    private final AssociationConfig associationConfig;
+
+    @Autowired
+    public AssociationServiceImpl(RestTemplate restTemplate, HubSpotConfig hubSpotConfig, ObjectMapper objectMapper,
+                                  AssociationConfig associationConfig) {
+        super(restTemplate, hubSpotConfig, objectMapper);
+        this.associationConfig = associationConfig;
+    }
+
+    @Override
+    public Map<Long, long[]> batchReadAssociations(ObjectType fromType, ObjectType toType, Collection<Long> fromIds) {
+        String endpoint = "/crm/v4/associations/" + fromType.getApiName() + "/" + toType.getApiName() + "/batch/read";
+        List<Long> ids = new ArrayList<>(fromIds);
+        int batchSize = Math.max(1, associationConfig.getBatchSize());
+
+        // 各批请求在后台线程执行，需要沿用调用方的请求优先级和重试计数器
+        RequestPriority priority = RequestPriority.current();
+        LongAdder retries = RetryCounter.current();
+        List<CompletableFuture<Map<Long, long[]>>> futures = new ArrayList<>();
+        for (int start = 0; start < ids.size(); start += batchSize) {
+            List<Long> chunk = ids.subList(start, Math.min(start + batchSize, ids.size()));
+            futures.add(CompletableFuture.supplyAsync(() -> RequestPriority.callWith(priority,
+                    () -> RetryCounter.callWith(retries, () -> readChunk(endpoint, fromType, toType, chunk))),
+                    taskExecutor));
+        }
+
+        Map<Long, long[]> associations = new HashMap<>(ids.size() * 4 / 3 + 1);
+        try {
+            for (CompletableFuture<Map<Long, long[]>> future : futures) {
+                associations.putAll(future.join());
+            }
+        } catch (CompletionException e) {
+            futures.forEach(future -> future.cancel(false));
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+        logger.debug("批量读取 {} -> {} 的关联完成，共 {} 批，{} 个源对象", fromType.getValue(), toType.getValue(),
+                futures.size(), ids.size());
+        return associations;
+    }
+
+    /**
+     * 读取一批源对象的关联，请求中没有出现在结果里的源对象视为没有关联
+     */
+    private Map<Long, long[]> readChunk(String endpoint, ObjectType fromType, ObjectType toType, List<Long> chunk) {
+        List<Map<String, String>> inputs = new ArrayList<>(chunk.size());
+        for (Long id : chunk) {
+            inputs.add(Map.of("id", String.valueOf(id)));
+        }
+        AssociationBatchResponse response = post(endpoint, Map.of("inputs", inputs), AssociationBatchResponse.class);
+
+        Map<Long, long[]> associations = new HashMap<>(chunk.size() * 4 / 3 + 1);
+        for (Long id : chunk) {
+            associations.put(id, NO_ASSOCIATIONS);
+        }
+        if (response == null || response.getResults() == null) {
+            return associations;
+        }
+        for (AssociationBatchResponse.Result result : response.getResults()) {
+            if (result.getFrom() == null || result.getFrom().getId() == null) {
+                continue;
+            }
+            long fromId = Long.parseLong(result.getFrom().getId());
+            LongList targets = new LongList();
+            if (result.getTo() != null) {
+                for (AssociationBatchResponse.Target target : result.getTo()) {
+                    targets.add(target.getToObjectId());
+                }
+            }
+            String after = nextCursor(result.getPagingInfo());
+            while (after != null) {
+                after = readRemaining(fromType, toType, fromId, after, targets);
+            }
+            associations.put(fromId, targets.toSortedDistinctArray());
+        }
+        return associations;
+    }
+
+    /**
+     * 单个源对象的关联超过批量接口返回的数量时，通过该对象的关联列表接口继续获取
+     * @return 下一页的游标，没有更多数据时返回 null
+     */
+    private String readRemaining(ObjectType fromType, ObjectType toType, long fromId, String after, LongList targets) {
+        String endpoint = "/crm/v4/objects/" + fromType.getApiName() + "/" + fromId + "/associations/"
+                + toType.getApiName() + "?limit=" + MAX_PAGE_SIZE + "&after=" + after;
+        HubSpotResponse<AssociationBatchResponse.Target> page = getPaginatedData(endpoint, PAGE_TYPE);
+        if (page == null) {
+            return null;
+        }
+        if (page.getResults() != null) {
+            for (AssociationBatchResponse.Target target : page.getResults()) {
+                targets.add(target.getToObjectId());
+            }
+        }
+        return nextCursor(page.getPagingInfo());
+    }
+
+    private static String nextCursor(HubSpotResponse.PagingInfo paging) {
+        return paging != null && paging.getNext() != null ? paging.getNext().getAfter() : null;
+    }
+
+    /**
+     * 按需扩容的 long 列表，避免收集目标对象ID时装箱
+     */
+    private static final class LongList {
+
+        private long[] values = new long[16];
+        private int size;
+
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        long[] toSortedDistinctArray() {
+            if (size == 0) {
+                return NO_ASSOCIATIONS;
+            }
+            long[] sorted = Arrays.copyOf(values, size);
+            Arrays.sort(sorted);
+            int distinct = 1;
+            for (int i = 1; i < sorted.length; i++) {
+                if (sorted[i] != sorted[distinct - 1]) {
+                    sorted[distinct++] = sorted[i];
+                }
+            }
+            return distinct == sorted.length ? sorted : Arrays.copyOf(sorted, distinct);
+        }
+    }
+}
@@ -0,0 +1,288 @@
+package com.example.hubspotdemo.service.impl;
+
+import com.example.hubspotdemo.cache.HubSpotObjectCache;
+import com.example.hubspotdemo.cache.HubSpotPropertiesCache;
+import com.example.hubspotdemo.config.HubSpotConfig;
+import com.example.hubspotdemo.exception.HubSpotApiException;
+import com.example.hubspotdemo.model.HubSpotBatchResponse;
+import com.example.hubspotdemo.model.HubSpotObject;
+import com.example.hubspotdemo.model.HubSpotResponse;
+import com.example.hubspotdemo.projection.PropertyProjection;
+import com.example.hubspotdemo.projection.PropertyProjectionRegistry;
+import com.example.hubspotdemo.ratelimit.HubSpotRateLimiter;
+import com.example.hubspotdemo.ratelimit.RequestPriority;
+import com.example.hubspotdemo.retry.RetryPolicy;
+import com.example.hubspotdemo.service.AsyncGenericHubSpotService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 通用 HubSpot 异步服务实现，基于 OkHttp 的异步 enqueue
+ * <p>
+ * 等待限流令牌、等待重试和等待响应时都不占用线程，少量线程即可支撑大量并发请求。
+ *
+ * @param <T> HubSpot 对象类型
+ */
+public class AsyncGenericHubSpotServiceImpl<T extends HubSpotObject> implements AsyncGenericHubSpotService<T> {
+
+    private static final Logger logger = LoggerFactory.getLogger(AsyncGenericHubSpotServiceImpl.class);
+
+    private static final MediaType JSON = MediaType.get("application/json");
+
+    private final OkHttpClient okHttpClient;
+    private final HubSpotConfig hubSpotConfig;
+    private final ObjectMapper objectMapper;
+    private final HubSpotRateLimiter rateLimiter;
+    private final RetryPolicy retryPolicy;
+    private final PropertyProjectionRegistry projectionRegistry;
+    private final HubSpotObjectCache objectCache;
+    private final Executor executor;
+
+    private final HubSpotPropertiesCache.ObjectType objectTypeKey;
+    private final String baseEndpoint;
+    private final JavaType objectJavaType;
+    private final JavaType listJavaType;
+    private final JavaType batchJavaType;
+
+    public AsyncGenericHubSpotServiceImpl(OkHttpClient okHttpClient, HubSpotConfig hubSpotConfig,
+                                          ObjectMapper objectMapper, HubSpotRateLimiter rateLimiter,
+                                          RetryPolicy retryPolicy, PropertyProjectionRegistry projectionRegistry,
+                                          HubSpotObjectCache objectCache, Executor executor,
+                                          String objectTypeName, Class<T> objectType) {
+        this.okHttpClient = okHttpClient;
+        this.hubSpotConfig = hubSpotConfig;
+        this.objectMapper = objectMapper;
+        this.rateLimiter = rateLimiter;
+        this.retryPolicy = retryPolicy;
+        this.projectionRegistry = projectionRegistry;
+        this.objectCache = objectCache;
+        this.executor = executor;
+        this.objectTypeKey = HubSpotPropertiesCache.ObjectType.fromValue(objectTypeName);
+        this.baseEndpoint = "/crm/v3/objects/" + objectTypeName;
+        this.objectJavaType = objectMapper.getTypeFactory().constructType(objectType);
+        this.listJavaType = objectMapper.getTypeFactory().constructParametricType(HubSpotResponse.class, objectType);
+        this.batchJavaType = objectMapper.getTypeFactory().constructParametricType(HubSpotBatchResponse.class, objectType);
+    }
+
+    @Override
+    public CompletableFuture<HubSpotResponse<T>> getObjectsWithPagination(List<String> properties, int limit,
+                                                                          String after) {
+        StringBuilder urlBuilder = new StringBuilder(baseEndpoint);
+        urlBuilder.append("?limit=").append(limit);
+        if (after != null) {
+            urlBuilder.append("&after=").append(after);
+        }
+        if (properties != null && !properties.isEmpty()) {
+            urlBuilder.append("&properties=").append(String.join(",", properties));
+        }
+        return send("GET", urlBuilder.toString(), null, listJavaType, true);
+    }
+
+    @Override
+    public CompletableFuture<T> getObjectById(String objectId, List<String> properties) {
+        PropertyProjection projection = projectionRegistry.resolve(objectTypeKey, properties);
+        if (!projectionRegistry.fitsInQuery(projection)) {
+            // 属性列表过长，改用 /batch/read 通过请求体传递
+            return batchRead(List.of(objectId), projection.getProperties()).thenApply(response -> {
+                if (response == null || response.getResults() == null || response.getResults().isEmpty()) {
+                    throw new HubSpotApiException("对象不存在: " + objectId, 404, null);
+                }
+                return response.getResults().get(0);
+            });
+        }
+        StringBuilder urlBuilder = new StringBuilder(baseEndpoint).append("/").append(objectId);
+        if (!projection.isEmpty()) {
+            urlBuilder.append("?properties=").append(projection.getQueryValue());
+        }
+        return send("GET", urlBuilder.toString(), null, objectJavaType, true);
+    }
+
+    @Override
+    public CompletableFuture<T> createObject(Map<String, Object> properties) {
+        Map<String, Object> requestBody = new HashMap<>();
+        requestBody.put("properties", properties);
+        return send("POST", baseEndpoint, requestBody, objectJavaType, false);
+    }
+
+    @Override
+    public CompletableFuture<T> updateObject(String objectId, Map<String, Object> properties) {
+        Map<String, Object> requestBody = new HashMap<>();
+        requestBody.put("properties", properties);
+        return this.<T>send("PUT", baseEndpoint + "/" + objectId, requestBody, objectJavaType, true)
+                .whenComplete((ignored, error) -> objectCache.invalidate(objectTypeKey, objectId));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> deleteObject(String objectId) {
+        return this.<Void>send("DELETE", baseEndpoint + "/" + objectId, null, null, true)
+                .whenComplete((ignored, error) -> objectCache.invalidate(objectTypeKey, objectId))
+                .thenApply(ignored -> true);
+    }
+
+    @Override
+    public CompletableFuture<HubSpotResponse<T>> searchObjects(Object filterGroups, List<String> properties,
+                                                               int limit) {
+        Map<String, Object> requestBody = Map.of(
+                "filterGroups", filterGroups,
+                "properties", properties != null ? properties : List.of(),
+                "limit", limit
+        );
+        return send("POST", baseEndpoint + "/search", requestBody, listJavaType, true);
+    }
+
+    @Override
+    public CompletableFuture<HubSpotBatchResponse<T>> batchRead(List<String> objectIds, List<String> properties) {
+        PropertyProjection projection = projectionRegistry.resolve(objectTypeKey, properties);
+        Map<String, Object> requestBody = Map.of(
+                "properties", projection.getProperties(),
+                "inputs", objectIds.stream().map(id -> Map.of("id", id)).toList()
+        );
+        return send("POST", baseEndpoint + "/batch/read", requestBody, batchJavaType, true);
+    }
+
+    /**
+     * 异步发送请求
+     *
+     * @param method HTTP 方法
+     * @param endpoint API 端点
+     * @param body 请求体，没有请求体时为 null
+     * @param responseType 响应类型，不需要解析响应体时为 null
+     * @param idempotent 请求是否幂等
+     * @param <R> 响应数据类型
+     * @return 响应结果
+     */
+    private <R> CompletableFuture<R> send(String method, String endpoint, Object body, JavaType responseType,
+                                          boolean idempotent) {
+        AsyncRequest<R> request = new AsyncRequest<>(method, hubSpotConfig.getBaseUrl() + endpoint,
+                responseType, idempotent);
+        try {
+            request.requestBody = body != null ? objectMapper.writeValueAsBytes(body) : null;
+        } catch (JsonProcessingException e) {
+            request.result.completeExceptionally(new HubSpotApiException("请求体序列化失败", e));
+            return request.result;
+        }
+        logger.debug("执行异步 {} 请求: {}", method, request.url);
+        request.attempt();
+        return request.result;
+    }
+
+    /**
+     * 单个异步请求的状态，包含重试所需的上下文
+     */
+    private class AsyncRequest<R> implements Callback {
+
+        private final String method;
+        private final String url;
+        private final JavaType responseType;
+        private final boolean idempotent;
+        private final RequestPriority priority = RequestPriority.current();
+        private final long deadline = retryPolicy.deadline();
+        private final CompletableFuture<R> result = new CompletableFuture<>();
+
+        private byte[] requestBody;
+        private int attempts;
+
+        AsyncRequest(String method, String url, JavaType responseType, boolean idempotent) {
+            this.method = method;
+            this.url = url;
+            this.responseType = responseType;
+            this.idempotent = idempotent;
+        }
+
+        void attempt() {
+            attempts++;
+            rateLimiter.acquireAsync(priority, url.endsWith("/search"), executor)
+                    .whenComplete((ignored, error) -> {
+                        if (error != null) {
+                            result.completeExceptionally(error);
+                        } else {
+                            okHttpClient.newCall(buildRequest()).enqueue(this);
+                        }
+                    });
+        }
+
+        private Request buildRequest() {
+            RequestBody okBody = requestBody != null ? RequestBody.create(requestBody, JSON) : null;
+            return new Request.Builder()
+                    .url(url)
+                    .method(method, okBody)
+                    .header("Authorization", "Bearer " + hubSpotConfig.getApiKey())
+                    .header("Content-Type", "application/json")
+                    .header("User-Agent", "HubSpot-Demo-App/1.0")
+                    .build();
+        }
+
+        @Override
+        public void onResponse(@NotNull Call call, @NotNull Response response) {
+            try (response) {
+                int statusCode = response.code();
+                rateLimiter.onResponse(statusCode, response::header);
+                if (response.isSuccessful()) {
+                    logger.debug("异步 {} 请求成功: {}, 状态码: {}", method, url, statusCode);
+                    result.complete(readBody(response.body()));
+                    return;
+                }
+                String errorBody = response.body() != null ? response.body().string() : "";
+                long delay = retryPolicy.delayForStatus(attempts, statusCode, idempotent,
+                        response.header(HubSpotRateLimiter.HEADER_RETRY_AFTER), deadline);
+                if (delay == RetryPolicy.NO_RETRY) {
+                    logger.error("HubSpot API 调用失败: {} {}, 状态码: {}, 错误信息: {}",
+                            method, url, statusCode, errorBody);
+                    result.completeExceptionally(HubSpotBaseService.toApiException(objectMapper, statusCode, errorBody));
+                    return;
+                }
+                logger.warn("异步 {} 请求失败: {}, 状态码: {}, {} 毫秒后进行第 {} 次重试",
+                        method, url, statusCode, delay, attempts + 1);
+                retryAfter(delay);
+            } catch (IOException | RuntimeException e) {
+                result.completeExceptionally(new HubSpotApiException("读取 HubSpot 响应失败", e));
+            }
+        }
+
+        @Override
+        public void onFailure(@NotNull Call call, @NotNull IOException e) {
+            long delay = retryPolicy.delayForIoError(attempts, idempotent, deadline);
+            if (delay == RetryPolicy.NO_RETRY) {
+                result.completeExceptionally(new HubSpotApiException("HubSpot API 请求失败: " + e.getMessage(), e));
+                return;
+            }
+            logger.warn("异步 {} 请求 I/O 异常: {}, 错误: {}, {} 毫秒后进行第 {} 次重试",
+                    method, url, e.getMessage(), delay, attempts + 1);
+            retryAfter(delay);
+        }
+
+        private void retryAfter(long delayMillis) {
+            CompletableFuture.delayedExecutor(delayMillis, TimeUnit.MILLISECONDS, executor).execute(this::attempt);
+        }
+
+        private R readBody(ResponseBody body) throws IOException {
+            if (responseType == null || body == null || body.contentLength() == 0) {
+                return null;
+            }
+            try (InputStream inputStream = body.byteStream()) {
+                return objectMapper.readValue(inputStream, responseType);
+            }
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.hubspotdemo.service.impl;
 
 import com.example.hubspotdemo.cache.HubSpotPropertiesCache;
+import com.example.hubspotdemo.cache.HubSpotPropertiesCache.ObjectType;
 import com.example.hubspotdemo.config.HubSpotConfig;
 import com.example.hubspotdemo.model.Company;
 import com.example.hubspotdemo.model.HubSpotResponse;
@@ -30,6 +31,13 @@ public class CompanyServiceImpl extends GenericHubSpotServiceImpl<Company> imple
 
     @Override
     public HubSpotResponse<Map<String, Object>> getCompanyContacts(String companyId) {
+        // 关联尚未由同步完整加载时关联关系图中只有按需加载的部分，直接请求 HubSpot
+        if (associationGraph.isRefreshedBySync(ObjectType.COMPANIES, ObjectType.CONTACTS)) {
+            long[] contactIds = associationGraph.getAssociations(ObjectType.COMPANIES, companyId, ObjectType.CONTACTS);
+            return associationResponse(contactIds,
+                    contactId -> Map.of("id", String.valueOf(contactId), "type", "company_to_contact"));
+        }
+
         String url = String.format("%s/crm/v3/objects/%s/%s/contacts", 
                 hubSpotConfig.getBaseUrl(), "companies", companyId);
         
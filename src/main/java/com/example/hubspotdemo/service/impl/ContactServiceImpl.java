@@ -1,6 +1,7 @@
 package com.example.hubspotdemo.service.impl;
 
 import com.example.hubspotdemo.cache.HubSpotPropertiesCache;
+import com.example.hubspotdemo.cache.HubSpotPropertiesCache.ObjectType;
 import com.example.hubspotdemo.config.HubSpotConfig;
 import com.example.hubspotdemo.model.Contact;
 import com.example.hubspotdemo.model.Deal;
@@ -31,6 +32,16 @@ public class ContactServiceImpl extends GenericHubSpotServiceImpl<Contact> imple
     @Override
     public HubSpotResponse<Deal> getDealsByContactId(String contactId) {
         logger.info("获取联系人 ID: {} 关联的交易", contactId);
+
+        // 关联尚未由同步完整加载时关联关系图中只有按需加载的部分，直接请求 HubSpot
+        if (associationGraph.isRefreshedBySync(ObjectType.CONTACTS, ObjectType.DEALS)) {
+            long[] dealIds = associationGraph.getAssociations(ObjectType.CONTACTS, contactId, ObjectType.DEALS);
+            return associationResponse(dealIds, dealId -> {
+                Deal deal = new Deal();
+                deal.setId(String.valueOf(dealId));
+                return deal;
+            });
+        }
         
         String endpoint = "/crm/v3/objects/contacts/" + contactId + "/associations/contact_to_deal/deals";
         return getPaginatedData(endpoint, 
@@ -1,22 +1,51 @@
 package com.example.hubspotdemo.service.impl;
 
+import com.example.hubspotdemo.association.AssociationGraph;
+import com.example.hubspotdemo.batch.BatchReadCoalescer;
+import com.example.hubspotdemo.cache.HubSpotObjectCache;
 import com.example.hubspotdemo.cache.HubSpotPropertiesCache;
+import com.example.hubspotdemo.config.BatchConfig;
 import com.example.hubspotdemo.config.HubSpotConfig;
+import com.example.hubspotdemo.exception.HubSpotApiException;
+import com.example.hubspotdemo.model.HubSpotBatchResponse;
 import com.example.hubspotdemo.model.HubSpotObject;
-import com.example.hubspotdemo.model.HubSpotProperty;
 import com.example.hubspotdemo.model.HubSpotPropertiesResponse;
 import com.example.hubspotdemo.model.HubSpotResponse;
+import com.example.hubspotdemo.model.PropertySchema;
+import com.example.hubspotdemo.pagination.HubSpotPageDecoder;
+import com.example.hubspotdemo.pagination.HubSpotPageIterator;
+import com.example.hubspotdemo.pagination.HubSpotPageSpliterator;
+import com.example.hubspotdemo.pagination.HubSpotStreamingSpliterator;
+import com.example.hubspotdemo.projection.PropertyProjection;
+import com.example.hubspotdemo.projection.PropertyProjectionRegistry;
+import com.example.hubspotdemo.ratelimit.RequestPriority;
+import com.example.hubspotdemo.retry.RetryCounter;
 import com.example.hubspotdemo.service.GenericHubSpotService;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.core.ResolvableType;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongFunction;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
 
 /**
  * 通用 HubSpot 服务实现基类，提供所有 HubSpot 对象共享操作的默认实现
@@ -30,8 +59,30 @@ public abstract class GenericHubSpotServiceImpl<T extends HubSpotObject> extends
     private final String baseEndpoint;
     private final String searchEndpoint;
     private final Class<T> objectType;
+    private final HubSpotPropertiesCache.ObjectType objectTypeKey;
     private final HubSpotPropertiesCache propertiesCache;
 
+    // 流式解码列表响应时绑定单个对象的 ObjectReader，不可变，可在线程间共享
+    private final ObjectReader elementReader;
+
+    private PropertyProjectionRegistry projectionRegistry;
+    private HubSpotObjectCache objectCache;
+    protected AssociationGraph associationGraph;
+
+    // 按 ID 读取请求合并器，未启用时为 null
+    private BatchConfig batchConfig;
+    private BatchReadCoalescer<T> readCoalescer;
+
+    /**
+     * HubSpot 列表接口单页最大数量
+     */
+    protected static final int MAX_PAGE_SIZE = 100;
+
+    /**
+     * HubSpot 批量接口单批最大数量
+     */
+    protected static final int MAX_BATCH_SIZE = 100;
+
     protected GenericHubSpotServiceImpl(RestTemplate restTemplate, HubSpotConfig hubSpotConfig, 
                                       ObjectMapper objectMapper, String objectTypeName, Class<T> objectType,
                                       HubSpotPropertiesCache propertiesCache) {
@@ -39,104 +90,224 @@ public abstract class GenericHubSpotServiceImpl<T extends HubSpotObject> extends
         this.baseEndpoint = "/crm/v3/objects/" + objectTypeName;
         this.searchEndpoint = "/crm/v3/objects/" + objectTypeName + "/search";
         this.objectType = objectType;
+        this.objectTypeKey = HubSpotPropertiesCache.ObjectType.fromValue(objectTypeName);
         this.propertiesCache = propertiesCache;
+        this.elementReader = objectMapper.readerFor(objectType);
+    }
+
+    /**
+     * 设置属性投影注册表
+     */
+    @Autowired
+    public void setProjectionRegistry(PropertyProjectionRegistry projectionRegistry) {
+        this.projectionRegistry = projectionRegistry;
+    }
+
+    /**
+     * 设置对象缓存
+     */
+    @Autowired
+    public void setObjectCache(HubSpotObjectCache objectCache) {
+        this.objectCache = objectCache;
+    }
+
+    /**
+     * 设置关联关系图
+     */
+    @Autowired
+    public void setAssociationGraph(AssociationGraph associationGraph) {
+        this.associationGraph = associationGraph;
+    }
+
+    /**
+     * 设置批量请求配置
+     */
+    @Autowired
+    public void setBatchConfig(BatchConfig batchConfig) {
+        this.batchConfig = batchConfig;
+    }
+
+    /**
+     * 初始化按 ID 读取请求合并器，对象缓存失效时丢弃这些对象已经发出的读取，失效之后的读取不会复用旧的结果
+     */
+    @PostConstruct
+    public void initReadCoalescer() {
+        if (batchConfig != null && batchConfig.isCoalesceEnabled()) {
+            readCoalescer = new BatchReadCoalescer<>(ids -> batchRead(ids, null), taskExecutor,
+                    batchConfig.getCoalesceWindowMillis(),
+                    Math.min(batchConfig.getCoalesceMaxBatchSize(), MAX_BATCH_SIZE));
+            objectCache.addInvalidationListener(objectTypeKey, readCoalescer);
+        }
     }
 
     @Override
     public HubSpotResponse<T> getAllObjects(List<String> properties, int limit) {
-        String objectTypeName = baseEndpoint.substring(baseEndpoint.lastIndexOf('/') + 1);
+        String objectTypeName = getObjectTypeName();
         logger.info("获取所有 {}，属性: {}, 限制: {}", objectTypeName, properties, limit);
         
-        // 如果properties为空，则从缓存中获取所有属性
-        List<String> effectiveProperties = properties;
-        if (properties == null || properties.isEmpty()) {
-            logger.debug("属性列表为空，从缓存中获取所有可用属性");
-            HubSpotPropertiesResponse propertiesResponse = propertiesCache.getPropertiesByType(objectTypeName);
-            if (propertiesResponse != null && propertiesResponse.getResults() != null) {
-                effectiveProperties = propertiesResponse.getResults().stream()
-                        .map(HubSpotProperty::getName)
-                        .toList();
-                logger.debug("从缓存中获取到 {} 个属性", effectiveProperties.size());
-            }
-        }
-        
-        StringBuilder urlBuilder = new StringBuilder(baseEndpoint);
-        urlBuilder.append("?limit=").append(limit);
+        PropertyProjection projection = resolveProjection(properties);
         
-        if (effectiveProperties != null && !effectiveProperties.isEmpty()) {
-            urlBuilder.append("&properties=");
-            for (int i = 0; i < effectiveProperties.size(); i++) {
-                urlBuilder.append(effectiveProperties.get(i));
-                if (i < effectiveProperties.size() - 1) {
-                    urlBuilder.append(",");
+        // 沿着分页游标获取数据，直到达到数量限制或没有更多数据
+        List<T> results = new ArrayList<>();
+        HubSpotResponse<T> lastPage = null;
+        // 每页只请求还差的数量，页不会被截断，最后一页的游标正好指向未返回的下一条数据
+        AtomicInteger fetched = new AtomicInteger();
+        Function<String, HubSpotResponse<T>> fetcher = after -> {
+            int pageSize = Math.max(1, Math.min(limit - fetched.get(), MAX_PAGE_SIZE));
+            HubSpotResponse<T> page = pageFetcher(projection, pageSize).apply(after);
+            if (page != null && page.getResults() != null) {
+                fetched.addAndGet(page.getResults().size());
+            }
+            return page;
+        };
+        // 加上刚获取的页仍不够时才预取下一页，达到数量限制后不再发出用不到的请求
+        Predicate<HubSpotResponse<T>> wantsMore = page ->
+                results.size() + (page.getResults() != null ? page.getResults().size() : 0) < limit;
+        boolean truncated = false;
+        try (HubSpotPageIterator<T> pages = paginate(fetcher, wantsMore)) {
+            while (results.size() < limit && pages.hasNext()) {
+                lastPage = pages.next();
+                if (lastPage.getResults() != null) {
+                    int remaining = limit - results.size();
+                    List<T> pageResults = lastPage.getResults();
+                    // 接口返回的数据多于请求的数量时才会截断
+                    truncated = pageResults.size() > remaining;
+                    results.addAll(truncated ? pageResults.subList(0, remaining) : pageResults);
                 }
             }
+            logger.debug("获取 {} 完成，共 {} 页，{} 条数据", objectTypeName, pages.getPageCount(), results.size());
         }
         
-        return getPaginatedData(urlBuilder.toString(), 
-                new ParameterizedTypeReference<HubSpotResponse<T>>() {});
+        HubSpotResponse<T> response = new HubSpotResponse<>();
+        response.setResults(results);
+        // 保留最后一页的游标，调用方可以从这里继续分页；最后一页被截断时游标会跳过丢弃的数据，不返回游标
+        if (lastPage != null && !truncated) {
+            response.setPagingInfo(lastPage.getPagingInfo());
+        }
+        return response;
     }
 
     @Override
     public HubSpotResponse<T> getObjectsWithPagination(List<String> properties, int limit, String after) {
         logger.info("分页获取 {}，属性: {}, 限制: {}, 游标: {}", 
-                baseEndpoint.substring(baseEndpoint.lastIndexOf('/') + 1), properties, limit, after);
+                getObjectTypeName(), properties, limit, after);
         
-        StringBuilder urlBuilder = new StringBuilder(baseEndpoint);
-        urlBuilder.append("?limit=").append(limit);
+        PropertyProjection projection = properties != null && !properties.isEmpty()
+                ? resolveProjection(properties)
+                : PropertyProjection.DEFAULT;
+        return pageFetcher(projection, limit).apply(after);
+    }
+
+    @Override
+    public HubSpotResponse<T> getObjectsWithProjection(String projectionName, int limit, String after) {
+        logger.info("按投影 {} 分页获取 {}，限制: {}, 游标: {}", projectionName, getObjectTypeName(), limit, after);
         
-        if (after != null) {
-            urlBuilder.append("&after=").append(after);
-        }
+        PropertyProjection projection = projectionRegistry.getProjection(objectTypeKey, projectionName);
+        return pageFetcher(projection, Math.min(limit, MAX_PAGE_SIZE)).apply(after);
+    }
+
+    @Override
+    public long forEachPage(List<String> properties, int pageSize, Consumer<List<T>> pageConsumer) {
+        String objectTypeName = getObjectTypeName();
+        logger.info("逐页遍历 {}，属性: {}, 每页数量: {}", objectTypeName, properties, pageSize);
         
-        if (properties != null && !properties.isEmpty()) {
-            urlBuilder.append("&properties=");
-            for (int i = 0; i < properties.size(); i++) {
-                urlBuilder.append(properties.get(i));
-                if (i < properties.size() - 1) {
-                    urlBuilder.append(",");
+        PropertyProjection projection = resolveProjection(properties);
+        int effectivePageSize = Math.min(pageSize, MAX_PAGE_SIZE);
+        
+        long count = 0;
+        try (HubSpotPageIterator<T> pages = paginate(pageFetcher(projection, effectivePageSize))) {
+            while (pages.hasNext()) {
+                List<T> pageResults = pages.next().getResults();
+                if (pageResults != null && !pageResults.isEmpty()) {
+                    pageConsumer.accept(pageResults);
+                    count += pageResults.size();
                 }
             }
+            logger.info("逐页遍历 {} 完成，共 {} 页，{} 条数据", objectTypeName, pages.getPageCount(), count);
         }
+        return count;
+    }
+
+    @Override
+    public Stream<T> streamAllObjects(List<String> properties, int pageSize) {
+        logger.info("以流的形式遍历 {}，属性: {}, 每页数量: {}", getObjectTypeName(), properties, pageSize);
+        
+        PropertyProjection projection = resolveProjection(properties);
+        int effectivePageSize = Math.min(pageSize, MAX_PAGE_SIZE);
         
-        return getPaginatedData(urlBuilder.toString(), 
-                new ParameterizedTypeReference<HubSpotResponse<T>>() {});
+        if (hubSpotConfig.isStreamingDecode() && projectionRegistry.fitsInQuery(projection)) {
+            // 逐条流式获取：每个对象解析完成后立即交给调用方，后台线程沿用调用方的请求优先级和重试计数器
+            RequestPriority priority = RequestPriority.current();
+            LongAdder retries = RetryCounter.current();
+            return HubSpotStreamingSpliterator.stream(consumer -> RequestPriority.runWith(priority,
+                    () -> RetryCounter.runWith(retries,
+                            () -> streamPages(after -> buildListEndpoint(projection, effectivePageSize, after),
+                                    elementReader, compacting(consumer)))),
+                    taskExecutor, effectivePageSize);
+        }
+        return HubSpotPageSpliterator.stream(paginate(pageFetcher(projection, effectivePageSize)));
     }
 
     @Override
     public T getObjectById(String objectId) {
-        logger.info("获取 {} ID: {}", baseEndpoint.substring(baseEndpoint.lastIndexOf('/') + 1), objectId);
-        String objectTypeName = baseEndpoint.substring(baseEndpoint.lastIndexOf('/') + 1);
+        logger.info("获取 {} ID: {}", getObjectTypeName(), objectId);
 
-        // 如果properties为空，则从缓存中获取所有属性
-        List<String> effectiveProperties = null;
-        logger.debug("属性列表为空，从缓存中获取所有可用属性");
-        HubSpotPropertiesResponse propertiesResponse = propertiesCache.getPropertiesByType(objectTypeName);
-        if (propertiesResponse != null && propertiesResponse.getResults() != null) {
-            effectiveProperties = propertiesResponse.getResults().stream()
-                    .map(HubSpotProperty::getName)
-                    .toList();
-            logger.debug("从缓存中获取到 {} 个属性", effectiveProperties.size());
+        // 热点对象直接从缓存返回，未命中时再请求 HubSpot
+        try {
+            return objectCache.get(objectTypeKey, objectId, this::loadObjectById).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new HubSpotApiException("获取对象失败: " + objectId, e.getCause());
         }
+    }
 
-        String endpoint = baseEndpoint + "/" + objectId;
-        StringBuilder urlBuilder = new StringBuilder(endpoint);
-
-        if (effectiveProperties != null && !effectiveProperties.isEmpty()) {
-            urlBuilder.append("?properties=");
-            for (int i = 0; i < effectiveProperties.size(); i++) {
-                urlBuilder.append(effectiveProperties.get(i));
-                if (i < effectiveProperties.size() - 1) {
-                    urlBuilder.append(",");
-                }
+    /**
+     * 从 HubSpot 加载包含所有属性的单个对象
+     */
+    private CompletableFuture<T> loadObjectById(String objectId) {
+        // 合并窗口内的并发读取请求，通过一次批量读取获取
+        if (readCoalescer != null) {
+            return readCoalescer.load(objectId);
+        }
+
+        // 获取所有属性，在后台线程执行时沿用调用方的请求优先级
+        RequestPriority priority = RequestPriority.current();
+        return CompletableFuture.supplyAsync(() -> RequestPriority.callWith(priority,
+                () -> getObjectById(objectId, resolveProjection(null))), taskExecutor);
+    }
+
+    @Override
+    public T getObjectByIdWithProjection(String objectId, String projectionName) {
+        logger.info("按投影 {} 获取 {} ID: {}", projectionName, getObjectTypeName(), objectId);
+        
+        return getObjectById(objectId, projectionRegistry.getProjection(objectTypeKey, projectionName));
+    }
+
+    /**
+     * 按指定投影获取单个对象，属性列表过长时改用 /batch/read 通过请求体传递
+     */
+    private T getObjectById(String objectId, PropertyProjection projection) {
+        if (!projectionRegistry.fitsInQuery(projection)) {
+            HubSpotBatchResponse<T> response = post(baseEndpoint + "/batch/read",
+                    batchReadRequestBody(projection, List.of(objectId)), batchResponseType());
+            if (response == null || response.getResults() == null || response.getResults().isEmpty()) {
+                throw new HubSpotApiException("对象不存在: " + objectId, 404, null);
             }
+            return compact(response.getResults().get(0));
+        }
+
+        StringBuilder urlBuilder = new StringBuilder(baseEndpoint).append("/").append(objectId);
+        if (!projection.isEmpty()) {
+            urlBuilder.append("?properties=").append(projection.getQueryValue());
         }
-        return get(urlBuilder.toString(), objectType);
+        return compact(get(urlBuilder.toString(), objectType));
     }
 
     @Override
     public T createObject(Map<String, Object> properties) {
-        logger.info("创建 {}", baseEndpoint.substring(baseEndpoint.lastIndexOf('/') + 1));
+        logger.info("创建 {}", getObjectTypeName());
         
         Map<String, Object> requestBody = new HashMap<>();
         requestBody.put("properties", properties);
@@ -146,43 +317,389 @@ public abstract class GenericHubSpotServiceImpl<T extends HubSpotObject> extends
 
     @Override
     public T updateObject(String objectId, Map<String, Object> properties) {
-        logger.info("更新 {} ID: {}", baseEndpoint.substring(baseEndpoint.lastIndexOf('/') + 1), objectId);
+        logger.info("更新 {} ID: {}", getObjectTypeName(), objectId);
         
         Map<String, Object> requestBody = new HashMap<>();
         requestBody.put("properties", properties);
         
         String endpoint = baseEndpoint + "/" + objectId;
-        return put(endpoint, requestBody, objectType);
+        try {
+            return put(endpoint, requestBody, objectType);
+        } finally {
+            objectCache.invalidate(objectTypeKey, objectId);
+        }
     }
 
     @Override
     public boolean deleteObject(String objectId) {
-        logger.info("删除 {} ID: {}", baseEndpoint.substring(baseEndpoint.lastIndexOf('/') + 1), objectId);
+        logger.info("删除 {} ID: {}", getObjectTypeName(), objectId);
         
         String endpoint = baseEndpoint + "/" + objectId;
-        delete(endpoint);
+        try {
+            delete(endpoint);
+        } finally {
+            objectCache.invalidate(objectTypeKey, objectId);
+        }
         return true;
     }
 
     @Override
     public HubSpotResponse<T> searchObjects(Object filterGroups, List<String> properties, int limit) {
-        logger.info("搜索 {}，过滤条件: {}, 属性: {}, 限制: {}", 
-                baseEndpoint.substring(baseEndpoint.lastIndexOf('/') + 1), filterGroups, properties, limit);
+        return searchObjects(filterGroups, null, properties, limit, null);
+    }
+
+    @Override
+    public HubSpotResponse<T> searchObjects(Object filterGroups, List<Map<String, Object>> sorts,
+                                            List<String> properties, int limit, String after) {
+        logger.info("搜索 {}，过滤条件: {}, 排序: {}, 属性: {}, 限制: {}, 游标: {}", 
+                getObjectTypeName(), filterGroups, sorts, properties, limit, after);
         
-        Map<String, Object> requestBody = Map.of(
-                "filterGroups", filterGroups,
-                "properties", properties != null ? properties : List.of(),
-                "limit", limit
-        );
+        Map<String, Object> requestBody = new HashMap<>();
+        requestBody.put("filterGroups", filterGroups);
+        requestBody.put("properties", properties != null ? properties : List.of());
+        requestBody.put("limit", limit);
+        if (sorts != null && !sorts.isEmpty()) {
+            requestBody.put("sorts", sorts);
+        }
+        if (after != null) {
+            requestBody.put("after", after);
+        }
         
-        return post(searchEndpoint, requestBody, 
-                new ParameterizedTypeReference<HubSpotResponse<T>>() {});
+        HubSpotResponse<T> response = post(searchEndpoint, requestBody, listResponseType());
+        if (response != null) {
+            compactAll(response.getResults());
+        }
+        return response;
     }
     
+    @Override
+    public HubSpotBatchResponse<T> batchRead(List<String> objectIds, List<String> properties) {
+        logger.info("批量读取 {}，数量: {}", getObjectTypeName(), objectIds.size());
+        
+        PropertyProjection projection = resolveProjection(properties);
+        HubSpotBatchResponse<T> response = executeBatch("read", objectIds, Function.identity(),
+                id -> Map.of("id", id),
+                inputs -> Map.of(
+                        "properties", projection.getProperties(),
+                        "inputs", inputs));
+        compactAll(response.getResults());
+        return response;
+    }
+
+    @Override
+    public HubSpotBatchResponse<T> batchCreate(List<Map<String, Object>> propertiesList) {
+        logger.info("批量创建 {}，数量: {}", getObjectTypeName(), propertiesList.size());
+        
+        return executeBatch("create", propertiesList, properties -> null,
+                properties -> Map.of("properties", properties),
+                inputs -> Map.of("inputs", inputs));
+    }
+
+    @Override
+    public HubSpotBatchResponse<T> batchUpdate(Map<String, Map<String, Object>> updates) {
+        logger.info("批量更新 {}，数量: {}", getObjectTypeName(), updates.size());
+        
+        try {
+            return executeBatch("update", new ArrayList<>(updates.entrySet()), Map.Entry::getKey,
+                    entry -> Map.of("id", entry.getKey(), "properties", entry.getValue()),
+                    inputs -> Map.of("inputs", inputs));
+        } finally {
+            objectCache.invalidateAll(objectTypeKey, updates.keySet());
+        }
+    }
+
+    @Override
+    public HubSpotBatchResponse<T> batchArchive(List<String> objectIds) {
+        logger.info("批量归档 {}，数量: {}", getObjectTypeName(), objectIds.size());
+        
+        try {
+            return executeBatch("archive", objectIds, Function.identity(),
+                    id -> Map.of("id", id),
+                    inputs -> Map.of("inputs", inputs));
+        } finally {
+            objectCache.invalidateAll(objectTypeKey, objectIds);
+        }
+    }
+
     @Override
     public HubSpotPropertiesResponse getObjectProperties() {
-        String objectTypeName = baseEndpoint.substring(baseEndpoint.lastIndexOf('/') + 1);
+        String objectTypeName = getObjectTypeName();
         logger.info("获取 {} 自定义属性列表", objectTypeName);
         return getObjectProperties(objectTypeName);
     }
+
+    /**
+     * 获取对象类型名称（如 contacts、companies 等）
+     */
+    protected String getObjectTypeName() {
+        return baseEndpoint.substring(baseEndpoint.lastIndexOf('/') + 1);
+    }
+
+    /**
+     * 解析实际请求的属性投影，如果properties为空，则使用包含所有属性的投影
+     * 
+     * @param properties 调用方指定的属性列表
+     * @return 属性投影
+     */
+    protected PropertyProjection resolveProjection(List<String> properties) {
+        return projectionRegistry.resolve(objectTypeKey, properties);
+    }
+
+    /**
+     * 将关联关系图中的目标对象ID转换为与 v3 关联接口格式相同的响应
+     * 
+     * @param targetIds 目标对象ID
+     * @param toResult 根据目标对象ID创建结果项的函数
+     * @param <R> 结果项类型
+     * @return 关联响应，不分页
+     */
+    protected <R> HubSpotResponse<R> associationResponse(long[] targetIds, LongFunction<R> toResult) {
+        List<R> results = new ArrayList<>(targetIds.length);
+        for (long targetId : targetIds) {
+            results.add(toResult.apply(targetId));
+        }
+        HubSpotResponse<R> response = new HubSpotResponse<>();
+        response.setResults(results);
+        return response;
+    }
+
+    /**
+     * 根据属性投影选择单页数据的获取方式
+     * 属性列表能放入 URL 时直接调用列表接口；否则先通过列表接口获取本页的ID，再通过 /batch/read 在请求体中携带属性列表
+     * 
+     * @param projection 属性投影
+     * @param pageSize 每页数量
+     * @return 根据游标获取单页数据的函数
+     */
+    private Function<String, HubSpotResponse<T>> pageFetcher(PropertyProjection projection, int pageSize) {
+        if (projectionRegistry.fitsInQuery(projection)) {
+            if (hubSpotConfig.isStreamingDecode()) {
+                return after -> streamedPage(buildListEndpoint(projection, pageSize, after), pageSize);
+            }
+            return after -> {
+                HubSpotResponse<T> page = getPaginatedData(buildListEndpoint(projection, pageSize, after),
+                        listResponseType());
+                if (page != null) {
+                    compactAll(page.getResults());
+                }
+                return page;
+            };
+        }
+        logger.info("{} 的属性投影 {} 包含 {} 个属性，超出查询参数长度限制，改用 /batch/read 获取属性",
+                getObjectTypeName(), projection.getName(), projection.getProperties().size());
+        return after -> {
+            HubSpotResponse<T> page = getPaginatedData(
+                    buildListEndpoint(PropertyProjection.DEFAULT, pageSize, after), listResponseType());
+            if (page == null || page.getResults() == null || page.getResults().isEmpty()) {
+                return page;
+            }
+            List<String> ids = page.getResults().stream().map(HubSpotObject::getId).toList();
+            HubSpotBatchResponse<T> batch = post(baseEndpoint + "/batch/read",
+                    batchReadRequestBody(projection, ids), batchResponseType());
+            
+            // 批量读取不保证顺序，按列表接口返回的顺序重新排列，两次请求之间被删除的记录直接跳过
+            Map<String, T> byId = new HashMap<>();
+            if (batch != null && batch.getResults() != null) {
+                for (T object : batch.getResults()) {
+                    byId.put(object.getId(), object);
+                }
+            }
+            List<T> results = new ArrayList<>(ids.size());
+            for (String id : ids) {
+                T object = byId.get(id);
+                if (object != null) {
+                    results.add(object);
+                }
+            }
+            compactAll(results);
+            page.setResults(results);
+            return page;
+        };
+    }
+
+    /**
+     * 以流式解码获取单页数据，组装为与整页反序列化相同的分页响应
+     * 
+     * @param endpoint API 端点
+     * @param pageSize 每页数量
+     * @return 分页响应
+     */
+    private HubSpotResponse<T> streamedPage(String endpoint, int pageSize) {
+        List<T> results = new ArrayList<>(pageSize);
+        HubSpotPageDecoder.PageSummary summary = this.<T>streamPage(endpoint, elementReader,
+                compacting(results::add));
+
+        HubSpotResponse<T> page = new HubSpotResponse<>();
+        page.setResults(results);
+        page.setTotal(summary.total());
+        if (summary.after() != null) {
+            HubSpotResponse.PagingInfo.NextPage next = new HubSpotResponse.PagingInfo.NextPage();
+            next.setAfter(summary.after());
+            next.setLink(summary.link());
+            HubSpotResponse.PagingInfo pagingInfo = new HubSpotResponse.PagingInfo();
+            pagingInfo.setNext(next);
+            page.setPagingInfo(pagingInfo);
+        }
+        return page;
+    }
+
+    /**
+     * 获取紧凑存储对象属性使用的属性结构
+     * 
+     * @return 属性结构，未启用紧凑存储或属性列表尚未加载时返回 null
+     */
+    private PropertySchema compactionSchema() {
+        return hubSpotConfig.isCompactProperties() ? propertiesCache.getSchema(objectTypeKey) : null;
+    }
+
+    /**
+     * 按属性结构紧凑存储对象属性，未启用紧凑存储时原样返回
+     */
+    private T compact(T object) {
+        PropertySchema schema = compactionSchema();
+        if (schema != null && object != null) {
+            object.compactProperties(schema);
+        }
+        return object;
+    }
+
+    /**
+     * 按属性结构紧凑存储一组对象的属性
+     */
+    private void compactAll(List<T> objects) {
+        PropertySchema schema = compactionSchema();
+        if (schema != null && objects != null) {
+            for (T object : objects) {
+                object.compactProperties(schema);
+            }
+        }
+    }
+
+    /**
+     * 在对象交给调用方之前按属性结构紧凑存储对象属性，流式解码时每解析一个对象就立即转换
+     */
+    private Consumer<T> compacting(Consumer<? super T> consumer) {
+        PropertySchema schema = compactionSchema();
+        if (schema == null) {
+            return consumer::accept;
+        }
+        return object -> {
+            object.compactProperties(schema);
+            consumer.accept(object);
+        };
+    }
+
+    private static Map<String, Object> batchReadRequestBody(PropertyProjection projection, List<String> ids) {
+        return Map.of(
+                "properties", projection.getProperties(),
+                "inputs", ids.stream().map(id -> Map.of("id", id)).toList());
+    }
+
+    /**
+     * 构建列表接口的 API 端点，包内可见，供同包的基准测试调用
+     * 
+     * @param projection 需要返回的属性投影
+     * @param limit 每页数量
+     * @param after 分页游标，为 null 表示第一页
+     * @return API 端点
+     */
+    String buildListEndpoint(PropertyProjection projection, int limit, String after) {
+        StringBuilder urlBuilder = new StringBuilder(baseEndpoint);
+        urlBuilder.append("?limit=").append(limit);
+        
+        if (after != null) {
+            urlBuilder.append("&after=").append(after);
+        }
+        
+        if (!projection.isEmpty()) {
+            urlBuilder.append("&properties=").append(projection.getQueryValue());
+        }
+        return urlBuilder.toString();
+    }
+
+    /**
+     * 列表响应类型，使用具体的对象类型解析泛型，确保结果反序列化为正确的实体类
+     */
+    protected ParameterizedTypeReference<HubSpotResponse<T>> listResponseType() {
+        return ParameterizedTypeReference.forType(
+                ResolvableType.forClassWithGenerics(HubSpotResponse.class, objectType).getType());
+    }
+
+    /**
+     * 执行批量操作：按单批上限拆分输入，并发发送各批请求，再合并结果和错误
+     * 
+     * @param action 批量操作类型（read、create、update、archive）
+     * @param items 输入数据
+     * @param idOf 获取输入对应对象ID的函数，用于在整批失败时标记失败记录，没有ID时返回 null
+     * @param toInput 将输入数据转换为请求 inputs 元素的函数
+     * @param toRequestBody 根据 inputs 构建请求体的函数
+     * @param <I> 输入数据类型
+     * @return 合并后的批量操作响应
+     */
+    private <I> HubSpotBatchResponse<T> executeBatch(String action, List<I> items, Function<I, String> idOf,
+                                                     Function<I, Map<String, Object>> toInput,
+                                                     Function<List<Map<String, Object>>, Map<String, Object>> toRequestBody) {
+        String endpoint = baseEndpoint + "/batch/" + action;
+        
+        // 各批请求在后台线程执行，需要沿用调用方的请求优先级
+        RequestPriority priority = RequestPriority.current();
+        List<CompletableFuture<HubSpotBatchResponse<T>>> futures = new ArrayList<>();
+        for (int start = 0; start < items.size(); start += MAX_BATCH_SIZE) {
+            List<I> chunk = items.subList(start, Math.min(start + MAX_BATCH_SIZE, items.size()));
+            Map<String, Object> requestBody = toRequestBody.apply(chunk.stream().map(toInput).toList());
+            futures.add(CompletableFuture.supplyAsync(() -> RequestPriority.callWith(priority,
+                    () -> executeBatchChunk(endpoint, requestBody, chunk, idOf)), taskExecutor));
+        }
+        
+        HubSpotBatchResponse<T> merged = new HubSpotBatchResponse<>();
+        for (CompletableFuture<HubSpotBatchResponse<T>> future : futures) {
+            HubSpotBatchResponse<T> response = future.join();
+            if (response.getResults() != null) {
+                merged.getResults().addAll(response.getResults());
+            }
+            if (response.getErrors() != null) {
+                merged.getErrors().addAll(response.getErrors());
+            }
+        }
+        merged.setNumErrors(merged.getErrors().size());
+        merged.setStatus("COMPLETE");
+        logger.info("批量{} {} 完成，共 {} 批，成功 {} 条，错误 {} 条", action, getObjectTypeName(),
+                futures.size(), merged.getResults().size(), merged.getNumErrors());
+        return merged;
+    }
+
+    /**
+     * 发送单批请求，整批失败时将异常转换为该批所有记录的错误
+     */
+    private <I> HubSpotBatchResponse<T> executeBatchChunk(String endpoint, Map<String, Object> requestBody,
+                                                          List<I> chunk, Function<I, String> idOf) {
+        try {
+            HubSpotBatchResponse<T> response = post(endpoint, requestBody, batchResponseType());
+            // 归档接口成功时没有响应体
+            return response != null ? response : new HubSpotBatchResponse<>();
+        } catch (RuntimeException e) {
+            logger.error("批量请求失败: {}, 错误: {}", endpoint, e.getMessage());
+            HubSpotBatchResponse.BatchError error = new HubSpotBatchResponse.BatchError();
+            error.setStatus("error");
+            error.setCategory(e instanceof HubSpotApiException apiException
+                    ? String.valueOf(apiException.getStatusCode())
+                    : "500");
+            error.setMessage(e.getMessage());
+            List<String> ids = chunk.stream().map(idOf).filter(Objects::nonNull).toList();
+            if (!ids.isEmpty()) {
+                error.setContext(Map.of("ids", ids));
+            }
+            HubSpotBatchResponse<T> response = new HubSpotBatchResponse<>();
+            response.getErrors().add(error);
+            return response;
+        }
+    }
+
+    /**
+     * 批量操作响应类型
+     */
+    private ParameterizedTypeReference<HubSpotBatchResponse<T>> batchResponseType() {
+        return ParameterizedTypeReference.forType(
+                ResolvableType.forClassWithGenerics(HubSpotBatchResponse.class, objectType).getType());
+    }
 }
\ No newline at end of file
@@ -4,19 +4,34 @@ import com.example.hubspotdemo.config.HubSpotConfig;
 import com.example.hubspotdemo.exception.HubSpotApiException;
 import com.example.hubspotdemo.model.HubSpotPropertiesResponse;
 import com.example.hubspotdemo.model.HubSpotResponse;
+import com.example.hubspotdemo.pagination.HubSpotPageDecoder;
+import com.example.hubspotdemo.pagination.HubSpotPageIterator;
+import com.example.hubspotdemo.ratelimit.HubSpotRateLimiter;
+import com.example.hubspotdemo.ratelimit.RequestPriority;
+import com.example.hubspotdemo.retry.RetryCounter;
+import com.example.hubspotdemo.retry.RetryPolicy;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestTemplate;
 
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 
 /**
  * HubSpot API 基础服务类，封装通用的 API 调用方法
@@ -30,14 +45,34 @@ public abstract class HubSpotBaseService {
     protected final HubSpotConfig hubSpotConfig;
     protected final ObjectMapper objectMapper;
 
+    // 后台执行器、重试策略（使用setter注入，避免修改所有子类的构造函数）
+    protected ExecutorService taskExecutor;
+    protected RetryPolicy retryPolicy;
+
     @Autowired
-    public HubSpotBaseService(RestTemplate restTemplate, HubSpotConfig hubSpotConfig, 
+    public HubSpotBaseService(RestTemplate restTemplate, HubSpotConfig hubSpotConfig,
                              ObjectMapper objectMapper) {
         this.restTemplate = restTemplate;
         this.hubSpotConfig = hubSpotConfig;
         this.objectMapper = objectMapper;
     }
 
+    /**
+     * 设置后台执行器
+     */
+    @Autowired
+    public void setTaskExecutor(@Qualifier("hubSpotTaskExecutor") ExecutorService taskExecutor) {
+        this.taskExecutor = taskExecutor;
+    }
+
+    /**
+     * 设置重试策略
+     */
+    @Autowired
+    public void setRetryPolicy(RetryPolicy retryPolicy) {
+        this.retryPolicy = retryPolicy;
+    }
+
     /**
      * 构建完整的 API URL
      * 
@@ -59,15 +94,10 @@ public abstract class HubSpotBaseService {
     protected <T> T get(String endpoint, Class<T> responseType) {
         String url = buildUrl(endpoint);
         logger.debug("执行 GET 请求: {}", url);
-        
-        try {
-            ResponseEntity<T> responseEntity = restTemplate.getForEntity(url, responseType);
-            logger.debug("GET 请求成功: {}, 状态码: {}", url, responseEntity.getStatusCodeValue());
-            return responseEntity.getBody();
-        } catch (HttpStatusCodeException e) {
-            handleApiException(e, "GET", url);
-            return null; // 永远不会到达这里，handleApiException 会抛出异常
-        }
+
+        ResponseEntity<T> responseEntity = execute("GET", url, true,
+                () -> restTemplate.getForEntity(url, responseType));
+        return responseEntity.getBody();
     }
 
     /**
@@ -81,18 +111,12 @@ public abstract class HubSpotBaseService {
     protected <T> T get(String endpoint, ParameterizedTypeReference<T> responseType) {
         String url = buildUrl(endpoint);
         logger.debug("执行 GET 请求: {}", url);
-        
+
         HttpEntity<?> requestEntity = new HttpEntity<>(createHeaders());
-        
-        try {
-            ResponseEntity<T> responseEntity = restTemplate.exchange(
-                    url, HttpMethod.GET, requestEntity, responseType);
-            logger.debug("GET 请求成功: {}, 状态码: {}", url, responseEntity.getStatusCodeValue());
-            return responseEntity.getBody();
-        } catch (HttpStatusCodeException e) {
-            handleApiException(e, "GET", url);
-            return null; // 永远不会到达这里，handleApiException 会抛出异常
-        }
+
+        ResponseEntity<T> responseEntity = execute("GET", url, true,
+                () -> restTemplate.exchange(url, HttpMethod.GET, requestEntity, responseType));
+        return responseEntity.getBody();
     }
 
     /**
@@ -108,20 +132,14 @@ public abstract class HubSpotBaseService {
     protected <T, R> R post(String endpoint, T requestBody, Class<R> responseType) {
         String url = buildUrl(endpoint);
         logger.debug("执行 POST 请求: {}", url);
-        
+
         HttpEntity<T> requestEntity = new HttpEntity<>(requestBody, createHeaders());
-        
-        try {
-            ResponseEntity<R> responseEntity = restTemplate.exchange(
-                    url, HttpMethod.POST, requestEntity, responseType);
-            logger.debug("POST 请求成功: {}, 状态码: {}", url, responseEntity.getStatusCodeValue());
-            return responseEntity.getBody();
-        } catch (HttpStatusCodeException e) {
-            handleApiException(e, "POST", url);
-            return null; // 永远不会到达这里，handleApiException 会抛出异常
-        }
+
+        ResponseEntity<R> responseEntity = execute("POST", url, isIdempotentPost(endpoint),
+                () -> restTemplate.exchange(url, HttpMethod.POST, requestEntity, responseType));
+        return responseEntity.getBody();
     }
-    
+
     /**
      * 执行 POST 请求（带参数化类型）
      * 
@@ -135,18 +153,12 @@ public abstract class HubSpotBaseService {
     protected <T, R> R post(String endpoint, T requestBody, ParameterizedTypeReference<R> responseType) {
         String url = buildUrl(endpoint);
         logger.debug("执行 POST 请求 (带参数化类型): {}", url);
-        
+
         HttpEntity<T> requestEntity = new HttpEntity<>(requestBody, createHeaders());
-        
-        try {
-            ResponseEntity<R> responseEntity = restTemplate.exchange(
-                    url, HttpMethod.POST, requestEntity, responseType);
-            logger.debug("POST 请求成功: {}, 状态码: {}", url, responseEntity.getStatusCodeValue());
-            return responseEntity.getBody();
-        } catch (HttpStatusCodeException e) {
-            handleApiException(e, "POST", url);
-            return null; // 永远不会到达这里，handleApiException 会抛出异常
-        }
+
+        ResponseEntity<R> responseEntity = execute("POST", url, isIdempotentPost(endpoint),
+                () -> restTemplate.exchange(url, HttpMethod.POST, requestEntity, responseType));
+        return responseEntity.getBody();
     }
 
     /**
@@ -162,18 +174,12 @@ public abstract class HubSpotBaseService {
     protected <T, R> R put(String endpoint, T requestBody, Class<R> responseType) {
         String url = buildUrl(endpoint);
         logger.debug("执行 PUT 请求: {}", url);
-        
+
         HttpEntity<T> requestEntity = new HttpEntity<>(requestBody, createHeaders());
-        
-        try {
-            ResponseEntity<R> responseEntity = restTemplate.exchange(
-                    url, HttpMethod.PUT, requestEntity, responseType);
-            logger.debug("PUT 请求成功: {}, 状态码: {}", url, responseEntity.getStatusCodeValue());
-            return responseEntity.getBody();
-        } catch (HttpStatusCodeException e) {
-            handleApiException(e, "PUT", url);
-            return null; // 永远不会到达这里，handleApiException 会抛出异常
-        }
+
+        ResponseEntity<R> responseEntity = execute("PUT", url, true,
+                () -> restTemplate.exchange(url, HttpMethod.PUT, requestEntity, responseType));
+        return responseEntity.getBody();
     }
 
     /**
@@ -185,17 +191,73 @@ public abstract class HubSpotBaseService {
     protected HttpStatusCode delete(String endpoint) {
         String url = buildUrl(endpoint);
         logger.debug("执行 DELETE 请求: {}", url);
-        
+
         HttpEntity<?> requestEntity = new HttpEntity<>(createHeaders());
-        
+
+        ResponseEntity<Void> responseEntity = execute("DELETE", url, true,
+                () -> restTemplate.exchange(url, HttpMethod.DELETE, requestEntity, Void.class));
+        return responseEntity.getStatusCode();
+    }
+
+    /**
+     * 执行请求，对暂时性失败按重试策略重试，最终失败时转换为 HubSpotApiException
+     * 
+     * @param method HTTP 方法
+     * @param url API URL
+     * @param idempotent 请求是否幂等，非幂等请求只在 429 时重试
+     * @param call 实际发送请求的函数
+     * @param <R> 响应数据类型
+     * @return 响应实体
+     */
+    protected <R> ResponseEntity<R> execute(String method, String url, boolean idempotent,
+                                            Supplier<ResponseEntity<R>> call) {
+        long deadline = retryPolicy.deadline();
+        for (int attempt = 1; ; attempt++) {
+            long delay;
+            try {
+                ResponseEntity<R> responseEntity = call.get();
+                logger.debug("{} 请求成功: {}, 状态码: {}", method, url, responseEntity.getStatusCode().value());
+                return responseEntity;
+            } catch (HttpStatusCodeException e) {
+                int statusCode = e.getStatusCode().value();
+                String retryAfter = e.getResponseHeaders() != null
+                        ? e.getResponseHeaders().getFirst(HubSpotRateLimiter.HEADER_RETRY_AFTER)
+                        : null;
+                delay = retryPolicy.delayForStatus(attempt, statusCode, idempotent, retryAfter, deadline);
+                if (delay == RetryPolicy.NO_RETRY) {
+                    handleApiException(e, method, url);
+                }
+                logger.warn("{} 请求失败: {}, 状态码: {}, {} 毫秒后进行第 {} 次重试",
+                        method, url, statusCode, delay, attempt + 1);
+            } catch (ResourceAccessException e) {
+                // I/O 异常（超时、连接重置等）
+                delay = retryPolicy.delayForIoError(attempt, idempotent, deadline);
+                if (delay == RetryPolicy.NO_RETRY) {
+                    throw e;
+                }
+                logger.warn("{} 请求 I/O 异常: {}, 错误: {}, {} 毫秒后进行第 {} 次重试",
+                        method, url, e.getMessage(), delay, attempt + 1);
+            }
+            sleep(delay);
+        }
+    }
+
+    /**
+     * 判断 POST 请求是否幂等（搜索、批量读取等只读请求）
+     * 
+     * @param endpoint API 端点
+     * @return 是否幂等
+     */
+    protected boolean isIdempotentPost(String endpoint) {
+        return endpoint.endsWith("/search") || endpoint.endsWith("/batch/read");
+    }
+
+    private static void sleep(long millis) {
         try {
-            ResponseEntity<Void> responseEntity = restTemplate.exchange(
-                    url, HttpMethod.DELETE, requestEntity, Void.class);
-            logger.debug("DELETE 请求成功: {}, 状态码: {}", url, responseEntity.getStatusCodeValue());
-            return responseEntity.getStatusCode();
-        } catch (HttpStatusCodeException e) {
-            handleApiException(e, "DELETE", url);
-            return HttpStatus.INTERNAL_SERVER_ERROR; // 永远不会到达这里，handleApiException 会抛出异常
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new HubSpotApiException("等待重试时被中断", e);
         }
     }
 
@@ -224,38 +286,143 @@ public abstract class HubSpotBaseService {
     protected void handleApiException(HttpStatusCodeException e, String method, String url) {
         int statusCode = e.getStatusCode().value();
         String errorBody = e.getResponseBodyAsString();
-        
-        logger.error("HubSpot API 调用失败: {} {}, 状态码: {}, 错误信息: {}", 
+
+        logger.error("HubSpot API 调用失败: {} {}, 状态码: {}, 错误信息: {}",
                 method, url, statusCode, errorBody);
-        
+
+        throw toApiException(objectMapper, statusCode, errorBody);
+    }
+
+    /**
+     * 将 HubSpot 错误响应转换为 HubSpotApiException，同步和异步客户端共用
+     * 
+     * @param objectMapper JSON 解析器
+     * @param statusCode HTTP 状态码
+     * @param errorBody 错误响应体
+     * @return HubSpot API 异常
+     */
+    static HubSpotApiException toApiException(ObjectMapper objectMapper, int statusCode, String errorBody) {
         // 尝试解析错误信息
         String errorMessage = "HubSpot API 调用失败";
         try {
-            HubSpotResponse<?> errorResponse = objectMapper.readValue(errorBody, HubSpotResponse.class);
-            if (errorResponse.getMessage() != null) {
-                errorMessage = errorResponse.getMessage();
+            String message = HubSpotPageDecoder.readErrorMessage(objectMapper.getFactory(), errorBody);
+            if (message != null) {
+                errorMessage = message;
             }
         } catch (Exception ex) {
             // 如果解析失败，使用原始错误信息
             errorMessage = errorBody;
         }
         
-        throw new HubSpotApiException(errorMessage, statusCode, errorBody);
+        return new HubSpotApiException(errorMessage, statusCode, errorBody);
     }
 
     /**
-     * 获取分页数据
+     * 获取单页分页数据
      * 
      * @param endpoint API 端点
      * @param responseType 响应类型
      * @param <T> 数据项类型
      * @return 响应对象
      */
-    protected <T> HubSpotResponse<T> getPaginatedData(String endpoint, 
+    protected <T> HubSpotResponse<T> getPaginatedData(String endpoint,
                                                      ParameterizedTypeReference<HubSpotResponse<T>> responseType) {
         return get(endpoint, responseType);
     }
-    
+
+    /**
+     * 以流式解码获取单页数据，results 中的每个对象解析完成后立即交给 consumer，不先反序列化整页响应
+     * 请求失败重试时跳过上一次尝试已经交出的对象，consumer 不会收到重复的数据
+     * 
+     * @param endpoint API 端点
+     * @param elementReader 数据项类型的 ObjectReader
+     * @param consumer 接收数据项的函数
+     * @param <T> 数据项类型
+     * @return 解码结果摘要，包含下一页游标
+     */
+    protected <T> HubSpotPageDecoder.PageSummary streamPage(String endpoint, ObjectReader elementReader,
+                                                           Consumer<? super T> consumer) {
+        String url = buildUrl(endpoint);
+        logger.debug("执行 GET 请求 (流式解码): {}", url);
+
+        int[] emitted = {0};
+        Consumer<T> counting = element -> {
+            consumer.accept(element);
+            emitted[0]++;
+        };
+        ResponseEntity<HubSpotPageDecoder.PageSummary> responseEntity = execute("GET", url, true,
+                () -> restTemplate.execute(url, HttpMethod.GET,
+                        request -> request.getHeaders().setAccept(Collections.singletonList(MediaType.APPLICATION_JSON)),
+                        response -> new ResponseEntity<>(
+                                HubSpotPageDecoder.decode(elementReader, response.getBody(), emitted[0], counting),
+                                response.getHeaders(), response.getStatusCode())));
+        return responseEntity.getBody();
+    }
+
+    /**
+     * 沿着分页游标以流式解码逐页获取全部数据，每个对象解析完成后立即交给 consumer
+     * 
+     * @param endpointForCursor 根据游标构建 API 端点的函数，游标为 null 表示第一页
+     * @param elementReader 数据项类型的 ObjectReader
+     * @param consumer 接收数据项的函数
+     * @param <T> 数据项类型
+     * @return 获取的数据条数
+     */
+    protected <T> long streamPages(Function<String, String> endpointForCursor, ObjectReader elementReader,
+                                   Consumer<? super T> consumer) {
+        long count = 0;
+        String after = null;
+        do {
+            HubSpotPageDecoder.PageSummary page = streamPage(endpointForCursor.apply(after), elementReader, consumer);
+            count += page.count();
+            after = page.after();
+        } while (after != null);
+        return count;
+    }
+
+    /**
+     * 沿着分页游标获取全部分页数据，下一页在调用方处理当前页时预取
+     * 
+     * @param endpointForCursor 根据游标构建 API 端点的函数，游标为 null 表示第一页
+     * @param responseType 响应类型
+     * @param <T> 数据项类型
+     * @return 分页迭代器，使用完毕后应关闭以取消未完成的预取
+     */
+    protected <T> HubSpotPageIterator<T> paginate(Function<String, String> endpointForCursor,
+                                                 ParameterizedTypeReference<HubSpotResponse<T>> responseType) {
+        return paginate(after -> getPaginatedData(endpointForCursor.apply(after), responseType));
+    }
+
+    /**
+     * 沿着分页游标获取全部分页数据，由调用方提供单页的获取方式
+     * 
+     * @param pageFetcher 根据游标获取单页数据的函数，游标为 null 表示第一页
+     * @param <T> 数据项类型
+     * @return 分页迭代器，使用完毕后应关闭以取消未完成的预取
+     */
+    protected <T> HubSpotPageIterator<T> paginate(Function<String, HubSpotResponse<T>> pageFetcher) {
+        return paginate(pageFetcher, page -> true);
+    }
+
+    /**
+     * 沿着分页游标获取分页数据，只在满足预取条件时预取下一页
+     * 
+     * @param pageFetcher 根据游标获取单页数据的函数，游标为 null 表示第一页
+     * @param prefetchWhile 预取条件，参数为刚获取的页，返回 false 时不预取下一页，避免发出用不到的请求
+     * @param <T> 数据项类型
+     * @return 分页迭代器，使用完毕后应关闭以取消未完成的预取
+     */
+    protected <T> HubSpotPageIterator<T> paginate(Function<String, HubSpotResponse<T>> pageFetcher,
+                                                 Predicate<HubSpotResponse<T>> prefetchWhile) {
+        // 预取在后台线程执行，需要沿用调用方的请求优先级和重试计数器
+        RequestPriority priority = RequestPriority.current();
+        LongAdder retries = RetryCounter.current();
+        return new HubSpotPageIterator<>(
+                after -> RequestPriority.callWith(priority,
+                        () -> RetryCounter.callWith(retries, () -> pageFetcher.apply(after))),
+                taskExecutor, prefetchWhile);
+    }
+
     /**
      * 获取对象的自定义属性列表
      * 
@@ -266,15 +433,11 @@ public abstract class HubSpotBaseService {
         String endpoint = "/crm/v3/properties/" + objectType;
         String url = buildUrl(endpoint);
         logger.debug("获取对象属性: {}, URL: {}", objectType, url);
-        
-        try {
-            ResponseEntity<HubSpotPropertiesResponse> responseEntity = restTemplate.exchange(
-                    url, HttpMethod.GET, new HttpEntity<>(createHeaders()), HubSpotPropertiesResponse.class);
-            logger.debug("获取对象属性成功: {}, 状态码: {}", objectType, responseEntity.getStatusCodeValue());
-            return responseEntity.getBody();
-        } catch (HttpStatusCodeException e) {
-            handleApiException(e, "GET", url);
-            return null; // 永远不会到达这里，handleApiException 会抛出异常
-        }
+
+        ResponseEntity<HubSpotPropertiesResponse> responseEntity = execute("GET", url, true,
+                () -> restTemplate.exchange(
+                        url, HttpMethod.GET, new HttpEntity<>(createHeaders()), HubSpotPropertiesResponse.class));
+        logger.debug("获取对象属性成功: {}, 状态码: {}", objectType, responseEntity.getStatusCode().value());
+        return responseEntity.getBody();
     }
-}
\ No newline at end of file
+}
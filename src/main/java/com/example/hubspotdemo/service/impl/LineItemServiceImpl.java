@@ -1,6 +1,7 @@
 package com.example.hubspotdemo.service.impl;
 
 import com.example.hubspotdemo.cache.HubSpotPropertiesCache;
+import com.example.hubspotdemo.cache.HubSpotPropertiesCache.ObjectType;
 import com.example.hubspotdemo.config.HubSpotConfig;
 import com.example.hubspotdemo.model.HubSpotResponse;
 import com.example.hubspotdemo.model.LineItem;
@@ -32,6 +33,13 @@ public class LineItemServiceImpl extends GenericHubSpotServiceImpl<LineItem> imp
     @Override
     public HubSpotResponse<Map<String, Object>> getDealLineItems(String dealId) {
         logger.info("获取交易 ID: {} 关联的行项目", dealId);
+
+        // 关联尚未由同步完整加载时关联关系图中只有按需加载的部分，直接请求 HubSpot
+        if (associationGraph.isRefreshedBySync(ObjectType.DEALS, ObjectType.LINE_ITEMS)) {
+            long[] lineItemIds = associationGraph.getAssociations(ObjectType.DEALS, dealId, ObjectType.LINE_ITEMS);
+            return associationResponse(lineItemIds,
+                    lineItemId -> Map.of("id", String.valueOf(lineItemId), "type", "deal_to_line_item"));
+        }
         
         String endpoint = "/crm/v3/objects/deals/" + dealId + "/associations/deal_to_line_item/line_items";
         return getPaginatedData(endpoint, 
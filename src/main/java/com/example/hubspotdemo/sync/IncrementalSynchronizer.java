@@ -0,0 +1,116 @@
+package com.example.hubspotdemo.sync;
+
+import com.example.hubspotdemo.cache.HubSpotObjectCache;
+import com.example.hubspotdemo.cache.HubSpotPropertiesCache.ObjectType;
+import com.example.hubspotdemo.config.SyncConfig;
+import com.example.hubspotdemo.model.HubSpotObject;
+import com.example.hubspotdemo.projection.PropertyProjectionRegistry;
+import com.example.hubspotdemo.replica.ReplicaStore;
+import com.example.hubspotdemo.service.GenericHubSpotService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 基于水位线的增量同步
+ * <p>
+ * 按最后修改时间升序搜索水位线之后的全部变更，由 {@link WindowedSearch} 按最后修改时间以键集分页，
+ * 每页写入本地副本后将水位线推进到已读取的最后一条的修改时间并持久化，中断后从这里继续。
+ */
+@Component
+@Slf4j
+public class IncrementalSynchronizer {
+
+    /**
+     * 单次增量同步的结果
+     *
+     * @param skipped 上一次同步仍在执行而跳过
+     * @param fetched 从 HubSpot 获取的对象数量
+     * @param applied 本地副本实际更新的数量
+     * @param queries 搜索查询次数
+     * @param watermark 同步后的水位线
+     */
+    public record Result(boolean skipped, long fetched, long applied, int queries, long watermark) {
+    }
+
+    private final ReplicaStore replicaStore;
+    private final SyncStateStore stateStore;
+    private final SyncConfig syncConfig;
+    private final PropertyProjectionRegistry projectionRegistry;
+    private final HubSpotObjectCache objectCache;
+    private final WindowedSearch windowedSearch;
+
+    // 同一对象类型同一时刻只允许一个增量同步
+    private final Map<ObjectType, ReentrantLock> locks = new EnumMap<>(ObjectType.class);
+
+    @Autowired
+    public IncrementalSynchronizer(ReplicaStore replicaStore, SyncStateStore stateStore, SyncConfig syncConfig,
+                                   PropertyProjectionRegistry projectionRegistry, HubSpotObjectCache objectCache) {
+        this.replicaStore = replicaStore;
+        this.stateStore = stateStore;
+        this.syncConfig = syncConfig;
+        this.projectionRegistry = projectionRegistry;
+        this.objectCache = objectCache;
+        this.windowedSearch = new WindowedSearch(syncConfig);
+        for (ObjectType type : ObjectType.values()) {
+            locks.put(type, new ReentrantLock());
+        }
+    }
+
+    /**
+     * 执行一次增量同步
+     * @param objectType 对象类型
+     * @param service 对象类型对应的服务
+     * @param <T> 对象类型
+     * @return 同步结果
+     */
+    public <T extends HubSpotObject> Result sync(ObjectType objectType, GenericHubSpotService<T> service) {
+        ReentrantLock lock = locks.get(objectType);
+        if (!lock.tryLock()) {
+            log.info("{} 的上一次增量同步仍在执行，跳过本次同步", objectType.getValue());
+            return new Result(true, 0, 0, 0, stateStore.getWatermark(objectType));
+        }
+        try {
+            long now = System.currentTimeMillis();
+            long watermark = stateStore.getWatermark(objectType);
+            long from = watermark >= 0
+                    ? watermark - syncConfig.getOverlapMillis()
+                    : now - syncConfig.getInitialLookbackMillis();
+            log.info("开始 {} 的增量同步，水位线: {}，同步窗口: [{}, {}]", objectType.getValue(),
+                    watermark >= 0 ? Instant.ofEpochMilli(watermark) : "无", Instant.ofEpochMilli(from), Instant.ofEpochMilli(now));
+
+            long[] stats = new long[2];
+            List<String> properties = projectionRegistry.getAllProperties(objectType).getProperties();
+            int queries = windowedSearch.scan(objectType, service, properties, lastModifiedProperty(objectType),
+                    Math.max(0, from), now,
+                    page -> {
+                        stats[0] += page.size();
+                        stats[1] += replicaStore.upsertAll(objectType, page);
+                        objectCache.onObserved(objectType, page);
+                    },
+                    // 只推进到实际读取到的修改时间，扫描期间被修改而移出窗口的对象在下一次同步中获取
+                    lastRead -> stateStore.advanceWatermark(objectType, lastRead));
+            stateStore.markSuccess(objectType, System.currentTimeMillis());
+
+            Result result = new Result(false, stats[0], stats[1], queries, stateStore.getWatermark(objectType));
+            log.info("{} 的增量同步完成，获取 {} 条，本地副本更新 {} 条，共 {} 次查询", objectType.getValue(),
+                    result.fetched(), result.applied(), result.queries());
+            return result;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 最后修改时间属性名，联系人使用 lastmodifieddate，其他对象使用 hs_lastmodifieddate
+     */
+    static String lastModifiedProperty(ObjectType objectType) {
+        return objectType == ObjectType.CONTACTS ? "lastmodifieddate" : "hs_lastmodifieddate";
+    }
+}
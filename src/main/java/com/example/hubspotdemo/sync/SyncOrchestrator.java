@@ -0,0 +1,328 @@
+package com.example.hubspotdemo.sync;
+
+import com.example.hubspotdemo.association.AssociationGraph;
+import com.example.hubspotdemo.cache.HubSpotObjectCache;
+import com.example.hubspotdemo.cache.HubSpotPropertiesCache.ObjectType;
+import com.example.hubspotdemo.config.SyncConfig;
+import com.example.hubspotdemo.model.HubSpotObject;
+import com.example.hubspotdemo.projection.PropertyProjectionRegistry;
+import com.example.hubspotdemo.ratelimit.RequestPriority;
+import com.example.hubspotdemo.replica.ReplicaStore;
+import com.example.hubspotdemo.retry.RetryCounter;
+import com.example.hubspotdemo.service.GenericHubSpotService;
+import com.example.hubspotdemo.service.HubSpotServiceRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 多对象类型同步编排器
+ * <p>
+ * 所有对象类型并发同步，同时运行的类型数量受限，默认所有类型同时开始。
+ * 全量同步按创建时间划分为多个分区并行获取，所有请求都以后台优先级经过同一个客户端限流器，共享 HubSpot 的调用配额。
+ */
+@Component
+@Slf4j
+public class SyncOrchestrator {
+
+    private static final String CREATE_DATE_PROPERTY = "createdate";
+
+    private final HubSpotServiceRegistry serviceRegistry;
+    private final ReplicaStore replicaStore;
+    private final SyncStateStore stateStore;
+    private final IncrementalSynchronizer incrementalSynchronizer;
+    private final PropertyProjectionRegistry projectionRegistry;
+    private final HubSpotObjectCache objectCache;
+    private final AssociationGraph associationGraph;
+    private final SyncConfig syncConfig;
+    private final MeterRegistry meterRegistry;
+    private final ExecutorService taskExecutor;
+    private final WindowedSearch windowedSearch;
+
+    // 各对象类型最近一次的运行统计，键为 同步方式:对象类型
+    private final Map<String, SyncRunStats> lastRuns = new ConcurrentHashMap<>();
+
+    // 全量同步运行中时不再开始新的全量同步
+    private final Set<ObjectType> runningFullSyncs = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    public SyncOrchestrator(HubSpotServiceRegistry serviceRegistry, ReplicaStore replicaStore,
+                            SyncStateStore stateStore, IncrementalSynchronizer incrementalSynchronizer,
+                            PropertyProjectionRegistry projectionRegistry, HubSpotObjectCache objectCache,
+                            AssociationGraph associationGraph, SyncConfig syncConfig, MeterRegistry meterRegistry,
+                            @Qualifier("hubSpotTaskExecutor") ExecutorService taskExecutor) {
+        this.serviceRegistry = serviceRegistry;
+        this.replicaStore = replicaStore;
+        this.stateStore = stateStore;
+        this.incrementalSynchronizer = incrementalSynchronizer;
+        this.projectionRegistry = projectionRegistry;
+        this.objectCache = objectCache;
+        this.associationGraph = associationGraph;
+        this.syncConfig = syncConfig;
+        this.meterRegistry = meterRegistry;
+        this.taskExecutor = taskExecutor;
+        this.windowedSearch = new WindowedSearch(syncConfig);
+    }
+
+    /**
+     * 本地副本为空（内存存储重启后、数据目录被删除）而同步状态仍在时清除同步状态，
+     * 否则增量同步从旧的水位线继续，本地副本缺少水位线之前的对象却被当作完整的副本
+     */
+    @PostConstruct
+    public void resetStateOfEmptyReplicas() {
+        for (ObjectType type : ObjectType.values()) {
+            if (replicaStore.count(type) == 0
+                    && (stateStore.getWatermark(type) >= 0 || stateStore.isReplicaComplete(type))) {
+                log.warn("{} 的本地副本为空，清除同步状态，等待下一次全量同步", type.getValue());
+                stateStore.reset(type);
+            }
+        }
+    }
+
+    /**
+     * 对所有对象类型执行全量同步，阻塞直到全部完成
+     * @return 各对象类型的运行统计
+     */
+    public List<SyncRunStats> runFullSync() {
+        return runAll(SyncRunStats.Mode.FULL);
+    }
+
+    /**
+     * 对所有对象类型执行增量同步，阻塞直到全部完成
+     * @return 各对象类型的运行统计
+     */
+    public List<SyncRunStats> runIncrementalSync() {
+        return runAll(SyncRunStats.Mode.INCREMENTAL);
+    }
+
+    /**
+     * 在后台开始同步，立即返回
+     * @param mode 同步方式
+     * @return 全部对象类型同步完成时完成的 Future
+     */
+    public CompletableFuture<List<SyncRunStats>> startAsync(SyncRunStats.Mode mode) {
+        return CompletableFuture.supplyAsync(() -> runAll(mode), taskExecutor);
+    }
+
+    /**
+     * 获取各对象类型最近一次的运行统计（包括正在运行的）
+     * @return 运行统计列表
+     */
+    public List<SyncRunStats> getLastRuns() {
+        List<SyncRunStats> runs = new ArrayList<>(lastRuns.values());
+        runs.sort(Comparator.comparing(SyncRunStats::getMode).thenComparing(SyncRunStats::getObjectType));
+        return runs;
+    }
+
+    private List<SyncRunStats> runAll(SyncRunStats.Mode mode) {
+        long startedAt = System.currentTimeMillis();
+        List<ObjectType> types = Arrays.asList(ObjectType.values());
+        Semaphore permits = new Semaphore(Math.max(1, syncConfig.getMaxParallelTypes()), true);
+
+        List<CompletableFuture<SyncRunStats>> futures = new ArrayList<>();
+        for (ObjectType type : types) {
+            permits.acquireUninterruptibly();
+            futures.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    return RequestPriority.callWith(RequestPriority.BACKGROUND, () -> runOne(mode, type));
+                } finally {
+                    permits.release();
+                }
+            }, taskExecutor));
+        }
+
+        List<SyncRunStats> results = futures.stream().map(CompletableFuture::join).toList();
+        long records = results.stream().mapToLong(SyncRunStats::getRecords).sum();
+        log.info("{} 同步全部完成，耗时 {} 毫秒，共获取 {} 条数据", mode, System.currentTimeMillis() - startedAt, records);
+        return results;
+    }
+
+    private SyncRunStats runOne(SyncRunStats.Mode mode, ObjectType objectType) {
+        SyncRunStats stats = new SyncRunStats();
+        stats.setObjectType(objectType.getValue());
+        stats.setMode(mode);
+        stats.setStartedAt(System.currentTimeMillis());
+        // 只统计本次同步的请求安排的重试，其他同时运行的同步和交互请求的重试不计入
+        LongAdder retries = new LongAdder();
+        lastRuns.put(mode + ":" + objectType.getValue(), stats);
+
+        try {
+            GenericHubSpotService<? extends HubSpotObject> service = serviceRegistry.getService(objectType);
+            RetryCounter.runWith(retries, () -> {
+                if (mode == SyncRunStats.Mode.FULL) {
+                    fullSync(objectType, service, stats);
+                } else {
+                    incrementalSync(objectType, service, stats);
+                }
+                if (stats.getStatus() == SyncRunStats.Status.SUCCESS) {
+                    refreshAssociations(mode, objectType);
+                }
+            });
+        } catch (RuntimeException e) {
+            log.error("{} 的 {} 同步失败: {}", objectType.getValue(), mode, e.getMessage(), e);
+            stats.setStatus(SyncRunStats.Status.FAILED);
+            stats.setError(e.getMessage());
+        } finally {
+            stats.setRetries(retries.sum());
+            stats.setCompletedAt(System.currentTimeMillis());
+            recordMetrics(stats);
+        }
+        log.info("{} 的 {} 同步结束: 状态 {}，获取 {} 条，更新 {} 条，归档 {} 条，{} 页，耗时 {} 毫秒，{} 条/秒",
+                objectType.getValue(), mode, stats.getStatus(), stats.getRecords(), stats.getApplied(),
+                stats.getArchived(), stats.getPages(), stats.getDurationMillis(),
+                String.format("%.1f", stats.getRecordsPerSecond()));
+        return stats;
+    }
+
+    /**
+     * 刷新以该对象类型为源的关联，关联加载失败不影响本次同步的结果，变更的对象在下一次同步后重新加载
+     */
+    private void refreshAssociations(SyncRunStats.Mode mode, ObjectType objectType) {
+        try {
+            associationGraph.refresh(objectType, mode == SyncRunStats.Mode.FULL,
+                    stateStore.isReplicaComplete(objectType));
+        } catch (RuntimeException e) {
+            log.warn("刷新 {} 的关联失败: {}", objectType.getValue(), e.getMessage());
+        }
+    }
+
+    private void incrementalSync(ObjectType objectType, GenericHubSpotService<? extends HubSpotObject> service,
+                                 SyncRunStats stats) {
+        IncrementalSynchronizer.Result result = incrementalSynchronizer.sync(objectType, service);
+        stats.setRecords(result.fetched());
+        stats.setApplied(result.applied());
+        stats.setPartitions(result.queries());
+        stats.setStatus(result.skipped() ? SyncRunStats.Status.SKIPPED : SyncRunStats.Status.SUCCESS);
+    }
+
+    /**
+     * 全量同步：获取所有对象写入本地副本，然后归档本次没有返回的旧对象
+     * <p>
+     * 只有全部对象都已读取时才能归档：列表接口的游标和分区扫描都按键分页，扫描期间的创建和删除不会跳过其他对象；
+     * 任何一页或一个分区获取失败时整个同步失败，不执行归档，也不推进水位线。
+     */
+    private <T extends HubSpotObject> void fullSync(ObjectType objectType, GenericHubSpotService<T> service,
+                                                    SyncRunStats stats) {
+        if (!runningFullSyncs.add(objectType)) {
+            log.info("{} 的上一次全量同步仍在执行，跳过本次同步", objectType.getValue());
+            stats.setStatus(SyncRunStats.Status.SKIPPED);
+            return;
+        }
+        try {
+            long syncStartedAt = System.currentTimeMillis();
+            Set<String> seenIds = ConcurrentHashMap.newKeySet();
+            int partitions = syncConfig.getPartitions(objectType.getValue());
+            stats.setPartitions(partitions);
+
+            if (partitions <= 1) {
+                // 列表接口顺序获取，游标为对象 ID，下一页在处理当前页时预取
+                service.forEachPage(null, 100, page -> applyPage(objectType, page, seenIds, stats));
+            } else {
+                scanPartitions(objectType, service, partitions, syncStartedAt, seenIds, stats);
+            }
+
+            // 执行到这里说明扫描完整：本次全量同步没有返回、且在同步开始前就已保存的对象，说明已在 HubSpot 中删除或归档
+            long archived = 0;
+            for (String objectId : replicaStore.ids(objectType)) {
+                if (!seenIds.contains(objectId)
+                        && replicaStore.getVersion(objectType, objectId) < syncStartedAt
+                        && replicaStore.archive(objectType, objectId, syncStartedAt)) {
+                    objectCache.invalidate(objectType, objectId);
+                    archived++;
+                }
+            }
+            stats.setArchived(archived);
+
+            // 全量同步开始前的所有变更都已写入本地副本，增量同步从这里继续
+            stateStore.advanceWatermark(objectType, syncStartedAt);
+            stateStore.markFullSyncSuccess(objectType, System.currentTimeMillis());
+            stats.setStatus(SyncRunStats.Status.SUCCESS);
+        } finally {
+            runningFullSyncs.remove(objectType);
+        }
+    }
+
+    /**
+     * 按创建时间将 [最早创建时间, 同步开始时间] 划分为多个分区并行获取，分区内按创建时间以键集分页
+     * 同步开始后创建的对象由之后的增量同步获取，任何分区失败时抛出异常
+     */
+    private <T extends HubSpotObject> void scanPartitions(ObjectType objectType, GenericHubSpotService<T> service,
+                                                          int partitions, long syncStartedAt, Set<String> seenIds,
+                                                          SyncRunStats stats) {
+        long earliest = windowedSearch.findEarliest(service, CREATE_DATE_PROPERTY);
+        if (earliest < 0) {
+            log.info("{} 没有任何对象", objectType.getValue());
+            return;
+        }
+        List<String> properties = projectionRegistry.getAllProperties(objectType).getProperties();
+        long span = Math.max(1, (syncStartedAt - earliest + partitions) / partitions);
+        log.info("{} 的全量同步划分为 {} 个分区，创建时间范围 [{}, {}]", objectType.getValue(), partitions,
+                Instant.ofEpochMilli(earliest), Instant.ofEpochMilli(syncStartedAt));
+
+        RequestPriority priority = RequestPriority.current();
+        LongAdder retries = RetryCounter.current();
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (long from = earliest; from <= syncStartedAt; from += span) {
+            long partitionFrom = from;
+            long partitionTo = Math.min(from + span - 1, syncStartedAt);
+            futures.add(CompletableFuture.runAsync(() -> RequestPriority.runWith(priority, () ->
+                    RetryCounter.runWith(retries, () ->
+                            windowedSearch.scan(objectType, service, properties, CREATE_DATE_PROPERTY,
+                                    partitionFrom, partitionTo,
+                                    page -> applyPage(objectType, page, seenIds, stats),
+                                    lastRead -> { }))), taskExecutor));
+        }
+        // 任何分区失败时 join 抛出异常，全量同步失败，不会按不完整的结果归档
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+    }
+
+    private void applyPage(ObjectType objectType, List<? extends HubSpotObject> page, Set<String> seenIds,
+                           SyncRunStats stats) {
+        int applied = replicaStore.upsertAll(objectType, page);
+        objectCache.onObserved(objectType, page);
+        for (HubSpotObject object : page) {
+            seenIds.add(object.getId());
+        }
+        synchronized (stats) {
+            stats.setPages(stats.getPages() + 1);
+            stats.setRecords(stats.getRecords() + page.size());
+            stats.setApplied(stats.getApplied() + applied);
+        }
+    }
+
+    private void recordMetrics(SyncRunStats stats) {
+        String mode = stats.getMode().name().toLowerCase();
+        Counter.builder("hubspot.sync.records")
+                .description("同步获取的对象数量")
+                .tag("type", stats.getObjectType())
+                .tag("mode", mode)
+                .register(meterRegistry)
+                .increment(stats.getRecords());
+        Timer.builder("hubspot.sync.duration")
+                .description("同步耗时")
+                .tag("type", stats.getObjectType())
+                .tag("mode", mode)
+                .tag("status", stats.getStatus().name().toLowerCase())
+                .register(meterRegistry)
+                .record(stats.getDurationMillis(), TimeUnit.MILLISECONDS);
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.hubspotdemo.sync;
+
+import lombok.Data;
+
+/**
+ * 单个对象类型一次同步的运行统计
+ */
+@Data
+public class SyncRunStats {
+
+    /**
+     * 同步方式
+     */
+    public enum Mode {
+        FULL,
+        INCREMENTAL
+    }
+
+    /**
+     * 运行状态
+     */
+    public enum Status {
+        RUNNING,
+        SUCCESS,
+        FAILED,
+        SKIPPED
+    }
+
+    /**
+     * 对象类型
+     */
+    private String objectType;
+
+    /**
+     * 同步方式
+     */
+    private Mode mode;
+
+    /**
+     * 运行状态
+     */
+    private Status status = Status.RUNNING;
+
+    /**
+     * 开始时间（毫秒时间戳）
+     */
+    private long startedAt;
+
+    /**
+     * 结束时间（毫秒时间戳）
+     */
+    private long completedAt;
+
+    /**
+     * 从 HubSpot 获取的对象数量
+     */
+    private long records;
+
+    /**
+     * 本地副本实际更新的数量
+     */
+    private long applied;
+
+    /**
+     * 本地副本归档的数量
+     */
+    private long archived;
+
+    /**
+     * 获取的页数
+     */
+    private long pages;
+
+    /**
+     * 并行分区数（全量同步）或搜索查询次数（增量同步）
+     */
+    private int partitions;
+
+    /**
+     * 运行期间整个进程发生的重试次数
+     */
+    private long retries;
+
+    /**
+     * 失败原因
+     */
+    private String error;
+
+    /**
+     * 运行耗时（毫秒）
+     */
+    public long getDurationMillis() {
+        long end = completedAt > 0 ? completedAt : System.currentTimeMillis();
+        return end - startedAt;
+    }
+
+    /**
+     * 每秒获取的对象数量
+     */
+    public double getRecordsPerSecond() {
+        long duration = getDurationMillis();
+        return duration > 0 ? records * 1000.0 / duration : 0;
+    }
+}
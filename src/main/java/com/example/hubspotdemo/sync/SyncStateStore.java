@@ -0,0 +1,188 @@
+package com.example.hubspotdemo.sync;
+
+import com.example.hubspotdemo.cache.HubSpotPropertiesCache.ObjectType;
+import com.example.hubspotdemo.config.SyncConfig;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 同步状态存储，持久化各对象类型的增量同步水位线
+ * <p>
+ * 水位线表示 hs_lastmodifieddate 不晚于该时间的变更都已写入本地副本。
+ * 每页数据写入后才将水位线推进到已读取的最后一条的修改时间，进程重启后从上次的水位线继续，不会遗漏数据。
+ * <p>
+ * 只有全量同步成功完成后本地副本才包含全部对象：首次增量同步只回溯有限的时间，本地副本中只有这段时间内变更的对象。
+ */
+@Component
+@Slf4j
+public class SyncStateStore {
+
+    /**
+     * 单个对象类型的同步状态
+     */
+    @Data
+    public static class SyncState {
+
+        /**
+         * 增量同步水位线（毫秒时间戳），-1 表示尚未同步
+         */
+        private long watermark = -1;
+
+        /**
+         * 最近一次同步成功完成的时间（毫秒时间戳）
+         */
+        private long lastSuccessAt = -1;
+
+        /**
+         * 最近一次全量同步成功完成的时间（毫秒时间戳），-1 表示本地副本尚未经过全量同步，只包含部分对象
+         */
+        private long lastFullSyncAt = -1;
+    }
+
+    private final Path stateFile;
+    private final ObjectMapper objectMapper;
+    private final Map<String, SyncState> states;
+
+    @Autowired
+    public SyncStateStore(SyncConfig syncConfig, ObjectMapper objectMapper) {
+        this.stateFile = Paths.get(syncConfig.getStateFile());
+        this.objectMapper = objectMapper;
+        this.states = load();
+    }
+
+    private Map<String, SyncState> load() {
+        if (!Files.isRegularFile(stateFile)) {
+            return new TreeMap<>();
+        }
+        try {
+            Map<String, SyncState> loaded = objectMapper.readValue(stateFile.toFile(),
+                    new TypeReference<TreeMap<String, SyncState>>() { });
+            log.info("加载同步状态: {}", loaded);
+            return loaded;
+        } catch (IOException e) {
+            log.warn("读取同步状态文件失败，从头开始同步: {}", e.getMessage());
+            return new TreeMap<>();
+        }
+    }
+
+    /**
+     * 获取增量同步水位线
+     * @param objectType 对象类型
+     * @return 水位线（毫秒时间戳），尚未同步时返回 -1
+     */
+    public synchronized long getWatermark(ObjectType objectType) {
+        SyncState state = states.get(objectType.getValue());
+        return state != null ? state.getWatermark() : -1;
+    }
+
+    /**
+     * 获取最近一次同步成功完成的时间
+     * @param objectType 对象类型
+     * @return 毫秒时间戳，尚未同步时返回 -1
+     */
+    public synchronized long getLastSuccessAt(ObjectType objectType) {
+        SyncState state = states.get(objectType.getValue());
+        return state != null ? state.getLastSuccessAt() : -1;
+    }
+
+    /**
+     * 获取最近一次全量同步成功完成的时间
+     * @param objectType 对象类型
+     * @return 毫秒时间戳，尚未全量同步时返回 -1
+     */
+    public synchronized long getLastFullSyncAt(ObjectType objectType) {
+        SyncState state = states.get(objectType.getValue());
+        return state != null ? state.getLastFullSyncAt() : -1;
+    }
+
+    /**
+     * 本地副本是否包含全部对象，即全量同步成功完成过
+     * @param objectType 对象类型
+     */
+    public boolean isReplicaComplete(ObjectType objectType) {
+        return getLastFullSyncAt(objectType) > 0;
+    }
+
+    /**
+     * 推进水位线并立即持久化，水位线只会前进不会后退
+     * @param objectType 对象类型
+     * @param watermark 新的水位线（毫秒时间戳）
+     */
+    public synchronized void advanceWatermark(ObjectType objectType, long watermark) {
+        SyncState state = states.computeIfAbsent(objectType.getValue(), key -> new SyncState());
+        if (watermark <= state.getWatermark()) {
+            return;
+        }
+        state.setWatermark(watermark);
+        persist();
+    }
+
+    /**
+     * 记录同步成功完成
+     * @param objectType 对象类型
+     * @param completedAt 完成时间（毫秒时间戳）
+     */
+    public synchronized void markSuccess(ObjectType objectType, long completedAt) {
+        states.computeIfAbsent(objectType.getValue(), key -> new SyncState()).setLastSuccessAt(completedAt);
+        persist();
+    }
+
+    /**
+     * 记录全量同步成功完成，本地副本从此包含全部对象
+     * @param objectType 对象类型
+     * @param completedAt 完成时间（毫秒时间戳）
+     */
+    public synchronized void markFullSyncSuccess(ObjectType objectType, long completedAt) {
+        SyncState state = states.computeIfAbsent(objectType.getValue(), key -> new SyncState());
+        state.setLastSuccessAt(completedAt);
+        state.setLastFullSyncAt(completedAt);
+        persist();
+    }
+
+    /**
+     * 清除同步状态，本地副本的数据丢失（内存存储重启、数据目录被删除）时水位线已不再成立
+     * @param objectType 对象类型
+     */
+    public synchronized void reset(ObjectType objectType) {
+        if (states.remove(objectType.getValue()) != null) {
+            persist();
+        }
+    }
+
+    /**
+     * 先写临时文件再原子替换，进程中途退出时保留上一次的状态
+     */
+    private void persist() {
+        try {
+            Path dir = stateFile.toAbsolutePath().getParent();
+            Files.createDirectories(dir);
+            Path tempFile = Files.createTempFile(dir, "sync-state", ".tmp");
+            try {
+                objectMapper.writeValue(tempFile.toFile(), states);
+                try {
+                    Files.move(tempFile, stateFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(tempFile, stateFile, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } finally {
+                Files.deleteIfExists(tempFile);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("保存同步状态失败", e);
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.example.hubspotdemo.sync;
+
+import com.example.hubspotdemo.cache.HubSpotPropertiesCache.ObjectType;
+import com.example.hubspotdemo.config.SyncConfig;
+import com.example.hubspotdemo.model.HubSpotObject;
+import com.example.hubspotdemo.model.HubSpotResponse;
+import com.example.hubspotdemo.model.PropertyType;
+import com.example.hubspotdemo.service.GenericHubSpotService;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+/**
+ * 按时间窗口以键集分页扫描搜索结果
+ * <p>
+ * 按日期属性升序搜索 [from, to] 窗口内的对象并逐页交给调用方处理。每个查询只取第一页，
+ * 下一个查询从本页最后一条的日期（GTE）重新开始，边界上已经读过的对象按 ID 去重。
+ * 不使用 HubSpot 搜索接口的偏移量游标：扫描期间窗口内的对象被修改、创建或删除时偏移量会整体移动，导致未读的对象被跳过；
+ * 每个查询都从第一页开始，也不受单个查询最多翻阅 10000 条结果的限制。
+ * 同一毫秒内的对象超过一页时，在该毫秒内按 hs_object_id 升序以 GT 继续分页。
+ */
+@Slf4j
+class WindowedSearch {
+
+    private static final String OBJECT_ID_PROPERTY = "hs_object_id";
+
+    private final SyncConfig syncConfig;
+
+    WindowedSearch(SyncConfig syncConfig) {
+        this.syncConfig = syncConfig;
+    }
+
+    /**
+     * 扫描时间窗口内的全部对象
+     *
+     * @param objectType 对象类型
+     * @param service 对象类型对应的服务
+     * @param properties 需要返回的属性列表，不包含日期属性时自动加上
+     * @param dateProperty 用于划分窗口的日期属性，如 hs_lastmodifieddate、createdate
+     * @param from 窗口起点（毫秒时间戳，包含）
+     * @param to 窗口终点（毫秒时间戳，包含）
+     * @param pageConsumer 每页数据的处理函数，边界上重复的对象已去除
+     * @param checkpoint 每页处理完成后回调，参数为已读取的最后一条的日期：早于该时间的对象都已处理
+     * @param <T> 对象类型
+     * @return 查询次数
+     * @throws IllegalStateException 结果中的日期属性无法解析、无法继续按键集分页时抛出，此前的页已经处理
+     */
+    <T extends HubSpotObject> int scan(ObjectType objectType, GenericHubSpotService<T> service,
+                                       List<String> properties, String dateProperty, long from, long to,
+                                       Consumer<List<T>> pageConsumer, LongConsumer checkpoint) {
+        List<String> requested = properties;
+        if (!properties.contains(dateProperty)) {
+            requested = new ArrayList<>(properties);
+            requested.add(dateProperty);
+        }
+        List<Map<String, Object>> sorts = List.of(Map.of("propertyName", dateProperty, "direction", "ASCENDING"));
+        int pageSize = syncConfig.getSearchPageSize();
+
+        long cursor = from;
+        // 日期等于 cursor、已经交给调用方的对象
+        Set<String> boundaryIds = new HashSet<>();
+        int queries = 0;
+        while (cursor <= to) {
+            List<Map<String, Object>> filterGroups = List.of(Map.of("filters", List.of(
+                    Map.of("propertyName", dateProperty, "operator", "GTE", "value", String.valueOf(cursor)),
+                    Map.of("propertyName", dateProperty, "operator", "LTE", "value", String.valueOf(to)))));
+            HubSpotResponse<T> page = service.searchObjects(filterGroups, sorts, requested, pageSize, null);
+            queries++;
+            List<T> results = page != null && page.getResults() != null ? page.getResults() : List.of();
+            if (results.isEmpty()) {
+                break;
+            }
+            long last = dateOf(objectType, results.get(results.size() - 1), dateProperty);
+            if (results.size() >= pageSize && last == cursor) {
+                // 整页都在同一毫秒内，按对象 ID 翻完这一毫秒后从下一毫秒继续
+                queries += scanMillisecond(service, requested, dateProperty, pageSize, cursor, boundaryIds,
+                        pageConsumer);
+                checkpoint.accept(cursor);
+                boundaryIds.clear();
+                cursor++;
+                continue;
+            }
+
+            List<T> fresh = new ArrayList<>(results.size());
+            for (T object : results) {
+                if (!boundaryIds.contains(object.getId())) {
+                    fresh.add(object);
+                }
+            }
+            if (!fresh.isEmpty()) {
+                pageConsumer.accept(fresh);
+            }
+            checkpoint.accept(last);
+            if (results.size() < pageSize) {
+                break;
+            }
+            // 整页不在同一毫秒内时最后一条的日期一定晚于 cursor
+            boundaryIds.clear();
+            cursor = last;
+            for (T object : results) {
+                if (dateOf(objectType, object, dateProperty) == cursor) {
+                    boundaryIds.add(object.getId());
+                }
+            }
+        }
+        return queries;
+    }
+
+    /**
+     * 在同一毫秒内按 hs_object_id 升序分页，跳过已经处理过的对象
+     *
+     * @return 查询次数
+     */
+    private <T extends HubSpotObject> int scanMillisecond(GenericHubSpotService<T> service, List<String> properties,
+                                                          String dateProperty, int pageSize, long millis,
+                                                          Set<String> seenIds, Consumer<List<T>> pageConsumer) {
+        List<Map<String, Object>> sorts = List.of(Map.of("propertyName", OBJECT_ID_PROPERTY, "direction", "ASCENDING"));
+        String lastId = null;
+        int queries = 0;
+        while (true) {
+            List<Map<String, Object>> filters = new ArrayList<>();
+            filters.add(Map.of("propertyName", dateProperty, "operator", "EQ", "value", String.valueOf(millis)));
+            if (lastId != null) {
+                filters.add(Map.of("propertyName", OBJECT_ID_PROPERTY, "operator", "GT", "value", lastId));
+            }
+            HubSpotResponse<T> page = service.searchObjects(List.of(Map.of("filters", filters)), sorts, properties,
+                    pageSize, null);
+            queries++;
+            List<T> results = page != null && page.getResults() != null ? page.getResults() : List.of();
+            List<T> fresh = new ArrayList<>(results.size());
+            for (T object : results) {
+                if (seenIds.add(object.getId())) {
+                    fresh.add(object);
+                }
+            }
+            if (!fresh.isEmpty()) {
+                pageConsumer.accept(fresh);
+            }
+            if (results.size() < pageSize) {
+                return queries;
+            }
+            lastId = results.get(results.size() - 1).getId();
+        }
+    }
+
+    private static long dateOf(ObjectType objectType, HubSpotObject object, String dateProperty) {
+        Object value = object.getProperties() != null ? object.getProperties().get(dateProperty) : null;
+        long millis = value != null ? PropertyType.parseEpochMillis(value.toString()) : Long.MIN_VALUE;
+        if (millis == Long.MIN_VALUE) {
+            throw new IllegalStateException(objectType.getValue() + " " + object.getId() + " 的 " + dateProperty
+                    + " 无法解析: " + value + "，无法继续按键集分页");
+        }
+        return millis;
+    }
+
+    /**
+     * 查找日期属性的最小值
+     *
+     * @return 最小值（毫秒时间戳），没有对象时返回 -1；属性值缺失或无法解析时返回 0，从头扫描，避免漏掉对象
+     */
+    <T extends HubSpotObject> long findEarliest(GenericHubSpotService<T> service, String dateProperty) {
+        HubSpotResponse<T> page = service.searchObjects(
+                List.of(Map.of("filters", List.of(Map.of("propertyName", dateProperty, "operator", "HAS_PROPERTY")))),
+                List.of(Map.of("propertyName", dateProperty, "direction", "ASCENDING")),
+                List.of(dateProperty), 1, null);
+        if (page == null || page.getResults() == null || page.getResults().isEmpty()) {
+            return -1;
+        }
+        Object value = page.getResults().get(0).getProperties().get(dateProperty);
+        long earliest = value != null ? PropertyType.parseEpochMillis(value.toString()) : Long.MIN_VALUE;
+        if (earliest == Long.MIN_VALUE) {
+            log.warn("无法解析 {} 的最小值 {}，从 {} 开始扫描", dateProperty, value, Instant.EPOCH);
+            return 0;
+        }
+        return earliest;
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.hubspotdemo.association;
+
+import com.example.hubspotdemo.cache.HubSpotPropertiesCache.ObjectType;
+import com.example.hubspotdemo.config.AssociationConfig;
+import com.example.hubspotdemo.model.Contact;
+import com.example.hubspotdemo.replica.MemoryReplicaStore;
+import com.example.hubspotdemo.service.AssociationService;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 关联关系图按需加载与同步刷新的测试
+ */
+class AssociationGraphTest {
+
+    @Test
+    void onDemandAssociationsAreReloadedAfterTtl() throws Exception {
+        AssociationConfig config = new AssociationConfig();
+        config.setOnDemandTtlMillis(20);
+        CountingService service = new CountingService();
+        AssociationGraph graph = new AssociationGraph(service, config, new MemoryReplicaStore());
+        graph.init();
+
+        service.targets = new long[] {10};
+        assertArrayEquals(new long[] {10}, graph.getAssociations(ObjectType.CONTACTS, "1", ObjectType.COMPANIES));
+        // 有效期内不再请求 HubSpot
+        service.targets = new long[] {10, 11};
+        assertArrayEquals(new long[] {10}, graph.getAssociations(ObjectType.CONTACTS, "1", ObjectType.COMPANIES));
+        assertEquals(1, service.reads.get());
+
+        Thread.sleep(50);
+        assertArrayEquals(new long[] {10, 11}, graph.getAssociations(ObjectType.CONTACTS, "1", ObjectType.COMPANIES));
+        assertEquals(2, service.reads.get());
+    }
+
+    @Test
+    void configuredAssociationsAreUsedOnlyAfterSyncRefresh() {
+        AssociationConfig config = new AssociationConfig();
+        config.setPairs(Map.of("contacts", List.of("deals")));
+        MemoryReplicaStore replicaStore = new MemoryReplicaStore();
+        Contact contact = new Contact();
+        contact.setId("1");
+        replicaStore.upsert(ObjectType.CONTACTS, contact);
+        CountingService service = new CountingService();
+        service.targets = new long[] {20};
+        AssociationGraph graph = new AssociationGraph(service, config, replicaStore);
+        graph.init();
+
+        assertFalse(graph.isRefreshedBySync(ObjectType.CONTACTS, ObjectType.DEALS));
+        graph.refresh(ObjectType.CONTACTS, true, true);
+        assertTrue(graph.isRefreshedBySync(ObjectType.CONTACTS, ObjectType.DEALS));
+
+        // 未配置的关联即使已经按需加载过也不算由同步加载
+        graph.getAssociations(ObjectType.CONTACTS, "1", ObjectType.COMPANIES);
+        assertFalse(graph.isRefreshedBySync(ObjectType.CONTACTS, ObjectType.COMPANIES));
+    }
+
+    /**
+     * 每个源对象都返回当前的 targets，并统计请求次数
+     */
+    private static final class CountingService implements AssociationService {
+
+        final AtomicInteger reads = new AtomicInteger();
+        volatile long[] targets = new long[0];
+
+        @Override
+        public Map<Long, long[]> batchReadAssociations(ObjectType fromType, ObjectType toType,
+                                                       Collection<Long> fromIds) {
+            reads.incrementAndGet();
+            Map<Long, long[]> associations = new HashMap<>();
+            for (Long id : fromIds) {
+                associations.put(id, targets.clone());
+            }
+            return associations;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.hubspotdemo.batch;
+
+import com.example.hubspotdemo.cache.HubSpotObjectCache;
+import com.example.hubspotdemo.cache.HubSpotPropertiesCache;
+import com.example.hubspotdemo.cache.HubSpotPropertiesCache.ObjectType;
+import com.example.hubspotdemo.config.ObjectCacheConfig;
+import com.example.hubspotdemo.model.Contact;
+import com.example.hubspotdemo.model.HubSpotBatchResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 按 ID 读取请求合并器的测试
+ */
+class BatchReadCoalescerTest {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void sharesInFlightReadUntilInvalidated() throws Exception {
+        BlockingReader reader = new BlockingReader();
+        BatchReadCoalescer<Contact> coalescer = new BatchReadCoalescer<>(reader, executor, 1, 100);
+
+        CompletableFuture<Contact> first = coalescer.load("1");
+        assertTrue(reader.started.await(5, TimeUnit.SECONDS));
+        assertSame(first, coalescer.load("1"));
+
+        coalescer.onInvalidated(List.of("1"));
+        CompletableFuture<Contact> second = coalescer.load("1");
+        assertNotSame(first, second);
+
+        reader.release.countDown();
+        assertEquals("v1", first.get(5, TimeUnit.SECONDS).getProperties().get("name"));
+        assertEquals("v2", second.get(5, TimeUnit.SECONDS).getProperties().get("name"));
+        assertEquals(2, reader.reads.get());
+    }
+
+    @Test
+    void cacheDoesNotReinstallReadStartedBeforeInvalidation() throws Exception {
+        HubSpotObjectCache cache = new HubSpotObjectCache(new ObjectCacheConfig(), new HubSpotPropertiesCache(),
+                new SimpleMeterRegistry());
+        cache.init();
+        BlockingReader reader = new BlockingReader();
+        BatchReadCoalescer<Contact> coalescer = new BatchReadCoalescer<>(reader, executor, 1, 100);
+        cache.addInvalidationListener(ObjectType.CONTACTS, coalescer);
+
+        CompletableFuture<Contact> beforeUpdate = cache.get(ObjectType.CONTACTS, "1", coalescer::load);
+        assertTrue(reader.started.await(5, TimeUnit.SECONDS));
+
+        // 更新对象后失效，之后的读取不能复用更新之前发出的读取
+        cache.invalidate(ObjectType.CONTACTS, "1");
+        CompletableFuture<Contact> afterUpdate = cache.get(ObjectType.CONTACTS, "1", coalescer::load);
+        reader.release.countDown();
+
+        assertEquals("v1", beforeUpdate.get(5, TimeUnit.SECONDS).getProperties().get("name"));
+        assertEquals("v2", afterUpdate.get(5, TimeUnit.SECONDS).getProperties().get("name"));
+        assertEquals("v2", cache.get(ObjectType.CONTACTS, "1", coalescer::load)
+                .get(5, TimeUnit.SECONDS).getProperties().get("name"));
+    }
+
+    /**
+     * 第一次读取阻塞到 release，返回 name 为 v1 的对象；之后的读取立即返回 v2
+     */
+    private static final class BlockingReader implements Function<List<String>, HubSpotBatchResponse<Contact>> {
+
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger reads = new AtomicInteger();
+
+        @Override
+        public HubSpotBatchResponse<Contact> apply(List<String> ids) {
+            int read = reads.incrementAndGet();
+            if (read == 1) {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            HubSpotBatchResponse<Contact> response = new HubSpotBatchResponse<>();
+            for (String id : ids) {
+                Contact contact = new Contact();
+                contact.setId(id);
+                contact.setProperties(Map.of("name", read == 1 ? "v1" : "v2"));
+                response.getResults().add(contact);
+            }
+            return response;
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.hubspotdemo.index;
+
+import com.example.hubspotdemo.cache.HubSpotPropertiesCache.ObjectType;
+import com.example.hubspotdemo.config.IndexConfig;
+import com.example.hubspotdemo.config.LocalSearchConfig;
+import com.example.hubspotdemo.config.ReplicaConfig;
+import com.example.hubspotdemo.config.SyncConfig;
+import com.example.hubspotdemo.model.Contact;
+import com.example.hubspotdemo.model.HubSpotObject;
+import com.example.hubspotdemo.model.HubSpotResponse;
+import com.example.hubspotdemo.replica.FileReplicaStore;
+import com.example.hubspotdemo.replica.MemoryReplicaStore;
+import com.example.hubspotdemo.replica.ReplicaStore;
+import com.example.hubspotdemo.search.LocalSearchEngine;
+import com.example.hubspotdemo.sync.SyncStateStore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 二级索引的测试：使用索引和全量扫描的本地搜索结果必须相同
+ */
+class SecondaryIndexManagerTest {
+
+    private static final String[] WORDS = {"john", "jane", "acme", "gmail", "smith", "doe", "Alpha", "beta"};
+    private static final long BASE_SECONDS = 1_700_000_000L;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void indexedSearchMatchesFullScanOnMemoryStore() throws Exception {
+        assertIndexedMatchesScan(new MemoryReplicaStore());
+    }
+
+    @Test
+    void indexedSearchMatchesFullScanOnFileStore() throws Exception {
+        ReplicaConfig replicaConfig = new ReplicaConfig();
+        replicaConfig.setDir(tempDir.resolve("replica").toString());
+        try (FileReplicaStore store = new FileReplicaStore(replicaConfig)) {
+            assertIndexedMatchesScan(store);
+        }
+    }
+
+    private void assertIndexedMatchesScan(ReplicaStore store) {
+        Random random = new Random(42);
+        for (int i = 0; i < 1000; i++) {
+            store.upsert(ObjectType.CONTACTS, contact(random, i, 1));
+        }
+
+        IndexConfig indexConfig = new IndexConfig();
+        indexConfig.getTypes().put("contacts", Map.of(
+                "email", List.of(IndexKind.HASH, IndexKind.TOKEN),
+                "amount", List.of(IndexKind.SORTED),
+                "closedate", List.of(IndexKind.SORTED),
+                "name", List.of(IndexKind.TOKEN),
+                "hs_object_id", List.of(IndexKind.HASH)));
+        SecondaryIndexManager indexes = new SecondaryIndexManager(indexConfig, store);
+        indexes.init();
+        SecondaryIndexManager noIndexes = new SecondaryIndexManager(new IndexConfig(), store);
+        noIndexes.init();
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        SyncConfig syncConfig = new SyncConfig();
+        syncConfig.setStateFile(tempDir.resolve("sync-state.json").toString());
+        SyncStateStore stateStore = new SyncStateStore(syncConfig, objectMapper);
+        LocalSearchEngine indexed = new LocalSearchEngine(store, stateStore, indexes, new LocalSearchConfig(),
+                objectMapper);
+        LocalSearchEngine scan = new LocalSearchEngine(store, stateStore, noIndexes, new LocalSearchConfig(),
+                objectMapper);
+
+        // 索引构建之后的更新和删除通过变更通知维护
+        for (int i = 0; i < 300; i++) {
+            store.upsert(ObjectType.CONTACTS, contact(random, random.nextInt(1200), 2 + i));
+        }
+        for (int i = 0; i < 100; i++) {
+            store.archive(ObjectType.CONTACTS, String.valueOf(random.nextInt(1200)), BASE_SECONDS * 2000);
+        }
+
+        int indexedQueries = 0;
+        for (int i = 0; i < 2000; i++) {
+            List<Map<String, Object>> filterGroups = filterGroups(random);
+            HubSpotResponse<Contact> expected = scan.search(ObjectType.CONTACTS, filterGroups, null, null, 5000, null);
+            HubSpotResponse<Contact> actual = indexed.search(ObjectType.CONTACTS, filterGroups, null, null, 5000, null);
+            assertEquals(ids(expected), ids(actual), filterGroups.toString());
+            if (Boolean.TRUE.equals(actual.getMetaData().get("indexed"))) {
+                indexedQueries++;
+            }
+        }
+        // 大部分查询应当走索引，否则比较没有意义
+        assertTrue(indexedQueries > 1000, "使用索引的查询只有 " + indexedQueries + " 个");
+    }
+
+    private static List<Map<String, Object>> filterGroups(Random random) {
+        List<Map<String, Object>> groups = new ArrayList<>();
+        int groupCount = 1 + random.nextInt(2);
+        for (int g = 0; g < groupCount; g++) {
+            List<Map<String, Object>> filters = new ArrayList<>();
+            int filterCount = 1 + random.nextInt(2);
+            for (int f = 0; f < filterCount; f++) {
+                filters.add(filter(random));
+            }
+            groups.add(Map.of("filters", filters));
+        }
+        return groups;
+    }
+
+    private static Map<String, Object> filter(Random random) {
+        return switch (random.nextInt(10)) {
+            case 0 -> Map.of("propertyName", "email", "operator", "EQ", "value",
+                    word(random) + random.nextInt(50) + "@" + word(random).toUpperCase() + ".com");
+            case 1 -> Map.of("propertyName", "email", "operator", "CONTAINS_TOKEN", "value", word(random));
+            case 2 -> Map.of("propertyName", "email", "operator", "CONTAINS_TOKEN", "value", word(random) + "*");
+            case 3 -> Map.of("propertyName", "name", "operator", "CONTAINS_TOKEN", "value",
+                    word(random) + " " + word(random));
+            case 4 -> Map.of("propertyName", "amount", "operator", "GT", "value", amount(random));
+            case 5 -> Map.of("propertyName", "amount", "operator", "BETWEEN", "value", amount(random),
+                    "highValue", amount(random));
+            case 6 -> Map.of("propertyName", "amount", "operator", "EQ", "value", amount(random));
+            case 7 -> Map.of("propertyName", "closedate", "operator", "LTE", "value", random.nextBoolean()
+                    ? String.valueOf((BASE_SECONDS + random.nextInt(1_000_000)) * 1000)
+                    : LocalDate.ofEpochDay(19675 + random.nextInt(12)).toString());
+            case 8 -> Map.of("propertyName", "hs_object_id", "operator", "IN", "values",
+                    List.of(String.valueOf(random.nextInt(1200)), String.valueOf(random.nextInt(1200))));
+            default -> Map.of("propertyName", "amount", "operator", "NEQ", "value", amount(random));
+        };
+    }
+
+    private static Contact contact(Random random, int id, int version) {
+        Contact contact = new Contact();
+        contact.setId(String.valueOf(id));
+        contact.setUpdatedAt(Instant.ofEpochSecond(BASE_SECONDS + version).toString());
+        Map<String, Object> properties = new HashMap<>();
+        if (random.nextInt(10) > 0) {
+            properties.put("email", word(random) + id % 50 + "@" + word(random) + ".com");
+        }
+        if (random.nextInt(10) > 0) {
+            // 混入无法解析为数字的值
+            properties.put("amount", random.nextInt(4) == 0 ? "n/a" : amount(random));
+        }
+        if (random.nextInt(10) > 0) {
+            properties.put("closedate", Instant.ofEpochSecond(BASE_SECONDS + random.nextInt(1_000_000)).toString());
+        }
+        properties.put("name", word(random) + " " + word(random));
+        contact.setProperties(properties);
+        return contact;
+    }
+
+    private static String word(Random random) {
+        return WORDS[random.nextInt(WORDS.length)];
+    }
+
+    private static String amount(Random random) {
+        return String.valueOf(random.nextInt(1000) / (random.nextBoolean() ? 1.0 : 10.0));
+    }
+
+    private static List<String> ids(HubSpotResponse<Contact> response) {
+        return response.getResults().stream().map(HubSpotObject::getId).toList();
+    }
+}
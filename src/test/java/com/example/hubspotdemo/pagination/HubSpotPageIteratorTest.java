@@ -0,0 +1,131 @@
+package com.example.hubspotdemo.pagination;
+
+import com.example.hubspotdemo.model.HubSpotResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 游标分页迭代器的测试
+ */
+class HubSpotPageIteratorTest {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void followsCursorsAndPrefetchesNextPage() {
+        List<String> requested = Collections.synchronizedList(new ArrayList<>());
+        try (HubSpotPageIterator<String> pages = new HubSpotPageIterator<>(pages(3, requested), executor)) {
+            List<String> items = new ArrayList<>();
+            while (pages.hasNext()) {
+                items.addAll(pages.next().getResults());
+            }
+            assertEquals(List.of("0", "1", "2"), items);
+            assertEquals(3, pages.getPageCount());
+        }
+        assertEquals(List.of("first", "1", "2"), requested);
+    }
+
+    @Test
+    void defersNextPageUntilCallerContinuesWhenPrefetchNotWanted() throws Exception {
+        List<String> requested = Collections.synchronizedList(new ArrayList<>());
+        try (HubSpotPageIterator<String> pages = new HubSpotPageIterator<>(pages(3, requested), executor,
+                page -> false)) {
+            assertTrue(pages.hasNext());
+            assertEquals(List.of("0"), pages.next().getResults());
+            // 给可能发出的预取留出时间
+            Thread.sleep(100);
+            assertEquals(List.of("first"), requested);
+
+            // 调用方继续迭代时才使用保留的游标获取下一页
+            assertTrue(pages.hasNext());
+            assertEquals(List.of("1"), pages.next().getResults());
+            assertEquals(List.of("first", "1"), requested);
+        }
+        assertEquals(List.of("first", "1"), requested);
+    }
+
+    @Test
+    void closeWhilePrefetchInFlightStopsIteration() throws Exception {
+        List<String> requested = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch prefetchStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch prefetchFinished = new CountDownLatch(1);
+        Function<String, HubSpotResponse<String>> delegate = pages(5, requested);
+        Function<String, HubSpotResponse<String>> fetcher = after -> {
+            if (after == null) {
+                return delegate.apply(null);
+            }
+            prefetchStarted.countDown();
+            try {
+                release.await();
+                return delegate.apply(after);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            } finally {
+                prefetchFinished.countDown();
+            }
+        };
+
+        HubSpotPageIterator<String> pages = new HubSpotPageIterator<>(fetcher, executor);
+        assertTrue(pages.hasNext());
+        assertEquals(List.of("0"), pages.next().getResults());
+        assertTrue(prefetchStarted.await(5, TimeUnit.SECONDS));
+
+        pages.close();
+        assertFalse(pages.hasNext());
+        release.countDown();
+        assertTrue(prefetchFinished.await(5, TimeUnit.SECONDS));
+        Thread.sleep(100);
+
+        // 已经开始的预取无法中断，但之后不再获取任何页
+        assertFalse(pages.hasNext());
+        assertEquals(1, pages.getPageCount());
+        assertTrue(requested.size() <= 2, requested.toString());
+    }
+
+    @Test
+    void nextCursorIsNullWithoutPaging() {
+        assertNull(HubSpotPageIterator.nextCursor(null));
+        assertNull(HubSpotPageIterator.nextCursor(new HubSpotResponse<>()));
+    }
+
+    /**
+     * 共 count 页的数据源，第 i 页包含一条数据 "i"，游标为下一页的序号，记录每次请求的游标（第一页记为 first）
+     */
+    private static Function<String, HubSpotResponse<String>> pages(int count, List<String> requested) {
+        return after -> {
+            requested.add(after == null ? "first" : after);
+            int index = after == null ? 0 : Integer.parseInt(after);
+            HubSpotResponse<String> page = new HubSpotResponse<>();
+            page.setResults(List.of(String.valueOf(index)));
+            if (index + 1 < count) {
+                HubSpotResponse.PagingInfo.NextPage next = new HubSpotResponse.PagingInfo.NextPage();
+                next.setAfter(String.valueOf(index + 1));
+                HubSpotResponse.PagingInfo paging = new HubSpotResponse.PagingInfo();
+                paging.setNext(next);
+                page.setPagingInfo(paging);
+            }
+            return page;
+        };
+    }
+}
@@ -0,0 +1,240 @@
+package com.example.hubspotdemo.replica;
+
+import com.example.hubspotdemo.cache.HubSpotPropertiesCache.ObjectType;
+import com.example.hubspotdemo.config.ReplicaConfig;
+import com.example.hubspotdemo.model.Contact;
+import com.example.hubspotdemo.model.HubSpotObject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 追加日志副本存储的测试：按版本写入、归档、启动恢复和压缩
+ */
+class FileReplicaStoreTest {
+
+    private static final long BASE = 1_700_000_000_000L;
+
+    @TempDir
+    Path tempDir;
+
+    private ReplicaConfig replicaConfig;
+
+    @BeforeEach
+    void setUp() {
+        replicaConfig = new ReplicaConfig();
+        replicaConfig.setDir(tempDir.toString());
+    }
+
+    @Test
+    void upsertIsIdempotentByVersion() throws Exception {
+        try (FileReplicaStore store = new FileReplicaStore(replicaConfig)) {
+            assertTrue(store.upsert(ObjectType.CONTACTS, contact("1", BASE, "v1")));
+            long size = logSize();
+
+            // 相同或更旧的版本不追加记录
+            assertFalse(store.upsert(ObjectType.CONTACTS, contact("1", BASE, "v1")));
+            assertFalse(store.upsert(ObjectType.CONTACTS, contact("1", BASE - 1, "old")));
+            assertEquals(size, logSize());
+            assertEquals("v1", name(store.get(ObjectType.CONTACTS, "1")));
+
+            assertTrue(store.upsert(ObjectType.CONTACTS, contact("1", BASE + 1, "v2")));
+            // 同一批中同一对象的多个版本只保留最新的
+            assertEquals(1, store.upsertAll(ObjectType.CONTACTS,
+                    List.of(contact("2", BASE + 5, "b2"), contact("2", BASE + 3, "b1"))));
+            assertEquals(2, store.count(ObjectType.CONTACTS));
+        }
+
+        try (FileReplicaStore store = new FileReplicaStore(replicaConfig)) {
+            assertEquals("v2", name(store.get(ObjectType.CONTACTS, "1")));
+            assertEquals(BASE + 1, store.getVersion(ObjectType.CONTACTS, "1"));
+            assertEquals("b2", name(store.get(ObjectType.CONTACTS, "2")));
+            assertFalse(store.upsert(ObjectType.CONTACTS, contact("1", BASE + 1, "v2")));
+        }
+    }
+
+    @Test
+    void archiveBlocksOlderUpserts() throws Exception {
+        try (FileReplicaStore store = new FileReplicaStore(replicaConfig)) {
+            store.upsert(ObjectType.CONTACTS, contact("1", BASE, "v1"));
+            assertTrue(store.archive(ObjectType.CONTACTS, "1", BASE + 10));
+
+            // 重叠窗口中重新读到的旧数据不能恢复已归档的对象
+            assertFalse(store.upsert(ObjectType.CONTACTS, contact("1", BASE + 5, "stale")));
+            assertFalse(store.upsert(ObjectType.CONTACTS, contact("1", BASE + 10, "stale")));
+            assertFalse(store.archive(ObjectType.CONTACTS, "1", BASE + 10));
+            assertNull(store.get(ObjectType.CONTACTS, "1"));
+            assertEquals(0, store.count(ObjectType.CONTACTS));
+            assertTrue(store.ids(ObjectType.CONTACTS).isEmpty());
+        }
+
+        try (FileReplicaStore store = new FileReplicaStore(replicaConfig)) {
+            assertEquals(BASE + 10, store.getVersion(ObjectType.CONTACTS, "1"));
+            assertFalse(store.upsert(ObjectType.CONTACTS, contact("1", BASE + 5, "stale")));
+            // 归档之后的更新说明对象已恢复
+            assertTrue(store.upsert(ObjectType.CONTACTS, contact("1", BASE + 20, "restored")));
+            assertEquals("restored", name(store.get(ObjectType.CONTACTS, "1")));
+        }
+    }
+
+    @Test
+    void recoveryTruncatesIncompleteLastRecord() throws Exception {
+        writeThreeContacts();
+        long size = logSize();
+        try (FileChannel channel = FileChannel.open(logFile(), StandardOpenOption.WRITE)) {
+            channel.truncate(size - 3);
+        }
+
+        assertRecoveredFirstTwo();
+    }
+
+    @Test
+    void recoveryTruncatesCorruptedLastRecord() throws Exception {
+        writeThreeContacts();
+        long size = logSize();
+        try (FileChannel channel = FileChannel.open(logFile(), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer last = ByteBuffer.allocate(1);
+            channel.read(last, size - 1);
+            last.put(0, (byte) (last.get(0) ^ 0xFF));
+            last.rewind();
+            channel.write(last, size - 1);
+        }
+
+        assertRecoveredFirstTwo();
+    }
+
+    @Test
+    void compactionKeepsLiveDataAndDropsExpiredTombstones() throws Exception {
+        replicaConfig.setTombstoneRetentionMillis(60_000);
+        long now = System.currentTimeMillis();
+        try (FileReplicaStore store = new FileReplicaStore(replicaConfig)) {
+            for (int version = 0; version < 5; version++) {
+                store.upsert(ObjectType.CONTACTS, contact("1", now - 10_000 + version, "v" + version));
+            }
+            store.upsert(ObjectType.CONTACTS, contact("2", now - 10_000, "live"));
+            store.upsert(ObjectType.CONTACTS, contact("3", now - 200_000, "old"));
+            store.archive(ObjectType.CONTACTS, "3", now - 120_000);
+            store.upsert(ObjectType.CONTACTS, contact("4", now - 10_000, "recent"));
+            store.archive(ObjectType.CONTACTS, "4", now - 1_000);
+            long before = logSize();
+
+            store.compact(ObjectType.CONTACTS);
+
+            assertTrue(logSize() < before);
+            assertFalse(Files.exists(compactedFile()));
+            assertLiveData(store);
+            assertEquals(-1, store.getVersion(ObjectType.CONTACTS, "3"));
+            // 保留期内的墓碑仍然阻止旧数据
+            assertFalse(store.upsert(ObjectType.CONTACTS, contact("4", now - 10_000, "recent")));
+        }
+
+        try (FileReplicaStore store = new FileReplicaStore(replicaConfig)) {
+            assertLiveData(store);
+            assertEquals(-1, store.getVersion(ObjectType.CONTACTS, "3"));
+            assertEquals(now - 1_000, store.getVersion(ObjectType.CONTACTS, "4"));
+            assertTrue(store.upsert(ObjectType.CONTACTS, contact("3", now - 200_000, "old")));
+        }
+    }
+
+    @Test
+    void failedReplaceReopensOriginalLog() throws Exception {
+        try (FileReplicaStore store = new FileReplicaStore(replicaConfig) {
+            @Override
+            void replace(Path compacted, Path file) throws IOException {
+                throw new IOException("模拟替换失败");
+            }
+        }) {
+            store.upsert(ObjectType.CONTACTS, contact("1", BASE, "v1"));
+            store.upsert(ObjectType.CONTACTS, contact("1", BASE + 1, "v2"));
+            store.upsert(ObjectType.CONTACTS, contact("2", BASE, "b1"));
+
+            assertThrows(UncheckedIOException.class, () -> store.compact(ObjectType.CONTACTS));
+
+            assertFalse(Files.exists(compactedFile()));
+            assertEquals("v2", name(store.get(ObjectType.CONTACTS, "1")));
+            assertEquals("b1", name(store.get(ObjectType.CONTACTS, "2")));
+            // 原日志重新打开后可以继续写入
+            assertTrue(store.upsert(ObjectType.CONTACTS, contact("3", BASE, "c1")));
+            assertEquals(3, store.count(ObjectType.CONTACTS));
+        }
+
+        try (FileReplicaStore store = new FileReplicaStore(replicaConfig)) {
+            assertEquals(Set.of("1", "2", "3"), store.ids(ObjectType.CONTACTS));
+            assertEquals("v2", name(store.get(ObjectType.CONTACTS, "1")));
+            assertEquals("c1", name(store.get(ObjectType.CONTACTS, "3")));
+        }
+    }
+
+    private void writeThreeContacts() throws IOException {
+        try (FileReplicaStore store = new FileReplicaStore(replicaConfig)) {
+            store.upsert(ObjectType.CONTACTS, contact("1", BASE, "a"));
+            store.upsert(ObjectType.CONTACTS, contact("2", BASE, "b"));
+            store.upsert(ObjectType.CONTACTS, contact("3", BASE, "c"));
+        }
+    }
+
+    /**
+     * 最后一条记录被截掉后，前两条仍然可读，之后写入的记录追加在截断的位置
+     */
+    private void assertRecoveredFirstTwo() throws IOException {
+        try (FileReplicaStore store = new FileReplicaStore(replicaConfig)) {
+            assertEquals(Set.of("1", "2"), store.ids(ObjectType.CONTACTS));
+            assertEquals("b", name(store.get(ObjectType.CONTACTS, "2")));
+            assertNull(store.get(ObjectType.CONTACTS, "3"));
+            assertTrue(store.upsert(ObjectType.CONTACTS, contact("3", BASE, "c")));
+        }
+        try (FileReplicaStore store = new FileReplicaStore(replicaConfig)) {
+            assertEquals(3, store.count(ObjectType.CONTACTS));
+            assertEquals("c", name(store.get(ObjectType.CONTACTS, "3")));
+        }
+    }
+
+    private static void assertLiveData(FileReplicaStore store) {
+        assertEquals(Set.of("1", "2"), store.ids(ObjectType.CONTACTS));
+        assertEquals("v4", name(store.get(ObjectType.CONTACTS, "1")));
+        assertEquals("live", name(store.get(ObjectType.CONTACTS, "2")));
+        assertEquals(2, store.count(ObjectType.CONTACTS));
+    }
+
+    private Path logFile() {
+        return tempDir.resolve("contacts.log");
+    }
+
+    private Path compactedFile() {
+        return tempDir.resolve("contacts.log.compact");
+    }
+
+    private long logSize() throws IOException {
+        return Files.size(logFile());
+    }
+
+    private static Contact contact(String id, long version, String name) {
+        Contact contact = new Contact();
+        contact.setId(id);
+        contact.setUpdatedAt(Instant.ofEpochMilli(version).toString());
+        contact.setProperties(Map.of("name", name));
+        return contact;
+    }
+
+    private static String name(HubSpotObject object) {
+        return (String) object.getProperties().get("name");
+    }
+}
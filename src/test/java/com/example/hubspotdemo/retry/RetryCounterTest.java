@@ -0,0 +1,55 @@
+package com.example.hubspotdemo.retry;
+
+import com.example.hubspotdemo.config.RetryConfig;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * 按任务统计重试次数的测试
+ */
+class RetryCounterTest {
+
+    private final RetryPolicy retryPolicy = new RetryPolicy(new RetryConfig());
+
+    @Test
+    void countsOnlyRetriesScheduledUnderTheBoundCounter() {
+        LongAdder first = new LongAdder();
+        LongAdder second = new LongAdder();
+
+        RetryCounter.runWith(first, () -> scheduleRetries(3));
+        CompletableFuture.runAsync(() -> RetryCounter.runWith(second, () -> scheduleRetries(2))).join();
+        // 未绑定计数器的重试只计入进程级的总数
+        scheduleRetries(4);
+
+        assertEquals(3, first.sum());
+        assertEquals(2, second.sum());
+        assertEquals(9, retryPolicy.getRetryCount());
+        assertNull(RetryCounter.current());
+    }
+
+    @Test
+    void restoresOuterCounterAfterNestedTask() {
+        LongAdder outer = new LongAdder();
+        LongAdder inner = new LongAdder();
+
+        RetryCounter.runWith(outer, () -> {
+            RetryCounter.runWith(inner, () -> scheduleRetries(1));
+            scheduleRetries(1);
+        });
+
+        assertEquals(1, outer.sum());
+        assertEquals(1, inner.sum());
+    }
+
+    private void scheduleRetries(int count) {
+        long deadline = retryPolicy.deadline();
+        for (int i = 0; i < count; i++) {
+            retryPolicy.delayForStatus(1, 429, true, null, deadline);
+        }
+    }
+}
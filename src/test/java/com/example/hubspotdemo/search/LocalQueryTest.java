@@ -0,0 +1,185 @@
+package com.example.hubspotdemo.search;
+
+import com.example.hubspotdemo.model.Contact;
+import com.example.hubspotdemo.model.HubSpotObject;
+import com.example.hubspotdemo.model.HubSpotPropertiesResponse;
+import com.example.hubspotdemo.model.HubSpotProperty;
+import com.example.hubspotdemo.model.PropertySchema;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 本地搜索条件的测试
+ */
+class LocalQueryTest {
+
+    // 数字、时间、字符串以及看起来像数字的字符串混在同一个属性中
+    private static final String[] MIXED_VALUES = {
+            "1", "2", "10", "-3.5", "1.0", "01", "+2", "1a", "2b", "10x", "abc", "ABC", "x y", "1700000000000",
+            "2024-05-01", "2024-05-01T10:15:30Z", "2024-05-01T12:15:30+02:00", "2023-01-01", "2024-13-01",
+            "true", "false", "9999999999999999999"
+    };
+
+    @Test
+    void sortByMixedValuesIsTotalOrder() {
+        Random random = new Random(17);
+        SearchSort sort = new SearchSort();
+        sort.setPropertyName("zip");
+        LocalQuery query = LocalQuery.compile(null, List.of(sort));
+
+        for (int round = 0; round < 20; round++) {
+            List<HubSpotObject> objects = new ArrayList<>();
+            for (int i = 0; i < 2000; i++) {
+                String value = random.nextInt(10) == 0
+                        ? Integer.toString(random.nextInt(100)) + (char) ('a' + random.nextInt(3))
+                        : MIXED_VALUES[random.nextInt(MIXED_VALUES.length)];
+                objects.add(contact(String.valueOf(i), Map.of("zip", value)));
+            }
+            // 不满足传递性时 List.sort 可能抛出 "Comparison method violates its general contract"
+            objects.sort(query.order());
+            assertSorted(objects, query.order());
+        }
+    }
+
+    @Test
+    void sortPutsNumbersBeforeDatesBeforeStrings() {
+        SearchSort sort = new SearchSort();
+        sort.setPropertyName("zip");
+        LocalQuery query = LocalQuery.compile(null, List.of(sort));
+        List<HubSpotObject> objects = new ArrayList<>(List.of(
+                contact("1", Map.of("zip", "1a")),
+                contact("2", Map.of("zip", "2024-05-01")),
+                contact("3", Map.of("zip", "10")),
+                contact("4", Map.of("zip", "2")),
+                contact("5", Map.of())));
+        objects.sort(query.order());
+        assertEquals(List.of("4", "3", "2", "1", "5"), objects.stream().map(HubSpotObject::getId).toList());
+    }
+
+    @Test
+    void sortOrderIsTransitive() {
+        SearchSort sort = new SearchSort();
+        sort.setPropertyName("zip");
+        Comparator<HubSpotObject> order = LocalQuery.compile(null, List.of(sort)).order();
+        List<HubSpotObject> objects = new ArrayList<>();
+        for (int i = 0; i < MIXED_VALUES.length; i++) {
+            objects.add(contact(String.valueOf(i), Map.of("zip", MIXED_VALUES[i])));
+        }
+        for (HubSpotObject a : objects) {
+            for (HubSpotObject b : objects) {
+                assertEquals(Integer.signum(order.compare(a, b)), -Integer.signum(order.compare(b, a)));
+                for (HubSpotObject c : objects) {
+                    if (order.compare(a, b) <= 0 && order.compare(b, c) <= 0) {
+                        assertTrue(order.compare(a, c) <= 0, a.getProperties() + " <= " + b.getProperties()
+                                + " <= " + c.getProperties());
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void compactPropertiesGiveSameResultsAsPlainProperties() {
+        String[] types = {"number", "datetime", "date", "bool", "enumeration", "string"};
+        String[] values = {
+                "1", "2", "10", "-3.5", "1.0", "01", "0", "+2", "1700000000000", "1700000000001", "12.25",
+                "2024-05-01", "2024-05-01T10:15:30Z", "2024-05-01T10:15:30.123Z", "2024-05-01T12:15:30+02:00",
+                "2023-01-01", "true", "false", "TRUE", "False", "option_1", "Option_1", "abc", "x y",
+                "9999999999999999999", "2024-13-01", ""
+        };
+        List<HubSpotProperty> properties = new ArrayList<>();
+        for (int i = 0; i < types.length; i++) {
+            HubSpotProperty property = new HubSpotProperty();
+            property.setName("p" + i);
+            property.setType(types[i]);
+            if ("enumeration".equals(types[i])) {
+                property.setOptions(List.of(Map.of("value", "option_1"), Map.of("value", "Option_1"),
+                        Map.of("value", "abc")));
+            }
+            properties.add(property);
+        }
+        HubSpotPropertiesResponse response = new HubSpotPropertiesResponse();
+        response.setResults(properties);
+        PropertySchema schema = PropertySchema.of(response);
+
+        Random random = new Random(7);
+        List<HubSpotObject> plain = new ArrayList<>();
+        List<HubSpotObject> compact = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            Map<String, Object> objectValues = new LinkedHashMap<>();
+            for (int k = 0; k < types.length; k++) {
+                if (random.nextInt(6) > 0) {
+                    objectValues.put("p" + k, values[random.nextInt(values.length)]);
+                }
+            }
+            plain.add(contact(String.valueOf(i), objectValues));
+            Contact compacted = contact(String.valueOf(i), objectValues);
+            compacted.compactProperties(schema);
+            compact.add(compacted);
+        }
+
+        String[] operators = {"EQ", "NEQ", "LT", "LTE", "GT", "GTE", "BETWEEN", "IN", "NOT_IN", "HAS_PROPERTY"};
+        for (int i = 0; i < 3000; i++) {
+            SearchFilter filter = new SearchFilter();
+            filter.setPropertyName("p" + random.nextInt(types.length));
+            filter.setOperator(operators[random.nextInt(operators.length)]);
+            // 条件值不使用空字符串
+            filter.setValue(values[random.nextInt(values.length - 1)]);
+            filter.setHighValue(values[random.nextInt(values.length - 1)]);
+            filter.setValues(List.of(values[random.nextInt(values.length - 1)],
+                    values[random.nextInt(values.length - 1)]));
+            SearchFilterGroup group = new SearchFilterGroup();
+            group.setFilters(List.of(filter));
+            SearchSort sort = new SearchSort();
+            sort.setPropertyName("p" + random.nextInt(types.length));
+            sort.setDirection(random.nextBoolean() ? "ASCENDING" : "DESCENDING");
+            LocalQuery query = LocalQuery.compile(List.of(group), List.of(sort));
+            assertEquals(search(query, plain), search(query, compact), filter.getPropertyName() + " "
+                    + filter.getOperator() + " " + filter.getValue() + "，按 " + sort.getPropertyName() + " 排序");
+        }
+
+        for (int i = 0; i < plain.size(); i++) {
+            for (int k = 0; k < types.length; k++) {
+                String value = PropertyValues.value(plain.get(i), "p" + k);
+                if (value != null) {
+                    assertEquals(PropertyValues.orderKey(value),
+                            PropertyValues.orderKey(compact.get(i), "p" + k, value), value);
+                }
+            }
+        }
+    }
+
+    private static List<String> search(LocalQuery query, List<HubSpotObject> objects) {
+        List<HubSpotObject> matched = new ArrayList<>();
+        for (HubSpotObject object : objects) {
+            if (query.matches(object)) {
+                matched.add(object);
+            }
+        }
+        matched.sort(query.order());
+        return matched.stream().map(HubSpotObject::getId).toList();
+    }
+
+    private static void assertSorted(List<HubSpotObject> objects, Comparator<HubSpotObject> order) {
+        for (int i = 1; i < objects.size(); i++) {
+            assertTrue(order.compare(objects.get(i - 1), objects.get(i)) <= 0, "第 " + i + " 个对象顺序错误");
+        }
+    }
+
+    private static Contact contact(String id, Map<String, Object> properties) {
+        Contact contact = new Contact();
+        contact.setId(id);
+        contact.setProperties(new HashMap<>(properties));
+        return contact;
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.hubspotdemo.service.impl;
+
+import com.example.hubspotdemo.cache.HubSpotPropertiesCache;
+import com.example.hubspotdemo.config.HubSpotConfig;
+import com.example.hubspotdemo.config.ProjectionConfig;
+import com.example.hubspotdemo.config.RetryConfig;
+import com.example.hubspotdemo.model.Contact;
+import com.example.hubspotdemo.model.HubSpotObject;
+import com.example.hubspotdemo.model.HubSpotResponse;
+import com.example.hubspotdemo.projection.PropertyProjectionRegistry;
+import com.example.hubspotdemo.retry.RetryPolicy;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.queryParam;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+/**
+ * 通用对象服务分页获取的测试，HubSpot 接口由 MockRestServiceServer 模拟
+ */
+class GenericHubSpotServiceImplTest {
+
+    private static final String BASE_URL = "https://api.hubapi.test";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private MockRestServiceServer server;
+    private ContactServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        RestTemplate restTemplate = new RestTemplate();
+        server = MockRestServiceServer.bindTo(restTemplate).build();
+        HubSpotConfig hubSpotConfig = new HubSpotConfig();
+        hubSpotConfig.setBaseUrl(BASE_URL);
+        hubSpotConfig.setStreamingDecode(false);
+        hubSpotConfig.setCompactProperties(false);
+        HubSpotPropertiesCache propertiesCache = new HubSpotPropertiesCache();
+        service = new ContactServiceImpl(restTemplate, hubSpotConfig, objectMapper, propertiesCache);
+        service.setTaskExecutor(executor);
+        service.setRetryPolicy(new RetryPolicy(new RetryConfig()));
+        service.setProjectionRegistry(new PropertyProjectionRegistry(propertiesCache, new ProjectionConfig()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void getAllObjectsRequestsOnlyWhatIsMissingAndKeepsCursor() throws Exception {
+        expectPage(null, 100, 0, "100");
+        expectPage("100", 100, 100, "200");
+        // 最后一页只请求还差的 50 条，返回的游标指向第 251 条
+        expectPage("200", 50, 200, "250");
+
+        HubSpotResponse<Contact> response = service.getAllObjects(List.of("email"), 250);
+
+        server.verify();
+        List<String> ids = response.getResults().stream().map(HubSpotObject::getId).toList();
+        assertEquals(250, ids.size());
+        assertEquals("0", ids.get(0));
+        assertEquals("249", ids.get(249));
+        assertEquals("250", response.getPagingInfo().getNext().getAfter());
+    }
+
+    @Test
+    void getAllObjectsDropsCursorWhenPageIsTruncated() throws Exception {
+        // 接口返回的数据多于请求的数量时只能截断，游标会跳过截掉的数据，因此不返回游标
+        server.expect(requestTo(startsWith(BASE_URL + "/crm/v3/objects/contacts")))
+                .andExpect(queryParam("limit", "10"))
+                .andRespond(withSuccess(page(0, 15, "15"), MediaType.APPLICATION_JSON));
+
+        HubSpotResponse<Contact> response = service.getAllObjects(List.of("email"), 10);
+
+        server.verify();
+        assertEquals(10, response.getResults().size());
+        assertNull(response.getPagingInfo());
+    }
+
+    private void expectPage(String after, int limit, int firstId, String nextAfter) throws Exception {
+        var request = server.expect(requestTo(startsWith(BASE_URL + "/crm/v3/objects/contacts")))
+                .andExpect(queryParam("limit", String.valueOf(limit)));
+        if (after != null) {
+            request = request.andExpect(queryParam("after", after));
+        }
+        request.andRespond(withSuccess(page(firstId, limit, nextAfter), MediaType.APPLICATION_JSON));
+    }
+
+    private String page(int firstId, int count, String nextAfter) throws Exception {
+        List<Map<String, Object>> results = new ArrayList<>();
+        for (int i = firstId; i < firstId + count; i++) {
+            results.add(Map.of("id", String.valueOf(i), "properties", Map.of("email", "user" + i + "@example.com")));
+        }
+        return objectMapper.writeValueAsString(Map.of("results", results,
+                "paging", Map.of("next", Map.of("after", nextAfter))));
+    }
+}
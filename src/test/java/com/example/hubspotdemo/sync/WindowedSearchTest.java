@@ -0,0 +1,229 @@
+package com.example.hubspotdemo.sync;
+
+import com.example.hubspotdemo.cache.HubSpotObjectCache;
+import com.example.hubspotdemo.cache.HubSpotPropertiesCache;
+import com.example.hubspotdemo.cache.HubSpotPropertiesCache.ObjectType;
+import com.example.hubspotdemo.config.ObjectCacheConfig;
+import com.example.hubspotdemo.config.ProjectionConfig;
+import com.example.hubspotdemo.config.SyncConfig;
+import com.example.hubspotdemo.exception.HubSpotApiException;
+import com.example.hubspotdemo.model.Contact;
+import com.example.hubspotdemo.model.HubSpotObject;
+import com.example.hubspotdemo.model.HubSpotResponse;
+import com.example.hubspotdemo.projection.PropertyProjection;
+import com.example.hubspotdemo.projection.PropertyProjectionRegistry;
+import com.example.hubspotdemo.replica.MemoryReplicaStore;
+import com.example.hubspotdemo.service.GenericHubSpotService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.lang.reflect.Proxy;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 按时间窗口键集分页扫描和增量同步水位线的测试，HubSpot 搜索接口由内存中的对象列表模拟
+ */
+class WindowedSearchTest {
+
+    private static final String DATE = "lastmodifieddate";
+    private static final long BASE = 1_700_000_000_000L;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void readsWindowWithMoreThanSearchLimitExactlyOnce() {
+        // 每毫秒 3 个对象，200 条一页时页的边界落在同一毫秒的对象之间
+        List<Contact> contacts = new ArrayList<>();
+        for (int i = 0; i < 12_000; i++) {
+            contacts.add(contact(i + 1, BASE + i / 3));
+        }
+        FakeSearch search = new FakeSearch(contacts);
+
+        List<String> read = new ArrayList<>();
+        List<Long> checkpoints = new ArrayList<>();
+        int queries = new WindowedSearch(new SyncConfig()).scan(ObjectType.CONTACTS, search.service(), List.of(),
+                DATE, BASE, BASE + 10_000, page -> page.forEach(contact -> read.add(contact.getId())),
+                checkpoints::add);
+
+        assertEquals(12_000, read.size());
+        assertEquals(12_000, new HashSet<>(read).size());
+        assertEquals(queries, search.queries);
+        assertTrue(queries > 60);
+        assertSortedAndEndsAt(checkpoints, BASE + 3_999);
+    }
+
+    @Test
+    void pagesThroughMillisecondWithMoreThanOnePage() {
+        List<Contact> contacts = new ArrayList<>();
+        long id = 1;
+        for (int i = 0; i < 150; i++) {
+            contacts.add(contact(id++, BASE + i));
+        }
+        // 450 个对象在同一毫秒，超过一页，只能在这一毫秒内按 hs_object_id 分页
+        for (int i = 0; i < 450; i++) {
+            contacts.add(contact(id++, BASE + 500));
+        }
+        for (int i = 0; i < 150; i++) {
+            contacts.add(contact(id++, BASE + 501 + i));
+        }
+        FakeSearch search = new FakeSearch(contacts);
+
+        List<String> read = new ArrayList<>();
+        List<Long> checkpoints = new ArrayList<>();
+        new WindowedSearch(new SyncConfig()).scan(ObjectType.CONTACTS, search.service(), List.of(), DATE,
+                BASE, BASE + 1_000, page -> page.forEach(contact -> read.add(contact.getId())), checkpoints::add);
+
+        assertEquals(750, read.size());
+        assertEquals(750, new HashSet<>(read).size());
+        assertSortedAndEndsAt(checkpoints, BASE + 650);
+    }
+
+    @Test
+    void watermarkOnlyAdvancesToLastDateRead() {
+        long start = System.currentTimeMillis() - 3_600_000;
+        List<Contact> contacts = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            contacts.add(contact(i + 1, start + i / 2));
+        }
+        FakeSearch search = new FakeSearch(contacts);
+        search.failAtQuery = 4;
+
+        SyncConfig syncConfig = new SyncConfig();
+        syncConfig.setSearchPageSize(50);
+        syncConfig.setStateFile(tempDir.resolve("sync-state.json").toString());
+        SyncStateStore stateStore = new SyncStateStore(syncConfig, new ObjectMapper());
+        MemoryReplicaStore replicaStore = new MemoryReplicaStore();
+        IncrementalSynchronizer synchronizer = new IncrementalSynchronizer(replicaStore, stateStore, syncConfig,
+                projectionRegistry(), objectCache());
+
+        // 第 4 次查询失败，水位线停在前 3 页读到的最后一条的修改时间
+        assertThrows(HubSpotApiException.class, () -> synchronizer.sync(ObjectType.CONTACTS, search.service()));
+        assertEquals(start + 72, stateStore.getWatermark(ObjectType.CONTACTS));
+        assertEquals(146, replicaStore.count(ObjectType.CONTACTS));
+
+        // 重新同步从水位线之前的重叠时间开始，补齐剩下的对象，水位线是最后一条的修改时间而不是同步开始的时间
+        search.failAtQuery = -1;
+        IncrementalSynchronizer.Result result = synchronizer.sync(ObjectType.CONTACTS, search.service());
+        assertEquals(500, replicaStore.count(ObjectType.CONTACTS));
+        assertEquals(start + 249, result.watermark());
+        assertEquals(start + 249, stateStore.getWatermark(ObjectType.CONTACTS));
+    }
+
+    private static void assertSortedAndEndsAt(List<Long> checkpoints, long last) {
+        for (int i = 1; i < checkpoints.size(); i++) {
+            assertTrue(checkpoints.get(i) >= checkpoints.get(i - 1));
+        }
+        assertEquals(last, checkpoints.get(checkpoints.size() - 1));
+    }
+
+    private static PropertyProjectionRegistry projectionRegistry() {
+        return new PropertyProjectionRegistry(new HubSpotPropertiesCache(), new ProjectionConfig()) {
+            @Override
+            public PropertyProjection getAllProperties(ObjectType objectType) {
+                return PropertyProjection.DEFAULT;
+            }
+        };
+    }
+
+    private static HubSpotObjectCache objectCache() {
+        HubSpotObjectCache cache = new HubSpotObjectCache(new ObjectCacheConfig(), new HubSpotPropertiesCache(),
+                new SimpleMeterRegistry());
+        cache.init();
+        return cache;
+    }
+
+    private static Contact contact(long id, long modifiedAt) {
+        Contact contact = new Contact();
+        contact.setId(String.valueOf(id));
+        contact.setUpdatedAt(Instant.ofEpochMilli(modifiedAt).toString());
+        contact.setProperties(Map.of(DATE, String.valueOf(modifiedAt), "hs_object_id", String.valueOf(id)));
+        return contact;
+    }
+
+    /**
+     * 模拟 HubSpot 搜索接口：支持 GTE、LTE、GT、EQ 过滤和单个属性升序排序，
+     * 排序值相同的对象按 ID 降序返回，偏移量不能超过 10000
+     */
+    private static final class FakeSearch {
+
+        private static final int MAX_OFFSET = 10_000;
+
+        final List<Contact> contacts;
+        int queries;
+        int failAtQuery = -1;
+
+        FakeSearch(List<Contact> contacts) {
+            this.contacts = contacts;
+        }
+
+        @SuppressWarnings("unchecked")
+        GenericHubSpotService<Contact> service() {
+            return (GenericHubSpotService<Contact>) Proxy.newProxyInstance(getClass().getClassLoader(),
+                    new Class<?>[] {GenericHubSpotService.class}, (proxy, method, args) -> {
+                        if (method.getName().equals("searchObjects") && args.length == 5) {
+                            return search((List<Map<String, Object>>) args[0],
+                                    (List<Map<String, Object>>) args[1], (Integer) args[3], (String) args[4]);
+                        }
+                        throw new UnsupportedOperationException(method.getName());
+                    });
+        }
+
+        @SuppressWarnings("unchecked")
+        private HubSpotResponse<Contact> search(List<Map<String, Object>> filterGroups,
+                                                List<Map<String, Object>> sorts, int limit, String after) {
+            queries++;
+            if (queries == failAtQuery) {
+                throw new HubSpotApiException("模拟搜索失败", 502, null);
+            }
+            int offset = after != null ? Integer.parseInt(after) : 0;
+            if (offset + limit > MAX_OFFSET) {
+                throw new HubSpotApiException("搜索结果超过上限", 400, null);
+            }
+            List<Map<String, Object>> filters = (List<Map<String, Object>>) filterGroups.get(0).get("filters");
+            String sortProperty = (String) sorts.get(0).get("propertyName");
+            List<Contact> matched = new ArrayList<>();
+            for (Contact contact : contacts) {
+                if (filters.stream().allMatch(filter -> matches(contact, filter))) {
+                    matched.add(contact);
+                }
+            }
+            matched.sort(Comparator.comparingLong((Contact contact) -> value(contact, sortProperty))
+                    .thenComparing(Comparator.comparingLong((Contact contact) -> Long.parseLong(contact.getId()))
+                            .reversed()));
+
+            HubSpotResponse<Contact> response = new HubSpotResponse<>();
+            response.setResults(new ArrayList<>(matched.subList(Math.min(offset, matched.size()),
+                    Math.min(offset + limit, matched.size()))));
+            return response;
+        }
+
+        private static boolean matches(Contact contact, Map<String, Object> filter) {
+            long actual = value(contact, (String) filter.get("propertyName"));
+            long expected = Long.parseLong((String) filter.get("value"));
+            return switch ((String) filter.get("operator")) {
+                case "GTE" -> actual >= expected;
+                case "LTE" -> actual <= expected;
+                case "GT" -> actual > expected;
+                case "EQ" -> actual == expected;
+                default -> throw new UnsupportedOperationException((String) filter.get("operator"));
+            };
+        }
+
+        private static long value(HubSpotObject object, String property) {
+            return Long.parseLong((String) object.getProperties().get(property));
+        }
+    }
+}